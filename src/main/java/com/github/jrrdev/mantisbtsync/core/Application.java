@@ -25,7 +25,6 @@ package com.github.jrrdev.mantisbtsync.core;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
-import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -39,7 +38,6 @@ import com.github.jrrdev.mantisbtsync.core.common.CommonConfiguration;
  *
  */
 @Configuration
-@EnableCaching
 @EnableAutoConfiguration
 @Import(CommonConfiguration.class)
 @ComponentScan({
@@ -25,9 +25,11 @@ package com.github.jrrdev.mantisbtsync.core.common;
 
 import javax.sql.DataSource;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 /**
  * Common configuration for the app.
@@ -42,4 +44,92 @@ public class CommonConfiguration {
 	public JdbcTemplate jdbcTemplate(final DataSource dataSource) {
 		return new JdbcTemplate(dataSource);
 	}
+
+	/**
+	 * Build the executor used to send concurrent WS calls.
+	 *
+	 * @param threads
+	 * 			Number of threads
+	 * @return the executor
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor mantisFetchExecutor(@Value("${mantis.fetch.threads:4}") final int threads) {
+		final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setThreadNamePrefix("mantis-fetch-");
+		return executor;
+	}
+
+	/**
+	 * Build the executor running the chunks of the multi-threaded steps.
+	 * Kept apart from the fetch executor since the chunks wait for the WS calls.
+	 *
+	 * @param threads
+	 * 			Number of threads
+	 * @return the executor
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor mantisChunkExecutor(@Value("${mantis.issues.threads:1}") final int threads) {
+		final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setThreadNamePrefix("mantis-chunk-");
+		return executor;
+	}
+
+	/**
+	 * Build the executor running the partitions of the partitioned steps.
+	 * The partitions waiting for a thread are queued, so each thread takes
+	 * the next partition as soon as it is done with one.
+	 *
+	 * @param threads
+	 * 			Number of threads
+	 * @return the executor
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor mantisPartitionExecutor(
+			@Value("${mantis.issues.partition_threads:4}") final int threads) {
+
+		final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setThreadNamePrefix("mantis-partition-");
+		return executor;
+	}
+
+	/**
+	 * Build the executor running the partitions of the projects sync,
+	 * one partition per project.
+	 *
+	 * @param gridSize
+	 * 			Number of projects synced concurrently
+	 * @return the executor
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor mantisProjectsExecutor(
+			@Value("${mantis.projects.grid_size:0}") final int gridSize) {
+
+		final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(Math.max(1, gridSize));
+		executor.setMaxPoolSize(Math.max(1, gridSize));
+		executor.setThreadNamePrefix("mantis-project-");
+		return executor;
+	}
+
+	/**
+	 * Build the executor running the steps of the enumerations sync concurrently.
+	 *
+	 * @param threads
+	 * 			Number of threads
+	 * @return the executor
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor mantisEnumsExecutor(@Value("${mantis.enums.threads:10}") final int threads) {
+		final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setThreadNamePrefix("mantis-enums-");
+		return executor;
+	}
 }
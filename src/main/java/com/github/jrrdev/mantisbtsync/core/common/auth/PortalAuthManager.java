@@ -58,6 +58,11 @@ public class PortalAuthManager {
 	 */
 	private AbstractAuthHttpRequest firstRequest = null;
 
+	/**
+	 * Cookie store shared with the HTTP client used for the WS calls.
+	 */
+	private final CookieStore cookieStore = new BasicCookieStore();
+
 	/**
 	 * Authenfication cookie.
 	 */
@@ -83,10 +88,10 @@ public class PortalAuthManager {
 	 */
 	public ExitStatus authentificate() throws ClientProtocolException, IOException {
 		authCookie = null;
+		cookieStore.clear();
 
 		if (firstRequest != null) {
 
-			final CookieStore cookieStore = new BasicCookieStore();
 			client = HttpClients.custom().setDefaultCookieStore(cookieStore)
 					.setRedirectStrategy(new LaxRedirectStrategy())
 					.useSystemProperties().build();
@@ -144,6 +149,13 @@ public class PortalAuthManager {
 		this.client = client;
 	}
 
+	/**
+	 * @return the cookieStore
+	 */
+	public CookieStore getCookieStore() {
+		return cookieStore;
+	}
+
 	/**
 	 * @return the firstRequest
 	 */
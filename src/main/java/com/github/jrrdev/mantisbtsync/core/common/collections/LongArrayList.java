@@ -0,0 +1,111 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.collections;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive longs, used to collect ids without
+ * boxing them.
+ *
+ * @author jrrdev
+ *
+ */
+public class LongArrayList {
+
+	/**
+	 * The values, only the first size ones are used.
+	 */
+	private long[] values;
+
+	/**
+	 * Number of values.
+	 */
+	private int size;
+
+	/**
+	 * Build an empty list.
+	 */
+	public LongArrayList() {
+		this(16);
+	}
+
+	/**
+	 * Build an empty list with the given capacity.
+	 *
+	 * @param capacity
+	 * 			Initial capacity
+	 */
+	public LongArrayList(final int capacity) {
+		values = new long[Math.max(1, capacity)];
+	}
+
+	/**
+	 * Add a value at the end of the list.
+	 *
+	 * @param value
+	 * 			The value
+	 */
+	public void add(final long value) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, size * 2);
+		}
+		values[size++] = value;
+	}
+
+	/**
+	 * Get a value.
+	 *
+	 * @param index
+	 * 			Index of the value
+	 * @return the value
+	 */
+	public long get(final int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return values[index];
+	}
+
+	/**
+	 * @return the number of values
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Remove all the values. The capacity is kept.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * @return a copy of the values
+	 */
+	public long[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * Processor running its delegate on a task executor, so the items of a chunk
+ * are processed concurrently. It returns a future of the result that must be
+ * unwrapped by an {@link AsyncItemWriter}.
+ * Works like the AsyncItemProcessor of Spring Batch Integration, except that
+ * the job context is registered in the worker threads too.
+ *
+ * By default, a {@link SyncTaskExecutor} is used and the items are processed
+ * in the chunk thread.
+ *
+ * @author jrrdev
+ *
+ */
+public class AsyncItemProcessor<I, O> implements ItemProcessor<I, Future<O>> {
+
+	/**
+	 * The processor doing the work.
+	 */
+	private ItemProcessor<I, O> delegate;
+
+	/**
+	 * Executor running the delegate.
+	 */
+	private TaskExecutor taskExecutor = new SyncTaskExecutor();
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemProcessor#process(java.lang.Object)
+	 */
+	@Override
+	public Future<O> process(final I item) throws Exception {
+		Assert.notNull(delegate);
+
+		final FutureTask<O> task = new FutureTask<O>(new ScopedCallable<O>(new Callable<O>() {
+
+			@Override
+			public O call() throws Exception {
+				return delegate.process(item);
+			}
+		}));
+
+		taskExecutor.execute(task);
+		return task;
+	}
+
+	/**
+	 * @return the delegate
+	 */
+	public ItemProcessor<I, O> getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * @param delegate the delegate to set
+	 */
+	public void setDelegate(final ItemProcessor<I, O> delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * @return the taskExecutor
+	 */
+	public TaskExecutor getTaskExecutor() {
+		return taskExecutor;
+	}
+
+	/**
+	 * @param taskExecutor the taskExecutor to set
+	 */
+	public void setTaskExecutor(final TaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+}
@@ -0,0 +1,126 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.util.Assert;
+
+/**
+ * Writer waiting for the results of an {@link AsyncItemProcessor} and passing
+ * them to its delegate in the chunk order. The items filtered by the processor
+ * (null results) are not written.
+ * If the delegate is an {@link ItemStream}, the stream calls are passed to it.
+ *
+ * @author jrrdev
+ *
+ */
+public class AsyncItemWriter<T> implements ItemWriter<Future<T>>, ItemStream {
+
+	/**
+	 * The writer doing the work.
+	 */
+	private ItemWriter<T> delegate;
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemWriter#write(java.util.List)
+	 */
+	@Override
+	public void write(final List<? extends Future<T>> items) throws Exception {
+		Assert.notNull(delegate);
+
+		final List<T> list = new ArrayList<T>(items.size());
+		for (final Future<T> future : items) {
+			try {
+				final T item = future.get();
+				if (item != null) {
+					list.add(item);
+				}
+
+			} catch (final ExecutionException e) {
+				if (e.getCause() instanceof Exception) {
+					throw (Exception) e.getCause();
+				}
+				throw e;
+			}
+		}
+
+		delegate.write(list);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemStream#open(org.springframework.batch.item.ExecutionContext)
+	 */
+	@Override
+	public void open(final ExecutionContext executionContext) throws ItemStreamException {
+		if (delegate instanceof ItemStream) {
+			((ItemStream) delegate).open(executionContext);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemStream#update(org.springframework.batch.item.ExecutionContext)
+	 */
+	@Override
+	public void update(final ExecutionContext executionContext) throws ItemStreamException {
+		if (delegate instanceof ItemStream) {
+			((ItemStream) delegate).update(executionContext);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemStream#close()
+	 */
+	@Override
+	public void close() throws ItemStreamException {
+		if (delegate instanceof ItemStream) {
+			((ItemStream) delegate).close();
+		}
+	}
+
+	/**
+	 * @return the delegate
+	 */
+	public ItemWriter<T> getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * @param delegate the delegate to set
+	 */
+	public void setDelegate(final ItemWriter<T> delegate) {
+		this.delegate = delegate;
+	}
+}
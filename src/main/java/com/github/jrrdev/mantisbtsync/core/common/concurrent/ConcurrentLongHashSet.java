@@ -0,0 +1,266 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Set of primitive longs, using open addressing with linear probing
+ * in an {@link AtomicLongArray}.
+ *
+ * Lookups never lock and insertions are done by compare-and-set on the slot.
+ * Only the growth of the table is serialized : the empty slots of the
+ * old table are marked as moved while its keys are copied, so the threads
+ * trying to insert in it wait for the new table and retry there.
+ *
+ * The keys 0 and {@link Long#MIN_VALUE} are reserved.
+ *
+ * @author jrrdev
+ *
+ */
+public class ConcurrentLongHashSet {
+
+	/**
+	 * Value of an empty slot.
+	 */
+	private static final long EMPTY = 0L;
+
+	/**
+	 * Value of an empty slot of a table being copied.
+	 */
+	private static final long MOVED = Long.MIN_VALUE;
+
+	/**
+	 * Minimal length of the table.
+	 */
+	private static final int MIN_CAPACITY = 16;
+
+	/**
+	 * Current table, its length is a power of two.
+	 */
+	private volatile AtomicLongArray table;
+
+	/**
+	 * Number of keys.
+	 */
+	private final AtomicInteger size = new AtomicInteger();
+
+	/**
+	 * Build a set for 16 keys, it grows as needed.
+	 */
+	public ConcurrentLongHashSet() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * Build a set sized for the given number of keys, it grows as needed.
+	 *
+	 * @param expectedSize
+	 * 			Expected number of keys
+	 */
+	public ConcurrentLongHashSet(final int expectedSize) {
+		table = new AtomicLongArray(getCapacity(expectedSize));
+	}
+
+	/**
+	 * Check if the set contains a key.
+	 *
+	 * @param key
+	 * 			The key
+	 * @return true if the set contains the key
+	 */
+	public boolean contains(final long key) {
+		checkKey(key);
+
+		AtomicLongArray tab = table;
+		while (true) {
+			final int mask = tab.length() - 1;
+			int index = hash(key) & mask;
+			for (int probes = 0; probes < tab.length(); probes++) {
+				final long value = tab.get(index);
+				if (value == key) {
+					return true;
+				} else if (value == EMPTY) {
+					break;
+				}
+				index = (index + 1) & mask;
+			}
+
+			// The key may have been added in a new table
+			final AtomicLongArray current = table;
+			if (current == tab) {
+				return false;
+			}
+			tab = current;
+		}
+	}
+
+	/**
+	 * Add a key to the set.
+	 *
+	 * @param key
+	 * 			The key
+	 * @return true if the key wasn't in the set
+	 */
+	public boolean add(final long key) {
+		checkKey(key);
+
+		while (true) {
+			final AtomicLongArray tab = table;
+			final int mask = tab.length() - 1;
+			int index = hash(key) & mask;
+			int probes = 0;
+
+			while (probes < tab.length()) {
+				final long value = tab.get(index);
+				if (value == key) {
+					return false;
+
+				} else if (value == EMPTY) {
+					if (tab.compareAndSet(index, EMPTY, key)) {
+						if (size.incrementAndGet() > getThreshold(tab)) {
+							resize(tab);
+						}
+						return true;
+					}
+					// Lost the slot, read it again
+
+				} else if (value == MOVED) {
+					break;
+
+				} else {
+					index = (index + 1) & mask;
+					probes++;
+				}
+			}
+
+			// The table is full or being copied
+			resize(tab);
+		}
+	}
+
+	/**
+	 * @return the number of keys
+	 */
+	public int size() {
+		return size.get();
+	}
+
+	/**
+	 * Remove all the keys. The keys added concurrently may be lost.
+	 */
+	public void clear() {
+		synchronized (this) {
+			table = new AtomicLongArray(MIN_CAPACITY);
+			size.set(0);
+		}
+	}
+
+	/**
+	 * Replace the given table by a table twice as large.
+	 * Nothing is done if the table was already replaced.
+	 *
+	 * @param tab
+	 * 			The table to replace
+	 */
+	private void resize(final AtomicLongArray tab) {
+		synchronized (this) {
+			if (table != tab) {
+				return;
+			}
+
+			final AtomicLongArray newTab = new AtomicLongArray(tab.length() * 2);
+			final int mask = newTab.length() - 1;
+			for (int i = 0; i < tab.length(); i++) {
+				long value = tab.get(i);
+				while (value == EMPTY) {
+					if (tab.compareAndSet(i, EMPTY, MOVED)) {
+						break;
+					}
+					value = tab.get(i);
+				}
+
+				if (value != EMPTY && value != MOVED) {
+					int index = hash(value) & mask;
+					while (newTab.get(index) != EMPTY) {
+						index = (index + 1) & mask;
+					}
+					newTab.set(index, value);
+				}
+			}
+
+			table = newTab;
+		}
+	}
+
+	/**
+	 * Check that the key isn't reserved.
+	 *
+	 * @param key
+	 * 			The key
+	 */
+	private static void checkKey(final long key) {
+		if (key == EMPTY || key == MOVED) {
+			throw new IllegalArgumentException("Reserved key : " + key);
+		}
+	}
+
+	/**
+	 * Spread the bits of the key.
+	 *
+	 * @param key
+	 * 			The key
+	 * @return the hash of the key
+	 */
+	private static int hash(final long key) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+	}
+
+	/**
+	 * Maximal number of keys before the growth of a table, 3/4 of its length.
+	 *
+	 * @param tab
+	 * 			The table
+	 * @return the threshold
+	 */
+	private static int getThreshold(final AtomicLongArray tab) {
+		return tab.length() - (tab.length() >>> 2);
+	}
+
+	/**
+	 * Length of a table able to contain the given number of keys.
+	 *
+	 * @param expectedSize
+	 * 			Expected number of keys
+	 * @return a power of two
+	 */
+	private static int getCapacity(final int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity - (capacity >>> 2) < expectedSize) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+}
@@ -0,0 +1,147 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.concurrent;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+
+/**
+ * Window of WS calls executed concurrently on a task executor.
+ * Results are handed back in the submission order, whatever the order
+ * in which the calls complete.
+ *
+ * The calls are run through a {@link ScopedCallable}, so step and job scoped
+ * beans (like the client stub) can be used by the calls.
+ *
+ * The window doesn't bound the duration of a call: a blocked socket read can't
+ * be interrupted, so the calls must rely on the timeout of their transport.
+ *
+ * @author jrrdev
+ *
+ */
+public class FetchWindow<T> {
+
+	/**
+	 * Executor running the calls.
+	 */
+	private final AsyncTaskExecutor taskExecutor;
+
+	/**
+	 * Maximum number of calls in flight.
+	 */
+	private final int size;
+
+	/**
+	 * Calls in flight, in submission order.
+	 */
+	private final Deque<Future<T>> pending = new ArrayDeque<Future<T>>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param taskExecutor
+	 * 			Executor running the calls
+	 * @param size
+	 * 			Maximum number of calls in flight
+	 */
+	public FetchWindow(final AsyncTaskExecutor taskExecutor, final int size) {
+		this.taskExecutor = taskExecutor;
+		this.size = size;
+	}
+
+	/**
+	 * Submit a call.
+	 *
+	 * @param call
+	 * 			The call
+	 */
+	public void submit(final Callable<T> call) {
+		pending.add(taskExecutor.submit(new ScopedCallable<T>(call)));
+	}
+
+	/**
+	 * Wait for the result of the oldest call in flight.
+	 *
+	 * @return the result, null if there isn't any call in flight
+	 * @throws Exception
+	 * 			The exception thrown by the call
+	 */
+	public T take() throws Exception {
+		final Future<T> future = pending.poll();
+		if (future == null) {
+			return null;
+		}
+
+		try {
+			return future.get();
+
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
+
+		} catch (final Exception e) {
+			future.cancel(true);
+			throw e;
+		}
+	}
+
+	/**
+	 * Cancel all the calls in flight.
+	 */
+	public void cancelAll() {
+		Future<T> future = pending.poll();
+		while (future != null) {
+			future.cancel(true);
+			future = pending.poll();
+		}
+	}
+
+	/**
+	 * @return true if the maximum number of calls in flight is reached
+	 */
+	public boolean isFull() {
+		return pending.size() >= size;
+	}
+
+	/**
+	 * @return true if there isn't any call in flight
+	 */
+	public boolean isEmpty() {
+		return pending.isEmpty();
+	}
+
+	/**
+	 * @return the number of calls in flight
+	 */
+	public int getPendingCount() {
+		return pending.size();
+	}
+}
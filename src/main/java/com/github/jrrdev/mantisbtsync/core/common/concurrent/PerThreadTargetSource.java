@@ -0,0 +1,144 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.concurrent;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.aop.TargetSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectFactory;
+
+/**
+ * AOP target source giving each thread its own target, created on first use
+ * by the given factory. Used to give each worker thread its own client stub.
+ *
+ * The targets are dropped when the target source is destroyed, so the pooled
+ * threads don't keep the targets of a finished job.
+ *
+ * @author jrrdev
+ *
+ */
+public class PerThreadTargetSource implements TargetSource, DisposableBean {
+
+	/**
+	 * Class of the targets.
+	 */
+	private final Class<?> targetClass;
+
+	/**
+	 * Factory creating the targets.
+	 */
+	private final ObjectFactory<?> factory;
+
+	/**
+	 * Holder of the target of each thread.
+	 */
+	private final ThreadLocal<AtomicReference<Object>> targets = new ThreadLocal<AtomicReference<Object>>();
+
+	/**
+	 * Holders containing a target, emptied when the target source is destroyed.
+	 */
+	private final Set<AtomicReference<Object>> holders = new HashSet<AtomicReference<Object>>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param targetClass
+	 * 			Class of the targets
+	 * @param factory
+	 * 			Factory creating the targets
+	 */
+	public PerThreadTargetSource(final Class<?> targetClass, final ObjectFactory<?> factory) {
+		this.targetClass = targetClass;
+		this.factory = factory;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.aop.TargetSource#getTargetClass()
+	 */
+	@Override
+	public Class<?> getTargetClass() {
+		return targetClass;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.aop.TargetSource#isStatic()
+	 */
+	@Override
+	public boolean isStatic() {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.aop.TargetSource#getTarget()
+	 */
+	@Override
+	public Object getTarget() throws Exception {
+		AtomicReference<Object> holder = targets.get();
+		if (holder == null) {
+			holder = new AtomicReference<Object>();
+			targets.set(holder);
+		}
+
+		Object target = holder.get();
+		if (target == null) {
+			target = factory.getObject();
+			holder.set(target);
+			synchronized (holders) {
+				holders.add(holder);
+			}
+		}
+		return target;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.aop.TargetSource#releaseTarget(java.lang.Object)
+	 */
+	@Override
+	public void releaseTarget(final Object target) throws Exception {
+		// The target is kept for the next calls of the thread
+	}
+
+	/**
+	 * Drop the targets of all the threads.
+	 *
+	 * {@inheritDoc}
+	 * @see org.springframework.beans.factory.DisposableBean#destroy()
+	 */
+	@Override
+	public void destroy() throws Exception {
+		synchronized (holders) {
+			for (final AtomicReference<Object> holder : holders) {
+				holder.set(null);
+			}
+			holders.clear();
+		}
+	}
+}
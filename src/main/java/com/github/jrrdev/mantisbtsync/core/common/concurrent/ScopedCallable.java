@@ -0,0 +1,89 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.concurrent;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.JobSynchronizationManager;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+
+/**
+ * Callable running a task with the step and job contexts of the thread
+ * that created it, so step and job scoped beans (like the client stub)
+ * can be used from a worker thread.
+ *
+ * The contexts are only closed, not released, at the end of the task :
+ * releasing them would run the destruction callbacks of the scoped beans
+ * while the step is still running.
+ *
+ * @author jrrdev
+ *
+ */
+public class ScopedCallable<T> implements Callable<T> {
+
+	/**
+	 * The task.
+	 */
+	private final Callable<T> task;
+
+	/**
+	 * Step execution of the creating thread, null if it wasn't in a step.
+	 */
+	private final StepExecution stepExecution;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param task
+	 * 			The task
+	 */
+	public ScopedCallable(final Callable<T> task) {
+		this.task = task;
+
+		final StepContext context = StepSynchronizationManager.getContext();
+		this.stepExecution = (context == null) ? null : context.getStepExecution();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.Callable#call()
+	 */
+	@Override
+	public T call() throws Exception {
+		if (stepExecution == null) {
+			return task.call();
+		}
+
+		StepSynchronizationManager.register(stepExecution);
+		JobSynchronizationManager.register(stepExecution.getJobExecution());
+		try {
+			return task.call();
+		} finally {
+			JobSynchronizationManager.close();
+			StepSynchronizationManager.close();
+		}
+	}
+}
@@ -0,0 +1,162 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.hash;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+
+/**
+ * Deterministic SHA-1 fingerprint of a list of values.
+ * Each value is prefixed with its length, and null values have
+ * their own marker, so two different lists of values never
+ * produce the same input for the digest.
+ *
+ * Not thread-safe, an instance is meant to compute a single fingerprint.
+ *
+ * @author jrrdev
+ *
+ */
+public class Fingerprint {
+
+	/**
+	 * Hexadecimal digits.
+	 */
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/**
+	 * Length of a fingerprint in hexadecimal characters.
+	 */
+	public static final int LENGTH = 40;
+
+	/**
+	 * Digest of the values added so far.
+	 */
+	private final MessageDigest digest;
+
+	/**
+	 * Default constructor.
+	 */
+	public Fingerprint() {
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (final NoSuchAlgorithmException e) {
+			// SHA-1 is available on every JVM
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Add a string value.
+	 *
+	 * @param value
+	 * 			The value, may be null
+	 * @return this fingerprint
+	 */
+	public Fingerprint add(final String value) {
+		if (value == null) {
+			digest.update((byte) 'N');
+		} else {
+			final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			digest.update((byte) 'S');
+			updateInt(bytes.length);
+			digest.update(bytes);
+		}
+		return this;
+	}
+
+	/**
+	 * Add a long value.
+	 *
+	 * @param value
+	 * 			The value
+	 * @return this fingerprint
+	 */
+	public Fingerprint add(final long value) {
+		digest.update((byte) 'L');
+		updateInt((int) (value >>> 32));
+		updateInt((int) value);
+		return this;
+	}
+
+	/**
+	 * Add a nullable long value.
+	 *
+	 * @param value
+	 * 			The value, may be null
+	 * @return this fingerprint
+	 */
+	public Fingerprint add(final Long value) {
+		if (value == null) {
+			digest.update((byte) 'N');
+			return this;
+		}
+		return add(value.longValue());
+	}
+
+	/**
+	 * Add a date value, with a precision of one second as the
+	 * datetime columns of the DB.
+	 *
+	 * @param value
+	 * 			The value, may be null
+	 * @return this fingerprint
+	 */
+	public Fingerprint add(final Date value) {
+		if (value == null) {
+			digest.update((byte) 'N');
+			return this;
+		}
+		return add(Math.floorDiv(value.getTime(), 1000L));
+	}
+
+	/**
+	 * Return the fingerprint of the added values.
+	 *
+	 * @return the fingerprint in lower case hexadecimal
+	 */
+	public String toHex() {
+		final byte[] bytes = digest.digest();
+		final char[] chars = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			chars[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+			chars[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Add an int in big-endian order.
+	 *
+	 * @param value
+	 * 			The value
+	 */
+	private void updateInt(final int value) {
+		digest.update((byte) (value >>> 24));
+		digest.update((byte) (value >>> 16));
+		digest.update((byte) (value >>> 8));
+		digest.update((byte) value);
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.listener;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.JobSynchronizationManager;
+
+/**
+ * Chunk listener registering the job context in the threads running the chunks
+ * of a multi-threaded step. Spring Batch only registers the step context in these
+ * threads, so the job scoped beans (like the client stub) couldn't be resolved.
+ *
+ * @author jrrdev
+ *
+ */
+public class JobContextChunkListener implements ChunkListener {
+
+	/**
+	 * Indicates if the job context was registered by this listener in the current thread.
+	 */
+	private final ThreadLocal<Boolean> registered = new ThreadLocal<Boolean>();
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.core.ChunkListener#beforeChunk(org.springframework.batch.core.scope.context.ChunkContext)
+	 */
+	@Override
+	public void beforeChunk(final ChunkContext context) {
+		if (JobSynchronizationManager.getContext() == null) {
+			JobSynchronizationManager.register(context.getStepContext().getStepExecution().getJobExecution());
+			registered.set(Boolean.TRUE);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.core.ChunkListener#afterChunk(org.springframework.batch.core.scope.context.ChunkContext)
+	 */
+	@Override
+	public void afterChunk(final ChunkContext context) {
+		closeContext();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.core.ChunkListener#afterChunkError(org.springframework.batch.core.scope.context.ChunkContext)
+	 */
+	@Override
+	public void afterChunkError(final ChunkContext context) {
+		closeContext();
+	}
+
+	/**
+	 * Close the job context if it was registered by this listener.
+	 * It is only closed, releasing it would run the destruction callbacks
+	 * of the job scoped beans.
+	 */
+	private void closeContext() {
+		if (Boolean.TRUE.equals(registered.get())) {
+			registered.remove();
+			JobSynchronizationManager.close();
+		}
+	}
+}
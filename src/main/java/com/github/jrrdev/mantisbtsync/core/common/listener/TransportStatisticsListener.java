@@ -0,0 +1,90 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.listener;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+
+import com.github.jrrdev.mantisbtsync.core.common.transport.OperationStatistics;
+import com.github.jrrdev.mantisbtsync.core.common.transport.TransportStatistics;
+
+/**
+ * Job listener logging the number of bytes received on the wire and after
+ * decompression for each WS operation called during the job.
+ *
+ * @author jrrdev
+ *
+ */
+public class TransportStatisticsListener implements JobExecutionListener {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TransportStatisticsListener.class);
+
+	/**
+	 * Counters of the HTTP transport.
+	 */
+	private TransportStatistics statistics;
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.core.JobExecutionListener#beforeJob(org.springframework.batch.core.JobExecution)
+	 */
+	@Override
+	public void beforeJob(final JobExecution jobExecution) {
+		//Do nothing
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.core.JobExecutionListener#afterJob(org.springframework.batch.core.JobExecution)
+	 */
+	@Override
+	public void afterJob(final JobExecution jobExecution) {
+		if (statistics != null && LOGGER.isInfoEnabled()) {
+			for (final Map.Entry<String, OperationStatistics> entry : statistics.getOperations().entrySet()) {
+				final OperationStatistics stats = entry.getValue();
+				LOGGER.info("{} : {} calls, {} bytes on the wire, {} bytes decompressed",
+						entry.getKey(), stats.getCalls(), stats.getWireBytes(),
+						stats.getDecodedBytes());
+			}
+		}
+	}
+
+	/**
+	 * @return the statistics
+	 */
+	public TransportStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * @param statistics the statistics to set
+	 */
+	public void setStatistics(final TransportStatistics statistics) {
+		this.statistics = statistics;
+	}
+}
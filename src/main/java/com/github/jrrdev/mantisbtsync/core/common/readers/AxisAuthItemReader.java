@@ -24,45 +24,23 @@
 package com.github.jrrdev.mantisbtsync.core.common.readers;
 
 import org.apache.axis.client.Stub;
-import org.apache.axis.transport.http.HTTPConstants;
 import org.springframework.batch.item.adapter.ItemReaderAdapter;
 
-import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
-
 /**
  * Read on item from Apache Axis WebService. The WebService method
  * is supposed to return only one item.
- * Can use an authentication cookie if PortalAuthManager is set.
+ * The authentication cookie, if any, is sent by the HTTP transport of the stub.
  *
  * @author jrrdev
  *
  */
 public class AxisAuthItemReader<T> extends ItemReaderAdapter<T> {
 
-	/**
-	 * Auth manager.
-	 */
-	private PortalAuthManager authManager;
-
 	/**
 	 * Client stub generate by Apache Axis.
 	 */
 	private Stub clientStub;
 
-	/**
-	 * @return the authManager
-	 */
-	public PortalAuthManager getAuthManager() {
-		return authManager;
-	}
-
-	/**
-	 * @param authManager the authManager to set
-	 */
-	public void setAuthManager(final PortalAuthManager authManager) {
-		this.authManager = authManager;
-	}
-
 	/**
 	 * @return the clientStub
 	 */
@@ -77,20 +55,4 @@ public class AxisAuthItemReader<T> extends ItemReaderAdapter<T> {
 		this.clientStub = clientStub;
 		setTargetObject(clientStub);
 	}
-
-
-	/**
-	 * @return return value of the target method.
-	 */
-	@Override
-	public T read() throws Exception {
-
-		// If auth manager is set, try to get the cookie
-		if (authManager != null && authManager.getAuthCookie() != null) {
-			clientStub._setProperty(HTTPConstants.HEADER_COOKIE,
-					authManager.getAuthCookie());
-		}
-
-		return super.read();
-	}
 }
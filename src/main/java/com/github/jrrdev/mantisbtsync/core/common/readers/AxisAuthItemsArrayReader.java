@@ -28,16 +28,13 @@ import java.util.LinkedList;
 import java.util.Queue;
 
 import org.apache.axis.client.Stub;
-import org.apache.axis.transport.http.HTTPConstants;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.adapter.AbstractMethodInvokingDelegator;
 
-import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
-
 /**
  * Read on item from Apache Axis WebService. The WebService method
  * is supposed to return a array of items.
- * Can use an authentication cookie if PortalAuthManager is set.
+ * The authentication cookie, if any, is sent by the HTTP transport of the stub.
  *
  * @author jrrdev
  *
@@ -45,11 +42,6 @@ import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
 public class AxisAuthItemsArrayReader<T> extends
 AbstractMethodInvokingDelegator<T[]> implements ItemReader<T> {
 
-	/**
-	 * Auth manager.
-	 */
-	private PortalAuthManager authManager;
-
 	/**
 	 * Client stub generate by Apache Axis.
 	 */
@@ -66,20 +58,6 @@ AbstractMethodInvokingDelegator<T[]> implements ItemReader<T> {
 	private boolean isCallPerformed = false;
 
 
-	/**
-	 * @return the authManager
-	 */
-	public PortalAuthManager getAuthManager() {
-		return authManager;
-	}
-
-	/**
-	 * @param authManager the authManager to set
-	 */
-	public void setAuthManager(final PortalAuthManager authManager) {
-		this.authManager = authManager;
-	}
-
 	/**
 	 * @return the clientStub
 	 */
@@ -102,12 +80,6 @@ AbstractMethodInvokingDelegator<T[]> implements ItemReader<T> {
 	@Override
 	public T read() throws Exception {
 
-		// If auth manager is set, try to get the cookie
-		if (authManager != null && authManager.getAuthCookie() != null) {
-			clientStub._setProperty(HTTPConstants.HEADER_COOKIE,
-					authManager.getAuthCookie());
-		}
-
 		if (!isCallPerformed) {
 			final T[] itemsArray = invokeDelegateMethod();
 			isCallPerformed = true;
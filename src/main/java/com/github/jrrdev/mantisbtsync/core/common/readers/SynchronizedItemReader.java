@@ -0,0 +1,119 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.readers;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.NonTransientResourceException;
+import org.springframework.batch.item.ParseException;
+import org.springframework.batch.item.UnexpectedInputException;
+import org.springframework.util.Assert;
+
+/**
+ * Reader serializing the calls to its delegate, so a reader that isn't thread-safe
+ * can be used by a multi-threaded step.
+ * If the delegate is an {@link ItemStream}, the stream calls are passed to it.
+ *
+ * @author jrrdev
+ *
+ */
+public class SynchronizedItemReader<T> implements ItemStreamReader<T> {
+
+	/**
+	 * The reader doing the work.
+	 */
+	private ItemReader<T> delegate;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param delegate
+	 * 			The reader doing the work
+	 */
+	public SynchronizedItemReader(final ItemReader<T> delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemReader#read()
+	 */
+	@Override
+	public synchronized T read() throws Exception, UnexpectedInputException,
+	ParseException, NonTransientResourceException {
+
+		Assert.notNull(delegate);
+		return delegate.read();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemStream#open(org.springframework.batch.item.ExecutionContext)
+	 */
+	@Override
+	public synchronized void open(final ExecutionContext executionContext) throws ItemStreamException {
+		if (delegate instanceof ItemStream) {
+			((ItemStream) delegate).open(executionContext);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemStream#update(org.springframework.batch.item.ExecutionContext)
+	 */
+	@Override
+	public synchronized void update(final ExecutionContext executionContext) throws ItemStreamException {
+		if (delegate instanceof ItemStream) {
+			((ItemStream) delegate).update(executionContext);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemStream#close()
+	 */
+	@Override
+	public synchronized void close() throws ItemStreamException {
+		if (delegate instanceof ItemStream) {
+			((ItemStream) delegate).close();
+		}
+	}
+
+	/**
+	 * @return the delegate
+	 */
+	public ItemReader<T> getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * @param delegate the delegate to set
+	 */
+	public void setDelegate(final ItemReader<T> delegate) {
+		this.delegate = delegate;
+	}
+}
@@ -0,0 +1,106 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.transport;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream counting the number of bytes read from the underlying stream.
+ *
+ * @author jrrdev
+ *
+ */
+public class CountingInputStream extends FilterInputStream {
+
+	/**
+	 * Number of bytes read.
+	 */
+	private long count = 0;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param in
+	 * 			The underlying stream
+	 */
+	public CountingInputStream(final InputStream in) {
+		super(in);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.io.FilterInputStream#read()
+	 */
+	@Override
+	public int read() throws IOException {
+		final int b = super.read();
+		if (b >= 0) {
+			count++;
+		}
+		return b;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.io.FilterInputStream#read(byte[], int, int)
+	 */
+	@Override
+	public int read(final byte[] b, final int off, final int len) throws IOException {
+		final int n = super.read(b, off, len);
+		if (n > 0) {
+			count += n;
+		}
+		return n;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.io.FilterInputStream#skip(long)
+	 */
+	@Override
+	public long skip(final long n) throws IOException {
+		final long skipped = super.skip(n);
+		count += skipped;
+		return skipped;
+	}
+
+	/**
+	 * Mark isn't supported so the count can't be rewound.
+	 *
+	 * @return false
+	 */
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	/**
+	 * @return the number of bytes read
+	 */
+	public long getCount() {
+		return count;
+	}
+}
@@ -0,0 +1,309 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.axis.AxisFault;
+import org.apache.axis.Constants;
+import org.apache.axis.Message;
+import org.apache.axis.MessageContext;
+import org.apache.axis.description.OperationDesc;
+import org.apache.axis.handlers.BasicHandler;
+import org.apache.axis.transport.http.HTTPConstants;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.StatusLine;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.DeflateInputStream;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * Axis transport handler sending the SOAP requests through an Apache HttpClient.
+ * Contrary to the default Axis HTTPSender, which opens a new socket for each call,
+ * the connections are kept alive and reused from the pool of the given client.
+ * Cookies are managed by the cookie store of the client, so an authentication
+ * cookie got from an intranet portal is sent with each request.
+ *
+ * Compressed responses (gzip or deflate) are requested and decompressed as a stream
+ * while the SOAP envelope is parsed. The number of bytes received on the wire and
+ * after decompression can be counted by operation.
+ *
+ * @author jrrdev
+ *
+ */
+public class HttpClientTransportSender extends BasicHandler {
+
+	/**
+	 * Serial version UID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * HTTP client used to send the requests.
+	 */
+	private final transient CloseableHttpClient client;
+
+	/**
+	 * Indicates if compressed responses are requested.
+	 */
+	private boolean compressionEnabled = true;
+
+	/**
+	 * Counters of the received bytes. May be null.
+	 */
+	private transient TransportStatistics statistics;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param client
+	 * 			HTTP client used to send the requests
+	 */
+	public HttpClientTransportSender(final CloseableHttpClient client) {
+		this.client = client;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.apache.axis.Handler#invoke(org.apache.axis.MessageContext)
+	 */
+	@Override
+	public void invoke(final MessageContext msgContext) throws AxisFault {
+		final HttpPost post = buildRequest(msgContext);
+
+		CloseableHttpResponse response = null;
+		try {
+			response = client.execute(post);
+			readResponse(msgContext, response);
+
+		} catch (final IOException e) {
+			throw AxisFault.makeFault(e);
+
+		} finally {
+			if (response != null) {
+				try {
+					response.close();
+				} catch (final IOException e) {
+					// The connection is released anyway
+				}
+			}
+		}
+	}
+
+	/**
+	 * Build the POST request from the request message of the context.
+	 *
+	 * @param msgContext
+	 * 			Axis message context
+	 * @return the POST request
+	 * @throws AxisFault
+	 * 			If the request message can't be serialized
+	 */
+	private HttpPost buildRequest(final MessageContext msgContext) throws AxisFault {
+		final HttpPost post = new HttpPost(msgContext.getStrProp(MessageContext.TRANS_URL));
+
+		String action = "";
+		if (msgContext.useSOAPAction() && msgContext.getSOAPActionURI() != null) {
+			action = msgContext.getSOAPActionURI();
+		}
+		post.setHeader(HTTPConstants.HEADER_SOAP_ACTION, "\"" + action + "\"");
+
+		if (compressionEnabled) {
+			post.setHeader(HTTPConstants.HEADER_ACCEPT_ENCODING, "gzip, deflate");
+		}
+
+		if (msgContext.getTimeout() > 0) {
+			post.setConfig(RequestConfig.custom()
+					.setSocketTimeout(msgContext.getTimeout())
+					.build());
+		}
+
+		final Message reqMsg = msgContext.getRequestMessage();
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			reqMsg.writeTo(out);
+		} catch (final Exception e) {
+			throw AxisFault.makeFault(e);
+		}
+
+		final String contentType = reqMsg.getContentType(msgContext.getSOAPConstants());
+		post.setEntity(new ByteArrayEntity(out.toByteArray(), ContentType.parse(contentType)));
+
+		return post;
+	}
+
+	/**
+	 * Set the response message of the context from the HTTP response.
+	 *
+	 * @param msgContext
+	 * 			Axis message context
+	 * @param response
+	 * 			HTTP response
+	 * @throws IOException
+	 * 			If the response body can't be read
+	 */
+	private void readResponse(final MessageContext msgContext, final CloseableHttpResponse response)
+			throws IOException {
+
+		final StatusLine status = response.getStatusLine();
+		final int returnCode = status.getStatusCode();
+		msgContext.setProperty(HTTPConstants.MC_HTTP_STATUS_CODE, Integer.valueOf(returnCode));
+		msgContext.setProperty(HTTPConstants.MC_HTTP_STATUS_MESSAGE, status.getReasonPhrase());
+
+		final HttpEntity entity = response.getEntity();
+		final String contentType = getHeaderValue(response, HTTPConstants.HEADER_CONTENT_TYPE);
+		final String contentLocation = getHeaderValue(response, HTTPConstants.HEADER_CONTENT_LOCATION);
+
+		// A SOAP fault is sent with a 500 status code, any other error is an HTTP error
+		if ((returnCode < 200 || returnCode > 299)
+				&& !(returnCode == 500 && contentType != null && contentType.contains("xml"))) {
+
+			EntityUtils.consume(entity);
+			final AxisFault fault = new AxisFault("HTTP", "(" + returnCode + ")"
+					+ status.getReasonPhrase(), null, null);
+			fault.addFaultDetail(Constants.QNAME_FAULTDETAIL_HTTPERRORCODE,
+					Integer.toString(returnCode));
+			throw fault;
+		}
+
+		CountingInputStream wireStream = null;
+		CountingInputStream decodedStream = null;
+		Object body = new byte[0];
+		if (entity != null) {
+			wireStream = new CountingInputStream(entity.getContent());
+			decodedStream = new CountingInputStream(decode(wireStream,
+					getHeaderValue(response, HTTPConstants.HEADER_CONTENT_ENCODING)));
+			body = decodedStream;
+		}
+
+		final Message outMsg = new Message(body, false, contentType, contentLocation);
+		outMsg.setMessageType(Message.RESPONSE);
+		msgContext.setResponseMessage(outMsg);
+
+		// Parse the envelope while the connection is still open, then read the remaining
+		// bytes so that the connection can be reused
+		outMsg.getSOAPEnvelope();
+		if (wireStream != null) {
+			final byte[] buffer = new byte[4096];
+			while (wireStream.read(buffer) != -1) {
+				// Count the remaining bytes
+			}
+			wireStream.close();
+
+			if (statistics != null) {
+				statistics.addResponse(getOperationName(msgContext),
+						wireStream.getCount(), decodedStream.getCount());
+			}
+		}
+	}
+
+	/**
+	 * Wrap the response stream into a decompressing stream if needed.
+	 *
+	 * @param in
+	 * 			Response stream
+	 * @param contentEncoding
+	 * 			Value of the Content-Encoding header
+	 * @return the decompressed stream
+	 * @throws IOException
+	 * 			If the gzip header can't be read
+	 */
+	private InputStream decode(final InputStream in, final String contentEncoding) throws IOException {
+		if (contentEncoding == null) {
+			return in;
+		}
+
+		final String encoding = contentEncoding.trim();
+		if ("gzip".equalsIgnoreCase(encoding) || "x-gzip".equalsIgnoreCase(encoding)) {
+			return new GZIPInputStream(in);
+		} else if ("deflate".equalsIgnoreCase(encoding)) {
+			return new DeflateInputStream(in);
+		} else {
+			return in;
+		}
+	}
+
+	/**
+	 * Get the name of the called operation.
+	 *
+	 * @param msgContext
+	 * 			Axis message context
+	 * @return the operation name, or the SOAP action if the operation isn't known
+	 */
+	private String getOperationName(final MessageContext msgContext) {
+		final OperationDesc operation = msgContext.getOperation();
+		return (operation == null) ? msgContext.getSOAPActionURI() : operation.getName();
+	}
+
+	/**
+	 * Get the value of a response header.
+	 *
+	 * @param response
+	 * 			HTTP response
+	 * @param name
+	 * 			Header name
+	 * @return the value of the first header with the given name, null if there isn't any
+	 */
+	private String getHeaderValue(final CloseableHttpResponse response, final String name) {
+		final Header header = response.getFirstHeader(name);
+		return (header == null) ? null : header.getValue();
+	}
+
+	/**
+	 * @return true if compressed responses are requested
+	 */
+	public boolean isCompressionEnabled() {
+		return compressionEnabled;
+	}
+
+	/**
+	 * @param compressionEnabled the compressionEnabled to set
+	 */
+	public void setCompressionEnabled(final boolean compressionEnabled) {
+		this.compressionEnabled = compressionEnabled;
+	}
+
+	/**
+	 * @return the statistics
+	 */
+	public TransportStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * @param statistics the statistics to set
+	 */
+	public void setStatistics(final TransportStatistics statistics) {
+		this.statistics = statistics;
+	}
+}
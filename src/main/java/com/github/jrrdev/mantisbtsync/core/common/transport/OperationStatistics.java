@@ -0,0 +1,95 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.transport;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the responses received for a WS operation.
+ *
+ * @author jrrdev
+ *
+ */
+public class OperationStatistics {
+
+	/**
+	 * Number of calls.
+	 */
+	private final AtomicLong calls = new AtomicLong();
+
+	/**
+	 * Number of bytes received on the wire, before decompression.
+	 */
+	private final AtomicLong wireBytes = new AtomicLong();
+
+	/**
+	 * Number of bytes after decompression.
+	 */
+	private final AtomicLong decodedBytes = new AtomicLong();
+
+	/**
+	 * Add a call to the counters.
+	 *
+	 * @param wire
+	 * 			Number of bytes received on the wire
+	 * @param decoded
+	 * 			Number of bytes after decompression
+	 */
+	public void add(final long wire, final long decoded) {
+		calls.incrementAndGet();
+		wireBytes.addAndGet(wire);
+		decodedBytes.addAndGet(decoded);
+	}
+
+	/**
+	 * @return the number of calls
+	 */
+	public long getCalls() {
+		return calls.get();
+	}
+
+	/**
+	 * @return the number of bytes received on the wire
+	 */
+	public long getWireBytes() {
+		return wireBytes.get();
+	}
+
+	/**
+	 * @return the number of bytes after decompression
+	 */
+	public long getDecodedBytes() {
+		return decodedBytes.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "OperationStatistics [calls=" + calls + ", wireBytes="
+				+ wireBytes + ", decodedBytes=" + decodedBytes + "]";
+	}
+}
@@ -0,0 +1,95 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.transport;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Counters of the bytes received by the HTTP transport, by WS operation.
+ * Used to check the savings of the responses compression.
+ *
+ * @author jrrdev
+ *
+ */
+public class TransportStatistics {
+
+	/**
+	 * Counters by operation name.
+	 */
+	private final ConcurrentMap<String, OperationStatistics> operations =
+			new ConcurrentHashMap<String, OperationStatistics>();
+
+	/**
+	 * Decoded size of the last response received by the current thread.
+	 */
+	private final ThreadLocal<Long> lastResponseBytes = new ThreadLocal<Long>();
+
+	/**
+	 * Add a response to the counters of an operation.
+	 *
+	 * @param operation
+	 * 			Name of the WS operation
+	 * @param wireBytes
+	 * 			Number of bytes received on the wire
+	 * @param decodedBytes
+	 * 			Number of bytes after decompression
+	 */
+	public void addResponse(final String operation, final long wireBytes, final long decodedBytes) {
+		final String key = (operation == null) ? "unknown" : operation;
+
+		OperationStatistics stats = operations.get(key);
+		if (stats == null) {
+			final OperationStatistics newStats = new OperationStatistics();
+			stats = operations.putIfAbsent(key, newStats);
+			if (stats == null) {
+				stats = newStats;
+			}
+		}
+
+		stats.add(wireBytes, decodedBytes);
+		lastResponseBytes.set(decodedBytes);
+	}
+
+	/**
+	 * Return the decoded size of the last response received by the current thread.
+	 * The WS calls are synchronous, so right after a call it is the size of its response.
+	 *
+	 * @return the number of bytes, -1 if no response was received by this thread
+	 */
+	public long getLastResponseBytes() {
+		final Long bytes = lastResponseBytes.get();
+		return (bytes == null) ? -1 : bytes;
+	}
+
+	/**
+	 * @return the counters sorted by operation name
+	 */
+	public Map<String, OperationStatistics> getOperations() {
+		return Collections.unmodifiableMap(new TreeMap<String, OperationStatistics>(operations));
+	}
+}
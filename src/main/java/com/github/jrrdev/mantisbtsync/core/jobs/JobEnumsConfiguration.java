@@ -27,17 +27,23 @@ import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.job.builder.FlowBuilder;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.batch.core.job.flow.support.SimpleFlow;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.step.tasklet.MethodInvokingTaskletAdapter;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
 
 import biz.futureware.mantis.rpc.soap.client.ObjectRef;
 
 import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
 import com.github.jrrdev.mantisbtsync.core.common.listener.CloseAuthManagerListener;
+import com.github.jrrdev.mantisbtsync.core.common.listener.JobContextChunkListener;
+import com.github.jrrdev.mantisbtsync.core.common.listener.TransportStatisticsListener;
 
 /**
  * Configuration for the jobs to sync MantisBT enumerations.
@@ -56,7 +62,8 @@ public class JobEnumsConfiguration {
 	 *  - mantis.password
 	 *  	MantisBT password. If anonymous access is used, should be an empty string.
 	 *
-	 *  Steps are executed in a linear flow.
+	 *  After the authentication, the steps are executed concurrently in a split flow,
+	 *  each one in its own flow.
 	 *
 	 * @param jobs
 	 * 			Job build factory
@@ -84,32 +91,55 @@ public class JobEnumsConfiguration {
 	 * 			Step for portal authentication at the begining of the job
 	 * @param closeEnumsListener
 	 * 			Listener for closing the portal authentication connection at the end of the job
+	 * @param transportStatisticsListener
+	 * 			Listener logging the bytes received from MantisBT at the end of the job
+	 * @param mantisEnumsExecutor
+	 * 			Executor running the flows of the split
 	 * @return the job
 	 */
 	@Bean
 	public Job syncEnumsJob(final JobBuilderFactory jobs, final Step customFieldTypesStep, final Step etasStep,
 			final Step prioritiesStep, final Step projectionsStep, final Step projectStatusStep, final Step projectViewStatesStep,
 			final Step reproducibilitiesStep, final Step resolutionsStep, final Step severitiesStep, final Step statusStep,
-			final Step authEnumsStep, final CloseAuthManagerListener closeEnumsListener) {
+			final Step authEnumsStep, final CloseAuthManagerListener closeEnumsListener,
+			final TransportStatisticsListener transportStatisticsListener,
+			final TaskExecutor mantisEnumsExecutor) {
+
+		final Flow enumsFlow = new FlowBuilder<SimpleFlow>("enumsSplitFlow")
+				.split(mantisEnumsExecutor)
+				.add(buildStepFlow(customFieldTypesStep),
+						buildStepFlow(etasStep),
+						buildStepFlow(prioritiesStep),
+						buildStepFlow(projectionsStep),
+						buildStepFlow(projectStatusStep),
+						buildStepFlow(projectViewStatesStep),
+						buildStepFlow(reproducibilitiesStep),
+						buildStepFlow(resolutionsStep),
+						buildStepFlow(severitiesStep),
+						buildStepFlow(statusStep))
+				.build();
 
 		return jobs.get("syncEnumsJob")
 				.incrementer(new RunIdIncrementer())
 				.listener(closeEnumsListener)
+				.listener(transportStatisticsListener)
 				.flow(authEnumsStep)
-				.next(customFieldTypesStep)
-				.next(etasStep)
-				.next(prioritiesStep)
-				.next(projectionsStep)
-				.next(projectStatusStep)
-				.next(projectViewStatesStep)
-				.next(reproducibilitiesStep)
-				.next(resolutionsStep)
-				.next(severitiesStep)
-				.next(statusStep)
+				.next(enumsFlow)
 				.end()
 				.build();
 	}
 
+	/**
+	 * Build a flow made of a single step, to be added to a split.
+	 *
+	 * @param step
+	 * 			The step
+	 * @return the flow
+	 */
+	private Flow buildStepFlow(final Step step) {
+		return new FlowBuilder<SimpleFlow>(step.getName() + "Flow").start(step).build();
+	}
+
 	/**
 	 * Build the listener for closing the portal authentication connection at the end of the job.
 	 *
@@ -150,14 +180,18 @@ public class JobEnumsConfiguration {
 	 * 			The reader
 	 * @param customFieldTypesWriter
 	 * 			The writer
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the thread running the step
 	 * @return the step
 	 */
 	@Bean
 	public Step customFieldTypesStep(final StepBuilderFactory stepBuilderFactory,
 			final ItemReader<ObjectRef> customFieldTypesReader,
-			final ItemWriter<ObjectRef> customFieldTypesWriter) {
+			final ItemWriter<ObjectRef> customFieldTypesWriter,
+			final JobContextChunkListener jobContextChunkListener) {
 
-		return getEnumStep("customFieldTypesStep", stepBuilderFactory, customFieldTypesReader, customFieldTypesWriter);
+		return getEnumStep("customFieldTypesStep", stepBuilderFactory, customFieldTypesReader, customFieldTypesWriter,
+				jobContextChunkListener);
 	}
 
 	/**
@@ -169,14 +203,18 @@ public class JobEnumsConfiguration {
 	 * 			The reader
 	 * @param etasWriter
 	 * 			The writer
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the thread running the step
 	 * @return the step
 	 */
 	@Bean
 	public Step etasStep(final StepBuilderFactory stepBuilderFactory,
 			final ItemReader<ObjectRef> etasReader,
-			final ItemWriter<ObjectRef> etasWriter) {
+			final ItemWriter<ObjectRef> etasWriter,
+			final JobContextChunkListener jobContextChunkListener) {
 
-		return getEnumStep("etasStep", stepBuilderFactory, etasReader, etasWriter);
+		return getEnumStep("etasStep", stepBuilderFactory, etasReader, etasWriter,
+				jobContextChunkListener);
 	}
 
 	/**
@@ -188,14 +226,18 @@ public class JobEnumsConfiguration {
 	 * 			The reader
 	 * @param prioritiesWriter
 	 * 			The writer
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the thread running the step
 	 * @return the step
 	 */
 	@Bean
 	public Step prioritiesStep(final StepBuilderFactory stepBuilderFactory,
 			final ItemReader<ObjectRef> prioritiesReader,
-			final ItemWriter<ObjectRef> prioritiesWriter) {
+			final ItemWriter<ObjectRef> prioritiesWriter,
+			final JobContextChunkListener jobContextChunkListener) {
 
-		return getEnumStep("prioritiesStep", stepBuilderFactory, prioritiesReader, prioritiesWriter);
+		return getEnumStep("prioritiesStep", stepBuilderFactory, prioritiesReader, prioritiesWriter,
+				jobContextChunkListener);
 	}
 
 	/**
@@ -207,14 +249,18 @@ public class JobEnumsConfiguration {
 	 * 			The reader
 	 * @param projectionsWriter
 	 * 			The writer
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the thread running the step
 	 * @return the step
 	 */
 	@Bean
 	public Step projectionsStep(final StepBuilderFactory stepBuilderFactory,
 			final ItemReader<ObjectRef> projectionsReader,
-			final ItemWriter<ObjectRef> projectionsWriter) {
+			final ItemWriter<ObjectRef> projectionsWriter,
+			final JobContextChunkListener jobContextChunkListener) {
 
-		return getEnumStep("projectionsStep", stepBuilderFactory, projectionsReader, projectionsWriter);
+		return getEnumStep("projectionsStep", stepBuilderFactory, projectionsReader, projectionsWriter,
+				jobContextChunkListener);
 	}
 
 	/**
@@ -226,14 +272,18 @@ public class JobEnumsConfiguration {
 	 * 			The reader
 	 * @param projectStatusWriter
 	 * 			The writer
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the thread running the step
 	 * @return the step
 	 */
 	@Bean
 	public Step projectStatusStep(final StepBuilderFactory stepBuilderFactory,
 			final ItemReader<ObjectRef> projectStatusReader,
-			final ItemWriter<ObjectRef> projectStatusWriter) {
+			final ItemWriter<ObjectRef> projectStatusWriter,
+			final JobContextChunkListener jobContextChunkListener) {
 
-		return getEnumStep("projectStatusStep", stepBuilderFactory, projectStatusReader, projectStatusWriter);
+		return getEnumStep("projectStatusStep", stepBuilderFactory, projectStatusReader, projectStatusWriter,
+				jobContextChunkListener);
 	}
 
 	/**
@@ -245,14 +295,18 @@ public class JobEnumsConfiguration {
 	 * 			The reader
 	 * @param projectViewStatesWriter
 	 * 			The writer
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the thread running the step
 	 * @return the step
 	 */
 	@Bean
 	public Step projectViewStatesStep(final StepBuilderFactory stepBuilderFactory,
 			final ItemReader<ObjectRef> projectViewStatesReader,
-			final ItemWriter<ObjectRef> projectViewStatesWriter) {
+			final ItemWriter<ObjectRef> projectViewStatesWriter,
+			final JobContextChunkListener jobContextChunkListener) {
 
-		return getEnumStep("projectViewStatesStep", stepBuilderFactory, projectViewStatesReader, projectViewStatesWriter);
+		return getEnumStep("projectViewStatesStep", stepBuilderFactory, projectViewStatesReader, projectViewStatesWriter,
+				jobContextChunkListener);
 	}
 
 	/**
@@ -264,14 +318,18 @@ public class JobEnumsConfiguration {
 	 * 			The reader
 	 * @param reproducibilitiesWriter
 	 * 			The writer
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the thread running the step
 	 * @return the step
 	 */
 	@Bean
 	public Step reproducibilitiesStep(final StepBuilderFactory stepBuilderFactory,
 			final ItemReader<ObjectRef> reproducibilitiesReader,
-			final ItemWriter<ObjectRef> reproducibilitiesWriter) {
+			final ItemWriter<ObjectRef> reproducibilitiesWriter,
+			final JobContextChunkListener jobContextChunkListener) {
 
-		return getEnumStep("reproducibilitiesStep", stepBuilderFactory, reproducibilitiesReader, reproducibilitiesWriter);
+		return getEnumStep("reproducibilitiesStep", stepBuilderFactory, reproducibilitiesReader, reproducibilitiesWriter,
+				jobContextChunkListener);
 	}
 
 	/**
@@ -283,14 +341,18 @@ public class JobEnumsConfiguration {
 	 * 			The reader
 	 * @param resolutionsWriter
 	 * 			The writer
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the thread running the step
 	 * @return the step
 	 */
 	@Bean
 	public Step resolutionsStep(final StepBuilderFactory stepBuilderFactory,
 			final ItemReader<ObjectRef> resolutionsReader,
-			final ItemWriter<ObjectRef> resolutionsWriter) {
+			final ItemWriter<ObjectRef> resolutionsWriter,
+			final JobContextChunkListener jobContextChunkListener) {
 
-		return getEnumStep("resolutionsStep", stepBuilderFactory, resolutionsReader, resolutionsWriter);
+		return getEnumStep("resolutionsStep", stepBuilderFactory, resolutionsReader, resolutionsWriter,
+				jobContextChunkListener);
 	}
 
 	/**
@@ -302,14 +364,18 @@ public class JobEnumsConfiguration {
 	 * 			The reader
 	 * @param severitiesWriter
 	 * 			The writer
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the thread running the step
 	 * @return the step
 	 */
 	@Bean
 	public Step severitiesStep(final StepBuilderFactory stepBuilderFactory,
 			final ItemReader<ObjectRef> severitiesReader,
-			final ItemWriter<ObjectRef> severitiesWriter) {
+			final ItemWriter<ObjectRef> severitiesWriter,
+			final JobContextChunkListener jobContextChunkListener) {
 
-		return getEnumStep("severitiesStep", stepBuilderFactory, severitiesReader, severitiesWriter);
+		return getEnumStep("severitiesStep", stepBuilderFactory, severitiesReader, severitiesWriter,
+				jobContextChunkListener);
 	}
 
 	/**
@@ -321,14 +387,18 @@ public class JobEnumsConfiguration {
 	 * 			The reader
 	 * @param statusWriter
 	 * 			The writer
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the thread running the step
 	 * @return the step
 	 */
 	@Bean
 	public Step statusStep(final StepBuilderFactory stepBuilderFactory,
 			final ItemReader<ObjectRef> statusReader,
-			final ItemWriter<ObjectRef> statusWriter) {
+			final ItemWriter<ObjectRef> statusWriter,
+			final JobContextChunkListener jobContextChunkListener) {
 
-		return getEnumStep("statusStep", stepBuilderFactory, statusReader, statusWriter);
+		return getEnumStep("statusStep", stepBuilderFactory, statusReader, statusWriter,
+				jobContextChunkListener);
 	}
 
 	/**
@@ -342,12 +412,17 @@ public class JobEnumsConfiguration {
 	 * 			The reader
 	 * @param writer
 	 * 			The writer
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the thread running the step,
+	 * 			the steps being run concurrently by the enums executor
 	 * @return the step
 	 */
 	private Step getEnumStep(final String stepName,	final StepBuilderFactory stepBuilderFactory,
-			final ItemReader<ObjectRef> reader,	final ItemWriter<ObjectRef> writer) {
+			final ItemReader<ObjectRef> reader,	final ItemWriter<ObjectRef> writer,
+			final JobContextChunkListener jobContextChunkListener) {
 
 		return stepBuilderFactory.get(stepName).<ObjectRef, ObjectRef> chunk(10)
-				.reader(reader).writer(writer).build();
+				.reader(reader).writer(writer)
+				.listener(jobContextChunkListener).build();
 	}
 }
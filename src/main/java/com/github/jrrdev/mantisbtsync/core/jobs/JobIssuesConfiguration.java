@@ -23,32 +23,44 @@
  */
 package com.github.jrrdev.mantisbtsync.core.jobs;
 
+import java.util.concurrent.Future;
+
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.step.builder.AbstractTaskletStepBuilder;
 import org.springframework.batch.core.step.tasklet.MethodInvokingTaskletAdapter;
 import org.springframework.batch.item.file.FlatFileItemReader;
-import org.springframework.batch.item.support.CompositeItemProcessor;
-import org.springframework.batch.item.support.CompositeItemWriter;
 import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
 
 import biz.futureware.mantis.rpc.soap.client.IssueData;
 
 import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
+import com.github.jrrdev.mantisbtsync.core.common.concurrent.AsyncItemProcessor;
+import com.github.jrrdev.mantisbtsync.core.common.concurrent.AsyncItemWriter;
 import com.github.jrrdev.mantisbtsync.core.common.listener.CloseAuthManagerListener;
+import com.github.jrrdev.mantisbtsync.core.common.listener.JobContextChunkListener;
+import com.github.jrrdev.mantisbtsync.core.common.listener.TransportStatisticsListener;
+import com.github.jrrdev.mantisbtsync.core.common.readers.SynchronizedItemReader;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugIdBean;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.listener.CacheEvictionListener;
-import com.github.jrrdev.mantisbtsync.core.jobs.issues.processors.IssuesProcessor;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.partitioners.IssuesIdPartitioner;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.readers.AbstractIssuesReader;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.readers.IssueHeadersReader;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.readers.IssuesIdListReader;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.readers.OpenIssuesReader;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.readers.OtherIssuesReader;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.tasklets.HandlersStatTasklet;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.tasklets.IssuesLastRunExtractorTasklet;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.tasklets.SyncWatermarkTasklet;
 
 /**
  * Configuration for the jobs to sync MantisBT enumerations.
@@ -86,24 +98,36 @@ public class JobIssuesConfiguration {
 	 * 			Step syncing all modified issues which are still open in MantisBT
 	 * @param otherIssuesSyncStep
 	 * 			Step syncing all issues which are still open in the local DB
+	 * @param otherIssuesPartitionStep
+	 * 			Partitioned version of otherIssuesSyncStep
+	 * @param partitionSize
+	 * 			Number of issues by partition, 0 disables the partitioning
+	 * @param issuesSyncWatermarkStep
+	 * 			Step recording the successful run of this job
 	 * @param authIssuesStep
 	 * 			Step for portal authentication at the begining of the job
 	 * @param closeIssuesListener
 	 * 			Listener for closing the portal authentication connection at the end of the job
+	 * @param transportStatisticsListener
+	 * 			Listener logging the bytes received from MantisBT at the end of the job
 	 * @return the job
 	 */
 	@Bean
 	public Job syncIssuesJob(final JobBuilderFactory jobs, final Step issuesLastSuccessExtractorStep,
-			final Step openIssuesSyncStep, final Step otherIssuesSyncStep, final Step authIssuesStep,
-			final CloseAuthManagerListener closeIssuesListener) {
+			final Step openIssuesSyncStep, final Step otherIssuesSyncStep, final Step otherIssuesPartitionStep,
+			final Step issuesSyncWatermarkStep, final Step authIssuesStep, final CloseAuthManagerListener closeIssuesListener,
+			final TransportStatisticsListener transportStatisticsListener,
+			@Value("${mantis.issues.partition_size:0}") final int partitionSize) {
 
 		return jobs.get("syncIssuesJob")
 				.incrementer(new RunIdIncrementer())
 				.listener(closeIssuesListener)
+				.listener(transportStatisticsListener)
 				.flow(authIssuesStep)
 				.next(issuesLastSuccessExtractorStep)
 				.next(openIssuesSyncStep)
-				.next(otherIssuesSyncStep)
+				.next(partitionSize > 0 ? otherIssuesPartitionStep : otherIssuesSyncStep)
+				.next(issuesSyncWatermarkStep)
 				.end()
 				.build();
 	}
@@ -127,20 +151,29 @@ public class JobIssuesConfiguration {
 	 * 			Step for portal authentication at the begining of the job
 	 * @param closeIssuesListener
 	 * 			Listener for closing the portal authentication connection at the end of the job
+	 * @param transportStatisticsListener
+	 * 			Listener logging the bytes received from MantisBT at the end of the job
 	 * @param forceIssuesSyncStep
 	 * 			Step syncing all issues matching the given ids
+	 * @param forceIssuesPartitionStep
+	 * 			Partitioned version of forceIssuesSyncStep
+	 * @param partitionSize
+	 * 			Number of issues by partition, 0 disables the partitioning
 	 * @return the job
 	 */
 	@Bean
 	public Job forceSyncIssuesJob(final JobBuilderFactory jobs, final Step authIssuesStep,
 			final CloseAuthManagerListener closeIssuesListener,
-			final Step forceIssuesSyncStep) {
+			final TransportStatisticsListener transportStatisticsListener,
+			final Step forceIssuesSyncStep, final Step forceIssuesPartitionStep,
+			@Value("${mantis.issues.partition_size:0}") final int partitionSize) {
 
 		return jobs.get("forceSyncIssuesJob")
 				.incrementer(new RunIdIncrementer())
 				.listener(closeIssuesListener)
+				.listener(transportStatisticsListener)
 				.flow(authIssuesStep)
-				.next(forceIssuesSyncStep)
+				.next(partitionSize > 0 ? forceIssuesPartitionStep : forceIssuesSyncStep)
 				.end()
 				.build();
 	}
@@ -166,20 +199,29 @@ public class JobIssuesConfiguration {
 	 * 			Step for portal authentication at the begining of the job
 	 * @param closeIssuesListener
 	 * 			Listener for closing the portal authentication connection at the end of the job
+	 * @param transportStatisticsListener
+	 * 			Listener logging the bytes received from MantisBT at the end of the job
 	 * @param fileIssuesSyncStep
 	 * 			Step syncing all issues matching the given ids
+	 * @param fileIssuesPartitionStep
+	 * 			Partitioned version of fileIssuesSyncStep
+	 * @param partitionSize
+	 * 			Number of issues by partition, 0 disables the partitioning
 	 * @return the job
 	 */
 	@Bean
 	public Job fileSyncIssuesJob(final JobBuilderFactory jobs, final Step authIssuesStep,
 			final CloseAuthManagerListener closeIssuesListener,
-			final Step fileIssuesSyncStep) {
+			final TransportStatisticsListener transportStatisticsListener,
+			final Step fileIssuesSyncStep, final Step fileIssuesPartitionStep,
+			@Value("${mantis.issues.partition_size:0}") final int partitionSize) {
 
 		return jobs.get("fileSyncIssuesJob")
 				.incrementer(new RunIdIncrementer())
 				.listener(closeIssuesListener)
+				.listener(transportStatisticsListener)
 				.flow(authIssuesStep)
-				.next(fileIssuesSyncStep)
+				.next(partitionSize > 0 ? fileIssuesPartitionStep : fileIssuesSyncStep)
 				.end()
 				.build();
 	}
@@ -191,6 +233,10 @@ public class JobIssuesConfiguration {
 	 * Parameters for this job are :
 	 * 	- mantis.computeDate
 	 * 		The computing date, passed as "yyyy-MM-dd'T'HH:mm:ss".
+	 * 	- mantis.startDate, mantis.endDate
+	 * 		If mantis.computeDate isn't passed, range of computing dates, passed as "yyyy-MM-dd'T'HH:mm:ss".
+	 * 	- mantis.stepHours (optional)
+	 * 		Number of hours between two computing dates of the range, 24 by default.
 	 *
 	 * @param jobs
 	 * 			Job build factory
@@ -249,7 +295,8 @@ public class JobIssuesConfiguration {
 	 * 			The tasklet getting the last successful start time of the job
 	 * @param mantisLastRunExtractorPromotionListener
 	 * 			The execution context promotion listener that promotes
-	 * 			mantis.update.last_job_run and mantis.update.current_job_run to the job context.
+	 * 			mantis.update.last_job_run, mantis.update.current_job_run and
+	 * 			mantis.issues.page_size to the job context.
 	 * @return the step
 	 */
 	@Bean
@@ -263,6 +310,24 @@ public class JobIssuesConfiguration {
 				.build();
 	}
 
+	/**
+	 * Build the step recording the successful run of this job in sync_watermark table.
+	 *
+	 * @param stepBuilderFactory
+	 * 			The step builder factory
+	 * @param mantisSyncWatermarkTasklet
+	 * 			The tasklet recording the run
+	 * @return the step
+	 */
+	@Bean
+	public Step issuesSyncWatermarkStep(final StepBuilderFactory stepBuilderFactory,
+			final SyncWatermarkTasklet mantisSyncWatermarkTasklet) {
+
+		return stepBuilderFactory.get("issuesSyncWatermarkStep")
+				.tasklet(mantisSyncWatermarkTasklet)
+				.build();
+	}
+
 	/**
 	 * The step syncing all modified issues which are still open in MantisBT.
 	 *
@@ -270,28 +335,46 @@ public class JobIssuesConfiguration {
 	 * 			The step builder factory
 	 * @param openIssuesReader
 	 * 			The reader
-	 * @param issuesProcessor
+	 * @param issueHeadersReader
+	 * 			The reader comparing the issues headers with the local DB first
+	 * @param asyncIssuesProcessor
 	 * 			The processor
-	 * @param compositeIssuesWriter
+	 * @param asyncIssuesWriter
 	 * 			The writer
 	 * @param cacheEvictionListener
 	 * 			Listener for caches eviction if the step fails
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the threads of the step
+	 * @param threads
+	 * 			Number of threads running the chunks
+	 * @param mantisChunkExecutor
+	 * 			Executor running the chunks if there is more than one thread
+	 * @param headerFirst
+	 * 			If true, the issues headers are compared with the local DB
+	 * 			before retrieving the changed issues
 	 * @return
 	 */
 	@Bean
 	public Step openIssuesSyncStep(final StepBuilderFactory stepBuilderFactory,
 			final OpenIssuesReader openIssuesReader,
-			final IssuesProcessor issuesProcessor,
-			final CompositeItemWriter<BugBean> compositeIssuesWriter,
-			final CacheEvictionListener cacheEvictionListener) {
-
-		return stepBuilderFactory.get("openIssuesSyncStep")
-				.<IssueData, BugBean> chunk(10)
-				.reader(openIssuesReader)
-				.processor(issuesProcessor)
-				.writer(compositeIssuesWriter)
+			final IssueHeadersReader issueHeadersReader,
+			final AsyncItemProcessor<IssueData, BugBean> asyncIssuesProcessor,
+			final AsyncItemWriter<BugBean> asyncIssuesWriter,
+			final CacheEvictionListener cacheEvictionListener,
+			final JobContextChunkListener jobContextChunkListener,
+			@Value("${mantis.issues.threads:1}") final int threads,
+			final TaskExecutor mantisChunkExecutor,
+			@Value("${mantis.issues.header_first:false}") final boolean headerFirst) {
+
+		final AbstractIssuesReader reader = headerFirst ? issueHeadersReader : openIssuesReader;
+
+		return buildIssuesStep(stepBuilderFactory.get("openIssuesSyncStep")
+				.<IssueData, Future<BugBean>> chunk(10)
+				.reader(reader)
+				.processor(asyncIssuesProcessor)
+				.writer(asyncIssuesWriter)
 				.listener(cacheEvictionListener)
-				.build();
+				.listener(jobContextChunkListener), threads, mantisChunkExecutor);
 	}
 
 	/**
@@ -301,28 +384,37 @@ public class JobIssuesConfiguration {
 	 * 			The step builder factory
 	 * @param otherIssuesReader
 	 * 			The reader
-	 * @param issuesProcessor
+	 * @param asyncIssuesProcessor
 	 * 			The processor
-	 * @param compositeIssuesWriter
+	 * @param asyncIssuesWriter
 	 * 			The writer
 	 * @param cacheEvictionListener
 	 * 			Listener for caches eviction if the step fails
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the threads of the step
+	 * @param threads
+	 * 			Number of threads running the chunks
+	 * @param mantisChunkExecutor
+	 * 			Executor running the chunks if there is more than one thread
 	 * @return
 	 */
 	@Bean
 	public Step otherIssuesSyncStep(final StepBuilderFactory stepBuilderFactory,
 			final OtherIssuesReader otherIssuesReader,
-			final IssuesProcessor issuesProcessor,
-			final CompositeItemWriter<BugBean> compositeIssuesWriter,
-			final CacheEvictionListener cacheEvictionListener) {
+			final AsyncItemProcessor<IssueData, BugBean> asyncIssuesProcessor,
+			final AsyncItemWriter<BugBean> asyncIssuesWriter,
+			final CacheEvictionListener cacheEvictionListener,
+			final JobContextChunkListener jobContextChunkListener,
+			@Value("${mantis.issues.threads:1}") final int threads,
+			final TaskExecutor mantisChunkExecutor) {
 
-		return stepBuilderFactory.get("otherIssuesSyncStep")
-				.<IssueData, BugBean> chunk(10)
+		return buildIssuesStep(stepBuilderFactory.get("otherIssuesSyncStep")
+				.<IssueData, Future<BugBean>> chunk(10)
 				.reader(otherIssuesReader)
-				.processor(issuesProcessor)
-				.writer(compositeIssuesWriter)
+				.processor(asyncIssuesProcessor)
+				.writer(asyncIssuesWriter)
 				.listener(cacheEvictionListener)
-				.build();
+				.listener(jobContextChunkListener), threads, mantisChunkExecutor);
 	}
 
 	/**
@@ -332,28 +424,37 @@ public class JobIssuesConfiguration {
 	 * 			The step builder factory
 	 * @param listIssuesReader
 	 * 			The reader
-	 * @param compositeIssuesProcessor
+	 * @param asyncCompositeIssuesProcessor
 	 * 			The processor
-	 * @param compositeIssuesWriter
+	 * @param asyncIssuesWriter
 	 * 			The writer
 	 * @param cacheEvictionListener
 	 * 			Listener for caches eviction if the step fails
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the threads of the step
+	 * @param threads
+	 * 			Number of threads running the chunks
+	 * @param mantisChunkExecutor
+	 * 			Executor running the chunks if there is more than one thread
 	 * @return
 	 */
 	@Bean
 	public Step forceIssuesSyncStep(final StepBuilderFactory stepBuilderFactory,
 			final ListItemReader<BugIdBean> listIssuesReader,
-			final CompositeItemProcessor<BugIdBean, BugBean> compositeIssuesProcessor,
-			final CompositeItemWriter<BugBean> compositeIssuesWriter,
-			final CacheEvictionListener cacheEvictionListener) {
-
-		return stepBuilderFactory.get("forceIssuesSyncStep")
-				.<BugIdBean, BugBean> chunk(10)
-				.reader(listIssuesReader)
-				.processor(compositeIssuesProcessor)
-				.writer(compositeIssuesWriter)
+			final AsyncItemProcessor<BugIdBean, BugBean> asyncCompositeIssuesProcessor,
+			final AsyncItemWriter<BugBean> asyncIssuesWriter,
+			final CacheEvictionListener cacheEvictionListener,
+			final JobContextChunkListener jobContextChunkListener,
+			@Value("${mantis.issues.threads:1}") final int threads,
+			final TaskExecutor mantisChunkExecutor) {
+
+		return buildIssuesStep(stepBuilderFactory.get("forceIssuesSyncStep")
+				.<BugIdBean, Future<BugBean>> chunk(10)
+				.reader(new SynchronizedItemReader<BugIdBean>(listIssuesReader))
+				.processor(asyncCompositeIssuesProcessor)
+				.writer(asyncIssuesWriter)
 				.listener(cacheEvictionListener)
-				.build();
+				.listener(jobContextChunkListener), threads, mantisChunkExecutor);
 	}
 
 	/**
@@ -363,26 +464,156 @@ public class JobIssuesConfiguration {
 	 * 			The step builder factory
 	 * @param csvIssuesReader
 	 * 			The reader
-	 * @param compositeIssuesProcessor
+	 * @param asyncCompositeIssuesProcessor
 	 * 			The processor
-	 * @param compositeIssuesWriter
+	 * @param asyncIssuesWriter
 	 * 			The writer
 	 * @param cacheEvictionListener
 	 * 			Listener for caches eviction if the step fails
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the threads of the step
+	 * @param threads
+	 * 			Number of threads running the chunks
+	 * @param mantisChunkExecutor
+	 * 			Executor running the chunks if there is more than one thread
 	 * @return
 	 */
 	@Bean
 	public Step fileIssuesSyncStep(final StepBuilderFactory stepBuilderFactory,
 			final FlatFileItemReader<BugIdBean> csvIssuesReader,
-			final CompositeItemProcessor<BugIdBean, BugBean> compositeIssuesProcessor,
-			final CompositeItemWriter<BugBean> compositeIssuesWriter,
-			final CacheEvictionListener cacheEvictionListener) {
-
-		return stepBuilderFactory.get("fileIssuesSyncStep")
-				.<BugIdBean, BugBean> chunk(10)
-				.reader(csvIssuesReader)
-				.processor(compositeIssuesProcessor)
-				.writer(compositeIssuesWriter)
+			final AsyncItemProcessor<BugIdBean, BugBean> asyncCompositeIssuesProcessor,
+			final AsyncItemWriter<BugBean> asyncIssuesWriter,
+			final CacheEvictionListener cacheEvictionListener,
+			final JobContextChunkListener jobContextChunkListener,
+			@Value("${mantis.issues.threads:1}") final int threads,
+			final TaskExecutor mantisChunkExecutor) {
+
+		return buildIssuesStep(stepBuilderFactory.get("fileIssuesSyncStep")
+				.<BugIdBean, Future<BugBean>> chunk(10)
+				.reader(new SynchronizedItemReader<BugIdBean>(csvIssuesReader))
+				.processor(asyncCompositeIssuesProcessor)
+				.writer(asyncIssuesWriter)
+				.listener(cacheEvictionListener)
+				.listener(jobContextChunkListener), threads, mantisChunkExecutor);
+	}
+
+	/**
+	 * Build the step syncing the issues of a partition, for the partitioned steps.
+	 * The ids of the partition are read from its execution context.
+	 *
+	 * @param stepBuilderFactory
+	 * 			The step builder factory
+	 * @param partitionIssuesReader
+	 * 			The reader
+	 * @param asyncCompositeIssuesProcessor
+	 * 			The processor
+	 * @param asyncIssuesWriter
+	 * 			The writer
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the threads of the step
+	 * @param threads
+	 * 			Number of threads running the chunks
+	 * @param mantisChunkExecutor
+	 * 			Executor running the chunks if there is more than one thread
+	 * @return the step
+	 */
+	@Bean
+	public Step issuesPartitionSyncStep(final StepBuilderFactory stepBuilderFactory,
+			final IssuesIdListReader partitionIssuesReader,
+			final AsyncItemProcessor<BugIdBean, BugBean> asyncCompositeIssuesProcessor,
+			final AsyncItemWriter<BugBean> asyncIssuesWriter,
+			final JobContextChunkListener jobContextChunkListener,
+			@Value("${mantis.issues.threads:1}") final int threads,
+			final TaskExecutor mantisChunkExecutor) {
+
+		return buildIssuesStep(stepBuilderFactory.get("issuesPartitionSyncStep")
+				.<BugIdBean, Future<BugBean>> chunk(10)
+				.reader(new SynchronizedItemReader<BugIdBean>(partitionIssuesReader))
+				.processor(asyncCompositeIssuesProcessor)
+				.writer(asyncIssuesWriter)
+				.listener(jobContextChunkListener), threads, mantisChunkExecutor);
+	}
+
+	/**
+	 * Build the partitioned step syncing all issues which are still open in the local DB.
+	 *
+	 * @param stepBuilderFactory
+	 * 			The step builder factory
+	 * @param otherIssuesPartitioner
+	 * 			The partitioner
+	 * @param issuesPartitionSyncStep
+	 * 			The step syncing a partition
+	 * @param cacheEvictionListener
+	 * 			Listener for caches eviction if the step fails
+	 * @param mantisPartitionExecutor
+	 * 			Executor running the partitions
+	 * @return the step
+	 */
+	@Bean
+	public Step otherIssuesPartitionStep(final StepBuilderFactory stepBuilderFactory,
+			final IssuesIdPartitioner otherIssuesPartitioner, final Step issuesPartitionSyncStep,
+			final CacheEvictionListener cacheEvictionListener, final TaskExecutor mantisPartitionExecutor) {
+
+		return stepBuilderFactory.get("otherIssuesPartitionStep")
+				.partitioner(issuesPartitionSyncStep.getName(), otherIssuesPartitioner)
+				.step(issuesPartitionSyncStep)
+				.taskExecutor(mantisPartitionExecutor)
+				.listener(cacheEvictionListener)
+				.build();
+	}
+
+	/**
+	 * Build the partitioned step syncing all issues matching the ids passed in parameter.
+	 *
+	 * @param stepBuilderFactory
+	 * 			The step builder factory
+	 * @param forceIssuesPartitioner
+	 * 			The partitioner
+	 * @param issuesPartitionSyncStep
+	 * 			The step syncing a partition
+	 * @param cacheEvictionListener
+	 * 			Listener for caches eviction if the step fails
+	 * @param mantisPartitionExecutor
+	 * 			Executor running the partitions
+	 * @return the step
+	 */
+	@Bean
+	public Step forceIssuesPartitionStep(final StepBuilderFactory stepBuilderFactory,
+			final IssuesIdPartitioner forceIssuesPartitioner, final Step issuesPartitionSyncStep,
+			final CacheEvictionListener cacheEvictionListener, final TaskExecutor mantisPartitionExecutor) {
+
+		return stepBuilderFactory.get("forceIssuesPartitionStep")
+				.partitioner(issuesPartitionSyncStep.getName(), forceIssuesPartitioner)
+				.step(issuesPartitionSyncStep)
+				.taskExecutor(mantisPartitionExecutor)
+				.listener(cacheEvictionListener)
+				.build();
+	}
+
+	/**
+	 * Build the partitioned step syncing all issues matching the ids of a CSV file.
+	 *
+	 * @param stepBuilderFactory
+	 * 			The step builder factory
+	 * @param fileIssuesPartitioner
+	 * 			The partitioner
+	 * @param issuesPartitionSyncStep
+	 * 			The step syncing a partition
+	 * @param cacheEvictionListener
+	 * 			Listener for caches eviction if the step fails
+	 * @param mantisPartitionExecutor
+	 * 			Executor running the partitions
+	 * @return the step
+	 */
+	@Bean
+	public Step fileIssuesPartitionStep(final StepBuilderFactory stepBuilderFactory,
+			final IssuesIdPartitioner fileIssuesPartitioner, final Step issuesPartitionSyncStep,
+			final CacheEvictionListener cacheEvictionListener, final TaskExecutor mantisPartitionExecutor) {
+
+		return stepBuilderFactory.get("fileIssuesPartitionStep")
+				.partitioner(issuesPartitionSyncStep.getName(), fileIssuesPartitioner)
+				.step(issuesPartitionSyncStep)
+				.taskExecutor(mantisPartitionExecutor)
 				.listener(cacheEvictionListener)
 				.build();
 	}
@@ -415,4 +646,26 @@ public class JobIssuesConfiguration {
 	public CacheEvictionListener cacheEvictionListener() {
 		return new CacheEvictionListener();
 	}
+
+	/**
+	 * Build an issues sync step, multi-threaded if more than one thread is requested.
+	 * The throttle limit is the number of threads.
+	 *
+	 * @param builder
+	 * 			The step builder
+	 * @param threads
+	 * 			Number of threads running the chunks
+	 * @param taskExecutor
+	 * 			Executor running the chunks
+	 * @return the step
+	 */
+	private Step buildIssuesStep(final AbstractTaskletStepBuilder<?> builder, final int threads,
+			final TaskExecutor taskExecutor) {
+
+		if (threads > 1) {
+			builder.taskExecutor(taskExecutor).throttleLimit(threads);
+		}
+
+		return builder.build();
+	}
 }
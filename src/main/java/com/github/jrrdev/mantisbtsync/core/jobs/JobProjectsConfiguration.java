@@ -32,11 +32,14 @@ import org.springframework.batch.core.job.builder.FlowBuilder;
 import org.springframework.batch.core.job.flow.Flow;
 import org.springframework.batch.core.job.flow.JobExecutionDecider;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.core.step.tasklet.MethodInvokingTaskletAdapter;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
 
 import biz.futureware.mantis.rpc.soap.client.AccountData;
 import biz.futureware.mantis.rpc.soap.client.CustomFieldDefinitionData;
@@ -44,9 +47,12 @@ import biz.futureware.mantis.rpc.soap.client.ProjectVersionData;
 
 import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
 import com.github.jrrdev.mantisbtsync.core.common.listener.CloseAuthManagerListener;
+import com.github.jrrdev.mantisbtsync.core.common.listener.JobContextChunkListener;
+import com.github.jrrdev.mantisbtsync.core.common.listener.TransportStatisticsListener;
 import com.github.jrrdev.mantisbtsync.core.jobs.projects.beans.ProjectCategoryBean;
 import com.github.jrrdev.mantisbtsync.core.jobs.projects.beans.ProjectCustomFieldBean;
 import com.github.jrrdev.mantisbtsync.core.jobs.projects.decider.ProjectFlowDecider;
+import com.github.jrrdev.mantisbtsync.core.jobs.projects.partitioners.ProjectsPartitioner;
 import com.github.jrrdev.mantisbtsync.core.jobs.projects.processors.ProjectCategoryProcessor;
 import com.github.jrrdev.mantisbtsync.core.jobs.projects.processors.ProjectCustomFieldProcessor;
 import com.github.jrrdev.mantisbtsync.core.jobs.projects.tasklets.MantisLoginTasklet;
@@ -77,6 +83,10 @@ public class JobProjectsConfiguration {
 	 *  - mantis.project_id
 	 *  	The id of the project
 	 *
+	 * When the grid size is above 0, the projects aren't synced one after the other :
+	 * each step is partitioned with one partition per project, and the partitions run
+	 * concurrently.
+	 *
 	 * @param jobs
 	 * 			Job build factory
 	 * @param mantisProjectsListStep
@@ -90,12 +100,33 @@ public class JobProjectsConfiguration {
 	 * 			Step for portal authentication at the begining of the job
 	 * @param closeProjectsListener
 	 * 			Listener for closing the portal authentication connection at the end of the job
+	 * @param transportStatisticsListener
+	 * 			Listener logging the bytes received from MantisBT at the end of the job
+	 * @param projectPartitionFlow
+	 * 			Partitioned version of the projects sync
+	 * @param gridSize
+	 * 			Number of projects synced concurrently, 0 disables the partitioning
 	 * @return the job
 	 */
 	@Bean
 	public Job syncProjectsJob(final JobBuilderFactory jobs, final Step mantisProjectsListStep,
 			final Flow projectInitFlow, final JobExecutionDecider jobProjectInitFlowDecider,
-			final Step authProjectsStep, final CloseAuthManagerListener closeProjectsListener) {
+			final Step authProjectsStep, final CloseAuthManagerListener closeProjectsListener,
+			final TransportStatisticsListener transportStatisticsListener,
+			final Flow projectPartitionFlow,
+			@Value("${mantis.projects.grid_size:0}") final int gridSize) {
+
+		if (gridSize > 0) {
+			return jobs.get("syncProjectsJob")
+					.incrementer(new RunIdIncrementer())
+					.listener(closeProjectsListener)
+					.listener(transportStatisticsListener)
+					.flow(authProjectsStep)
+					.next(mantisProjectsListStep)
+					.next(projectPartitionFlow)
+					.end()
+					.build();
+		}
 
 		final FlowBuilder<Flow> loopBuilder = new FlowBuilder<Flow>("projectInitLoop");
 		final Flow loop = loopBuilder.start(projectInitFlow)
@@ -108,6 +139,7 @@ public class JobProjectsConfiguration {
 		return jobs.get("syncProjectsJob")
 				.incrementer(new RunIdIncrementer())
 				.listener(closeProjectsListener)
+				.listener(transportStatisticsListener)
 				.flow(authProjectsStep)
 				.next(mantisProjectsListStep)
 				.next(loop)
@@ -152,6 +184,37 @@ public class JobProjectsConfiguration {
 		return builder.build();
 	}
 
+	/**
+	 * Build the partitioned flow to sync the projects. The access level is
+	 * retrieved once, then each step runs concurrently for all the projects.
+	 *
+	 * @param mantisLoginStep
+	 * 			Step retrieving the access_level
+	 * @param projectCategoriesPartitionStep
+	 * 			Step syncing the categories of all the projects
+	 * @param projectCustomFieldsPartitionStep
+	 * 			Step syncing the custom fields of all the projects
+	 * @param projectUsersPartitionStep
+	 * 			Step syncing the users of all the projects
+	 * @param projectVersionsPartitionStep
+	 * 			Step syncing the versions of all the projects
+	 * @return the flow
+	 */
+	@Bean
+	public Flow projectPartitionFlow(final Step mantisLoginStep, final Step projectCategoriesPartitionStep,
+			final Step projectCustomFieldsPartitionStep, final Step projectUsersPartitionStep,
+			final Step projectVersionsPartitionStep) {
+
+		final FlowBuilder<Flow> builder = new FlowBuilder<Flow>("projectPartitionFlow");
+		builder.start(mantisLoginStep)
+		.next(projectCategoriesPartitionStep)
+		.next(projectCustomFieldsPartitionStep)
+		.next(projectUsersPartitionStep)
+		.next(projectVersionsPartitionStep);
+
+		return builder.build();
+	}
+
 	// end::flow[]
 
 	// tag::step[]
@@ -242,19 +305,24 @@ public class JobProjectsConfiguration {
 	 * 			The processor
 	 * @param projectCategoriesWriter
 	 * 			The writer
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the threads running the partitions
 	 * @return the step
 	 */
 	@Bean
 	public Step projectCategoriesStep(final StepBuilderFactory stepBuilderFactory,
 			final ItemReader<String> projectCategoriesReader,
 			final ProjectCategoryProcessor projectCategoriesProcessor,
-			final ItemWriter<ProjectCategoryBean> projectCategoriesWriter) {
+			final ItemWriter<ProjectCategoryBean> projectCategoriesWriter,
+			final JobContextChunkListener jobContextChunkListener) {
 
 		return stepBuilderFactory.get("projectCategoriesStep")
 				.<String, ProjectCategoryBean> chunk(10)
 				.reader(projectCategoriesReader)
 				.processor(projectCategoriesProcessor)
-				.writer(projectCategoriesWriter).build();
+				.writer(projectCategoriesWriter)
+				.listener(jobContextChunkListener)
+				.build();
 	}
 
 	/**
@@ -268,19 +336,24 @@ public class JobProjectsConfiguration {
 	 * 			The processor
 	 * @param projectCustomFieldsWriter
 	 * 			The writer
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the threads running the partitions
 	 * @return the step
 	 */
 	@Bean
 	public Step projectCustomFieldsStep(final StepBuilderFactory stepBuilderFactory,
 			final ItemReader<CustomFieldDefinitionData> projectCustomFieldsReader,
 			final ProjectCustomFieldProcessor projectCustomFieldProcessor,
-			final ItemWriter<ProjectCustomFieldBean> projectCustomFieldsWriter) {
+			final ItemWriter<ProjectCustomFieldBean> projectCustomFieldsWriter,
+			final JobContextChunkListener jobContextChunkListener) {
 
 		return stepBuilderFactory.get("projectCustomFieldsStep")
 				.<CustomFieldDefinitionData, ProjectCustomFieldBean> chunk(10)
 				.reader(projectCustomFieldsReader)
 				.processor(projectCustomFieldProcessor)
-				.writer(projectCustomFieldsWriter).build();
+				.writer(projectCustomFieldsWriter)
+				.listener(jobContextChunkListener)
+				.build();
 	}
 
 	/**
@@ -314,17 +387,21 @@ public class JobProjectsConfiguration {
 	 * 			The reader
 	 * @param projectUsersWriter
 	 * 			The writer
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the threads running the partitions
 	 * @return the step
 	 */
 	@Bean
 	public Step projectUsersStep(final StepBuilderFactory stepBuilderFactory,
 			final ItemReader<AccountData> projectUsersReader,
-			final ItemWriter<AccountData> projectUsersWriter) {
+			final ItemWriter<AccountData> projectUsersWriter,
+			final JobContextChunkListener jobContextChunkListener) {
 
 		return stepBuilderFactory.get("projectUsersStep")
 				.<AccountData, AccountData> chunk(10)
 				.reader(projectUsersReader)
 				.writer(projectUsersWriter)
+				.listener(jobContextChunkListener)
 				.build();
 	}
 
@@ -337,17 +414,146 @@ public class JobProjectsConfiguration {
 	 * 			The reader
 	 * @param projectVersionsWriter
 	 * 			The writer
+	 * @param jobContextChunkListener
+	 * 			Listener registering the job context in the threads running the partitions
 	 * @return the step
 	 */
 	@Bean
 	public Step projectVersionsStep(final StepBuilderFactory stepBuilderFactory,
 			final ItemReader<ProjectVersionData> projectVersionsReader,
-			final ItemWriter<ProjectVersionData> projectVersionsWriter) {
+			final ItemWriter<ProjectVersionData> projectVersionsWriter,
+			final JobContextChunkListener jobContextChunkListener) {
 
 		return stepBuilderFactory.get("projectVersionsStep")
 				.<ProjectVersionData, ProjectVersionData> chunk(10)
 				.reader(projectVersionsReader)
 				.writer(projectVersionsWriter)
+				.listener(jobContextChunkListener)
+				.build();
+	}
+
+	/**
+	 * Build the partitioned step syncing the categories of all the projects.
+	 *
+	 * @param stepBuilderFactory
+	 * 			The step builder factory
+	 * @param projectsPartitioner
+	 * 			The partitioner
+	 * @param projectCategoriesStep
+	 * 			The step syncing a project
+	 * @param mantisProjectsExecutor
+	 * 			Executor running the partitions
+	 * @param gridSize
+	 * 			Number of projects synced concurrently
+	 * @return the step
+	 */
+	@Bean
+	public Step projectCategoriesPartitionStep(final StepBuilderFactory stepBuilderFactory,
+			final ProjectsPartitioner projectsPartitioner, final Step projectCategoriesStep,
+			final TaskExecutor mantisProjectsExecutor,
+			@Value("${mantis.projects.grid_size:0}") final int gridSize) {
+
+		return buildProjectsPartitionStep(stepBuilderFactory.get("projectCategoriesPartitionStep"),
+				projectsPartitioner, projectCategoriesStep, mantisProjectsExecutor, gridSize);
+	}
+
+	/**
+	 * Build the partitioned step syncing the custom fields of all the projects.
+	 *
+	 * @param stepBuilderFactory
+	 * 			The step builder factory
+	 * @param projectsPartitioner
+	 * 			The partitioner
+	 * @param projectCustomFieldsStep
+	 * 			The step syncing a project
+	 * @param mantisProjectsExecutor
+	 * 			Executor running the partitions
+	 * @param gridSize
+	 * 			Number of projects synced concurrently
+	 * @return the step
+	 */
+	@Bean
+	public Step projectCustomFieldsPartitionStep(final StepBuilderFactory stepBuilderFactory,
+			final ProjectsPartitioner projectsPartitioner, final Step projectCustomFieldsStep,
+			final TaskExecutor mantisProjectsExecutor,
+			@Value("${mantis.projects.grid_size:0}") final int gridSize) {
+
+		return buildProjectsPartitionStep(stepBuilderFactory.get("projectCustomFieldsPartitionStep"),
+				projectsPartitioner, projectCustomFieldsStep, mantisProjectsExecutor, gridSize);
+	}
+
+	/**
+	 * Build the partitioned step syncing the users of all the projects.
+	 *
+	 * @param stepBuilderFactory
+	 * 			The step builder factory
+	 * @param projectsPartitioner
+	 * 			The partitioner
+	 * @param projectUsersStep
+	 * 			The step syncing a project
+	 * @param mantisProjectsExecutor
+	 * 			Executor running the partitions
+	 * @param gridSize
+	 * 			Number of projects synced concurrently
+	 * @return the step
+	 */
+	@Bean
+	public Step projectUsersPartitionStep(final StepBuilderFactory stepBuilderFactory,
+			final ProjectsPartitioner projectsPartitioner, final Step projectUsersStep,
+			final TaskExecutor mantisProjectsExecutor,
+			@Value("${mantis.projects.grid_size:0}") final int gridSize) {
+
+		return buildProjectsPartitionStep(stepBuilderFactory.get("projectUsersPartitionStep"),
+				projectsPartitioner, projectUsersStep, mantisProjectsExecutor, gridSize);
+	}
+
+	/**
+	 * Build the partitioned step syncing the versions of all the projects.
+	 *
+	 * @param stepBuilderFactory
+	 * 			The step builder factory
+	 * @param projectsPartitioner
+	 * 			The partitioner
+	 * @param projectVersionsStep
+	 * 			The step syncing a project
+	 * @param mantisProjectsExecutor
+	 * 			Executor running the partitions
+	 * @param gridSize
+	 * 			Number of projects synced concurrently
+	 * @return the step
+	 */
+	@Bean
+	public Step projectVersionsPartitionStep(final StepBuilderFactory stepBuilderFactory,
+			final ProjectsPartitioner projectsPartitioner, final Step projectVersionsStep,
+			final TaskExecutor mantisProjectsExecutor,
+			@Value("${mantis.projects.grid_size:0}") final int gridSize) {
+
+		return buildProjectsPartitionStep(stepBuilderFactory.get("projectVersionsPartitionStep"),
+				projectsPartitioner, projectVersionsStep, mantisProjectsExecutor, gridSize);
+	}
+
+	/**
+	 * Build a partitioned step running the given step once per project.
+	 *
+	 * @param builder
+	 * 			The step builder
+	 * @param partitioner
+	 * 			The partitioner
+	 * @param step
+	 * 			The step syncing a project
+	 * @param executor
+	 * 			Executor running the partitions
+	 * @param gridSize
+	 * 			Number of projects synced concurrently
+	 * @return the step
+	 */
+	private Step buildProjectsPartitionStep(final StepBuilder builder, final ProjectsPartitioner partitioner,
+			final Step step, final TaskExecutor executor, final int gridSize) {
+
+		return builder.partitioner(step.getName(), partitioner)
+				.step(step)
+				.gridSize(Math.max(1, gridSize))
+				.taskExecutor(executor)
 				.build();
 	}
 
@@ -26,16 +26,31 @@ package com.github.jrrdev.mantisbtsync.core.jobs.common;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.concurrent.TimeUnit;
 
 import javax.xml.bind.JAXBException;
 
 import org.apache.axis.AxisFault;
-import org.apache.axis.MessageContext;
-import org.apache.axis.configuration.BasicClientConfig;
-import org.apache.axis.transport.http.HTTPConstants;
+import org.apache.axis.SimpleTargetedChain;
+import org.apache.axis.configuration.SimpleProvider;
+import org.apache.axis.transport.http.HTTPTransport;
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultIntroductionAdvisor;
+import org.springframework.aop.support.DelegatingIntroductionInterceptor;
 import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.step.tasklet.MethodInvokingTaskletAdapter;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -45,6 +60,11 @@ import biz.futureware.mantis.rpc.soap.client.MantisConnectLocator;
 
 import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthBuilder;
 import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
+import com.github.jrrdev.mantisbtsync.core.common.concurrent.PerThreadTargetSource;
+import com.github.jrrdev.mantisbtsync.core.common.listener.JobContextChunkListener;
+import com.github.jrrdev.mantisbtsync.core.common.listener.TransportStatisticsListener;
+import com.github.jrrdev.mantisbtsync.core.common.transport.HttpClientTransportSender;
+import com.github.jrrdev.mantisbtsync.core.common.transport.TransportStatistics;
 
 /**
  * Configuration for the tasklets used by all jobs.
@@ -84,21 +104,168 @@ public class CommonTasklets {
 		return authBuilder.buildAuthManager(filepath);
 	}
 
+	/**
+	 * Build the HTTP client used by the Axis client stub. Connections are pooled
+	 * and kept alive between the WS calls. The client shares the cookie store of the
+	 * portal authentication manager, so the authentication cookie is sent
+	 * with each call. The client is closed at the end of the job.
+	 *
+	 * @param authManager
+	 * 		the portal authentication manager
+	 * @param maxPerRoute
+	 * 		Maximum number of connections to the MantisBT server
+	 * @param maxTotal
+	 * 		Maximum number of connections in the pool
+	 * @param keepAlive
+	 * 		Maximum time in seconds a connection is kept alive if the server
+	 * 		doesn't send a shorter keep-alive timeout
+	 * @param idleTimeout
+	 * 		Time in seconds after which an idle connection is evicted from the pool
+	 * @return the HTTP client
+	 */
+	@Bean
+	@JobScope
+	public CloseableHttpClient mantisHttpClient(final PortalAuthManager authManager,
+			@Value("${mantis.http.max_per_route:10}") final int maxPerRoute,
+			@Value("${mantis.http.max_total:20}") final int maxTotal,
+			@Value("${mantis.http.keep_alive:30}") final long keepAlive,
+			@Value("${mantis.http.idle_timeout:10}") final long idleTimeout) {
+
+		final PoolingHttpClientConnectionManager connManager = new PoolingHttpClientConnectionManager();
+		connManager.setDefaultMaxPerRoute(maxPerRoute);
+		connManager.setMaxTotal(maxTotal);
+
+		final long keepAliveMs = TimeUnit.SECONDS.toMillis(keepAlive);
+		final ConnectionKeepAliveStrategy keepAliveStrategy = new ConnectionKeepAliveStrategy() {
+
+			@Override
+			public long getKeepAliveDuration(final HttpResponse response, final HttpContext context) {
+				final long serverValue = DefaultConnectionKeepAliveStrategy.INSTANCE
+						.getKeepAliveDuration(response, context);
+				return (serverValue > 0) ? Math.min(serverValue, keepAliveMs) : keepAliveMs;
+			}
+		};
+
+		// Responses decompression is done by the Axis transport to count the received bytes
+		return HttpClients.custom().setConnectionManager(connManager)
+				.setDefaultCookieStore(authManager.getCookieStore())
+				.setKeepAliveStrategy(keepAliveStrategy)
+				.disableContentCompression()
+				.evictExpiredConnections()
+				.evictIdleConnections(idleTimeout, TimeUnit.SECONDS)
+				.useSystemProperties().build();
+	}
+
+	/**
+	 * Build the counters of the bytes received by the HTTP transport.
+	 *
+	 * @return the counters
+	 */
+	@Bean
+	@JobScope
+	public TransportStatistics mantisTransportStatistics() {
+		return new TransportStatistics();
+	}
+
+	/**
+	 * Build the listener logging the counters of the HTTP transport at the end of the job.
+	 *
+	 * @param mantisTransportStatistics
+	 * 		the counters of the HTTP transport
+	 * @return the listener
+	 */
+	@Bean
+	public TransportStatisticsListener transportStatisticsListener(
+			final TransportStatistics mantisTransportStatistics) {
+
+		final TransportStatisticsListener listener = new TransportStatisticsListener();
+		listener.setStatistics(mantisTransportStatistics);
+		return listener;
+	}
+
+	/**
+	 * Build the listener registering the job context in the threads
+	 * of the multi-threaded and partitioned steps.
+	 *
+	 * @return the listener
+	 */
+	@Bean
+	public JobContextChunkListener jobContextChunkListener() {
+		return new JobContextChunkListener();
+	}
+
+	/**
+	 * Build the Axis client stub. Each thread calling the stub gets its own
+	 * stub instance, so the multi-threaded steps and the concurrent calls don't share it.
+	 * All the instances send their calls through the pooled HTTP client.
+	 *
+	 * @param endpoint
+	 * 		the MantisBT endpoint
+	 * @param compression
+	 * 		true to request compressed responses
+	 * @param mantisHttpClient
+	 * 		the pooled HTTP client
+	 * @param mantisTransportStatistics
+	 * 		the counters of the HTTP transport
+	 * @return the client stub
+	 * @throws MalformedURLException
+	 * 		if the endpoint is invalid
+	 */
 	@Bean
 	@JobScope
 	public MantisConnectBindingStub clientStub(@Value("${mantis.endpoint}") final String endpoint,
-			final PortalAuthBuilder authBuilder) throws AxisFault, MalformedURLException {
+			@Value("${mantis.http.compression:true}") final boolean compression,
+			final CloseableHttpClient mantisHttpClient,
+			final TransportStatistics mantisTransportStatistics) throws MalformedURLException {
 
 		if (endpoint == null) {
 			throw new MalformedURLException("Mantis endpoint can't be null");
 		}
 
-		final MantisConnectLocator loc = new MantisConnectLocator(new BasicClientConfig());
-		loc.setMantisConnectPortEndpointAddress(endpoint);
-		final MantisConnectBindingStub stub = new MantisConnectBindingStub(new URL(endpoint), loc);
-		stub._setProperty(MessageContext.HTTP_TRANSPORT_VERSION, HTTPConstants.HEADER_PROTOCOL_V11);
-		stub.setMaintainSession(true);
+		final URL endpointUrl = new URL(endpoint);
+
+		// Replace the default Axis HTTP sender by the pooled HTTP client
+		final HttpClientTransportSender sender = new HttpClientTransportSender(mantisHttpClient);
+		sender.setCompressionEnabled(compression);
+		sender.setStatistics(mantisTransportStatistics);
+
+		final SimpleTargetedChain transport = new SimpleTargetedChain(sender);
+		final SimpleProvider config = new SimpleProvider();
+		config.deployTransport(HTTPTransport.DEFAULT_TRANSPORT_NAME, transport);
+		config.deployTransport("https", transport);
+
+		final ObjectFactory<MantisConnectBindingStub> stubFactory = new ObjectFactory<MantisConnectBindingStub>() {
+
+			@Override
+			public MantisConnectBindingStub getObject() throws BeansException {
+				final MantisConnectLocator loc = new MantisConnectLocator(config);
+				loc.setMantisConnectPortEndpointAddress(endpoint);
+
+				try {
+					return new MantisConnectBindingStub(endpointUrl, loc);
+				} catch (final AxisFault e) {
+					throw new BeanCreationException("Can't create the Mantis client stub", e);
+				}
+			}
+		};
+
+		final PerThreadTargetSource targetSource = new PerThreadTargetSource(MantisConnectBindingStub.class,
+				stubFactory);
+
+		final ProxyFactory proxyFactory = new ProxyFactory();
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.setTargetSource(targetSource);
+		// The job scope destroys the proxy at the end of the job, which drops the stubs of all the threads
+		final DisposableBean stubsDisposer = new DisposableBean() {
+
+			@Override
+			public void destroy() throws Exception {
+				targetSource.destroy();
+			}
+		};
+		proxyFactory.addAdvisor(new DefaultIntroductionAdvisor(new DelegatingIntroductionInterceptor(stubsDisposer),
+				DisposableBean.class));
 
-		return stub;
+		return (MantisConnectBindingStub) proxyFactory.getProxy();
 	}
 }
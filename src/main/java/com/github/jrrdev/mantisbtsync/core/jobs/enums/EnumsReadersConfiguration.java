@@ -31,7 +31,6 @@ import org.springframework.context.annotation.Configuration;
 
 import biz.futureware.mantis.rpc.soap.client.ObjectRef;
 
-import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
 import com.github.jrrdev.mantisbtsync.core.common.readers.AxisAuthItemsArrayReader;
 
 /**
@@ -51,8 +50,6 @@ public class EnumsReadersConfiguration {
 	 * Reader for the custom fields types. Use mc_enum_custom_field_types
 	 * ws operation.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -63,20 +60,17 @@ public class EnumsReadersConfiguration {
 	 */
 	@Bean
 	@StepScope
-	public AxisAuthItemsArrayReader<ObjectRef> customFieldTypesReader(final PortalAuthManager authManager,
-			final Stub clientStub,
+	public AxisAuthItemsArrayReader<ObjectRef> customFieldTypesReader(final Stub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password) {
 
-		return getEnumReader("mc_enum_custom_field_types", authManager,
+		return getEnumReader("mc_enum_custom_field_types",
 				clientStub, userName, password);
 	}
 
 	/**
 	 * Reader for the etas. Use mc_enum_etas ws operation.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -87,20 +81,17 @@ public class EnumsReadersConfiguration {
 	 */
 	@Bean
 	@StepScope
-	public AxisAuthItemsArrayReader<ObjectRef> etasReader(final PortalAuthManager authManager,
-			final Stub clientStub,
+	public AxisAuthItemsArrayReader<ObjectRef> etasReader(final Stub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password) {
 
-		return getEnumReader("mc_enum_etas", authManager,
+		return getEnumReader("mc_enum_etas",
 				clientStub, userName, password);
 	}
 
 	/**
 	 * Reader for the priorities. Use mc_enum_priorities ws operation.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -111,20 +102,17 @@ public class EnumsReadersConfiguration {
 	 */
 	@Bean
 	@StepScope
-	public AxisAuthItemsArrayReader<ObjectRef> prioritiesReader(final PortalAuthManager authManager,
-			final Stub clientStub,
+	public AxisAuthItemsArrayReader<ObjectRef> prioritiesReader(final Stub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password) {
 
-		return getEnumReader("mc_enum_priorities", authManager,
+		return getEnumReader("mc_enum_priorities",
 				clientStub, userName, password);
 	}
 
 	/**
 	 * Reader for the projections. Use mc_enum_projections ws operation.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -135,20 +123,17 @@ public class EnumsReadersConfiguration {
 	 */
 	@Bean
 	@StepScope
-	public AxisAuthItemsArrayReader<ObjectRef> projectionsReader(final PortalAuthManager authManager,
-			final Stub clientStub,
+	public AxisAuthItemsArrayReader<ObjectRef> projectionsReader(final Stub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password) {
 
-		return getEnumReader("mc_enum_projections", authManager,
+		return getEnumReader("mc_enum_projections",
 				clientStub, userName, password);
 	}
 
 	/**
 	 * Reader for the project status. Use mc_enum_project_status ws operation.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -159,20 +144,17 @@ public class EnumsReadersConfiguration {
 	 */
 	@Bean
 	@StepScope
-	public AxisAuthItemsArrayReader<ObjectRef> projectStatusReader(final PortalAuthManager authManager,
-			final Stub clientStub,
+	public AxisAuthItemsArrayReader<ObjectRef> projectStatusReader(final Stub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password) {
 
-		return getEnumReader("mc_enum_project_status", authManager,
+		return getEnumReader("mc_enum_project_status",
 				clientStub, userName, password);
 	}
 
 	/**
 	 * Reader for the project view states. Use mc_enum_project_view_states ws operation.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -183,20 +165,17 @@ public class EnumsReadersConfiguration {
 	 */
 	@Bean
 	@StepScope
-	public AxisAuthItemsArrayReader<ObjectRef> projectViewStatesReader(final PortalAuthManager authManager,
-			final Stub clientStub,
+	public AxisAuthItemsArrayReader<ObjectRef> projectViewStatesReader(final Stub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password) {
 
-		return getEnumReader("mc_enum_project_view_states", authManager,
+		return getEnumReader("mc_enum_project_view_states",
 				clientStub, userName, password);
 	}
 
 	/**
 	 * Reader for the reprocibilites. Use mc_enum_reproducibilities ws operation.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -207,19 +186,16 @@ public class EnumsReadersConfiguration {
 	 */
 	@Bean
 	@StepScope
-	public AxisAuthItemsArrayReader<ObjectRef> reproducibilitiesReader(final PortalAuthManager authManager,
-			final Stub clientStub,
+	public AxisAuthItemsArrayReader<ObjectRef> reproducibilitiesReader(final Stub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password) {
-		return getEnumReader("mc_enum_reproducibilities", authManager,
+		return getEnumReader("mc_enum_reproducibilities",
 				clientStub, userName, password);
 	}
 
 	/**
 	 * Reader for the resolutions states. Use mc_enum_resolutions ws operation.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -230,20 +206,17 @@ public class EnumsReadersConfiguration {
 	 */
 	@Bean
 	@StepScope
-	public AxisAuthItemsArrayReader<ObjectRef> resolutionsReader(final PortalAuthManager authManager,
-			final Stub clientStub,
+	public AxisAuthItemsArrayReader<ObjectRef> resolutionsReader(final Stub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password) {
 
-		return getEnumReader("mc_enum_resolutions", authManager,
+		return getEnumReader("mc_enum_resolutions",
 				clientStub, userName, password);
 	}
 
 	/**
 	 * Reader for the severities. Use mc_enum_severities ws operation.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -254,20 +227,17 @@ public class EnumsReadersConfiguration {
 	 */
 	@Bean
 	@StepScope
-	public AxisAuthItemsArrayReader<ObjectRef> severitiesReader(final PortalAuthManager authManager,
-			final Stub clientStub,
+	public AxisAuthItemsArrayReader<ObjectRef> severitiesReader(final Stub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password) {
 
-		return getEnumReader("mc_enum_severities", authManager,
+		return getEnumReader("mc_enum_severities",
 				clientStub, userName, password);
 	}
 
 	/**
 	 * Reader for the issues status. Use mc_enum_status ws operation.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -278,12 +248,11 @@ public class EnumsReadersConfiguration {
 	 */
 	@Bean
 	@StepScope
-	public AxisAuthItemsArrayReader<ObjectRef> statusReader(final PortalAuthManager authManager,
-			final Stub clientStub,
+	public AxisAuthItemsArrayReader<ObjectRef> statusReader(final Stub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password) {
 
-		return getEnumReader("mc_enum_status", authManager,
+		return getEnumReader("mc_enum_status",
 				clientStub, userName, password);
 	}
 
@@ -291,8 +260,6 @@ public class EnumsReadersConfiguration {
 	 * Build the reader for the given ws operation.
 	 *
 	 * @param operation
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -302,12 +269,11 @@ public class EnumsReadersConfiguration {
 	 * @return the reader
 	 */
 	private AxisAuthItemsArrayReader<ObjectRef> getEnumReader(final String operation,
-			final PortalAuthManager authManager, final Stub clientStub,
+			final Stub clientStub,
 			final String userName, final String password) {
 
 		final AxisAuthItemsArrayReader<ObjectRef> reader = new AxisAuthItemsArrayReader<ObjectRef>();
 		reader.setTargetMethod(operation);
-		reader.setAuthManager(authManager);
 		reader.setClientStub(clientStub);
 		reader.setArguments(new Object[]{userName, password});
 
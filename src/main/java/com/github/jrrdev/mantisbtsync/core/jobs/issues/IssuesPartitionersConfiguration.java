@@ -0,0 +1,126 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugIdBean;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.partitioners.IssuesIdPartitioner;
+import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
+
+/**
+ * Configuration for the partitioners used to sync issues.
+ *
+ * @author jrrdev
+ *
+ */
+@Configuration
+public class IssuesPartitionersConfiguration {
+
+	/**
+	 * Partitioner splitting the issues still marked as opened in the local DB
+	 * and that weren't sync since the job start time.
+	 *
+	 * @param dao
+	 * 			The issues DAO
+	 * @param projectId
+	 * 			The id of the project
+	 * @param jobRunTime
+	 * 			Job start time
+	 * @param partitionSize
+	 * 			Number of issues by partition
+	 * @return the partitioner
+	 */
+	@Bean
+	@StepScope
+	public IssuesIdPartitioner otherIssuesPartitioner(final IssuesDao dao,
+			@Value("#{jobParameters['mantis.project_id']}") final BigInteger projectId,
+			@Value("#{jobExecutionContext['mantis.update.current_job_run']}") final Calendar jobRunTime,
+			@Value("${mantis.issues.partition_size:0}") final int partitionSize) {
+
+		final List<BugIdBean> itemList = new ArrayList<BugIdBean>();
+		final long[] ids = dao.getNotClosedIssuesId(jobRunTime, projectId.longValue());
+		for (final long id : ids) {
+			final BugIdBean bean = new BugIdBean();
+			bean.setId(id);
+			itemList.add(bean);
+		}
+
+		final IssuesIdPartitioner partitioner = new IssuesIdPartitioner();
+		partitioner.setReader(new ListItemReader<BugIdBean>(itemList));
+		partitioner.setPartitionSize(partitionSize);
+		return partitioner;
+	}
+
+	/**
+	 * Partitioner splitting the list of issues ids passed in the job parameter mantis.issues_id.
+	 *
+	 * @param listIssuesReader
+	 * 			Reader of the job parameter
+	 * @param partitionSize
+	 * 			Number of issues by partition
+	 * @return the partitioner
+	 */
+	@Bean
+	@StepScope
+	public IssuesIdPartitioner forceIssuesPartitioner(final ListItemReader<BugIdBean> listIssuesReader,
+			@Value("${mantis.issues.partition_size:0}") final int partitionSize) {
+
+		final IssuesIdPartitioner partitioner = new IssuesIdPartitioner();
+		partitioner.setReader(listIssuesReader);
+		partitioner.setPartitionSize(partitionSize);
+		return partitioner;
+	}
+
+	/**
+	 * Partitioner splitting the list of issues ids read from the CSV file
+	 * passed in the job parameter mantis.filepath.
+	 *
+	 * @param csvIssuesReader
+	 * 			Reader of the CSV file
+	 * @param partitionSize
+	 * 			Number of issues by partition
+	 * @return the partitioner
+	 */
+	@Bean
+	@StepScope
+	public IssuesIdPartitioner fileIssuesPartitioner(final FlatFileItemReader<BugIdBean> csvIssuesReader,
+			@Value("${mantis.issues.partition_size:0}") final int partitionSize) {
+
+		final IssuesIdPartitioner partitioner = new IssuesIdPartitioner();
+		partitioner.setReader(csvIssuesReader);
+		partitioner.setPartitionSize(partitionSize);
+		return partitioner;
+	}
+}
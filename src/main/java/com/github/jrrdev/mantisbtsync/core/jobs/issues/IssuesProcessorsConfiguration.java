@@ -12,10 +12,12 @@ import org.springframework.batch.item.support.CompositeItemProcessor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
 
+import biz.futureware.mantis.rpc.soap.client.IssueData;
 import biz.futureware.mantis.rpc.soap.client.MantisConnectBindingStub;
 
-import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
+import com.github.jrrdev.mantisbtsync.core.common.concurrent.AsyncItemProcessor;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugIdBean;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.processors.IssuesIdProcessor;
@@ -34,28 +36,28 @@ public class IssuesProcessorsConfiguration {
 	 * Processor that transform the raw data retrieved from mc_issue_get
 	 * to a bean usable for insertion in the DB.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
 	 * 			MantisBT username. If anonymous access is used, should be an empty string.
 	 * @param password
 	 * 			MantisBT password. If anonymous access is used, should be an empty string.
+	 * @param incrementalHistory
+	 * 			If true, only the history entries after the high-water mark of the issue are written
 	 * @return the processor
 	 */
 	@Bean
 	@StepScope
-	public IssuesProcessor issuesProcessor(final PortalAuthManager authManager,
-			final MantisConnectBindingStub clientStub,
+	public IssuesProcessor issuesProcessor(final MantisConnectBindingStub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
-			@Value("#{jobParameters['mantis.password']}") final String password) {
+			@Value("#{jobParameters['mantis.password']}") final String password,
+			@Value("${mantis.issues.incremental_history:false}") final boolean incrementalHistory) {
 
 		final IssuesProcessor issuesProcessor = new IssuesProcessor();
-		issuesProcessor.setAuthManager(authManager);
 		issuesProcessor.setClientStub(clientStub);
 		issuesProcessor.setUserName(userName);
 		issuesProcessor.setPassword(password);
+		issuesProcessor.setIncrementalHistory(incrementalHistory);
 
 		return issuesProcessor;
 	}
@@ -64,8 +66,6 @@ public class IssuesProcessorsConfiguration {
 	 * Processor used to retrieve the data related to the issue by calling
 	 * mc_issue_get ws operation by using the given issue id.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -76,13 +76,11 @@ public class IssuesProcessorsConfiguration {
 	 */
 	@Bean
 	@StepScope
-	public IssuesIdProcessor issuesIdProcessor(final PortalAuthManager authManager,
-			final MantisConnectBindingStub clientStub,
+	public IssuesIdProcessor issuesIdProcessor(final MantisConnectBindingStub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password) {
 
 		final IssuesIdProcessor issuesProcessor = new IssuesIdProcessor();
-		issuesProcessor.setAuthManager(authManager);
 		issuesProcessor.setClientStub(clientStub);
 		issuesProcessor.setUserName(userName);
 		issuesProcessor.setPassword(password);
@@ -114,4 +112,59 @@ public class IssuesProcessorsConfiguration {
 
 		return compositeIssuesProcessor;
 	}
+
+	/**
+	 * Processor running the IssuesProcessor on the fetch executor, so the
+	 * history of the issues of a chunk is retrieved concurrently.
+	 *
+	 * @param issuesProcessor
+	 * 			The IssuesProcessor
+	 * @param asyncProcessing
+	 * 			If false, the issues are processed in the chunk thread
+	 * @param mantisFetchExecutor
+	 * 			Executor used for the concurrent calls
+	 * @return the processor
+	 */
+	@Bean
+	@StepScope
+	public AsyncItemProcessor<IssueData, BugBean> asyncIssuesProcessor(final IssuesProcessor issuesProcessor,
+			@Value("${mantis.issues.async_processing:false}") final boolean asyncProcessing,
+			final AsyncTaskExecutor mantisFetchExecutor) {
+
+		final AsyncItemProcessor<IssueData, BugBean> processor = new AsyncItemProcessor<IssueData, BugBean>();
+		processor.setDelegate(issuesProcessor);
+		if (asyncProcessing) {
+			processor.setTaskExecutor(mantisFetchExecutor);
+		}
+
+		return processor;
+	}
+
+	/**
+	 * Processor running the composite issues processor on the fetch executor, so the
+	 * issues of a chunk and their history are retrieved concurrently.
+	 *
+	 * @param compositeIssuesProcessor
+	 * 			The composite issues processor
+	 * @param asyncProcessing
+	 * 			If false, the issues are processed in the chunk thread
+	 * @param mantisFetchExecutor
+	 * 			Executor used for the concurrent calls
+	 * @return the processor
+	 */
+	@Bean
+	@StepScope
+	public AsyncItemProcessor<BugIdBean, BugBean> asyncCompositeIssuesProcessor(
+			final CompositeItemProcessor<BugIdBean, BugBean> compositeIssuesProcessor,
+			@Value("${mantis.issues.async_processing:false}") final boolean asyncProcessing,
+			final AsyncTaskExecutor mantisFetchExecutor) {
+
+		final AsyncItemProcessor<BugIdBean, BugBean> processor = new AsyncItemProcessor<BugIdBean, BugBean>();
+		processor.setDelegate(compositeIssuesProcessor);
+		if (asyncProcessing) {
+			processor.setTaskExecutor(mantisFetchExecutor);
+		}
+
+		return processor;
+	}
 }
@@ -39,13 +39,17 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.task.AsyncTaskExecutor;
 
 import biz.futureware.mantis.rpc.soap.client.MantisConnectBindingStub;
 
-import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
+import com.github.jrrdev.mantisbtsync.core.common.transport.TransportStatistics;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugIdBean;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.readers.IssueHeadersReader;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.readers.IssuesIdListReader;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.readers.OpenIssuesReader;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.readers.OtherIssuesReader;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.readers.PageSizeController;
 
 /**
  * Configuration for the readers used to sync issues.
@@ -60,8 +64,6 @@ public class IssuesReadersConfiguration {
 	 * Reader for all issues that are still open in the given project and that was
 	 * updated since a given datetime passed in the job execution context.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -72,24 +74,112 @@ public class IssuesReadersConfiguration {
 	 * 			The id of the project
 	 * @param lastJobRun
 	 * 			Datetime of the last successful sync.
+	 * @param prefetchDepth
+	 * 			Number of pages requested in advance, 0 disables the prefetch
+	 * @param mantisFetchExecutor
+	 * 			Executor used for the prefetch
+	 * @param lastPageSize
+	 * 			Page size reached by the last successful sync, if any
+	 * @param initialPageSize
+	 * 			Page size used when the last sync didn't record one
+	 * @param minPageSize
+	 * 			Minimal page size
+	 * @param maxPageSize
+	 * 			Maximal page size
+	 * @param targetLatency
+	 * 			Targeted duration of a page call, in milliseconds
+	 * @param maxPayloadBytes
+	 * 			Maximal size of a page response, in bytes
+	 * @param mantisTransportStatistics
+	 * 			Counters of the HTTP transport, giving the size of the responses
 	 * @return the reader
 	 */
 	@Bean
 	@StepScope
-	public OpenIssuesReader openIssuesReader(final PortalAuthManager authManager,
-			final MantisConnectBindingStub clientStub,
+	public OpenIssuesReader openIssuesReader(final MantisConnectBindingStub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password,
 			@Value("#{jobParameters['mantis.project_id']}") final BigInteger projectId,
-			@Value("#{jobExecutionContext['mantis.update.last_job_run']}") final Date lastJobRun) {
+			@Value("#{jobExecutionContext['mantis.update.last_job_run']}") final Date lastJobRun,
+			@Value("${mantis.issues.prefetch_depth:0}") final int prefetchDepth,
+			final AsyncTaskExecutor mantisFetchExecutor,
+			@Value("#{jobExecutionContext['mantis.issues.page_size']}") final Integer lastPageSize,
+			@Value("${mantis.issues.page_size:20}") final int initialPageSize,
+			@Value("${mantis.issues.page_size.min:10}") final int minPageSize,
+			@Value("${mantis.issues.page_size.max:250}") final int maxPageSize,
+			@Value("${mantis.issues.page_size.target_latency:5000}") final long targetLatency,
+			@Value("${mantis.issues.page_size.max_bytes:4194304}") final long maxPayloadBytes,
+			final TransportStatistics mantisTransportStatistics) {
+
+		final PageSizeController pageSizeController = new PageSizeController();
+		pageSizeController.setMinPageSize(minPageSize);
+		pageSizeController.setMaxPageSize(maxPageSize);
+		pageSizeController.setTargetLatency(targetLatency);
+		pageSizeController.setMaxPayloadBytes(maxPayloadBytes);
+		pageSizeController.setPageSize((lastPageSize != null) ? lastPageSize : initialPageSize);
 
 		final OpenIssuesReader reader = new OpenIssuesReader();
-		reader.setAuthManager(authManager);
 		reader.setClientStub(clientStub);
 		reader.setLastJobRun(lastJobRun);
 		reader.setPassword(password);
 		reader.setProjectId(projectId);
 		reader.setUserName(userName);
+		reader.setPrefetchDepth(prefetchDepth);
+		reader.setTaskExecutor(mantisFetchExecutor);
+		reader.setPageSizeController(pageSizeController);
+		reader.setTransportStatistics(mantisTransportStatistics);
+
+		return reader;
+	}
+
+	/**
+	 * Reader for all issues that are still open in the given project and that was
+	 * updated since a given datetime passed in the job execution context.
+	 * The issues headers are compared with the local DB first, so only the changed
+	 * issues are fully retrieved.
+	 *
+	 * @param clientStub
+	 * 			Axis client stub
+	 * @param userName
+	 * 			MantisBT username. If anonymous access is used, should be an empty string.
+	 * @param password
+	 * 			MantisBT password. If anonymous access is used, should be an empty string.
+	 * @param projectId
+	 * 			The id of the project
+	 * @param lastJobRun
+	 * 			Datetime of the last successful sync.
+	 * @param pageSize
+	 * 			Number of headers requested by page
+	 * @param parallelism
+	 * 			Maximum number of mc_issue_get calls in flight, 1 means sequential calls
+	 * @param callTimeout
+	 * 			Socket timeout in milliseconds of a mc_issue_get call, 0 means the timeout of the stub
+	 * @param mantisFetchExecutor
+	 * 			Executor used for the concurrent calls
+	 * @return the reader
+	 */
+	@Bean
+	@StepScope
+	public IssueHeadersReader issueHeadersReader(final MantisConnectBindingStub clientStub,
+			@Value("#{jobParameters['mantis.username']}") final String userName,
+			@Value("#{jobParameters['mantis.password']}") final String password,
+			@Value("#{jobParameters['mantis.project_id']}") final BigInteger projectId,
+			@Value("#{jobExecutionContext['mantis.update.last_job_run']}") final Date lastJobRun,
+			@Value("${mantis.issues.headers.page_size:100}") final int pageSize,
+			@Value("${mantis.issues.fetch_parallelism:1}") final int parallelism,
+			@Value("${mantis.issues.fetch_timeout:0}") final long callTimeout,
+			final AsyncTaskExecutor mantisFetchExecutor) {
+
+		final IssueHeadersReader reader = new IssueHeadersReader();
+		reader.setClientStub(clientStub);
+		reader.setLastJobRun(lastJobRun);
+		reader.setPassword(password);
+		reader.setProjectId(projectId);
+		reader.setUserName(userName);
+		reader.setPageSize(pageSize);
+		reader.setParallelism(parallelism);
+		reader.setCallTimeout(callTimeout);
+		reader.setTaskExecutor(mantisFetchExecutor);
 
 		return reader;
 	}
@@ -98,8 +188,6 @@ public class IssuesReadersConfiguration {
 	 * Reader for the data related to the issues still marked as opened in the local DB
 	 * and that weren't sync since a given datetime passed in the job execution context.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -110,24 +198,43 @@ public class IssuesReadersConfiguration {
 	 * 			The id of the project
 	 * @param jobRunTime
 	 * 			Job start time
+	 * @param parallelism
+	 * 			Maximum number of mc_issue_get calls in flight, 1 means sequential calls
+	 * @param callTimeout
+	 * 			Socket timeout in milliseconds of a mc_issue_get call, 0 means the timeout of the stub
+	 * @param mantisFetchExecutor
+	 * 			Executor used for the concurrent calls
+	 * @param pageSize
+	 * 			Number of ids read from the local DB by page
+	 * @param threads
+	 * 			Number of threads of the step. The last returned id isn't saved
+	 * 			if the step is multi-threaded, since it wouldn't be reliable.
 	 * @return the reader
 	 */
 	@Bean
 	@StepScope
-	public OtherIssuesReader otherIssuesReader(final PortalAuthManager authManager,
-			final MantisConnectBindingStub clientStub,
+	public OtherIssuesReader otherIssuesReader(final MantisConnectBindingStub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password,
 			@Value("#{jobParameters['mantis.project_id']}") final BigInteger projectId,
-			@Value("#{jobExecutionContext['mantis.update.current_job_run']}") final Calendar jobRunTime) {
+			@Value("#{jobExecutionContext['mantis.update.current_job_run']}") final Calendar jobRunTime,
+			@Value("${mantis.issues.fetch_parallelism:1}") final int parallelism,
+			@Value("${mantis.issues.fetch_timeout:0}") final long callTimeout,
+			final AsyncTaskExecutor mantisFetchExecutor,
+			@Value("${mantis.issues.scan_page_size:500}") final int pageSize,
+			@Value("${mantis.issues.threads:1}") final int threads) {
 
 		final OtherIssuesReader reader = new OtherIssuesReader();
-		reader.setAuthManager(authManager);
 		reader.setClientStub(clientStub);
 		reader.setJobStartTime(jobRunTime);
 		reader.setPassword(password);
 		reader.setProjectId(projectId);
 		reader.setUserName(userName);
+		reader.setParallelism(parallelism);
+		reader.setCallTimeout(callTimeout);
+		reader.setTaskExecutor(mantisFetchExecutor);
+		reader.setPageSize(pageSize);
+		reader.setSaveState(threads <= 1);
 
 		return reader;
 	}
@@ -136,8 +243,6 @@ public class IssuesReadersConfiguration {
 	 * Return a reader that gets a list of issues ids from a the job parameter mantis.issues_id.
 	 * The list of issues ids passed in parameter must be separated by a semi-colon.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -150,8 +255,7 @@ public class IssuesReadersConfiguration {
 	 */
 	@Bean
 	@StepScope
-	public ListItemReader<BugIdBean> listIssuesReader(final PortalAuthManager authManager,
-			final MantisConnectBindingStub clientStub,
+	public ListItemReader<BugIdBean> listIssuesReader(final MantisConnectBindingStub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password,
 			@Value("#{jobParameters['mantis.issues_id']}") final String issuesIds) {
@@ -162,7 +266,7 @@ public class IssuesReadersConfiguration {
 			for (final String strId : strIds) {
 				final long idValue = Long.valueOf(strId);
 				final BugIdBean bean = new BugIdBean();
-				bean.setId(BigInteger.valueOf(idValue));
+				bean.setId(idValue);
 				itemList.add(bean);
 			}
 		}
@@ -171,6 +275,30 @@ public class IssuesReadersConfiguration {
 		return reader;
 	}
 
+	/**
+	 * Return a reader that gets the list of issues ids of a partition, from the key
+	 * mantis.issues_id of the step execution context.
+	 * The number of ids read is saved so that a failed partition restarts where it stopped.
+	 *
+	 * @param issuesIds
+	 * 			Semi-colon separated list of issues ids
+	 * @param threads
+	 * 			Number of threads of the step. The number of ids read isn't saved
+	 * 			if the step is multi-threaded, since it wouldn't be reliable.
+	 * @return the reader
+	 */
+	@Bean
+	@StepScope
+	public IssuesIdListReader partitionIssuesReader(
+			@Value("#{stepExecutionContext['mantis.issues_id']}") final String issuesIds,
+			@Value("${mantis.issues.threads:1}") final int threads) {
+
+		final IssuesIdListReader reader = new IssuesIdListReader();
+		reader.setIssuesIds(issuesIds);
+		reader.setSaveState(threads <= 1);
+		return reader;
+	}
+
 	/**
 	 * Return a reader that gets a list of issues ids from a CSV file.
 	 * The CSV file must not have a header line for columns definition.
@@ -181,15 +309,20 @@ public class IssuesReadersConfiguration {
 	 * 			Spring resource loader
 	 * @param filePath
 	 * 			File path of the CSV file
+	 * @param threads
+	 * 			Number of threads of the step. The position in the file isn't saved
+	 * 			if the step is multi-threaded, since it wouldn't be reliable.
 	 * @return the reader
 	 */
 	@Bean
 	@StepScope
 	public FlatFileItemReader<BugIdBean> csvIssuesReader(final ResourceLoader resourceLoader,
-			@Value("#{jobParameters['mantis.filepath']}") final String filePath) {
+			@Value("#{jobParameters['mantis.filepath']}") final String filePath,
+			@Value("${mantis.issues.threads:1}") final int threads) {
 
 		final FlatFileItemReader<BugIdBean> reader = new FlatFileItemReader<BugIdBean>();
 		reader.setResource(resourceLoader.getResource(filePath));
+		reader.setSaveState(threads <= 1);
 
 		final DefaultLineMapper<BugIdBean> lineMapper = new DefaultLineMapper<BugIdBean>();
 
@@ -32,9 +32,12 @@ import org.springframework.batch.core.listener.ExecutionContextPromotionListener
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.Assert;
 
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.tasklets.HandlersStatTasklet;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.tasklets.IssuesLastRunExtractorTasklet;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.tasklets.SyncWatermarkTasklet;
+import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
 
 /**
  * Configuration for the tasklets used to sync issues.
@@ -50,19 +53,38 @@ public class IssuesTaskletsConfiguration {
 	 *
 	 * @param jobExplorer
 	 * 			The job explorer
+	 * @param dao
+	 * 			The issues DAO
 	 * @return the tasklet
 	 */
 	@Bean
 	@StepScope
-	public IssuesLastRunExtractorTasklet mantisLastRunExtractorTasklet(final JobExplorer jobExplorer) {
+	public IssuesLastRunExtractorTasklet mantisLastRunExtractorTasklet(final JobExplorer jobExplorer,
+			final IssuesDao dao) {
 		final IssuesLastRunExtractorTasklet tasklet = new IssuesLastRunExtractorTasklet();
 		tasklet.setJobExplorer(jobExplorer);
+		tasklet.setDao(dao);
 		return tasklet;
 	}
 
 	/**
-	 * Execution context promotion listener that promotes mantis.update.last_job_run and
-	 * mantis.update.current_job_run to the job context.
+	 * Tasklet recording the successful run of the job in sync_watermark table.
+	 *
+	 * @param dao
+	 * 			The issues DAO
+	 * @return the tasklet
+	 */
+	@Bean
+	@StepScope
+	public SyncWatermarkTasklet mantisSyncWatermarkTasklet(final IssuesDao dao) {
+		final SyncWatermarkTasklet tasklet = new SyncWatermarkTasklet();
+		tasklet.setDao(dao);
+		return tasklet;
+	}
+
+	/**
+	 * Execution context promotion listener that promotes mantis.update.last_job_run,
+	 * mantis.update.current_job_run and mantis.issues.page_size to the job context.
 	 *
 	 * @return the execution context promotion listener
 	 */
@@ -70,16 +92,24 @@ public class IssuesTaskletsConfiguration {
 	@StepScope
 	public ExecutionContextPromotionListener mantisLastRunExtractorPromotionListener() {
 		final ExecutionContextPromotionListener listener = new ExecutionContextPromotionListener();
-		listener.setKeys(new String[] {"mantis.update.last_job_run", "mantis.update.current_job_run"});
+		listener.setKeys(new String[] {"mantis.update.last_job_run", "mantis.update.current_job_run",
+				"mantis.issues.page_size"});
 		return listener;
 	}
 
 	/**
 	 * Tasklet launching the computation of the number of issues by project,
-	 * handler and status.
+	 * handler and status, at a single date or over a range of dates.
 	 *
 	 * @param computeDate
 	 * 		The computation date. For string conversion, should be passed as "yyyy-MM-dd'T'HH:mm:ss".
+	 * 		If null, the range of dates is used.
+	 * @param startDate
+	 * 		The first computation date of the range, same format as computeDate
+	 * @param endDate
+	 * 		The last computation date of the range, same format as computeDate
+	 * @param stepHours
+	 * 		Number of hours between two computation dates of the range, 24 if null
 	 * @return the tasklet
 	 * @throws ParseException
 	 * 			Thrown if the format is incorrect
@@ -87,12 +117,25 @@ public class IssuesTaskletsConfiguration {
 	@Bean
 	@StepScope
 	public HandlersStatTasklet mantisHandlersStatTasklet(
-			@Value("#{jobParameters['mantis.computeDate']}") final String computeDate) throws ParseException {
+			@Value("#{jobParameters['mantis.computeDate']}") final String computeDate,
+			@Value("#{jobParameters['mantis.startDate']}") final String startDate,
+			@Value("#{jobParameters['mantis.endDate']}") final String endDate,
+			@Value("#{jobParameters['mantis.stepHours']}") final String stepHours) throws ParseException {
 
 		final SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
 
 		final HandlersStatTasklet tasklet = new HandlersStatTasklet();
-		tasklet.setComputeDate(formatter.parse(computeDate));
+		if (computeDate != null) {
+			tasklet.setComputeDate(formatter.parse(computeDate));
+		} else {
+			Assert.notNull(startDate, "mantis.computeDate or mantis.startDate and mantis.endDate are mandatory");
+			Assert.notNull(endDate, "mantis.computeDate or mantis.startDate and mantis.endDate are mandatory");
+			tasklet.setStartDate(formatter.parse(startDate));
+			tasklet.setEndDate(formatter.parse(endDate));
+			if (stepHours != null) {
+				tasklet.setStepHours(Integer.parseInt(stepHours));
+			}
+		}
 		return tasklet;
 	}
 
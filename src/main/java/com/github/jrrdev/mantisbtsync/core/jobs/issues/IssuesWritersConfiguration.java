@@ -30,16 +30,31 @@ import javax.sql.DataSource;
 
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
-import org.springframework.batch.item.database.JdbcBatchItemWriter;
 import org.springframework.batch.item.support.CompositeItemWriter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.github.jrrdev.mantisbtsync.core.common.concurrent.AsyncItemWriter;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugCustomFieldValue;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugHistoryBean;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugNoteBean;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.BugCustomFieldsLoadDataWriter;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.BugCustomFieldsWriter;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.BugDependenciesWriter;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.BugHistoryLoadDataWriter;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.BugHistoryMarkWriter;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.BugHistoryWriter;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.BugNotesLoadDataWriter;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.BugNotesWriter;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.BugStateIntervalsWriter;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.BugsLoadDataWriter;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.BugsWriter;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.IssueTables;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.LastUpdatedWatermarkWriter;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.StagingWriter;
+import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
 
 /**
  * @author jrrdev
@@ -51,6 +66,8 @@ public class IssuesWritersConfiguration {
 	/**
 	 * Build the composite item writer that chains all writers related to issues upsert.
 	 *
+	 * @param bugDependenciesWriter
+	 * 			Writer for the dependencies of the issues
 	 * @param bugsWriter
 	 * 			Writer for the data related to an issue
 	 * @param bugNotesWriter
@@ -59,30 +76,158 @@ public class IssuesWritersConfiguration {
 	 * 			Writer for the data related to a custom field value
 	 * @param bugHistoryWriter
 	 * 			Writer for the date related to the history of an issue
+	 * @param bugHistoryMarkWriter
+	 * 			Writer for the high-water mark of the history of an issue
+	 * @param bugStateIntervalsWriter
+	 * 			Writer for the intervals of the handlers and status of an issue
+	 * @param lastUpdatedWatermarkWriter
+	 * 			Writer recording the most recent last update of the written issues
+	 * @param bugsLoadDataWriter
+	 * 			Bulk writer for the data related to an issue
+	 * @param bugNotesLoadDataWriter
+	 * 			Bulk writer for the data related to a note
+	 * @param bugCustomFieldsLoadDataWriter
+	 * 			Bulk writer for the data related to a custom field value
+	 * @param bugHistoryLoadDataWriter
+	 * 			Bulk writer for the data related to the history of an issue
+	 * @param bugsStagingWriter
+	 * 			Staging writer for the data related to an issue
+	 * @param bugNotesStagingWriter
+	 * 			Staging writer for the data related to a note
+	 * @param bugCustomFieldsStagingWriter
+	 * 			Staging writer for the data related to a custom field value
+	 * @param bugHistoryStagingWriter
+	 * 			Staging writer for the data related to the history of an issue
+	 * @param bulkLoad
+	 * 			If true, the issues, notes, custom field values and history are written
+	 * 			by the bulk writers
+	 * @param staging
+	 * 			If true and bulkLoad is false, the issues, notes, custom field values and history
+	 * 			are written by the staging writers
 	 * @return the composite writer
 	 */
 	@Bean
 	@StepScope
-	public CompositeItemWriter<BugBean> compositeIssuesWriter(final JdbcBatchItemWriter<BugBean> bugsWriter,
+	public CompositeItemWriter<BugBean> compositeIssuesWriter(final BugDependenciesWriter bugDependenciesWriter,
+			final BugsWriter bugsWriter,
 			final BugNotesWriter bugNotesWriter, final BugCustomFieldsWriter bugCustomFieldsWriter,
-			final BugHistoryWriter bugHistoryWriter) {
+			final BugHistoryWriter bugHistoryWriter, final BugHistoryMarkWriter bugHistoryMarkWriter,
+			final BugStateIntervalsWriter bugStateIntervalsWriter,
+			final LastUpdatedWatermarkWriter lastUpdatedWatermarkWriter,
+			final BugsLoadDataWriter bugsLoadDataWriter, final BugNotesLoadDataWriter bugNotesLoadDataWriter,
+			final BugCustomFieldsLoadDataWriter bugCustomFieldsLoadDataWriter,
+			final BugHistoryLoadDataWriter bugHistoryLoadDataWriter,
+			final StagingWriter<BugBean> bugsStagingWriter,
+			final StagingWriter<BugNoteBean> bugNotesStagingWriter,
+			final StagingWriter<BugCustomFieldValue> bugCustomFieldsStagingWriter,
+			final StagingWriter<BugHistoryBean> bugHistoryStagingWriter,
+			@Value("${mantis.issues.bulk_load:false}") final boolean bulkLoad,
+			@Value("${mantis.issues.staging:false}") final boolean staging) {
 
 		bugsWriter.afterPropertiesSet();
 		bugNotesWriter.afterPropertiesSet();
 		bugCustomFieldsWriter.afterPropertiesSet();
 		bugHistoryWriter.afterPropertiesSet();
+		bugHistoryMarkWriter.afterPropertiesSet();
 
 		final CompositeItemWriter<BugBean> compositeWriter = new CompositeItemWriter<BugBean>();
 		final List<ItemWriter<? super BugBean>> writerList = new ArrayList<ItemWriter<? super BugBean>>();
-		writerList.add(bugsWriter);
-		writerList.add(bugNotesWriter);
-		writerList.add(bugCustomFieldsWriter);
-		writerList.add(bugHistoryWriter);
+		writerList.add(bugDependenciesWriter);
+		if (bulkLoad) {
+			bugsLoadDataWriter.afterPropertiesSet();
+			bugNotesLoadDataWriter.afterPropertiesSet();
+			bugCustomFieldsLoadDataWriter.afterPropertiesSet();
+			bugHistoryLoadDataWriter.afterPropertiesSet();
+
+			writerList.add(bugsLoadDataWriter);
+			writerList.add(bugNotesLoadDataWriter);
+			writerList.add(bugCustomFieldsLoadDataWriter);
+			writerList.add(bugHistoryLoadDataWriter);
+		} else if (staging) {
+			bugsStagingWriter.afterPropertiesSet();
+			bugNotesStagingWriter.afterPropertiesSet();
+			bugCustomFieldsStagingWriter.afterPropertiesSet();
+			bugHistoryStagingWriter.afterPropertiesSet();
+
+			writerList.add(bugsStagingWriter);
+			writerList.add(bugNotesStagingWriter);
+			writerList.add(bugCustomFieldsStagingWriter);
+			writerList.add(bugHistoryStagingWriter);
+		} else {
+			writerList.add(bugsWriter);
+			writerList.add(bugNotesWriter);
+			writerList.add(bugCustomFieldsWriter);
+			writerList.add(bugHistoryWriter);
+		}
+		writerList.add(bugHistoryMarkWriter);
+		writerList.add(bugStateIntervalsWriter);
+		writerList.add(lastUpdatedWatermarkWriter);
 		compositeWriter.setDelegates(writerList);
 
 		return compositeWriter;
 	}
 
+	/**
+	 * Build the writer waiting for the issues processed asynchronously and passing
+	 * them in the chunk order to the composite writer.
+	 *
+	 * @param compositeIssuesWriter
+	 * 			The composite writer
+	 * @return the writer
+	 */
+	@Bean
+	@StepScope
+	public AsyncItemWriter<BugBean> asyncIssuesWriter(final CompositeItemWriter<BugBean> compositeIssuesWriter) {
+		final AsyncItemWriter<BugBean> writer = new AsyncItemWriter<BugBean>();
+		writer.setDelegate(compositeIssuesWriter);
+		return writer;
+	}
+
+	/**
+	 * Build the writer updating the intervals of the handlers and status of the issues of a chunk.
+	 *
+	 * @param dao
+	 * 			The issues DAO
+	 * @return the writer updating the intervals of the handlers and status of the issues of a chunk
+	 */
+	@Bean
+	@StepScope
+	public BugStateIntervalsWriter bugStateIntervalsWriter(final IssuesDao dao) {
+		final BugStateIntervalsWriter writer = new BugStateIntervalsWriter();
+		writer.setDao(dao);
+		return writer;
+	}
+
+	/**
+	 * Build the writer recording the most recent last update of the issues written by a step.
+	 *
+	 * @return the writer recording the most recent last update of the issues written by a step
+	 */
+	@Bean
+	@StepScope
+	public LastUpdatedWatermarkWriter lastUpdatedWatermarkWriter() {
+		return new LastUpdatedWatermarkWriter();
+	}
+
+	/**
+	 * Build the writer inserting the dependencies of the issues of a chunk.
+	 *
+	 * @param dao
+	 * 			The issues DAO
+	 * @param batchDependencies
+	 * 			If true, the dependencies of the chunk are inserted with set-based statements
+	 * @return the writer inserting the dependencies of the issues of a chunk
+	 */
+	@Bean
+	@StepScope
+	public BugDependenciesWriter bugDependenciesWriter(final IssuesDao dao,
+			@Value("${mantis.issues.batch_dependencies:false}") final boolean batchDependencies) {
+		final BugDependenciesWriter writer = new BugDependenciesWriter();
+		writer.setDao(dao);
+		writer.setBatchDependencies(batchDependencies);
+		return writer;
+	}
+
 	/**
 	 * Build the writer upserting the data related to an issue.
 	 * Perform upsert in the mantis_bug_table table.
@@ -93,28 +238,9 @@ public class IssuesWritersConfiguration {
 	 */
 	@Bean
 	@StepScope
-	public JdbcBatchItemWriter<BugBean> bugsWriter(final DataSource dataSource) {
-
-		final JdbcBatchItemWriter<BugBean> writer = new JdbcBatchItemWriter<BugBean>();
-		writer.setItemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<BugBean>());
-		writer.setSql("INSERT INTO mantis_bug_table (id, project_id, reporter_id, handler_id, priority_id,\n"
-				+ " 	severity_id, status_id, resolution_id, description, steps_to_reproduce,\n"
-				+ " 	additional_information, platform, version, fixed_in_version, target_version,\n"
-				+ " 	summary, category, date_submitted, last_updated, last_sync)\n"
-				+ " VALUES (:id, :projectId, :reporterId, :handlerId, :priorityId,\n"
-				+ " 	:severityId, :statusId, :resolutionId, :description, :stepsToReproduce,\n"
-				+ " 	:additionalInformation, :platform, :version, :fixedInVersion, :targetVersion,\n"
-				+ " 	:summary, :category, :dateSubmitted, :lastUpdated, sysdate())\n"
-				+ " ON DUPLICATE KEY UPDATE project_id = :projectId, reporter_id = :reporterId,\n"
-				+ "  	handler_id = :handlerId, priority_id = :priorityId,\n"
-				+ " 	severity_id = :severityId, status_id = :statusId, resolution_id = :resolutionId,\n"
-				+ " 	description = :description, steps_to_reproduce = :stepsToReproduce,\n"
-				+ " 	additional_information = :additionalInformation, platform = :platform,\n"
-				+ " 	version = :version, fixed_in_version = :fixedInVersion, target_version = :targetVersion,\n"
-				+ " 	summary = :summary, category = :category, date_submitted = :dateSubmitted,\n"
-				+ " 	last_updated = :lastUpdated, last_sync = sysdate()");
+	public BugsWriter bugsWriter(final DataSource dataSource) {
+		final BugsWriter writer = new BugsWriter();
 		writer.setDataSource(dataSource);
-		writer.setAssertUpdates(false);
 		return writer;
 	}
 
@@ -123,13 +249,17 @@ public class IssuesWritersConfiguration {
 	 *
 	 * @param dataSource
 	 * 			The datasource
+	 * @param maxBatchSize
+	 * 			Maximum number of entries by JDBC batch
 	 * @return the writer upserting the list of notes related to an issue
 	 */
 	@Bean
 	@StepScope
-	public BugNotesWriter bugNotesWriter(final DataSource dataSource) {
+	public BugNotesWriter bugNotesWriter(final DataSource dataSource,
+			@Value("${mantis.issues.max_batch_size:0}") final int maxBatchSize) {
 		final BugNotesWriter writer = new BugNotesWriter();
 		writer.setDataSource(dataSource);
+		writer.setMaxBatchSize(maxBatchSize);
 		return writer;
 	}
 
@@ -138,13 +268,17 @@ public class IssuesWritersConfiguration {
 	 *
 	 * @param dataSource
 	 * 			The datasource
+	 * @param maxBatchSize
+	 * 			Maximum number of entries by JDBC batch
 	 * @return the writer upserting the list of custom field values related to an issue
 	 */
 	@Bean
 	@StepScope
-	public BugCustomFieldsWriter bugCustomFieldsWriter(final DataSource dataSource) {
+	public BugCustomFieldsWriter bugCustomFieldsWriter(final DataSource dataSource,
+			@Value("${mantis.issues.max_batch_size:0}") final int maxBatchSize) {
 		final BugCustomFieldsWriter writer = new BugCustomFieldsWriter();
 		writer.setDataSource(dataSource);
+		writer.setMaxBatchSize(maxBatchSize);
 		return writer;
 	}
 
@@ -153,13 +287,174 @@ public class IssuesWritersConfiguration {
 	 *
 	 * @param dataSource
 	 * 			The datasource
+	 * @param maxBatchSize
+	 * 			Maximum number of entries by JDBC batch
 	 * @return the writer upserting the list history entries related to an issue
 	 */
 	@Bean
 	@StepScope
-	public BugHistoryWriter bugHistoryWriter(final DataSource dataSource) {
+	public BugHistoryWriter bugHistoryWriter(final DataSource dataSource,
+			@Value("${mantis.issues.max_batch_size:0}") final int maxBatchSize) {
 		final BugHistoryWriter writer = new BugHistoryWriter();
 		writer.setDataSource(dataSource);
+		writer.setMaxBatchSize(maxBatchSize);
+		return writer;
+	}
+
+	/**
+	 * Build the writer upserting the high-water mark of the history of an issue.
+	 *
+	 * @param dataSource
+	 * 			The datasource
+	 * @return the writer upserting the high-water mark of the history of an issue
+	 */
+	@Bean
+	@StepScope
+	public BugHistoryMarkWriter bugHistoryMarkWriter(final DataSource dataSource) {
+		final BugHistoryMarkWriter writer = new BugHistoryMarkWriter();
+		writer.setDataSource(dataSource);
+		return writer;
+	}
+
+	/**
+	 * Build the writer bulk loading the data related to an issue.
+	 *
+	 * @param dataSource
+	 * 			The datasource
+	 * @param bugsWriter
+	 * 			Writer used if the DB isn't a MySQL DB
+	 * @return the writer bulk loading the data related to an issue
+	 */
+	@Bean
+	@StepScope
+	public BugsLoadDataWriter bugsLoadDataWriter(final DataSource dataSource,
+			final BugsWriter bugsWriter) {
+		final BugsLoadDataWriter writer = new BugsLoadDataWriter();
+		writer.setDataSource(dataSource);
+		writer.setFallback(bugsWriter);
+		return writer;
+	}
+
+	/**
+	 * Build the writer bulk loading the list of notes related to an issue.
+	 *
+	 * @param dataSource
+	 * 			The datasource
+	 * @param bugNotesWriter
+	 * 			Writer used if the DB isn't a MySQL DB
+	 * @return the writer bulk loading the list of notes related to an issue
+	 */
+	@Bean
+	@StepScope
+	public BugNotesLoadDataWriter bugNotesLoadDataWriter(final DataSource dataSource,
+			final BugNotesWriter bugNotesWriter) {
+		final BugNotesLoadDataWriter writer = new BugNotesLoadDataWriter();
+		writer.setDataSource(dataSource);
+		writer.setFallback(bugNotesWriter);
+		return writer;
+	}
+
+	/**
+	 * Build the writer bulk loading the list of custom field values related to an issue.
+	 *
+	 * @param dataSource
+	 * 			The datasource
+	 * @param bugCustomFieldsWriter
+	 * 			Writer used if the DB isn't a MySQL DB
+	 * @return the writer bulk loading the list of custom field values related to an issue
+	 */
+	@Bean
+	@StepScope
+	public BugCustomFieldsLoadDataWriter bugCustomFieldsLoadDataWriter(final DataSource dataSource,
+			final BugCustomFieldsWriter bugCustomFieldsWriter) {
+		final BugCustomFieldsLoadDataWriter writer = new BugCustomFieldsLoadDataWriter();
+		writer.setDataSource(dataSource);
+		writer.setFallback(bugCustomFieldsWriter);
+		return writer;
+	}
+
+	/**
+	 * Build the writer bulk loading the history entries related to an issue.
+	 *
+	 * @param dataSource
+	 * 			The datasource
+	 * @param bugHistoryWriter
+	 * 			Writer used if the DB isn't a MySQL DB
+	 * @return the writer bulk loading the history entries related to an issue
+	 */
+	@Bean
+	@StepScope
+	public BugHistoryLoadDataWriter bugHistoryLoadDataWriter(final DataSource dataSource,
+			final BugHistoryWriter bugHistoryWriter) {
+		final BugHistoryLoadDataWriter writer = new BugHistoryLoadDataWriter();
+		writer.setDataSource(dataSource);
+		writer.setFallback(bugHistoryWriter);
+		return writer;
+	}
+
+	/**
+	 * Build the writer applying the data related to an issue through the stg_bug staging table.
+	 *
+	 * @param dataSource
+	 * 			The datasource
+	 * @return the staging writer for the data related to an issue
+	 */
+	@Bean
+	@StepScope
+	public StagingWriter<BugBean> bugsStagingWriter(final DataSource dataSource) {
+		final StagingWriter<BugBean> writer = new StagingWriter<BugBean>(IssueTables.BUGS, "stg_bug");
+		writer.setDataSource(dataSource);
+		writer.setSyncColumn("last_sync");
+		return writer;
+	}
+
+	/**
+	 * Build the writer applying the notes related to an issue through the stg_bugnote staging table.
+	 *
+	 * @param dataSource
+	 * 			The datasource
+	 * @return the staging writer for the notes related to an issue
+	 */
+	@Bean
+	@StepScope
+	public StagingWriter<BugNoteBean> bugNotesStagingWriter(final DataSource dataSource) {
+		final StagingWriter<BugNoteBean> writer = new StagingWriter<BugNoteBean>(IssueTables.NOTES,
+				"stg_bugnote");
+		writer.setDataSource(dataSource);
+		return writer;
+	}
+
+	/**
+	 * Build the writer applying the custom field values related to an issue
+	 * through the stg_custom_field_string staging table.
+	 *
+	 * @param dataSource
+	 * 			The datasource
+	 * @return the staging writer for the custom field values related to an issue
+	 */
+	@Bean
+	@StepScope
+	public StagingWriter<BugCustomFieldValue> bugCustomFieldsStagingWriter(final DataSource dataSource) {
+		final StagingWriter<BugCustomFieldValue> writer = new StagingWriter<BugCustomFieldValue>(
+				IssueTables.CUSTOM_FIELDS, "stg_custom_field_string");
+		writer.setDataSource(dataSource);
+		return writer;
+	}
+
+	/**
+	 * Build the writer applying the history entries related to an issue
+	 * through the stg_bug_history staging table.
+	 *
+	 * @param dataSource
+	 * 			The datasource
+	 * @return the staging writer for the history entries related to an issue
+	 */
+	@Bean
+	@StepScope
+	public StagingWriter<BugHistoryBean> bugHistoryStagingWriter(final DataSource dataSource) {
+		final StagingWriter<BugHistoryBean> writer = new StagingWriter<BugHistoryBean>(IssueTables.HISTORY,
+				"stg_bug_history");
+		writer.setDataSource(dataSource);
 		return writer;
 	}
 }
@@ -23,7 +23,6 @@
  */
 package com.github.jrrdev.mantisbtsync.core.jobs.issues.beans;
 
-import java.math.BigInteger;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
@@ -39,42 +38,42 @@ public class BugBean {
 	/**
 	 * Issue id.
 	 */
-	private BigInteger id;
+	private long id;
 
 	/**
 	 * Id of the project of the issue.
 	 */
-	private BigInteger projectId;
+	private Long projectId;
 
 	/**
 	 * Id of the user who submitted the issue.
 	 */
-	private BigInteger reporterId;
+	private Long reporterId;
 
 	/**
 	 * Id of the user handling the issue.
 	 */
-	private BigInteger handlerId;
+	private Long handlerId;
 
 	/**
 	 * Id of the priority of the issue.
 	 */
-	private BigInteger priorityId;
+	private Long priorityId;
 
 	/**
 	 * Id of the severity of the issue.
 	 */
-	private BigInteger severityId;
+	private Long severityId;
 
 	/**
 	 * Id of the status of the issue.
 	 */
-	private BigInteger statusId;
+	private Long statusId;
 
 	/**
 	 * Id of the resolution of the issue.
 	 */
-	private BigInteger resolutionId;
+	private Long resolutionId;
 
 	/**
 	 * Description of the issue.
@@ -131,6 +130,11 @@ public class BugBean {
 	 */
 	private Timestamp lastUpdated;
 
+	/**
+	 * Fingerprint of the columns of mantis_bug_table.
+	 */
+	private String fingerprint;
+
 	/**
 	 * List of notes related to the issue.
 	 */
@@ -146,6 +150,18 @@ public class BugBean {
 	 */
 	private final List<BugHistoryBean> history = new ArrayList<BugHistoryBean>();
 
+	/**
+	 * Dependencies of the issue to insert before the issue itself,
+	 * null if they were already inserted by the processor.
+	 */
+	private BugDependencies dependencies;
+
+	/**
+	 * High-water mark of the history to save, null if the history
+	 * wasn't retrieved.
+	 */
+	private BugHistoryMark historyMark;
+
 	/**
 	 * Default constructor.
 	 */
@@ -155,112 +171,112 @@ public class BugBean {
 	/**
 	 * @return the id
 	 */
-	public BigInteger getId() {
+	public long getId() {
 		return id;
 	}
 
 	/**
 	 * @param id the id to set
 	 */
-	public void setId(final BigInteger id) {
+	public void setId(final long id) {
 		this.id = id;
 	}
 
 	/**
 	 * @return the projectId
 	 */
-	public BigInteger getProjectId() {
+	public Long getProjectId() {
 		return projectId;
 	}
 
 	/**
 	 * @param projectId the projectId to set
 	 */
-	public void setProjectId(final BigInteger projectId) {
+	public void setProjectId(final Long projectId) {
 		this.projectId = projectId;
 	}
 
 	/**
 	 * @return the reporterId
 	 */
-	public BigInteger getReporterId() {
+	public Long getReporterId() {
 		return reporterId;
 	}
 
 	/**
 	 * @param reporterId the reporterId to set
 	 */
-	public void setReporterId(final BigInteger reporterId) {
+	public void setReporterId(final Long reporterId) {
 		this.reporterId = reporterId;
 	}
 
 	/**
 	 * @return the handlerId
 	 */
-	public BigInteger getHandlerId() {
+	public Long getHandlerId() {
 		return handlerId;
 	}
 
 	/**
 	 * @param handlerId the handlerId to set
 	 */
-	public void setHandlerId(final BigInteger handlerId) {
+	public void setHandlerId(final Long handlerId) {
 		this.handlerId = handlerId;
 	}
 
 	/**
 	 * @return the priorityId
 	 */
-	public BigInteger getPriorityId() {
+	public Long getPriorityId() {
 		return priorityId;
 	}
 
 	/**
 	 * @param priorityId the priorityId to set
 	 */
-	public void setPriorityId(final BigInteger priorityId) {
+	public void setPriorityId(final Long priorityId) {
 		this.priorityId = priorityId;
 	}
 
 	/**
 	 * @return the severityId
 	 */
-	public BigInteger getSeverityId() {
+	public Long getSeverityId() {
 		return severityId;
 	}
 
 	/**
 	 * @param severityId the severityId to set
 	 */
-	public void setSeverityId(final BigInteger severityId) {
+	public void setSeverityId(final Long severityId) {
 		this.severityId = severityId;
 	}
 
 	/**
 	 * @return the statusId
 	 */
-	public BigInteger getStatusId() {
+	public Long getStatusId() {
 		return statusId;
 	}
 
 	/**
 	 * @param statusId the statusId to set
 	 */
-	public void setStatusId(final BigInteger statusId) {
+	public void setStatusId(final Long statusId) {
 		this.statusId = statusId;
 	}
 
 	/**
 	 * @return the resolutionId
 	 */
-	public BigInteger getResolutionId() {
+	public Long getResolutionId() {
 		return resolutionId;
 	}
 
 	/**
 	 * @param resolutionId the resolutionId to set
 	 */
-	public void setResolutionId(final BigInteger resolutionId) {
+	public void setResolutionId(final Long resolutionId) {
 		this.resolutionId = resolutionId;
 	}
 
@@ -418,6 +434,20 @@ public class BugBean {
 		this.lastUpdated = lastUpdated;
 	}
 
+	/**
+	 * @return the fingerprint
+	 */
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	/**
+	 * @param fingerprint the fingerprint to set
+	 */
+	public void setFingerprint(final String fingerprint) {
+		this.fingerprint = fingerprint;
+	}
+
 	/**
 	 * @return the notes
 	 */
@@ -439,6 +469,34 @@ public class BugBean {
 		return history;
 	}
 
+	/**
+	 * @return the dependencies
+	 */
+	public BugDependencies getDependencies() {
+		return dependencies;
+	}
+
+	/**
+	 * @param dependencies the dependencies to set
+	 */
+	public void setDependencies(final BugDependencies dependencies) {
+		this.dependencies = dependencies;
+	}
+
+	/**
+	 * @return the historyMark
+	 */
+	public BugHistoryMark getHistoryMark() {
+		return historyMark;
+	}
+
+	/**
+	 * @param historyMark the historyMark to set
+	 */
+	public void setHistoryMark(final BugHistoryMark historyMark) {
+		this.historyMark = historyMark;
+	}
+
 	/* (non-Javadoc)
 	 * @see java.lang.Object#toString()
 	 */
@@ -23,8 +23,6 @@
  */
 package com.github.jrrdev.mantisbtsync.core.jobs.issues.beans;
 
-import java.math.BigInteger;
-
 /**
  * Bean wrapping a custom field value.
  *
@@ -36,12 +34,12 @@ public class BugCustomFieldValue {
 	/**
 	 * Id of the field.
 	 */
-	private BigInteger fieldId;
+	private long fieldId;
 
 	/**
 	 * Issue id.
 	 */
-	private BigInteger bugId;
+	private long bugId;
 
 	/**
 	 * Value of the field.
@@ -57,28 +55,28 @@ public class BugCustomFieldValue {
 	/**
 	 * @return the fieldId
 	 */
-	public BigInteger getFieldId() {
+	public long getFieldId() {
 		return fieldId;
 	}
 
 	/**
 	 * @param fieldId the fieldId to set
 	 */
-	public void setFieldId(final BigInteger fieldId) {
+	public void setFieldId(final long fieldId) {
 		this.fieldId = fieldId;
 	}
 
 	/**
 	 * @return the bugId
 	 */
-	public BigInteger getBugId() {
+	public long getBugId() {
 		return bugId;
 	}
 
 	/**
 	 * @param bugId the bugId to set
 	 */
-	public void setBugId(final BigInteger bugId) {
+	public void setBugId(final long bugId) {
 		this.bugId = bugId;
 	}
 
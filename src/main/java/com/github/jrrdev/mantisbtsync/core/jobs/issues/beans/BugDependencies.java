@@ -0,0 +1,317 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.beans;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import biz.futureware.mantis.rpc.soap.client.AccountData;
+import biz.futureware.mantis.rpc.soap.client.ObjectRef;
+
+/**
+ * Keys of the projects, users, enumerations and custom fields referenced
+ * by one or several issues. Collected by the processor and merged for a whole
+ * chunk, so the missing keys can be inserted with a few set-based statements
+ * before the issues are written.
+ *
+ * The keys are sorted by id, so concurrent chunks insert them in the same order.
+ *
+ * @author jrrdev
+ *
+ */
+public class BugDependencies {
+
+	/**
+	 * Projects, by id.
+	 */
+	private final Map<Long, String> projects = new TreeMap<Long, String>();
+
+	/**
+	 * Users, by id.
+	 */
+	private final Map<Long, String> users = new TreeMap<Long, String>();
+
+	/**
+	 * Ids of the users of each project.
+	 */
+	private final Map<Long, Set<Long>> usersProject = new TreeMap<Long, Set<Long>>();
+
+	/**
+	 * Priorities, by id.
+	 */
+	private final Map<Long, String> priorities = new TreeMap<Long, String>();
+
+	/**
+	 * Severities, by id.
+	 */
+	private final Map<Long, String> severities = new TreeMap<Long, String>();
+
+	/**
+	 * Status, by id.
+	 */
+	private final Map<Long, String> status = new TreeMap<Long, String>();
+
+	/**
+	 * Resolutions, by id.
+	 */
+	private final Map<Long, String> resolutions = new TreeMap<Long, String>();
+
+	/**
+	 * Custom fields, by id.
+	 */
+	private final Map<Long, String> customFields = new TreeMap<Long, String>();
+
+	/**
+	 * Ids of the custom fields of each project.
+	 */
+	private final Map<Long, Set<Long>> customFieldsProject = new TreeMap<Long, Set<Long>>();
+
+	/**
+	 * Add a project.
+	 *
+	 * @param item
+	 * 			The project, may be null
+	 */
+	public void addProject(final ObjectRef item) {
+		if (item != null && item.getId() != null) {
+			projects.put(item.getId().longValue(), item.getName());
+		}
+	}
+
+	/**
+	 * Add a user and its link to a project.
+	 *
+	 * @param item
+	 * 			The user, may be null
+	 * @param parentProjectId
+	 * 			The project id, may be null
+	 */
+	public void addUser(final AccountData item, final Long parentProjectId) {
+		if (item != null && item.getId() != null) {
+			final Long id = item.getId().longValue();
+			if (!users.containsKey(id)) {
+				users.put(id, item.getName());
+			}
+			addLink(usersProject, parentProjectId, id);
+		}
+	}
+
+	/**
+	 * Add a priority.
+	 *
+	 * @param item
+	 * 			The priority, may be null
+	 */
+	public void addPriority(final ObjectRef item) {
+		addIdName(priorities, item);
+	}
+
+	/**
+	 * Add a severity.
+	 *
+	 * @param item
+	 * 			The severity, may be null
+	 */
+	public void addSeverity(final ObjectRef item) {
+		addIdName(severities, item);
+	}
+
+	/**
+	 * Add a status.
+	 *
+	 * @param item
+	 * 			The status, may be null
+	 */
+	public void addStatus(final ObjectRef item) {
+		addIdName(status, item);
+	}
+
+	/**
+	 * Add a resolution.
+	 *
+	 * @param item
+	 * 			The resolution, may be null
+	 */
+	public void addResolution(final ObjectRef item) {
+		addIdName(resolutions, item);
+	}
+
+	/**
+	 * Add a custom field and its link to a project.
+	 *
+	 * @param item
+	 * 			The custom field, may be null
+	 * @param parentProjectId
+	 * 			The project id, may be null
+	 */
+	public void addCustomField(final ObjectRef item, final Long parentProjectId) {
+		if (item != null && item.getId() != null) {
+			addIdName(customFields, item);
+			addLink(customFieldsProject, parentProjectId, item.getId().longValue());
+		}
+	}
+
+	/**
+	 * Add all the keys of other dependencies.
+	 *
+	 * @param other
+	 * 			The other dependencies, may be null
+	 */
+	public void addAll(final BugDependencies other) {
+		if (other != null) {
+			projects.putAll(other.projects);
+			for (final Map.Entry<Long, String> entry : other.users.entrySet()) {
+				if (!users.containsKey(entry.getKey())) {
+					users.put(entry.getKey(), entry.getValue());
+				}
+			}
+			priorities.putAll(other.priorities);
+			severities.putAll(other.severities);
+			status.putAll(other.status);
+			resolutions.putAll(other.resolutions);
+			customFields.putAll(other.customFields);
+
+			for (final Map.Entry<Long, Set<Long>> entry : other.usersProject.entrySet()) {
+				for (final Long id : entry.getValue()) {
+					addLink(usersProject, entry.getKey(), id);
+				}
+			}
+			for (final Map.Entry<Long, Set<Long>> entry : other.customFieldsProject.entrySet()) {
+				for (final Long id : entry.getValue()) {
+					addLink(customFieldsProject, entry.getKey(), id);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return true if there is no key at all
+	 */
+	public boolean isEmpty() {
+		return projects.isEmpty() && users.isEmpty() && priorities.isEmpty()
+				&& severities.isEmpty() && status.isEmpty() && resolutions.isEmpty()
+				&& customFields.isEmpty();
+	}
+
+	/**
+	 * Add an id/name pair to a map.
+	 *
+	 * @param map
+	 * 			The map
+	 * @param item
+	 * 			The item, may be null
+	 */
+	private void addIdName(final Map<Long, String> map, final ObjectRef item) {
+		if (item != null && item.getId() != null) {
+			map.put(item.getId().longValue(), item.getName());
+		}
+	}
+
+	/**
+	 * Add a link between a project and an id.
+	 *
+	 * @param links
+	 * 			The links, by project id
+	 * @param projectId
+	 * 			The project id, nothing is done if null
+	 * @param id
+	 * 			The linked id
+	 */
+	private void addLink(final Map<Long, Set<Long>> links, final Long projectId,
+			final Long id) {
+		if (projectId != null) {
+			Set<Long> ids = links.get(projectId);
+			if (ids == null) {
+				ids = new TreeSet<Long>();
+				links.put(projectId, ids);
+			}
+			ids.add(id);
+		}
+	}
+
+	/**
+	 * @return the projects
+	 */
+	public Map<Long, String> getProjects() {
+		return projects;
+	}
+
+	/**
+	 * @return the users
+	 */
+	public Map<Long, String> getUsers() {
+		return users;
+	}
+
+	/**
+	 * @return the usersProject
+	 */
+	public Map<Long, Set<Long>> getUsersProject() {
+		return usersProject;
+	}
+
+	/**
+	 * @return the priorities
+	 */
+	public Map<Long, String> getPriorities() {
+		return priorities;
+	}
+
+	/**
+	 * @return the severities
+	 */
+	public Map<Long, String> getSeverities() {
+		return severities;
+	}
+
+	/**
+	 * @return the status
+	 */
+	public Map<Long, String> getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return the resolutions
+	 */
+	public Map<Long, String> getResolutions() {
+		return resolutions;
+	}
+
+	/**
+	 * @return the customFields
+	 */
+	public Map<Long, String> getCustomFields() {
+		return customFields;
+	}
+
+	/**
+	 * @return the customFieldsProject
+	 */
+	public Map<Long, Set<Long>> getCustomFieldsProject() {
+		return customFieldsProject;
+	}
+}
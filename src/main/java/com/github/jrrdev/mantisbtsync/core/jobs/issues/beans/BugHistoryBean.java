@@ -23,9 +23,10 @@
  */
 package com.github.jrrdev.mantisbtsync.core.jobs.issues.beans;
 
-import java.math.BigInteger;
 import java.sql.Timestamp;
 
+import com.github.jrrdev.mantisbtsync.core.common.hash.Fingerprint;
+
 /**
  * Bean wrapping a line in the history of a bean.
  *
@@ -37,12 +38,12 @@ public class BugHistoryBean {
 	/**
 	 * Issue id.
 	 */
-	private BigInteger bugId;
+	private long bugId;
 
 	/**
 	 * Id of the user who performed the operation.
 	 */
-	private BigInteger userId;
+	private Long userId;
 
 	/**
 	 * Name of the modified field.
@@ -62,7 +63,7 @@ public class BugHistoryBean {
 	/**
 	 * History type.
 	 */
-	private BigInteger historyType;
+	private Long historyType;
 
 	/**
 	 * Date of the operation.
@@ -78,28 +79,28 @@ public class BugHistoryBean {
 	/**
 	 * @return the bugId
 	 */
-	public BigInteger getBugId() {
+	public long getBugId() {
 		return bugId;
 	}
 
 	/**
 	 * @param bugId the bugId to set
 	 */
-	public void setBugId(final BigInteger bugId) {
+	public void setBugId(final long bugId) {
 		this.bugId = bugId;
 	}
 
 	/**
 	 * @return the userId
 	 */
-	public BigInteger getUserId() {
+	public Long getUserId() {
 		return userId;
 	}
 
 	/**
 	 * @param userId the userId to set
 	 */
-	public void setUserId(final BigInteger userId) {
+	public void setUserId(final Long userId) {
 		this.userId = userId;
 	}
 
@@ -148,14 +149,14 @@ public class BugHistoryBean {
 	/**
 	 * @return the historyType
 	 */
-	public BigInteger getHistoryType() {
+	public Long getHistoryType() {
 		return historyType;
 	}
 
 	/**
 	 * @param historyType the historyType to set
 	 */
-	public void setHistoryType(final BigInteger historyType) {
+	public void setHistoryType(final Long historyType) {
 		this.historyType = historyType;
 	}
 
@@ -173,6 +174,20 @@ public class BugHistoryBean {
 		this.dateModified = dateModified;
 	}
 
+	/**
+	 * Return the hash of the content of the history entry, used as
+	 * unique key with the issue id in mantis_bug_history_table.
+	 * Null values are part of the hash, so entries with a null old value
+	 * are deduplicated too.
+	 *
+	 * @return the content hash
+	 */
+	public String getContentHash() {
+		return new Fingerprint().add(bugId).add(userId).add(fieldName)
+				.add(oldValue).add(newValue).add(historyType).add(dateModified)
+				.toHex();
+	}
+
 	/* (non-Javadoc)
 	 * @see java.lang.Object#toString()
 	 */
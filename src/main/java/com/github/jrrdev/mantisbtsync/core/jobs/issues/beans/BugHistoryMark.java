@@ -0,0 +1,126 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.beans;
+
+import java.sql.Timestamp;
+
+/**
+ * Bean wrapping the high-water mark of the history synced for an issue.
+ *
+ * @author jrrdev
+ *
+ */
+public class BugHistoryMark {
+
+	/**
+	 * Issue id.
+	 */
+	private long bugId;
+
+	/**
+	 * Last update of the issue when its history was synced.
+	 */
+	private Timestamp lastUpdated;
+
+	/**
+	 * Date of the most recent history entry.
+	 */
+	private Timestamp maxDateModified;
+
+	/**
+	 * Number of history entries.
+	 */
+	private int historyCount;
+
+	/**
+	 * Default constructor.
+	 */
+	public BugHistoryMark() {
+	}
+
+	/**
+	 * @return the bugId
+	 */
+	public long getBugId() {
+		return bugId;
+	}
+
+	/**
+	 * @param bugId the bugId to set
+	 */
+	public void setBugId(final long bugId) {
+		this.bugId = bugId;
+	}
+
+	/**
+	 * @return the lastUpdated
+	 */
+	public Timestamp getLastUpdated() {
+		return lastUpdated;
+	}
+
+	/**
+	 * @param lastUpdated the lastUpdated to set
+	 */
+	public void setLastUpdated(final Timestamp lastUpdated) {
+		this.lastUpdated = lastUpdated;
+	}
+
+	/**
+	 * @return the maxDateModified
+	 */
+	public Timestamp getMaxDateModified() {
+		return maxDateModified;
+	}
+
+	/**
+	 * @param maxDateModified the maxDateModified to set
+	 */
+	public void setMaxDateModified(final Timestamp maxDateModified) {
+		this.maxDateModified = maxDateModified;
+	}
+
+	/**
+	 * @return the historyCount
+	 */
+	public int getHistoryCount() {
+		return historyCount;
+	}
+
+	/**
+	 * @param historyCount the historyCount to set
+	 */
+	public void setHistoryCount(final int historyCount) {
+		this.historyCount = historyCount;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "BugHistoryMark [bugId=" + bugId + ", lastUpdated=" + lastUpdated
+				+ ", maxDateModified=" + maxDateModified + ", historyCount=" + historyCount + "]";
+	}
+}
@@ -23,8 +23,6 @@
  */
 package com.github.jrrdev.mantisbtsync.core.jobs.issues.beans;
 
-import java.math.BigInteger;
-
 /**
  * Bean wrapping the id of an issue.
  * Just a convenient way to store a list of id retrieved
@@ -38,7 +36,7 @@ public class BugIdBean {
 	/**
 	 * Id of the issue.
 	 */
-	private BigInteger id;
+	private long id;
 
 	/**
 	 * Default constructor.
@@ -49,14 +47,14 @@ public class BugIdBean {
 	/**
 	 * @return the id
 	 */
-	public BigInteger getId() {
+	public long getId() {
 		return id;
 	}
 
 	/**
 	 * @param id the id to set
 	 */
-	public void setId(final BigInteger id) {
+	public void setId(final long id) {
 		this.id = id;
 	}
 
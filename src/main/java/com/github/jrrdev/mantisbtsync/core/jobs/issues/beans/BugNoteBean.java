@@ -23,7 +23,6 @@
  */
 package com.github.jrrdev.mantisbtsync.core.jobs.issues.beans;
 
-import java.math.BigInteger;
 import java.sql.Timestamp;
 
 /**
@@ -37,17 +36,17 @@ public class BugNoteBean {
 	/**
 	 * Id of the note.
 	 */
-	private BigInteger id;
+	private long id;
 
 	/**
 	 * Id of the issue.
 	 */
-	private BigInteger bugId;
+	private long bugId;
 
 	/**
 	 * Id of the author.
 	 */
-	private BigInteger reporterId;
+	private Long reporterId;
 
 	/**
 	 * Text of the note.
@@ -73,42 +72,42 @@ public class BugNoteBean {
 	/**
 	 * @return the id
 	 */
-	public BigInteger getId() {
+	public long getId() {
 		return id;
 	}
 
 	/**
 	 * @param id the id to set
 	 */
-	public void setId(final BigInteger id) {
+	public void setId(final long id) {
 		this.id = id;
 	}
 
 	/**
 	 * @return the bugId
 	 */
-	public BigInteger getBugId() {
+	public long getBugId() {
 		return bugId;
 	}
 
 	/**
 	 * @param bugId the bugId to set
 	 */
-	public void setBugId(final BigInteger bugId) {
+	public void setBugId(final long bugId) {
 		this.bugId = bugId;
 	}
 
 	/**
 	 * @return the reporterId
 	 */
-	public BigInteger getReporterId() {
+	public Long getReporterId() {
 		return reporterId;
 	}
 
 	/**
 	 * @param reporterId the reporterId to set
 	 */
-	public void setReporterId(final BigInteger reporterId) {
+	public void setReporterId(final Long reporterId) {
 		this.reporterId = reporterId;
 	}
 
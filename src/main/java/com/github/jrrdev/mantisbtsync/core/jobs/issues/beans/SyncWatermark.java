@@ -0,0 +1,156 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.beans;
+
+import java.sql.Timestamp;
+
+/**
+ * Bean wrapping the high-water marks of a step of the last successful run
+ * of a sync job for a project.
+ *
+ * @author jrrdev
+ *
+ */
+public class SyncWatermark {
+
+	/**
+	 * Name of the job.
+	 */
+	private String jobName;
+
+	/**
+	 * Project id.
+	 */
+	private long projectId;
+
+	/**
+	 * Name of the step.
+	 */
+	private String stepName;
+
+	/**
+	 * Start time of the last successful run.
+	 */
+	private Timestamp lastJobRun;
+
+	/**
+	 * Page size reached by the reader of the step, may be null.
+	 */
+	private Integer pageSize;
+
+	/**
+	 * Most recent last update of the issues synced by the step, may be null.
+	 */
+	private Timestamp maxLastUpdated;
+
+	/**
+	 * Default constructor.
+	 */
+	public SyncWatermark() {
+	}
+
+	/**
+	 * @return the jobName
+	 */
+	public String getJobName() {
+		return jobName;
+	}
+
+	/**
+	 * @param jobName the jobName to set
+	 */
+	public void setJobName(final String jobName) {
+		this.jobName = jobName;
+	}
+
+	/**
+	 * @return the projectId
+	 */
+	public long getProjectId() {
+		return projectId;
+	}
+
+	/**
+	 * @param projectId the projectId to set
+	 */
+	public void setProjectId(final long projectId) {
+		this.projectId = projectId;
+	}
+
+	/**
+	 * @return the stepName
+	 */
+	public String getStepName() {
+		return stepName;
+	}
+
+	/**
+	 * @param stepName the stepName to set
+	 */
+	public void setStepName(final String stepName) {
+		this.stepName = stepName;
+	}
+
+	/**
+	 * @return the lastJobRun
+	 */
+	public Timestamp getLastJobRun() {
+		return lastJobRun;
+	}
+
+	/**
+	 * @param lastJobRun the lastJobRun to set
+	 */
+	public void setLastJobRun(final Timestamp lastJobRun) {
+		this.lastJobRun = lastJobRun;
+	}
+
+	/**
+	 * @return the pageSize
+	 */
+	public Integer getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * @param pageSize the pageSize to set
+	 */
+	public void setPageSize(final Integer pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * @return the maxLastUpdated
+	 */
+	public Timestamp getMaxLastUpdated() {
+		return maxLastUpdated;
+	}
+
+	/**
+	 * @param maxLastUpdated the maxLastUpdated to set
+	 */
+	public void setMaxLastUpdated(final Timestamp maxLastUpdated) {
+		this.maxLastUpdated = maxLastUpdated;
+	}
+}
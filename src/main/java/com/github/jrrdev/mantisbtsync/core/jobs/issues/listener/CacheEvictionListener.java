@@ -27,25 +27,24 @@ import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheConfig;
 
 import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
 
 /**
- * Step listener used to evict all caches related to issue dependencies
+ * Step listener used to load and evict the keys related to issue dependencies
  * inserts into DB.
- * Those caches are used when writing an issue to not perform insert
+ * Those keys are used when writing an issue to not perform insert
  * if an enum values already exists in the DB.
- * The listener will evict all cached if at the end of the step.
+ * The listener loads the keys already in the DB at the start of the step and
+ * evicts them at the end of the step.
  *
  * @author jrrdev
  *
  */
-@CacheConfig
 public class CacheEvictionListener implements StepExecutionListener {
 
 	/**
-	 * The DAO using the caches to evict.
+	 * The DAO using the keys to load and evict.
 	 */
 	@Autowired
 	private IssuesDao dao;
@@ -56,7 +55,7 @@ public class CacheEvictionListener implements StepExecutionListener {
 	 */
 	@Override
 	public void beforeStep(final StepExecution stepExecution) {
-		// Nothing to do here
+		dao.loadDimensions();
 	}
 
 	/**
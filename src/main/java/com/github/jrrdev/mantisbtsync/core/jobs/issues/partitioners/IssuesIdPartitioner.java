@@ -0,0 +1,198 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.partitioners;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.util.Assert;
+
+import com.github.jrrdev.mantisbtsync.core.common.collections.LongArrayList;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugIdBean;
+
+/**
+ * Partitioner splitting a list of issues ids into partitions of a fixed size.
+ * The ids are read from a reader and each partition gets its semi-colon separated
+ * list of ids in the mantis.issues_id key of its execution context.
+ *
+ * The partitions are meant to be small and much more numerous than the threads
+ * running them : the threads take the next partition when they are done with one,
+ * so a slow partition doesn't hold the others.
+ *
+ * The partitions are named after the first and the last id they contain, not after
+ * their position. On a restart, the ids are read again and the ones already synced
+ * may be missing : a partition keeps its name as long as its range is unchanged,
+ * and a shifted range gets a new name instead of taking the name of a partition
+ * already completed.
+ * The ids are sorted and deduplicated first, so the ranges don't overlap and
+ * two partitions can't get the same name.
+ *
+ * @author jrrdev
+ *
+ */
+public class IssuesIdPartitioner implements Partitioner {
+
+	/**
+	 * Key of the list of ids in the execution context of a partition.
+	 */
+	public static final String ISSUES_ID_KEY = "mantis.issues_id";
+
+	/**
+	 * Reader giving the issues ids.
+	 */
+	private ItemReader<BugIdBean> reader;
+
+	/**
+	 * Number of issues by partition.
+	 */
+	private int partitionSize = 100;
+
+	/**
+	 * {@inheritDoc}
+	 * The grid size is ignored, the number of partitions only depends on the
+	 * partition size.
+	 *
+	 * @see org.springframework.batch.core.partition.support.Partitioner#partition(int)
+	 */
+	@Override
+	public Map<String, ExecutionContext> partition(final int gridSize) {
+		Assert.notNull(reader);
+		Assert.isTrue(partitionSize > 0, "The partition size must be positive");
+
+		final Map<String, ExecutionContext> partitions = new LinkedHashMap<String, ExecutionContext>();
+
+		if (reader instanceof ItemStream) {
+			((ItemStream) reader).open(new ExecutionContext());
+		}
+
+		final LongArrayList readIds = new LongArrayList();
+		try {
+			BugIdBean item = reader.read();
+			while (item != null) {
+				if (item.getId() > 0) {
+					readIds.add(item.getId());
+				}
+				item = reader.read();
+			}
+
+		} catch (final Exception e) {
+			throw new IllegalStateException("Can't read the issues ids to partition", e);
+
+		} finally {
+			if (reader instanceof ItemStream) {
+				((ItemStream) reader).close();
+			}
+		}
+
+		// The ids of mantis.issues_id or of a CSV file may be unsorted or repeated
+		final long[] sortedIds = readIds.toArray();
+		Arrays.sort(sortedIds);
+
+		StringBuilder ids = new StringBuilder();
+		int count = 0;
+		long firstId = 0;
+		long lastId = 0;
+
+		for (final long id : sortedIds) {
+			// The ids are positive, so the first one can't be taken for a duplicate
+			if (id == lastId) {
+				continue;
+			}
+
+			if (count > 0) {
+				ids.append(';');
+			} else {
+				firstId = id;
+			}
+			ids.append(id);
+			lastId = id;
+			count++;
+
+			if (count >= partitionSize) {
+				addPartition(partitions, ids.toString(), firstId, lastId);
+				ids = new StringBuilder();
+				count = 0;
+			}
+		}
+
+		if (count > 0) {
+			addPartition(partitions, ids.toString(), firstId, lastId);
+		}
+
+		return partitions;
+	}
+
+	/**
+	 * Add a partition to the map.
+	 *
+	 * @param partitions
+	 * 			The partitions
+	 * @param ids
+	 * 			Semi-colon separated list of ids of the partition
+	 * @param firstId
+	 * 			First id of the partition
+	 * @param lastId
+	 * 			Last id of the partition
+	 */
+	private void addPartition(final Map<String, ExecutionContext> partitions, final String ids,
+			final long firstId, final long lastId) {
+
+		final ExecutionContext context = new ExecutionContext();
+		context.putString(ISSUES_ID_KEY, ids);
+		partitions.put("partition" + firstId + "-" + lastId, context);
+	}
+
+	/**
+	 * @return the reader
+	 */
+	public ItemReader<BugIdBean> getReader() {
+		return reader;
+	}
+
+	/**
+	 * @param reader the reader to set
+	 */
+	public void setReader(final ItemReader<BugIdBean> reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * @return the partitionSize
+	 */
+	public int getPartitionSize() {
+		return partitionSize;
+	}
+
+	/**
+	 * @param partitionSize the partitionSize to set
+	 */
+	public void setPartitionSize(final int partitionSize) {
+		this.partitionSize = partitionSize;
+	}
+}
@@ -23,14 +23,14 @@
  */
 package com.github.jrrdev.mantisbtsync.core.jobs.issues.processors;
 
-import org.apache.axis.transport.http.HTTPConstants;
+import java.math.BigInteger;
+
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.util.Assert;
 
 import biz.futureware.mantis.rpc.soap.client.IssueData;
 import biz.futureware.mantis.rpc.soap.client.MantisConnectBindingStub;
 
-import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugIdBean;
 
 /**
@@ -44,11 +44,6 @@ import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugIdBean;
  */
 public class IssuesIdProcessor implements ItemProcessor<BugIdBean, IssueData> {
 
-	/**
-	 * Auth manager.
-	 */
-	private PortalAuthManager authManager;
-
 	/**
 	 * Client stub generate by Apache Axis.
 	 */
@@ -64,20 +59,6 @@ public class IssuesIdProcessor implements ItemProcessor<BugIdBean, IssueData> {
 	 */
 	private String password;
 
-	/**
-	 * @return the authManager
-	 */
-	public PortalAuthManager getAuthManager() {
-		return authManager;
-	}
-
-	/**
-	 * @param authManager the authManager to set
-	 */
-	public void setAuthManager(final PortalAuthManager authManager) {
-		this.authManager = authManager;
-	}
-
 	/**
 	 * @return the clientStub
 	 */
@@ -124,15 +105,9 @@ public class IssuesIdProcessor implements ItemProcessor<BugIdBean, IssueData> {
 	public IssueData process(final BugIdBean item) throws Exception {
 		Assert.notNull(getClientStub());
 
-		// If auth manager is set, try to get the cookie
-		if (getAuthManager() != null && getAuthManager().getAuthCookie() != null) {
-			getClientStub()._setProperty(HTTPConstants.HEADER_COOKIE,
-					getAuthManager().getAuthCookie());
-		}
-
 		IssueData resultItem = null;
-		if (item != null  && item.getId() != null) {
-			resultItem = getClientStub().mc_issue_get(getUserName(), getPassword(), item.getId());
+		if (item != null  && item.getId() > 0) {
+			resultItem = getClientStub().mc_issue_get(getUserName(), getPassword(), BigInteger.valueOf(item.getId()));
 		}
 
 		return resultItem;
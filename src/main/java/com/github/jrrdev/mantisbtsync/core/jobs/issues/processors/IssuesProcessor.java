@@ -26,7 +26,6 @@ package com.github.jrrdev.mantisbtsync.core.jobs.issues.processors;
 import java.math.BigInteger;
 import java.util.Calendar;
 
-import org.apache.axis.transport.http.HTTPConstants;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.util.Assert;
@@ -38,10 +37,12 @@ import biz.futureware.mantis.rpc.soap.client.IssueData;
 import biz.futureware.mantis.rpc.soap.client.IssueNoteData;
 import biz.futureware.mantis.rpc.soap.client.MantisConnectBindingStub;
 
-import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
+import com.github.jrrdev.mantisbtsync.core.common.hash.Fingerprint;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugCustomFieldValue;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugDependencies;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugHistoryBean;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugHistoryMark;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugNoteBean;
 import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
 
@@ -49,19 +50,24 @@ import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
  * Processor that transform the raw data retrieved from mc_issue_get
  * to a bean usable for insertion in the DB.
  * Retrieves also the history of the issue by calling mc_issue_get_history.
- * At last, prepare the issue insertion by populating the enumerations, project and
- * users tables if needed for Foreign Keys resolution.
+ * At last, collect the enumerations, project and users the issue depends on,
+ * for Foreign Keys resolution.
+ *
+ * The processor can be called concurrently, for instance by an
+ * {@link com.github.jrrdev.mantisbtsync.core.common.concurrent.AsyncItemProcessor}.
+ * It doesn't write anything in the DB : the dependencies are only collected in the bean
+ * and inserted in the chunk transaction by a
+ * {@link com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.BugDependenciesWriter}.
+ *
+ * When the history is incremental, the history isn't retrieved if the issue
+ * wasn't updated since the last sync, and only the entries after the
+ * high-water mark of the issue are kept.
  *
  * @author jrrdev
  *
  */
 public class IssuesProcessor implements ItemProcessor<IssueData, BugBean> {
 
-	/**
-	 * Auth manager.
-	 */
-	private PortalAuthManager authManager;
-
 	/**
 	 * Client stub generate by Apache Axis.
 	 */
@@ -81,18 +87,10 @@ public class IssuesProcessor implements ItemProcessor<IssueData, BugBean> {
 	private IssuesDao dao;
 
 	/**
-	 * @return the authManager
+	 * If true, only the history entries after the high-water mark of the issue
+	 * are written, and the history isn't retrieved if the issue wasn't updated.
 	 */
-	public PortalAuthManager getAuthManager() {
-		return authManager;
-	}
-
-	/**
-	 * @param authManager the authManager to set
-	 */
-	public void setAuthManager(final PortalAuthManager authManager) {
-		this.authManager = authManager;
-	}
+	private boolean incrementalHistory = false;
 
 	/**
 	 * @return the clientStub
@@ -150,6 +148,20 @@ public class IssuesProcessor implements ItemProcessor<IssueData, BugBean> {
 		this.dao = dao;
 	}
 
+	/**
+	 * @return the incrementalHistory
+	 */
+	public boolean isIncrementalHistory() {
+		return incrementalHistory;
+	}
+
+	/**
+	 * @param incrementalHistory the incrementalHistory to set
+	 */
+	public void setIncrementalHistory(final boolean incrementalHistory) {
+		this.incrementalHistory = incrementalHistory;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see org.springframework.batch.item.ItemProcessor#process(java.lang.Object)
@@ -159,18 +171,23 @@ public class IssuesProcessor implements ItemProcessor<IssueData, BugBean> {
 
 		Assert.notNull(clientStub);
 
-		// If auth manager is set, try to get the cookie
-		if (authManager != null && authManager.getAuthCookie() != null) {
-			clientStub._setProperty(HTTPConstants.HEADER_COOKIE,
-					authManager.getAuthCookie());
+		final BugBean bean = getBeanFromDto(item);
+		final BugHistoryMark mark = incrementalHistory ? dao.getHistoryMark(bean.getId()) : null;
+
+		final HistoryData[] histories;
+		if (mark != null && isSameDate(mark.getLastUpdated(), bean.getLastUpdated())) {
+			// The issue wasn't updated since its history was synced
+			histories = null;
+		} else {
+			histories = clientStub.mc_issue_get_history(userName, password, item.getId());
 		}
 
-		insertIssueDependencies(item);
-		final BugBean bean = getBeanFromDto(item);
+		final BugDependencies dependencies = new BugDependencies();
+		collectIssueDependencies(item, dependencies);
+		collectHistoryDependencies(histories, getProjectId(item), dependencies);
+		bean.setDependencies(dependencies);
 
-		final HistoryData[] histories = clientStub.mc_issue_get_history(userName, password, item.getId());
-		insertHistoryDependencies(histories, bean.getProjectId());
-		fillHistory(bean, histories);
+		fillHistory(bean, histories, mark);
 
 		return bean;
 	}
@@ -184,34 +201,34 @@ public class IssuesProcessor implements ItemProcessor<IssueData, BugBean> {
 	 */
 	private BugBean getBeanFromDto(final IssueData data) {
 		final BugBean bean = new BugBean();
-		bean.setId(data.getId());
+		bean.setId(data.getId().longValue());
 
 		if (data.getProject() != null) {
-			bean.setProjectId(data.getProject().getId());
+			bean.setProjectId(toLong(data.getProject().getId()));
 		}
 
 		if (data.getReporter() != null) {
-			bean.setReporterId(data.getReporter().getId());
+			bean.setReporterId(toLong(data.getReporter().getId()));
 		}
 
 		if (data.getHandler() != null) {
-			bean.setHandlerId(data.getHandler().getId());
+			bean.setHandlerId(toLong(data.getHandler().getId()));
 		}
 
 		if (data.getPriority() != null) {
-			bean.setPriorityId(data.getPriority().getId());
+			bean.setPriorityId(toLong(data.getPriority().getId()));
 		}
 
 		if (data.getSeverity() != null) {
-			bean.setSeverityId(data.getSeverity().getId());
+			bean.setSeverityId(toLong(data.getSeverity().getId()));
 		}
 
 		if (data.getStatus() != null) {
-			bean.setStatusId(data.getStatus().getId());
+			bean.setStatusId(toLong(data.getStatus().getId()));
 		}
 
 		if (data.getResolution() != null) {
-			bean.setResolutionId(data.getResolution().getId());
+			bean.setResolutionId(toLong(data.getResolution().getId()));
 		}
 
 		bean.setDescription(data.getDescription());
@@ -235,9 +252,33 @@ public class IssuesProcessor implements ItemProcessor<IssueData, BugBean> {
 		fillNotes(bean, data);
 		fillCustomField(bean, data);
 
+		bean.setFingerprint(computeFingerprint(bean));
+
 		return bean;
 	}
 
+	/**
+	 * Compute the fingerprint of the columns of mantis_bug_table,
+	 * used by the writer to skip the issues that didn't change.
+	 *
+	 * @param bean
+	 * 		The issue
+	 * @return the fingerprint
+	 */
+	private String computeFingerprint(final BugBean bean) {
+		return new Fingerprint().add(bean.getId()).add(bean.getProjectId())
+				.add(bean.getReporterId()).add(bean.getHandlerId())
+				.add(bean.getPriorityId()).add(bean.getSeverityId())
+				.add(bean.getStatusId()).add(bean.getResolutionId())
+				.add(bean.getDescription()).add(bean.getStepsToReproduce())
+				.add(bean.getAdditionalInformation()).add(bean.getPlatform())
+				.add(bean.getVersion()).add(bean.getFixedInVersion())
+				.add(bean.getTargetVersion()).add(bean.getSummary())
+				.add(bean.getCategory()).add(bean.getDateSubmitted())
+				.add(bean.getLastUpdated())
+				.toHex();
+	}
+
 	/**
 	 * Fill the notes list in the bean by using the data
 	 * retrieved by the WS call.
@@ -253,10 +294,10 @@ public class IssuesProcessor implements ItemProcessor<IssueData, BugBean> {
 			final IssueNoteData[] notes = data.getNotes();
 			for (final IssueNoteData noteData : notes) {
 				final BugNoteBean noteBean = new BugNoteBean();
-				noteBean.setId(noteData.getId());
+				noteBean.setId(noteData.getId().longValue());
 				noteBean.setBugId(bean.getId());
 				if (noteData.getReporter() != null) {
-					noteBean.setReporterId(noteData.getReporter().getId());
+					noteBean.setReporterId(toLong(noteData.getReporter().getId()));
 				}
 				noteBean.setTextNote(noteData.getText());
 				if (noteData.getDate_submitted() != null) {
@@ -288,7 +329,7 @@ public class IssuesProcessor implements ItemProcessor<IssueData, BugBean> {
 				final BugCustomFieldValue valueBean = new BugCustomFieldValue();
 
 				if (value.getField() != null) {
-					valueBean.setFieldId(value.getField().getId());
+					valueBean.setFieldId(value.getField().getId().longValue());
 				}
 
 				valueBean.setBugId(bean.getId());
@@ -301,26 +342,61 @@ public class IssuesProcessor implements ItemProcessor<IssueData, BugBean> {
 
 	/**
 	 * Fill the history list in the bean by using the data
-	 * retrieved by the WS call.
+	 * retrieved by the WS call, and set the new high-water mark of the history.
+	 *
+	 * If a mark is given and the number of entries up to the mark didn't change,
+	 * only the entries after the mark are added. Otherwise, all the entries
+	 * are added and the ones already in the DB are ignored by the writer.
 	 *
 	 * @param bean
 	 * 		Bean to populated
-	 * @param data
+	 * @param histories
 	 * 		Raw data from the WS call
+	 * @param mark
+	 * 		High-water mark of the history synced so far, may be null
 	 */
-	private void fillHistory(final BugBean bean, final HistoryData[] histories) {
+	private void fillHistory(final BugBean bean, final HistoryData[] histories, final BugHistoryMark mark) {
 		if (histories != null && bean != null) {
 
+			long maxDate = Long.MIN_VALUE;
+			long markDate = Long.MAX_VALUE;
+			int countUpToMark = 0;
+			int datedCount = 0;
+			if (mark != null && mark.getMaxDateModified() != null) {
+				markDate = toSeconds(mark.getMaxDateModified());
+			}
+
+			for (final HistoryData histData : histories) {
+				if (histData.getDate() != null) {
+					final long date = histData.getDate().longValue();
+					maxDate = Math.max(maxDate, date);
+					datedCount++;
+					if (date <= markDate) {
+						countUpToMark++;
+					}
+				}
+			}
+
+			final boolean onlyNewEntries = mark != null && mark.getMaxDateModified() != null
+					&& countUpToMark == mark.getHistoryCount();
+
 			final Calendar cal = Calendar.getInstance();
 
 			for (final HistoryData histData : histories) {
+				if (onlyNewEntries && histData.getDate() != null
+						&& histData.getDate().longValue() <= markDate) {
+					continue;
+				}
+
 				final BugHistoryBean histBean = new BugHistoryBean();
 				histBean.setBugId(bean.getId());
-				histBean.setUserId(histData.getUserid());
+				if (histData.getUserid() != null) {
+					histBean.setUserId(toLong(histData.getUserid()));
+				}
 				histBean.setFieldName(histData.getField());
 				histBean.setOldValue(histData.getOld_value());
 				histBean.setNewValue(histData.getNew_value());
-				histBean.setHistoryType(histData.getType());
+				histBean.setHistoryType(toLong(histData.getType()));
 				if (histData.getDate() != null) {
 					cal.setTimeInMillis(histData.getDate().longValue() * 1000L);
 					histBean.setDateModified(getSqlDate(cal));
@@ -328,9 +404,43 @@ public class IssuesProcessor implements ItemProcessor<IssueData, BugBean> {
 
 				bean.getHistory().add(histBean);
 			}
+
+			final BugHistoryMark newMark = new BugHistoryMark();
+			newMark.setBugId(bean.getId());
+			newMark.setLastUpdated(bean.getLastUpdated());
+			if (maxDate != Long.MIN_VALUE) {
+				newMark.setMaxDateModified(new java.sql.Timestamp(maxDate * 1000L));
+			}
+			newMark.setHistoryCount(datedCount);
+			bean.setHistoryMark(newMark);
 		}
 	}
 
+	/**
+	 * Convert a date to a number of seconds, the precision of the dates
+	 * returned by the WS and stored in the DB.
+	 *
+	 * @param date
+	 * 		The date
+	 * @return the number of seconds since the epoch
+	 */
+	private static long toSeconds(final java.util.Date date) {
+		return Math.floorDiv(date.getTime(), 1000L);
+	}
+
+	/**
+	 * Check if two dates are equal, with a precision of one second.
+	 *
+	 * @param date1
+	 * 		First date, may be null
+	 * @param date2
+	 * 		Second date, may be null
+	 * @return true if both dates are not null and equal
+	 */
+	private static boolean isSameDate(final java.util.Date date1, final java.util.Date date2) {
+		return date1 != null && date2 != null && toSeconds(date1) == toSeconds(date2);
+	}
+
 	/**
 	 * Convert a calendar to a sql date.
 	 *
@@ -343,55 +453,51 @@ public class IssuesProcessor implements ItemProcessor<IssueData, BugBean> {
 	}
 
 	/**
-	 * Insert all the depencies of the issue if they aren't present
-	 * in the DB. This operation is perform because enums and projects syncing
-	 * may not be possible and would result into foreign keys violations.
+	 * Collect all the depencies of the issue, to insert them later
+	 * with the ones of the other issues of the chunk.
 	 *
 	 * @param item
 	 * 		Raw data from the WS call
+	 * @param dependencies
+	 * 		The collected dependencies
 	 */
-	private void insertIssueDependencies(final IssueData item) {
-		final BigInteger projectId;
-		if (item.getProject() != null) {
-			projectId = item.getProject().getId();
-		} else {
-			projectId = null;
-		}
+	private void collectIssueDependencies(final IssueData item, final BugDependencies dependencies) {
+		final Long projectId = getProjectId(item);
 
-		dao.insertProjectIfNotExists(item.getProject());
-		dao.insertUserIfNotExists(item.getReporter(), projectId);
-		dao.insertUserIfNotExists(item.getHandler(), projectId);
-		dao.insertPriorityIfNotExists(item.getPriority());
-		dao.insertSeverityIfNotExists(item.getSeverity());
-		dao.insertStatusIfNotExists(item.getStatus());
-		dao.insertResolutionIfNotExists(item.getResolution());
+		dependencies.addProject(item.getProject());
+		dependencies.addUser(item.getReporter(), projectId);
+		dependencies.addUser(item.getHandler(), projectId);
+		dependencies.addPriority(item.getPriority());
+		dependencies.addSeverity(item.getSeverity());
+		dependencies.addStatus(item.getStatus());
+		dependencies.addResolution(item.getResolution());
 
 		if (item.getNotes() != null) {
-			final IssueNoteData[] notes = item.getNotes();
-			for (final IssueNoteData noteData : notes) {
-				dao.insertUserIfNotExists(noteData.getReporter(), projectId);
+			for (final IssueNoteData noteData : item.getNotes()) {
+				dependencies.addUser(noteData.getReporter(), projectId);
 			}
 		}
 
 		if (item.getCustom_fields() != null) {
-			final CustomFieldValueForIssueData[] valuesData = item.getCustom_fields();
-			for (final CustomFieldValueForIssueData value : valuesData) {
-				if (value.getField() != null) {
-					dao.insertCustomFieldIfNotExists(value.getField(), projectId);
-				}
+			for (final CustomFieldValueForIssueData value : item.getCustom_fields()) {
+				dependencies.addCustomField(value.getField(), projectId);
 			}
 		}
 	}
 
 	/**
-	 * Insert all the depencies of the issue history if they aren't present
-	 * in the DB. This operation is perform because enums and projects syncing
-	 * may not be possible and would result into foreign keys violations.
+	 * Collect all the depencies of the issue history, to insert them later
+	 * with the ones of the other issues of the chunk.
 	 *
-	 * @param item
+	 * @param histories
 	 * 		Raw data from the WS call
+	 * @param projectId
+	 * 		Id of the project of the issue
+	 * @param dependencies
+	 * 		The collected dependencies
 	 */
-	private void insertHistoryDependencies(final HistoryData[] histories, final BigInteger projectId) {
+	private void collectHistoryDependencies(final HistoryData[] histories, final Long projectId,
+			final BugDependencies dependencies) {
 		if (histories != null) {
 			for (final HistoryData histData : histories) {
 				if (histData.getUserid() != null) {
@@ -399,10 +505,31 @@ public class IssuesProcessor implements ItemProcessor<IssueData, BugBean> {
 					usr.setId(histData.getUserid());
 					usr.setName(histData.getUsername());
 
-					dao.insertUserIfNotExists(usr, projectId);
+					dependencies.addUser(usr, projectId);
 				}
 			}
 		}
 	}
 
+	/**
+	 * Convert an id returned by the WS into a Long.
+	 *
+	 * @param id
+	 * 		Id returned by the WS, may be null
+	 * @return the id as a Long, null if the id is null
+	 */
+	private static Long toLong(final BigInteger id) {
+		return (id == null) ? null : Long.valueOf(id.longValue());
+	}
+
+	/**
+	 * Return the id of the project of the issue.
+	 *
+	 * @param item
+	 * 		Raw data from the WS call
+	 * @return the id of the project, null if the issue has no project
+	 */
+	private static Long getProjectId(final IssueData item) {
+		return (item.getProject() == null) ? null : toLong(item.getProject().getId());
+	}
 }
@@ -25,13 +25,13 @@ package com.github.jrrdev.mantisbtsync.core.jobs.issues.readers;
 
 import java.math.BigInteger;
 
+import org.apache.axis.Constants;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import biz.futureware.mantis.rpc.soap.client.IssueData;
 import biz.futureware.mantis.rpc.soap.client.MantisConnectBindingStub;
 
-import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
 import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
 
 /**
@@ -42,11 +42,6 @@ import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
  */
 public abstract class AbstractIssuesReader implements ItemReader<IssueData> {
 
-	/**
-	 * Auth manager.
-	 */
-	private PortalAuthManager authManager;
-
 	/**
 	 * Client stub generate by Apache Axis.
 	 */
@@ -68,17 +63,32 @@ public abstract class AbstractIssuesReader implements ItemReader<IssueData> {
 	private BigInteger projectId;
 
 	/**
-	 * @return the authManager
-	 */
-	public PortalAuthManager getAuthManager() {
-		return authManager;
-	}
-
-	/**
-	 * @param authManager the authManager to set
-	 */
-	public void setAuthManager(final PortalAuthManager authManager) {
-		this.authManager = authManager;
+	 * Call mc_issue_get for the given issue.
+	 * The timeout is set as the socket timeout of the stub for this call only.
+	 * The stub is expected to be owned by the calling thread.
+	 *
+	 * @param issueId
+	 * 			The id of the issue
+	 * @param timeout
+	 * 			Socket timeout in milliseconds, 0 means the timeout of the stub
+	 * @return the issue
+	 * @throws Exception
+	 * 			If the WS call fails or times out
+	 */
+	protected IssueData fetchIssue(final long issueId, final long timeout) throws Exception {
+		final MantisConnectBindingStub stub = getClientStub();
+		if (timeout <= 0) {
+			return stub.mc_issue_get(getUserName(), getPassword(), BigInteger.valueOf(issueId));
+		}
+
+		final int previousTimeout = stub.getTimeout();
+		stub.setTimeout((int) Math.min(timeout, Integer.MAX_VALUE));
+		try {
+			return stub.mc_issue_get(getUserName(), getPassword(), BigInteger.valueOf(issueId));
+		} finally {
+			// 0 means that the stub used the default timeout of Axis
+			stub.setTimeout(previousTimeout > 0 ? previousTimeout : Constants.DEFAULT_MESSAGE_TIMEOUT);
+		}
 	}
 
 	/**
@@ -0,0 +1,349 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.readers;
+
+import java.math.BigInteger;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.NonTransientResourceException;
+import org.springframework.batch.item.ParseException;
+import org.springframework.batch.item.UnexpectedInputException;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.util.Assert;
+
+import biz.futureware.mantis.rpc.soap.client.IssueData;
+import biz.futureware.mantis.rpc.soap.client.IssueHeaderData;
+
+import com.github.jrrdev.mantisbtsync.core.common.collections.LongArrayList;
+import com.github.jrrdev.mantisbtsync.core.common.concurrent.FetchWindow;
+
+/**
+ * Read all issues that are still open in the given project and that was
+ * updated since a given datetime (that should be the last succesful sync),
+ * by comparing their headers with the local DB first.
+ * Call mc_project_get_issue_headers WS operation, then mc_issue_get
+ * only for the issues whose last update date differs from the one stored in
+ * mantis_bug_table. The local dates of a page of headers are retrieved in one query.
+ *
+ * If a parallelism greater than 1 is set, a window of mc_issue_get calls is kept
+ * in flight on a task executor. The issues are still returned in the order of the headers.
+ *
+ * The reader is synchronized so it can be used by a multi-threaded step.
+ *
+ * @author jrrdev
+ *
+ */
+public class IssueHeadersReader extends AbstractIssuesReader implements ItemStream {
+
+	/**
+	 * Number of headers requested by page.
+	 */
+	private int pageSize = 100;
+
+	/**
+	 * Number of the next page of headers to request.
+	 */
+	private int nextPageNumber = 1;
+
+	/**
+	 * Id of the first header of the last page, used to detect that MantisBT
+	 * returned the last page again.
+	 */
+	private Long lastPageFirstId = null;
+
+	/**
+	 * Indicates if there isn't any page of headers left to read.
+	 */
+	private boolean lastPageReached = false;
+
+	/**
+	 * Ids of the changed issues of the current page of headers.
+	 */
+	private final LongArrayList changedIds = new LongArrayList();
+
+	/**
+	 * Index of the next changed issue to request.
+	 */
+	private int index = 0;
+
+	/**
+	 * Indicates if all the issues were read.
+	 */
+	private boolean exhausted = false;
+
+	/**
+	 * Last successful sync.
+	 */
+	private Calendar lastJobRun = null;
+
+	/**
+	 * Maximum number of calls in flight. 1 or less means sequential calls.
+	 */
+	private int parallelism = 1;
+
+	/**
+	 * Socket timeout in milliseconds of a mc_issue_get call, 0 means the timeout of the stub.
+	 */
+	private long callTimeout = 0;
+
+	/**
+	 * Executor used for the concurrent calls.
+	 */
+	private AsyncTaskExecutor taskExecutor;
+
+	/**
+	 * Calls in flight.
+	 */
+	private FetchWindow<IssueData> window;
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemReader#read()
+	 */
+	@Override
+	public synchronized IssueData read() throws Exception, UnexpectedInputException,
+	ParseException, NonTransientResourceException {
+
+		Assert.notNull(getClientStub());
+
+		// The other threads of a multi-threaded step may still call the reader
+		if (exhausted) {
+			return null;
+		}
+
+		IssueData item = null;
+		while (item == null) {
+			// Pages without any changed issue are skipped
+			while (index >= changedIds.size() && !lastPageReached) {
+				readNextPage();
+			}
+
+			if (parallelism <= 1) {
+				if (index >= changedIds.size()) {
+					break;
+				}
+				item = fetchIssue(changedIds.get(index), callTimeout);
+				index++;
+
+			} else {
+				if (window == null) {
+					Assert.notNull(taskExecutor);
+					window = new FetchWindow<IssueData>(taskExecutor, parallelism);
+				}
+
+				while (!window.isFull() && index < changedIds.size()) {
+					final long issueId = changedIds.get(index);
+					window.submit(new Callable<IssueData>() {
+
+						@Override
+						public IssueData call() throws Exception {
+							return fetchIssue(issueId, callTimeout);
+						}
+					});
+					index++;
+				}
+
+				if (window.isEmpty()) {
+					break;
+				}
+				item = window.take();
+			}
+		}
+
+		if (item == null) {
+			exhausted = true;
+		}
+
+		return item;
+	}
+
+	/**
+	 * Call mc_project_get_issue_headers for the next page and keep the ids
+	 * of the issues updated since the last sync and that differ from the local DB.
+	 * The headers are sorted by last update date, so the reading stops at the first
+	 * issue not updated since the last sync.
+	 *
+	 * @throws Exception
+	 * 			If the WS call fails
+	 */
+	private void readNextPage() throws Exception {
+		final IssueHeaderData[] headers = getClientStub().mc_project_get_issue_headers(getUserName(),
+				getPassword(), getProjectId(), BigInteger.valueOf(nextPageNumber), BigInteger.valueOf(pageSize));
+		nextPageNumber++;
+
+		changedIds.clear();
+		index = 0;
+
+		final int count = (headers == null) ? 0 : headers.length;
+		if (count < pageSize) {
+			lastPageReached = true;
+		}
+		if (count == 0) {
+			return;
+		}
+
+		// MantisBT returns the last page again when the page number is too high
+		final Long firstId = (headers[0] == null) ? null : headers[0].getId().longValue();
+		if (firstId != null && firstId.equals(lastPageFirstId)) {
+			lastPageReached = true;
+			return;
+		}
+		lastPageFirstId = firstId;
+
+		final LongArrayList candidates = new LongArrayList(count);
+		final Calendar[] dates = new Calendar[count];
+		for (final IssueHeaderData header : headers) {
+			if (header == null) {
+				continue;
+			}
+
+			final Calendar lastUpdated = header.getLast_updated();
+			if (lastJobRun != null && lastUpdated != null && !lastUpdated.after(lastJobRun)) {
+				lastPageReached = true;
+				break;
+			}
+
+			dates[candidates.size()] = lastUpdated;
+			candidates.add(header.getId().longValue());
+		}
+
+		final Map<Long, java.sql.Timestamp> localDates = getDao().getIssuesLastUpdated(candidates.toArray());
+		for (int j = 0; j < candidates.size(); j++) {
+			final java.sql.Timestamp localDate = localDates.get(candidates.get(j));
+			if (localDate == null || dates[j] == null || localDate.getTime() != dates[j].getTimeInMillis()) {
+				changedIds.add(candidates.get(j));
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemStream#open(org.springframework.batch.item.ExecutionContext)
+	 */
+	@Override
+	public void open(final ExecutionContext executionContext) throws ItemStreamException {
+		// Nothing to restore
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemStream#update(org.springframework.batch.item.ExecutionContext)
+	 */
+	@Override
+	public void update(final ExecutionContext executionContext) throws ItemStreamException {
+		// Nothing to save
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemStream#close()
+	 */
+	@Override
+	public synchronized void close() throws ItemStreamException {
+		if (window != null) {
+			window.cancelAll();
+		}
+	}
+
+	/**
+	 * @return the lastJobRun
+	 */
+	public Calendar getLastJobRun() {
+		return lastJobRun;
+	}
+
+	/**
+	 * @param pLastJobRun the lastJobRun to set
+	 */
+	public void setLastJobRun(final Date pLastJobRun) {
+		if (pLastJobRun != null) {
+			lastJobRun = Calendar.getInstance();
+			lastJobRun.setTime(pLastJobRun);
+		} else {
+			lastJobRun = null;
+		}
+	}
+
+	/**
+	 * @return the pageSize
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * @param pageSize the pageSize to set
+	 */
+	public void setPageSize(final int pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * @return the parallelism
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * @param parallelism the parallelism to set
+	 */
+	public void setParallelism(final int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * @return the callTimeout
+	 */
+	public long getCallTimeout() {
+		return callTimeout;
+	}
+
+	/**
+	 * @param callTimeout the callTimeout to set
+	 */
+	public void setCallTimeout(final long callTimeout) {
+		this.callTimeout = callTimeout;
+	}
+
+	/**
+	 * @return the taskExecutor
+	 */
+	public AsyncTaskExecutor getTaskExecutor() {
+		return taskExecutor;
+	}
+
+	/**
+	 * @param taskExecutor the taskExecutor to set
+	 */
+	public void setTaskExecutor(final AsyncTaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+}
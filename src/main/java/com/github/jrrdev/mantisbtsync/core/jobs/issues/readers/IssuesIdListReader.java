@@ -0,0 +1,109 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.readers;
+
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.util.ClassUtils;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugIdBean;
+
+/**
+ * Reader for a semi-colon separated list of issues ids.
+ * The number of ids read is saved in the step execution context, so a restarted
+ * step goes on from the last committed chunk.
+ *
+ * @author jrrdev
+ *
+ */
+public class IssuesIdListReader extends AbstractItemCountingItemStreamItemReader<BugIdBean> {
+
+	/**
+	 * Semi-colon separated list of issues ids.
+	 */
+	private String issuesIds;
+
+	/**
+	 * Ids to read.
+	 */
+	private String[] ids;
+
+	/**
+	 * Default constructor.
+	 */
+	public IssuesIdListReader() {
+		setName(ClassUtils.getShortName(IssuesIdListReader.class));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader#doOpen()
+	 */
+	@Override
+	protected void doOpen() throws Exception {
+		if (issuesIds != null && !issuesIds.isEmpty()) {
+			ids = issuesIds.split(";");
+		} else {
+			ids = new String[0];
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader#doRead()
+	 */
+	@Override
+	protected BugIdBean doRead() throws Exception {
+		final int index = getCurrentItemCount() - 1;
+		if (ids == null || index >= ids.length) {
+			return null;
+		}
+
+		final BugIdBean bean = new BugIdBean();
+		bean.setId(Long.parseLong(ids[index].trim()));
+		return bean;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader#doClose()
+	 */
+	@Override
+	protected void doClose() throws Exception {
+		ids = null;
+	}
+
+	/**
+	 * @return the issuesIds
+	 */
+	public String getIssuesIds() {
+		return issuesIds;
+	}
+
+	/**
+	 * @param issuesIds the issuesIds to set
+	 */
+	public void setIssuesIds(final String issuesIds) {
+		this.issuesIds = issuesIds;
+	}
+}
@@ -24,31 +24,56 @@
 package com.github.jrrdev.mantisbtsync.core.jobs.issues.readers;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.concurrent.Callable;
 
-import org.apache.axis.transport.http.HTTPConstants;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.NonTransientResourceException;
 import org.springframework.batch.item.ParseException;
 import org.springframework.batch.item.UnexpectedInputException;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.util.Assert;
 
 import biz.futureware.mantis.rpc.soap.client.IssueData;
 
+import com.github.jrrdev.mantisbtsync.core.common.concurrent.FetchWindow;
+import com.github.jrrdev.mantisbtsync.core.common.transport.TransportStatistics;
+
 /**
  * Read all issues that are still open in the given project and that was
  * updated since a given datetime (that should be the last succesful sync).
  * Call mc_project_get_issues WS operation.
  *
+ * The page size is adapted from the latency and size of the responses
+ * by a {@link PageSizeController}. Since MantisBT pages are numbered,
+ * a page is requested by its offset : when the size changes, the page containing
+ * the offset is requested and its first items, already read, are skipped.
+ * The page size is saved in the step execution context.
+ *
+ * If a prefetch depth is set, the next pages are requested concurrently
+ * while the current page is processed. The calls still in flight are cancelled
+ * once the last page or an issue not updated since the last sync is reached.
+ *
+ * The reader is synchronized so it can be used by a multi-threaded step.
+ *
  * @author jrrdev
  *
  */
-public class OpenIssuesReader extends AbstractIssuesReader {
+public class OpenIssuesReader extends AbstractIssuesReader implements ItemStream {
 
 	/**
-	 * Current page in the WS call.
+	 * Key of the page size in the step execution context.
 	 */
-	private int currentPage = 0;
+	public static final String PAGE_SIZE_KEY = "mantis.issues.page_size";
+
+	/**
+	 * Offset of the next issue to request.
+	 */
+	private int nextOffset = 0;
 
 	/**
 	 * Index of the last read item.
@@ -61,36 +86,53 @@ public class OpenIssuesReader extends AbstractIssuesReader {
 	private IssueData[] items;
 
 	/**
-	 * Page size.
+	 * Controller choosing the page size.
+	 */
+	private PageSizeController pageSizeController = new PageSizeController();
+
+	/**
+	 * Counters of the HTTP transport, used to get the size of the responses.
 	 */
-	private static final BigInteger PAGE_SIZE = BigInteger.valueOf(20);
+	private TransportStatistics transportStatistics;
 
 	/**
 	 * Last successful sync.
 	 */
 	private Calendar lastJobRun = null;
 
+	/**
+	 * Number of pages requested in advance. 0 disables the prefetch.
+	 */
+	private int prefetchDepth = 0;
+
+	/**
+	 * Executor used for the prefetch.
+	 */
+	private AsyncTaskExecutor taskExecutor;
+
+	/**
+	 * Pages requested in advance.
+	 */
+	private FetchWindow<Page> window;
+
+	/**
+	 * Indicates if there isn't any page left to read.
+	 */
+	private boolean lastPageReached = false;
+
 	/**
 	 * {@inheritDoc}
 	 * @see org.springframework.batch.item.ItemReader#read()
 	 */
 	@Override
-	public IssueData read() throws Exception, UnexpectedInputException,
+	public synchronized IssueData read() throws Exception, UnexpectedInputException,
 	ParseException, NonTransientResourceException {
 
 		Assert.notNull(getClientStub());
 
-		// If auth manager is set, try to get the cookie
-		if (getAuthManager() != null && getAuthManager().getAuthCookie() != null) {
-			getClientStub()._setProperty(HTTPConstants.HEADER_COOKIE,
-					getAuthManager().getAuthCookie());
-		}
-
-		if (i < 0 || i >= (items.length - 1)) {
-			currentPage++;
+		if (i < 0 || items == null || i >= (items.length - 1)) {
 			i = -1;
-			items = getClientStub().mc_project_get_issues(getUserName(), getPassword(),
-					getProjectId(), BigInteger.valueOf(currentPage), PAGE_SIZE);
+			items = lastPageReached ? null : nextPage();
 		}
 
 		i++;
@@ -105,15 +147,151 @@ public class OpenIssuesReader extends AbstractIssuesReader {
 				return item;
 
 			} else {
-				items = null;
+				stop();
 				return null;
 			}
 		} else {
-			items = null;
+			stop();
 			return null;
 		}
 	}
 
+	/**
+	 * Get the next page, either directly or from the prefetched pages.
+	 *
+	 * @return the items of the next page
+	 * @throws Exception
+	 * 			If the WS call fails
+	 */
+	private IssueData[] nextPage() throws Exception {
+		final Page page;
+		if (prefetchDepth <= 0) {
+			page = requestNextPage().call();
+
+		} else {
+			if (window == null) {
+				Assert.notNull(taskExecutor);
+				window = new FetchWindow<Page>(taskExecutor, prefetchDepth + 1);
+			}
+
+			// The page to read and the next ones up to the prefetch depth
+			while (!window.isFull()) {
+				window.submit(requestNextPage());
+			}
+
+			page = window.take();
+		}
+
+		final int count = (page.issues == null) ? 0 : page.issues.length;
+		pageSizeController.record(page.size, count, page.latency, page.payloadBytes);
+
+		// A short page is the last one
+		if (count < page.size) {
+			lastPageReached = true;
+			cancelPrefetch();
+		}
+
+		if (page.issues == null || page.skip == 0) {
+			return page.issues;
+		} else if (page.skip >= count) {
+			return new IssueData[0];
+		} else {
+			return Arrays.copyOfRange(page.issues, page.skip, count);
+		}
+	}
+
+	/**
+	 * Build the call of the page containing the next offset with the current page size,
+	 * and move the next offset to the end of that page.
+	 *
+	 * @return the call
+	 */
+	private Callable<Page> requestNextPage() {
+		final int size = pageSizeController.getPageSize();
+		final int pageNumber = nextOffset / size + 1;
+		final int skip = nextOffset % size;
+		nextOffset = pageNumber * size;
+
+		return new Callable<Page>() {
+
+			@Override
+			public Page call() throws Exception {
+				return fetchPage(pageNumber, size, skip);
+			}
+		};
+	}
+
+	/**
+	 * Call mc_project_get_issues for the given page.
+	 *
+	 * @param pageNumber
+	 * 			The page number
+	 * @param size
+	 * 			The page size
+	 * @param skip
+	 * 			Number of items of the page already read
+	 * @return the page
+	 * @throws Exception
+	 * 			If the WS call fails
+	 */
+	private Page fetchPage(final int pageNumber, final int size, final int skip) throws Exception {
+		final long start = System.currentTimeMillis();
+		final IssueData[] issues = getClientStub().mc_project_get_issues(getUserName(), getPassword(),
+				getProjectId(), BigInteger.valueOf(pageNumber), BigInteger.valueOf(size));
+		final long latency = System.currentTimeMillis() - start;
+		final long payloadBytes = (transportStatistics == null) ? -1
+				: transportStatistics.getLastResponseBytes();
+
+		return new Page(issues, size, skip, latency, payloadBytes);
+	}
+
+	/**
+	 * Stop the reading and cancel the prefetched pages.
+	 */
+	private void stop() {
+		items = null;
+		lastPageReached = true;
+		cancelPrefetch();
+	}
+
+	/**
+	 * Cancel the pages requested in advance.
+	 */
+	private void cancelPrefetch() {
+		if (window != null) {
+			window.cancelAll();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemStream#open(org.springframework.batch.item.ExecutionContext)
+	 */
+	@Override
+	public synchronized void open(final ExecutionContext executionContext) throws ItemStreamException {
+		if (executionContext.containsKey(PAGE_SIZE_KEY)) {
+			pageSizeController.setPageSize(executionContext.getInt(PAGE_SIZE_KEY));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemStream#update(org.springframework.batch.item.ExecutionContext)
+	 */
+	@Override
+	public synchronized void update(final ExecutionContext executionContext) throws ItemStreamException {
+		executionContext.putInt(PAGE_SIZE_KEY, pageSizeController.getPageSize());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemStream#close()
+	 */
+	@Override
+	public synchronized void close() throws ItemStreamException {
+		cancelPrefetch();
+	}
+
 	/**
 	 * @return the lastJobRun
 	 */
@@ -132,4 +310,114 @@ public class OpenIssuesReader extends AbstractIssuesReader {
 			lastJobRun = null;
 		}
 	}
+
+	/**
+	 * @return the pageSizeController
+	 */
+	public PageSizeController getPageSizeController() {
+		return pageSizeController;
+	}
+
+	/**
+	 * @param pageSizeController the pageSizeController to set
+	 */
+	public void setPageSizeController(final PageSizeController pageSizeController) {
+		this.pageSizeController = pageSizeController;
+	}
+
+	/**
+	 * @return the transportStatistics
+	 */
+	public TransportStatistics getTransportStatistics() {
+		return transportStatistics;
+	}
+
+	/**
+	 * @param transportStatistics the transportStatistics to set
+	 */
+	public void setTransportStatistics(final TransportStatistics transportStatistics) {
+		this.transportStatistics = transportStatistics;
+	}
+
+	/**
+	 * @return the prefetchDepth
+	 */
+	public int getPrefetchDepth() {
+		return prefetchDepth;
+	}
+
+	/**
+	 * @param prefetchDepth the prefetchDepth to set
+	 */
+	public void setPrefetchDepth(final int prefetchDepth) {
+		this.prefetchDepth = prefetchDepth;
+	}
+
+	/**
+	 * @return the taskExecutor
+	 */
+	public AsyncTaskExecutor getTaskExecutor() {
+		return taskExecutor;
+	}
+
+	/**
+	 * @param taskExecutor the taskExecutor to set
+	 */
+	public void setTaskExecutor(final AsyncTaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * A page returned by the WS.
+	 */
+	private static final class Page {
+
+		/**
+		 * Issues of the page.
+		 */
+		private final IssueData[] issues;
+
+		/**
+		 * Requested page size.
+		 */
+		private final int size;
+
+		/**
+		 * Number of issues of the page already read.
+		 */
+		private final int skip;
+
+		/**
+		 * Duration of the call in milliseconds.
+		 */
+		private final long latency;
+
+		/**
+		 * Size of the response in bytes, -1 if unknown.
+		 */
+		private final long payloadBytes;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param issues
+		 * 			Issues of the page
+		 * @param size
+		 * 			Requested page size
+		 * @param skip
+		 * 			Number of issues of the page already read
+		 * @param latency
+		 * 			Duration of the call in milliseconds
+		 * @param payloadBytes
+		 * 			Size of the response in bytes, -1 if unknown
+		 */
+		private Page(final IssueData[] issues, final int size, final int skip,
+				final long latency, final long payloadBytes) {
+			this.issues = issues;
+			this.size = size;
+			this.skip = skip;
+			this.latency = latency;
+			this.payloadBytes = payloadBytes;
+		}
+	}
 }
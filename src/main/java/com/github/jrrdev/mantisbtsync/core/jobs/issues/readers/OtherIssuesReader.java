@@ -23,18 +23,22 @@
  */
 package com.github.jrrdev.mantisbtsync.core.jobs.issues.readers;
 
-import java.math.BigInteger;
 import java.util.Calendar;
-import java.util.List;
+import java.util.concurrent.Callable;
 
-import org.apache.axis.transport.http.HTTPConstants;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.NonTransientResourceException;
 import org.springframework.batch.item.ParseException;
 import org.springframework.batch.item.UnexpectedInputException;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.util.Assert;
 
 import biz.futureware.mantis.rpc.soap.client.IssueData;
 
+import com.github.jrrdev.mantisbtsync.core.common.concurrent.FetchWindow;
+
 /**
  * Read the data related to the issues still marked as opened in the local DB
  * and that weren't sync since a given datetime (that should be the job start time
@@ -43,60 +47,220 @@ import biz.futureware.mantis.rpc.soap.client.IssueData;
  * So it is used to update the issues that was closed since last sync.
  * Call mc_issue_get WS operation.
  *
+ * The ids are read from the local DB by pages, ordered by id, so the first calls start
+ * without waiting for the whole list. The project and its subprojects are listed once
+ * when the reader is opened, and each one is paged with its own cursor : a page is only
+ * read for a project whose previous page is consumed, and the pages are merged in id order.
+ * The last returned id is saved in the step execution context, and a restarted step
+ * goes on from the last committed chunk.
+ *
+ * If a parallelism greater than 1 is set, a window of mc_issue_get calls is kept
+ * in flight on a task executor. The issues are still returned in the order of their ids.
+ *
+ * The reader is synchronized so it can be used by a multi-threaded step.
+ *
  * @author jrrdev
  *
  */
-public class OtherIssuesReader extends AbstractIssuesReader {
+public class OtherIssuesReader extends AbstractIssuesReader implements ItemStream {
+
+	/**
+	 * Key of the last returned id in the step execution context.
+	 */
+	public static final String LAST_ID_KEY = "mantis.issues.other.last_id";
+
+	/**
+	 * Cursors over the ids of the project and of its subprojects.
+	 */
+	private ProjectCursor[] cursors = null;
 
 	/**
-	 * List of issues id to sync.
+	 * Number of ids read from the local DB by page.
 	 */
-	private List<BigInteger> issues = null;
+	private int pageSize = 500;
 
 	/**
-	 * Current index in the list.
+	 * Id of the last returned issue.
 	 */
-	private int index = 0;
+	private long lastReturnedId = 0;
+
+	/**
+	 * Indicates if the last returned id is saved in the step execution context.
+	 */
+	private boolean saveState = true;
+
+	/**
+	 * Indicates if all the issues were read.
+	 */
+	private boolean exhausted = false;
 
 	/**
 	 * Job start time.
 	 */
 	private Calendar jobStartTime = null;
 
+	/**
+	 * Maximum number of calls in flight. 1 or less means sequential calls.
+	 */
+	private int parallelism = 1;
+
+	/**
+	 * Socket timeout in milliseconds of a mc_issue_get call, 0 means the timeout of the stub.
+	 */
+	private long callTimeout = 0;
+
+	/**
+	 * Executor used for the concurrent calls.
+	 */
+	private AsyncTaskExecutor taskExecutor;
+
+	/**
+	 * Calls in flight.
+	 */
+	private FetchWindow<IssueData> window;
+
 	/**
 	 * {@inheritDoc}
 	 * @see org.springframework.batch.item.ItemReader#read()
 	 */
 	@Override
-	public IssueData read() throws Exception, UnexpectedInputException,
+	public synchronized IssueData read() throws Exception, UnexpectedInputException,
 	ParseException, NonTransientResourceException {
 
 		Assert.notNull(getClientStub());
 
-		// If auth manager is set, try to get the cookie
-		if (getAuthManager() != null && getAuthManager().getAuthCookie() != null) {
-			getClientStub()._setProperty(HTTPConstants.HEADER_COOKIE,
-					getAuthManager().getAuthCookie());
-		}
-
-		if (issues == null) {
-			issues = getDao().getNotClosedIssuesId(jobStartTime, getProjectId());
-			index = 0;
+		// The other threads of a multi-threaded step may still call the reader
+		if (exhausted) {
+			return null;
 		}
 
 		IssueData item = null;
-		if (issues != null  && index < issues.size()) {
-			final BigInteger issueId = issues.get(index);
-			item = getClientStub().mc_issue_get(getUserName(), getPassword(), issueId);
-			index++;
+		if (parallelism <= 1) {
+			if (hasNextId()) {
+				item = fetchIssue(takeNextId(), callTimeout);
+			}
+
 		} else {
-			issues = null;
+			if (window == null) {
+				Assert.notNull(taskExecutor);
+				window = new FetchWindow<IssueData>(taskExecutor, parallelism);
+			}
+
+			while (!window.isFull() && hasNextId()) {
+				final long issueId = takeNextId();
+				window.submit(new Callable<IssueData>() {
+
+					@Override
+					public IssueData call() throws Exception {
+						return fetchIssue(issueId, callTimeout);
+					}
+				});
+			}
+
+			item = window.take();
+		}
+
+		if (item == null) {
+			cursors = null;
+			exhausted = true;
+		} else if (item.getId() != null) {
+			lastReturnedId = item.getId().longValue();
 		}
 
 		return item;
 
 	}
 
+	/**
+	 * Check if there is an id left to request, reading the next page of ids
+	 * of a project from the local DB when its current one is consumed.
+	 *
+	 * @return true if there is an id left
+	 */
+	private boolean hasNextId() {
+		return nextCursor() != null;
+	}
+
+	/**
+	 * Return the next id to request, in id order over all the projects.
+	 * {@link #hasNextId()} must have returned true.
+	 *
+	 * @return the id
+	 */
+	private long takeNextId() {
+		return nextCursor().take();
+	}
+
+	/**
+	 * Find the cursor whose current id is the smallest one. The projects being few,
+	 * the merge compares the current id of every cursor.
+	 *
+	 * @return the cursor, null if all the cursors are exhausted
+	 */
+	private ProjectCursor nextCursor() {
+		if (cursors == null) {
+			initCursors(lastReturnedId);
+		}
+
+		ProjectCursor next = null;
+		for (final ProjectCursor cursor : cursors) {
+			if (cursor.hasNext() && (next == null || cursor.peek() < next.peek())) {
+				next = cursor;
+			}
+		}
+		return next;
+	}
+
+	/**
+	 * List the project and its subprojects, and create their cursors.
+	 *
+	 * @param afterId
+	 * 			The cursors start after this id
+	 */
+	private void initCursors(final long afterId) {
+		Assert.notNull(getProjectId());
+
+		final long[] projectsId = getDao().getProjectAndSubProjectsId(getProjectId().longValue());
+		cursors = new ProjectCursor[projectsId.length];
+		for (int i = 0; i < projectsId.length; i++) {
+			cursors[i] = new ProjectCursor(projectsId[i], afterId);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemStream#open(org.springframework.batch.item.ExecutionContext)
+	 */
+	@Override
+	public synchronized void open(final ExecutionContext executionContext) throws ItemStreamException {
+		if (saveState && executionContext.containsKey(LAST_ID_KEY)) {
+			lastReturnedId = executionContext.getLong(LAST_ID_KEY);
+		}
+		initCursors(lastReturnedId);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemStream#update(org.springframework.batch.item.ExecutionContext)
+	 */
+	@Override
+	public synchronized void update(final ExecutionContext executionContext) throws ItemStreamException {
+		if (saveState) {
+			executionContext.putLong(LAST_ID_KEY, lastReturnedId);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemStream#close()
+	 */
+	@Override
+	public synchronized void close() throws ItemStreamException {
+		if (window != null) {
+			window.cancelAll();
+		}
+	}
+
 	/**
 	 * @return the jobStartTime
 	 */
@@ -110,4 +274,158 @@ public class OtherIssuesReader extends AbstractIssuesReader {
 	public void setJobStartTime(final Calendar jobStartTime) {
 		this.jobStartTime = jobStartTime;
 	}
+
+	/**
+	 * @return the pageSize
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * @param pageSize the pageSize to set
+	 */
+	public void setPageSize(final int pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * @return the saveState
+	 */
+	public boolean isSaveState() {
+		return saveState;
+	}
+
+	/**
+	 * @param saveState the saveState to set
+	 */
+	public void setSaveState(final boolean saveState) {
+		this.saveState = saveState;
+	}
+
+	/**
+	 * @return the parallelism
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * @param parallelism the parallelism to set
+	 */
+	public void setParallelism(final int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * @return the callTimeout
+	 */
+	public long getCallTimeout() {
+		return callTimeout;
+	}
+
+	/**
+	 * @param callTimeout the callTimeout to set
+	 */
+	public void setCallTimeout(final long callTimeout) {
+		this.callTimeout = callTimeout;
+	}
+
+	/**
+	 * @return the taskExecutor
+	 */
+	public AsyncTaskExecutor getTaskExecutor() {
+		return taskExecutor;
+	}
+
+	/**
+	 * @param taskExecutor the taskExecutor to set
+	 */
+	public void setTaskExecutor(final AsyncTaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Cursor over the ids of a single project, read by pages from the local DB.
+	 */
+	private class ProjectCursor {
+
+		/**
+		 * Id of the project.
+		 */
+		private final long projectId;
+
+		/**
+		 * Ids of the current page.
+		 */
+		private long[] ids = new long[0];
+
+		/**
+		 * Current index in the page.
+		 */
+		private int index = 0;
+
+		/**
+		 * Last id of the pages already read.
+		 */
+		private long lastPageId;
+
+		/**
+		 * Indicates if the last page of ids was read.
+		 */
+		private boolean lastPageReached = false;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param projectId
+		 * 			Id of the project
+		 * @param afterId
+		 * 			The cursor starts after this id
+		 */
+		public ProjectCursor(final long projectId, final long afterId) {
+			this.projectId = projectId;
+			this.lastPageId = afterId;
+		}
+
+		/**
+		 * Check if there is an id left, reading the next page if the current
+		 * one is consumed.
+		 *
+		 * @return true if there is an id left
+		 */
+		public boolean hasNext() {
+			if (index < ids.length) {
+				return true;
+			}
+			if (lastPageReached) {
+				return false;
+			}
+
+			ids = getDao().getNotClosedIssuesId(jobStartTime, projectId, lastPageId, pageSize);
+			index = 0;
+			if (ids.length < pageSize) {
+				lastPageReached = true;
+			}
+			if (ids.length > 0) {
+				lastPageId = ids[ids.length - 1];
+			}
+
+			return ids.length > 0;
+		}
+
+		/**
+		 * @return the current id, {@link #hasNext()} must have returned true
+		 */
+		public long peek() {
+			return ids[index];
+		}
+
+		/**
+		 * @return the current id, the cursor moving to the next one
+		 */
+		public long take() {
+			return ids[index++];
+		}
+	}
 }
@@ -0,0 +1,199 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.readers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Choose the page size of a paged WS operation from the observed responses.
+ * After each page, the latency and the payload size by item are used to project
+ * the cost of the next page : the size is halved when the projection exceeds
+ * the targets and doubled when a page twice as big would still fit in them.
+ * The size always stays between the configured bounds.
+ *
+ * @author jrrdev
+ *
+ */
+public class PageSizeController {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(PageSizeController.class);
+
+	/**
+	 * Minimal page size.
+	 */
+	private int minPageSize = 10;
+
+	/**
+	 * Maximal page size.
+	 */
+	private int maxPageSize = 250;
+
+	/**
+	 * Current page size.
+	 */
+	private int pageSize = 20;
+
+	/**
+	 * Targeted latency of a call, in milliseconds.
+	 */
+	private long targetLatency = 5000;
+
+	/**
+	 * Maximal size of a response, in bytes.
+	 */
+	private long maxPayloadBytes = 4 * 1024 * 1024;
+
+	/**
+	 * Record the response of a page and adjust the page size.
+	 *
+	 * @param requestedSize
+	 * 			Page size used for the call
+	 * @param itemsCount
+	 * 			Number of items returned
+	 * @param latency
+	 * 			Duration of the call in milliseconds
+	 * @param payloadBytes
+	 * 			Size of the response in bytes, negative if unknown
+	 */
+	public void record(final int requestedSize, final int itemsCount, final long latency,
+			final long payloadBytes) {
+
+		if (itemsCount <= 0) {
+			return;
+		}
+
+		final double latencyByItem = (double) latency / itemsCount;
+		final double bytesByItem = (payloadBytes < 0) ? 0 : (double) payloadBytes / itemsCount;
+
+		final int previousSize = pageSize;
+		if (exceedsTargets(pageSize, latencyByItem, bytesByItem)) {
+			pageSize = Math.max(minPageSize, pageSize / 2);
+
+		} else if (itemsCount >= requestedSize
+				&& !exceedsTargets(pageSize * 2, latencyByItem, bytesByItem)) {
+			// Only a full page tells how a bigger one would behave
+			pageSize = Math.min(maxPageSize, pageSize * 2);
+		}
+
+		if (pageSize != previousSize && LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Page size changed from " + previousSize + " to " + pageSize
+					+ " (" + latency + " ms, " + payloadBytes + " bytes for " + itemsCount + " items)");
+		}
+	}
+
+	/**
+	 * Check if a page of the given size would exceed the latency or payload targets.
+	 *
+	 * @param size
+	 * 			The page size
+	 * @param latencyByItem
+	 * 			Observed latency by item
+	 * @param bytesByItem
+	 * 			Observed payload by item
+	 * @return true if a target would be exceeded
+	 */
+	private boolean exceedsTargets(final int size, final double latencyByItem,
+			final double bytesByItem) {
+		return latencyByItem * size > targetLatency
+				|| bytesByItem * size > maxPayloadBytes;
+	}
+
+	/**
+	 * @return the minPageSize
+	 */
+	public int getMinPageSize() {
+		return minPageSize;
+	}
+
+	/**
+	 * @param minPageSize the minPageSize to set
+	 */
+	public void setMinPageSize(final int minPageSize) {
+		this.minPageSize = Math.max(1, minPageSize);
+		setPageSize(pageSize);
+	}
+
+	/**
+	 * @return the maxPageSize
+	 */
+	public int getMaxPageSize() {
+		return maxPageSize;
+	}
+
+	/**
+	 * @param maxPageSize the maxPageSize to set
+	 */
+	public void setMaxPageSize(final int maxPageSize) {
+		this.maxPageSize = maxPageSize;
+		setPageSize(pageSize);
+	}
+
+	/**
+	 * @return the pageSize
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * Set the page size, bounded by the min and max page sizes.
+	 *
+	 * @param pageSize the pageSize to set
+	 */
+	public void setPageSize(final int pageSize) {
+		this.pageSize = Math.max(minPageSize, Math.min(maxPageSize, pageSize));
+	}
+
+	/**
+	 * @return the targetLatency
+	 */
+	public long getTargetLatency() {
+		return targetLatency;
+	}
+
+	/**
+	 * @param targetLatency the targetLatency to set
+	 */
+	public void setTargetLatency(final long targetLatency) {
+		this.targetLatency = targetLatency;
+	}
+
+	/**
+	 * @return the maxPayloadBytes
+	 */
+	public long getMaxPayloadBytes() {
+		return maxPayloadBytes;
+	}
+
+	/**
+	 * @param maxPayloadBytes the maxPayloadBytes to set
+	 */
+	public void setMaxPayloadBytes(final long maxPayloadBytes) {
+		this.maxPayloadBytes = maxPayloadBytes;
+	}
+}
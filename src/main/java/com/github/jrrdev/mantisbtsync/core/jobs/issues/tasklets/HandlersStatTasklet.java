@@ -23,14 +23,17 @@
  */
 package com.github.jrrdev.mantisbtsync.core.jobs.issues.tasklets;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.util.Assert;
 
 import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
 
@@ -38,11 +41,21 @@ import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
  * Tasklet launching the computing of the number of issues by project,
  * handler and status.
  *
+ * The computation is done either at a single date, or at every date
+ * from a start date to an end date by a step, in a single pass over the history.
+ * A step multiple of 24 hours is counted in days, so the dates stay at the same
+ * local time of day across the daylight saving time changes.
+ *
  * @author jrrdev
  *
  */
 public class HandlersStatTasklet implements Tasklet {
 
+	/**
+	 * Default number of hours between two computing dates.
+	 */
+	public static final int DEFAULT_STEP_HOURS = 24;
+
 	@Autowired
 	private IssuesDao dao;
 
@@ -51,6 +64,21 @@ public class HandlersStatTasklet implements Tasklet {
 	 */
 	private Date computeDate;
 
+	/**
+	 * First computing date of stats, in range mode.
+	 */
+	private Date startDate;
+
+	/**
+	 * Last computing date of stats, in range mode.
+	 */
+	private Date endDate;
+
+	/**
+	 * Number of hours between two computing dates, in range mode.
+	 */
+	private int stepHours = DEFAULT_STEP_HOURS;
+
 	/**
 	 * {@inheritDoc}
 	 * @see org.springframework.batch.core.step.tasklet.Tasklet#execute(org.springframework.batch.core.StepContribution, org.springframework.batch.core.scope.context.ChunkContext)
@@ -64,6 +92,32 @@ public class HandlersStatTasklet implements Tasklet {
 			date.setTimeInMillis(computeDate.getTime());
 
 			dao.computeHandlersStat(date);
+		} else if (startDate != null && endDate != null) {
+			Assert.isTrue(stepHours > 0, "The step must be positive");
+			Assert.isTrue(!startDate.after(endDate), "The start date must be before the end date");
+
+			final int field;
+			final int amount;
+			if (stepHours % 24 == 0) {
+				field = Calendar.DAY_OF_MONTH;
+				amount = stepHours / 24;
+			} else {
+				field = Calendar.HOUR_OF_DAY;
+				amount = stepHours;
+			}
+
+			final List<Calendar> dates = new ArrayList<Calendar>();
+			final Calendar start = Calendar.getInstance();
+			start.setTime(startDate);
+			Calendar date = (Calendar) start.clone();
+			for (int i = 1; !date.getTime().after(endDate); i++) {
+				dates.add(date);
+				// Computed from the start date, so a nonexistent local time doesn't shift the next dates
+				date = (Calendar) start.clone();
+				date.add(field, i * amount);
+			}
+
+			dao.computeHandlersStat(dates);
 		}
 
 		return RepeatStatus.FINISHED;
@@ -97,4 +151,46 @@ public class HandlersStatTasklet implements Tasklet {
 		this.computeDate = computeDate;
 	}
 
+	/**
+	 * @return the startDate
+	 */
+	public Date getStartDate() {
+		return startDate;
+	}
+
+	/**
+	 * @param startDate the startDate to set
+	 */
+	public void setStartDate(final Date startDate) {
+		this.startDate = startDate;
+	}
+
+	/**
+	 * @return the endDate
+	 */
+	public Date getEndDate() {
+		return endDate;
+	}
+
+	/**
+	 * @param endDate the endDate to set
+	 */
+	public void setEndDate(final Date endDate) {
+		this.endDate = endDate;
+	}
+
+	/**
+	 * @return the stepHours
+	 */
+	public int getStepHours() {
+		return stepHours;
+	}
+
+	/**
+	 * @param stepHours the stepHours to set
+	 */
+	public void setStepHours(final int stepHours) {
+		this.stepHours = stepHours;
+	}
+
 }
@@ -35,29 +35,50 @@ import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.JobParameter;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.scope.context.StepContext;
 import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.util.Assert;
 
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.SyncWatermark;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.readers.OpenIssuesReader;
+import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
 
 /**
  * Tasklet getting the last successful start time of the job with the same
  * job parameters.
  * That start time is used by {@link OpenIssuesReader} to perform filtering.
+ * The page size reached by the reader during that run is extracted too, from
+ * the step openIssuesSyncStep only.
+ *
+ * Both are read from sync_watermark table, recorded by {@link SyncWatermarkTasklet}.
+ * If the job has no mark for the project (runs prior to the table), they are searched
+ * in the job repository.
  *
  * @author jrrdev
  *
  */
 public class IssuesLastRunExtractorTasklet implements Tasklet {
 
+	/**
+	 * Name of the step whose reader adapts the page size.
+	 */
+	public static final String PAGE_SIZE_STEP_NAME = "openIssuesSyncStep";
+
 	/**
 	 * Job explorer.
 	 */
 	private JobExplorer jobExplorer;
 
+	/**
+	 * DAO used to read the marks.
+	 */
+	private IssuesDao dao;
+
 	/**
 	 * {@inheritDoc}
 	 * @see org.springframework.batch.core.step.tasklet.Tasklet#execute(org.springframework.batch.core.StepContribution, org.springframework.batch.core.scope.context.ChunkContext)
@@ -69,10 +90,20 @@ public class IssuesLastRunExtractorTasklet implements Tasklet {
 		final StepContext stepContext = chunkContext.getStepContext();
 		final String jobName = stepContext.getJobName();
 		final JobParameters jobParams = stepContext.getStepExecution().getJobParameters();
+
+		stepContext.getStepExecution().getExecutionContext()
+		.put("mantis.update.current_job_run", Calendar.getInstance());
+
+		final Long projectId = SyncWatermarkTasklet.getProjectId(jobParams);
+		if (projectId != null && extractFromWatermarks(stepContext, jobName, projectId)) {
+			return RepeatStatus.FINISHED;
+		}
+
 		final Map<String, JobParameter> currParams = new HashMap<String, JobParameter>(jobParams.getParameters());
 		currParams.remove("run.id");
 
 		Date lastJobRun = null;
+		JobExecution lastExecution = null;
 
 		final List<JobInstance> jobInstances = jobExplorer.getJobInstances(jobName, 0, 1000);
 		for (final JobInstance jobInstance : jobInstances) {
@@ -88,6 +119,7 @@ public class IssuesLastRunExtractorTasklet implements Tasklet {
 
 					if (lastJobRun == null || lastJobRun.before(jobExecution.getStartTime())) {
 						lastJobRun = jobExecution.getStartTime();
+						lastExecution = jobExecution;
 					}
 				}
 			}
@@ -98,12 +130,63 @@ public class IssuesLastRunExtractorTasklet implements Tasklet {
 			.put("mantis.update.last_job_run", lastJobRun);
 		}
 
-		stepContext.getStepExecution().getExecutionContext()
-		.put("mantis.update.current_job_run", Calendar.getInstance());
+		// Start from the page size reached by the last successful run
+		if (lastExecution != null) {
+			for (final StepExecution stepExecution : lastExecution.getStepExecutions()) {
+				final ExecutionContext oldContext = stepExecution.getExecutionContext();
+				if (PAGE_SIZE_STEP_NAME.equals(stepExecution.getStepName())
+						&& oldContext.containsKey(OpenIssuesReader.PAGE_SIZE_KEY)) {
+					stepContext.getStepExecution().getExecutionContext()
+					.putInt(OpenIssuesReader.PAGE_SIZE_KEY, oldContext.getInt(OpenIssuesReader.PAGE_SIZE_KEY));
+				}
+			}
+		}
 
 		return RepeatStatus.FINISHED;
 	}
 
+	/**
+	 * Extract the start time and the page size of the last successful run
+	 * from the marks of the job for the project.
+	 *
+	 * @param stepContext
+	 * 			The context of the step
+	 * @param jobName
+	 * 			Name of the job
+	 * @param projectId
+	 * 			Id of the project
+	 * @return false if the job has no mark for the project
+	 */
+	private boolean extractFromWatermarks(final StepContext stepContext, final String jobName,
+			final long projectId) {
+
+		Assert.notNull(dao);
+
+		final List<SyncWatermark> watermarks = dao.getSyncWatermarks(jobName, projectId);
+		if (watermarks.isEmpty()) {
+			return false;
+		}
+
+		Date lastJobRun = null;
+		Integer pageSize = null;
+		for (final SyncWatermark watermark : watermarks) {
+			if (lastJobRun == null || lastJobRun.before(watermark.getLastJobRun())) {
+				lastJobRun = watermark.getLastJobRun();
+			}
+			if (PAGE_SIZE_STEP_NAME.equals(watermark.getStepName())) {
+				pageSize = watermark.getPageSize();
+			}
+		}
+
+		final ExecutionContext executionContext = stepContext.getStepExecution().getExecutionContext();
+		executionContext.put("mantis.update.last_job_run", new Date(lastJobRun.getTime()));
+		if (pageSize != null) {
+			executionContext.putInt(OpenIssuesReader.PAGE_SIZE_KEY, pageSize);
+		}
+
+		return true;
+	}
+
 	/**
 	 * @return the jobExplorer
 	 */
@@ -118,4 +201,18 @@ public class IssuesLastRunExtractorTasklet implements Tasklet {
 		this.jobExplorer = jobExplorer;
 	}
 
+	/**
+	 * @return the dao
+	 */
+	public IssuesDao getDao() {
+		return dao;
+	}
+
+	/**
+	 * @param dao the dao to set
+	 */
+	public void setDao(final IssuesDao dao) {
+		this.dao = dao;
+	}
+
 }
@@ -0,0 +1,163 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.tasklets;
+
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.util.Assert;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.SyncWatermark;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.readers.OpenIssuesReader;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.LastUpdatedWatermarkWriter;
+import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
+
+/**
+ * Tasklet recording the successful run of a sync job in sync_watermark table.
+ * Must be the last step of the job. For each completed step of the run,
+ * the start time of the run, the page size reached by the reader and the most
+ * recent last update of the synced issues are stored for the project.
+ * The partitions of a step are merged.
+ *
+ * @author jrrdev
+ *
+ */
+public class SyncWatermarkTasklet implements Tasklet {
+
+	/**
+	 * Name of the job parameter holding the project id.
+	 */
+	public static final String PROJECT_ID_PARAM = "mantis.project_id";
+
+	/**
+	 * Key of the start time of the current run in the job execution context.
+	 */
+	public static final String CURRENT_JOB_RUN_KEY = "mantis.update.current_job_run";
+
+	/**
+	 * DAO used to store the marks.
+	 */
+	private IssuesDao dao;
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.core.step.tasklet.Tasklet#execute(org.springframework.batch.core.StepContribution, org.springframework.batch.core.scope.context.ChunkContext)
+	 */
+	@Override
+	public RepeatStatus execute(final StepContribution contribution,
+			final ChunkContext chunkContext) throws Exception {
+
+		Assert.notNull(dao);
+
+		final StepExecution currentStep = chunkContext.getStepContext().getStepExecution();
+		final JobExecution jobExecution = currentStep.getJobExecution();
+		final Long projectId = getProjectId(jobExecution.getJobParameters());
+		final Calendar currentJobRun = (Calendar) jobExecution.getExecutionContext().get(CURRENT_JOB_RUN_KEY);
+		if (projectId == null || currentJobRun == null) {
+			return RepeatStatus.FINISHED;
+		}
+
+		final String jobName = jobExecution.getJobInstance().getJobName();
+		final Timestamp lastJobRun = new Timestamp(currentJobRun.getTimeInMillis());
+		final Map<String, SyncWatermark> watermarks = new LinkedHashMap<String, SyncWatermark>();
+
+		for (final StepExecution stepExecution : jobExecution.getStepExecutions()) {
+			if (stepExecution.getId().equals(currentStep.getId())
+					|| stepExecution.getStatus() != BatchStatus.COMPLETED) {
+				continue;
+			}
+
+			// Partitions are named step:partitionN
+			final String stepName = stepExecution.getStepName().split(":")[0];
+			SyncWatermark watermark = watermarks.get(stepName);
+			if (watermark == null) {
+				watermark = new SyncWatermark();
+				watermark.setJobName(jobName);
+				watermark.setProjectId(projectId);
+				watermark.setStepName(stepName);
+				watermark.setLastJobRun(lastJobRun);
+				watermarks.put(stepName, watermark);
+			}
+
+			final ExecutionContext context = stepExecution.getExecutionContext();
+			if (context.containsKey(OpenIssuesReader.PAGE_SIZE_KEY)) {
+				watermark.setPageSize(context.getInt(OpenIssuesReader.PAGE_SIZE_KEY));
+			}
+
+			final Date maxLastUpdated = (Date) context.get(LastUpdatedWatermarkWriter.MAX_LAST_UPDATED_KEY);
+			if (maxLastUpdated != null && (watermark.getMaxLastUpdated() == null
+					|| watermark.getMaxLastUpdated().before(maxLastUpdated))) {
+				watermark.setMaxLastUpdated(new Timestamp(maxLastUpdated.getTime()));
+			}
+		}
+
+		for (final SyncWatermark watermark : watermarks.values()) {
+			dao.saveSyncWatermark(watermark);
+		}
+
+		return RepeatStatus.FINISHED;
+	}
+
+	/**
+	 * Extract the project id from the job parameters.
+	 *
+	 * @param jobParams
+	 * 			The job parameters
+	 * @return the project id, null if not passed
+	 */
+	public static Long getProjectId(final JobParameters jobParams) {
+		final JobParameter param = jobParams.getParameters().get(PROJECT_ID_PARAM);
+		if (param == null || param.getValue() == null) {
+			return null;
+		}
+		return Long.valueOf(param.getValue().toString().trim());
+	}
+
+	/**
+	 * @return the dao
+	 */
+	public IssuesDao getDao() {
+		return dao;
+	}
+
+	/**
+	 * @param dao the dao to set
+	 */
+	public void setDao(final IssuesDao dao) {
+		this.dao = dao;
+	}
+}
@@ -0,0 +1,159 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
+
+/**
+ * Base class of the writers of the lists of entries related to an issue.
+ * The entries of all the issues of the chunk are gathered in a single list
+ * and sent in one JDBC batch, instead of one batch by issue.
+ * If a maximum batch size is set, the list is split in batches of this size.
+ *
+ * With the MySQL driver, setting rewriteBatchedStatements=true in the
+ * JDBC URL turns each batch into a few multi-rows inserts.
+ *
+ * @author jrrdev
+ *
+ * @param <T>
+ * 			Type of the entries
+ */
+public abstract class AbstractFlattenedBugWriter<T> implements ItemWriter<BugBean> {
+
+	/**
+	 * Sub-writer used to write the entries.
+	 */
+	private final JdbcBatchItemWriter<T> writer;
+
+	/**
+	 * Maximum number of entries by batch, 0 or less means no limit.
+	 */
+	private int maxBatchSize = 0;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param sql
+	 * 			SQL query used to write an entry
+	 */
+	protected AbstractFlattenedBugWriter(final String sql) {
+		writer = new JdbcBatchItemWriter<T>();
+		writer.setItemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<T>());
+		writer.setSql(sql);
+		writer.setAssertUpdates(false);
+	}
+
+	/**
+	 * Return the entries of the issue written by this writer.
+	 *
+	 * @param bug
+	 * 			The issue
+	 * @return the entries, may be null
+	 */
+	protected abstract List<T> getEntries(final BugBean bug);
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemWriter#write(java.util.List)
+	 */
+	@Override
+	public void write(final List<? extends BugBean> items) throws Exception {
+		if (items == null) {
+			return;
+		}
+
+		final List<T> entries = new ArrayList<T>();
+		for (final BugBean bug : items) {
+			final List<T> bugEntries = getEntries(bug);
+			if (bugEntries != null) {
+				entries.addAll(bugEntries);
+			}
+		}
+
+		if (entries.isEmpty()) {
+			return;
+		}
+
+		if (maxBatchSize <= 0 || entries.size() <= maxBatchSize) {
+			writeBatch(entries);
+		} else {
+			for (int from = 0; from < entries.size(); from += maxBatchSize) {
+				final int to = Math.min(from + maxBatchSize, entries.size());
+				writeBatch(entries.subList(from, to));
+			}
+		}
+	}
+
+	/**
+	 * Send a batch of entries to the DB.
+	 *
+	 * @param entries
+	 * 			The entries of the batch
+	 * @throws Exception
+	 * 			If the batch fails
+	 */
+	protected void writeBatch(final List<T> entries) throws Exception {
+		writer.write(entries);
+	}
+
+	/**
+	 * Check mandatory properties.
+	 */
+	public void afterPropertiesSet() {
+		writer.afterPropertiesSet();
+	}
+
+	/**
+	 * Set the datasource.
+	 *
+	 * @param dataSource
+	 * 			the datasource to set
+	 */
+	public void setDataSource(final DataSource dataSource) {
+		writer.setDataSource(dataSource);
+	}
+
+	/**
+	 * @return the maxBatchSize
+	 */
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	/**
+	 * @param maxBatchSize the maxBatchSize to set
+	 */
+	public void setMaxBatchSize(final int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+}
@@ -0,0 +1,490 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.StatementCallback;
+import org.springframework.util.Assert;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
+
+/**
+ * Base class of the writers bulk loading the entries of a chunk into a table
+ * with a LOAD DATA LOCAL INFILE statement.
+ * The entries are formatted as tab-separated values and passed to the statement
+ * with the setLocalInfileInputStream method of Connector/J, so no file is written.
+ * The stream formats and encodes one entry at a time while the driver reads it,
+ * the data of the whole chunk is never held in memory.
+ *
+ * The duplicated keys are handled by the REPLACE or IGNORE option of the statement.
+ *
+ * If the DB isn't a MySQL DB (for instance the HSQLDB used by the tests),
+ * the items are written by the fallback writer.
+ *
+ * The LOCAL keyword requires the local_infile option on the MySQL server.
+ *
+ * @author jrrdev
+ *
+ * @param <T>
+ * 			Type of the entries
+ */
+public abstract class AbstractLoadDataWriter<T> implements ItemWriter<BugBean> {
+
+	/**
+	 * Handling of the rows whose key already exists in the table.
+	 *
+	 * @author jrrdev
+	 *
+	 */
+	public enum Mode {
+
+		/**
+		 * The existing rows are replaced.
+		 */
+		REPLACE,
+
+		/**
+		 * The new rows are ignored.
+		 */
+		IGNORE
+	}
+
+	/**
+	 * Class of the statements of Connector/J. Loaded by reflection since
+	 * the driver is only a runtime dependency.
+	 */
+	private static final String MYSQL_STATEMENT_CLASS = "com.mysql.jdbc.Statement";
+
+	/**
+	 * Value representing NULL in the loaded data.
+	 */
+	private static final String NULL_VALUE = "\\N";
+
+	/**
+	 * Format of the dates in the loaded data.
+	 */
+	private static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+	/**
+	 * Loaded table.
+	 */
+	private final IssueTable<T> table;
+
+	/**
+	 * Assignments of the other columns, may be null.
+	 */
+	private final String setClause;
+
+	/**
+	 * Handling of the duplicated keys.
+	 */
+	private final Mode mode;
+
+	/**
+	 * JDBC template.
+	 */
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Writer used if the DB isn't a MySQL DB.
+	 */
+	private ItemWriter<BugBean> fallback;
+
+	/**
+	 * True if the DB is a MySQL DB, null until checked.
+	 */
+	private volatile Boolean mySql;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param table
+	 * 			Loaded table
+	 * @param setClause
+	 * 			Assignments of the other columns, may be null
+	 * @param mode
+	 * 			Handling of the duplicated keys
+	 */
+	protected AbstractLoadDataWriter(final IssueTable<T> table, final String setClause, final Mode mode) {
+		this.table = table;
+		this.setClause = setClause;
+		this.mode = mode;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemWriter#write(java.util.List)
+	 */
+	@Override
+	public void write(final List<? extends BugBean> items) throws Exception {
+		if (items == null || items.isEmpty()) {
+			return;
+		}
+
+		if (!isMySql()) {
+			fallback.write(items);
+			return;
+		}
+
+		load(table.getEntries(items));
+	}
+
+	/**
+	 * Load the entries into the table.
+	 *
+	 * @param entries
+	 * 			The entries
+	 */
+	protected void load(final List<T> entries) {
+		if (entries.isEmpty()) {
+			return;
+		}
+
+		final InputStream data = toTsvStream(entries);
+		final String sql = getSql();
+
+		jdbcTemplate.execute(new StatementCallback<Integer>() {
+
+			@Override
+			public Integer doInStatement(final Statement stmt) throws SQLException, DataAccessException {
+				setLocalInfileInputStream(stmt, data);
+				return stmt.executeUpdate(sql);
+			}
+		});
+	}
+
+	/**
+	 * Format the entries as tab-separated values, in the default format
+	 * of LOAD DATA INFILE.
+	 *
+	 * @param entries
+	 * 			The entries
+	 * @return the formatted entries
+	 */
+	protected String toTsv(final List<T> entries) {
+		final SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
+		final StringBuilder builder = new StringBuilder();
+
+		for (final T entry : entries) {
+			appendRow(builder, entry, dateFormat);
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Build the stream of the entries formatted as tab-separated values and
+	 * encoded in UTF-8. An entry is only formatted when the previous one is read.
+	 *
+	 * @param entries
+	 * 			The entries
+	 * @return the stream
+	 */
+	protected InputStream toTsvStream(final List<T> entries) {
+		return new TsvInputStream(entries.iterator());
+	}
+
+	/**
+	 * Append an entry as a line of tab-separated values.
+	 *
+	 * @param builder
+	 * 			The builder
+	 * @param entry
+	 * 			The entry
+	 * @param dateFormat
+	 * 			Format of the dates
+	 */
+	private void appendRow(final StringBuilder builder, final T entry, final SimpleDateFormat dateFormat) {
+		final Object[] values = table.getValues(entry);
+		Assert.isTrue(values.length == table.getColumns().length);
+
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				builder.append('\t');
+			}
+
+			final Object value = values[i];
+			if (value == null) {
+				builder.append(NULL_VALUE);
+			} else if (value instanceof Date) {
+				builder.append(dateFormat.format((Date) value));
+			} else {
+				appendEscaped(builder, value.toString());
+			}
+		}
+		builder.append('\n');
+	}
+
+	/**
+	 * Append a value with the characters having a meaning in the data escaped.
+	 *
+	 * @param builder
+	 * 			The builder
+	 * @param value
+	 * 			The value
+	 */
+	private static void appendEscaped(final StringBuilder builder, final String value) {
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			switch (c) {
+			case '\\':
+				builder.append("\\\\");
+				break;
+			case '\t':
+				builder.append("\\t");
+				break;
+			case '\n':
+				builder.append("\\n");
+				break;
+			case '\r':
+				builder.append("\\r");
+				break;
+			case '\0':
+				builder.append("\\0");
+				break;
+			default:
+				builder.append(c);
+			}
+		}
+	}
+
+	/**
+	 * Build the LOAD DATA statement.
+	 *
+	 * @return the statement
+	 */
+	protected String getSql() {
+		final StringBuilder sql = new StringBuilder("LOAD DATA LOCAL INFILE 'stream' ")
+				.append(mode.name()).append(" INTO TABLE ").append(table.getName())
+				.append(" CHARACTER SET utf8")
+				.append(" FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\'")
+				.append(" LINES TERMINATED BY '\\n'")
+				.append(" (");
+
+		final String[] columns = table.getColumns();
+		for (int i = 0; i < columns.length; i++) {
+			if (i > 0) {
+				sql.append(", ");
+			}
+			sql.append(columns[i]);
+		}
+		sql.append(')');
+
+		if (setClause != null) {
+			sql.append(" SET ").append(setClause);
+		}
+
+		return sql.toString();
+	}
+
+	/**
+	 * Pass the data to the statement of Connector/J.
+	 *
+	 * @param stmt
+	 * 			The statement
+	 * @param data
+	 * 			The data to load
+	 * @throws SQLException
+	 * 			If the statement isn't a statement of Connector/J
+	 */
+	private static void setLocalInfileInputStream(final Statement stmt, final InputStream data)
+			throws SQLException {
+		try {
+			final Class<?> mySqlStatement = Class.forName(MYSQL_STATEMENT_CLASS);
+			final Object target = stmt.unwrap(mySqlStatement);
+			final Method method = mySqlStatement.getMethod("setLocalInfileInputStream", InputStream.class);
+			method.invoke(target, data);
+		} catch (final ReflectiveOperationException e) {
+			throw new SQLException("Unable to stream data into a LOAD DATA statement", e);
+		}
+	}
+
+	/**
+	 * Check if the DB is a MySQL DB.
+	 *
+	 * @return true if the DB is a MySQL DB
+	 */
+	protected boolean isMySql() {
+		if (mySql == null) {
+			mySql = jdbcTemplate.execute(new ConnectionCallback<Boolean>() {
+
+				@Override
+				public Boolean doInConnection(final Connection con) throws SQLException, DataAccessException {
+					return "MySQL".equalsIgnoreCase(con.getMetaData().getDatabaseProductName());
+				}
+			});
+		}
+		return mySql;
+	}
+
+	/**
+	 * Stream formatting and encoding the entries one at a time.
+	 *
+	 * @author jrrdev
+	 *
+	 */
+	private final class TsvInputStream extends InputStream {
+
+		/**
+		 * The entries not formatted yet.
+		 */
+		private final Iterator<T> entries;
+
+		/**
+		 * Format of the dates.
+		 */
+		private final SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
+
+		/**
+		 * Builder reused for each line.
+		 */
+		private final StringBuilder builder = new StringBuilder();
+
+		/**
+		 * Bytes of the current line.
+		 */
+		private byte[] line = new byte[0];
+
+		/**
+		 * Position of the next byte to read in the current line.
+		 */
+		private int pos;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param entries
+		 * 			The entries
+		 */
+		TsvInputStream(final Iterator<T> entries) {
+			this.entries = entries;
+		}
+
+		/**
+		 * Format the next entry if the current line is fully read.
+		 *
+		 * @return false if all the entries are read
+		 */
+		private boolean fill() {
+			while (pos >= line.length) {
+				if (!entries.hasNext()) {
+					return false;
+				}
+
+				builder.setLength(0);
+				appendRow(builder, entries.next(), dateFormat);
+				line = builder.toString().getBytes(StandardCharsets.UTF_8);
+				pos = 0;
+			}
+			return true;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * @see java.io.InputStream#read()
+		 */
+		@Override
+		public int read() {
+			if (!fill()) {
+				return -1;
+			}
+			return line[pos++] & 0xFF;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * @see java.io.InputStream#read(byte[], int, int)
+		 */
+		@Override
+		public int read(final byte[] b, final int off, final int len) {
+			if (len == 0) {
+				return 0;
+			}
+
+			int count = 0;
+			while (count < len && fill()) {
+				final int n = Math.min(len - count, line.length - pos);
+				System.arraycopy(line, pos, b, off + count, n);
+				pos += n;
+				count += n;
+			}
+			return (count == 0) ? -1 : count;
+		}
+	}
+
+	/**
+	 * Check mandatory properties.
+	 */
+	public void afterPropertiesSet() {
+		Assert.notNull(jdbcTemplate);
+		Assert.notNull(fallback);
+	}
+
+	/**
+	 * @return the JDBC template
+	 */
+	protected JdbcTemplate getJdbcTemplate() {
+		return jdbcTemplate;
+	}
+
+	/**
+	 * Set the datasource.
+	 *
+	 * @param dataSource
+	 * 			the datasource to set
+	 */
+	public void setDataSource(final DataSource dataSource) {
+		jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	/**
+	 * @return the fallback
+	 */
+	public ItemWriter<BugBean> getFallback() {
+		return fallback;
+	}
+
+	/**
+	 * @param fallback the fallback to set
+	 */
+	public void setFallback(final ItemWriter<BugBean> fallback) {
+		this.fallback = fallback;
+	}
+}
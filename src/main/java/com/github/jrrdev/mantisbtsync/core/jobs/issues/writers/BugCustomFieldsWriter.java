@@ -25,12 +25,6 @@ package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
 
 import java.util.List;
 
-import javax.sql.DataSource;
-
-import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
-import org.springframework.batch.item.database.JdbcBatchItemWriter;
-
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugCustomFieldValue;
 
@@ -42,12 +36,7 @@ import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugCustomFieldValue
  * @author jrrdev
  *
  */
-public class BugCustomFieldsWriter implements ItemWriter<BugBean> {
-
-	/**
-	 * Sub-writer used to write each item in the list of custom field values.
-	 */
-	private final JdbcBatchItemWriter<BugCustomFieldValue> writer;
+public class BugCustomFieldsWriter extends AbstractFlattenedBugWriter<BugCustomFieldValue> {
 
 	/**
 	 * SQL query used to perform the upsert.
@@ -61,41 +50,15 @@ public class BugCustomFieldsWriter implements ItemWriter<BugBean> {
 	 * Default constructor.
 	 */
 	public BugCustomFieldsWriter() {
-		writer = new JdbcBatchItemWriter<BugCustomFieldValue>();
-		writer.setItemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<BugCustomFieldValue>());
-		writer.setSql(SQL_QUERY);
-		writer.setAssertUpdates(false);
+		super(SQL_QUERY);
 	}
 
 	/**
 	 * {@inheritDoc}
-	 * @see org.springframework.batch.item.ItemWriter#write(java.util.List)
+	 * @see com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.AbstractFlattenedBugWriter#getEntries(com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean)
 	 */
 	@Override
-	public void write(final List<? extends BugBean> items) throws Exception {
-		if (items != null) {
-			for (final BugBean bug : items) {
-				if (bug.getCustomFields() != null) {
-					writer.write(bug.getCustomFields());
-				}
-			}
-		}
-	}
-
-	/**
-	 * Check mandatory properties.
-	 */
-	public void afterPropertiesSet() {
-		writer.afterPropertiesSet();
-	}
-
-	/**
-	 * Set the datasource.
-	 *
-	 * @param dataSource
-	 * 			the datasource to set
-	 */
-	public void setDataSource(final DataSource dataSource) {
-		writer.setDataSource(dataSource);
+	protected List<BugCustomFieldValue> getEntries(final BugBean bug) {
+		return bug.getCustomFields();
 	}
 }
@@ -0,0 +1,213 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
+
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.util.Assert;
+
+import biz.futureware.mantis.rpc.soap.client.AccountData;
+import biz.futureware.mantis.rpc.soap.client.ObjectRef;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugDependencies;
+import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
+
+/**
+ * Writer inserting the dependencies of the issues of a chunk
+ * (projects, users, enumerations and custom fields) that aren't present in the DB.
+ * The dependencies are collected by the processor and inserted here, so they are
+ * part of the chunk transaction. Must run before the writers of the issues
+ * for Foreign Keys resolution.
+ *
+ * When the dependencies are batched, the dependencies of all the issues are merged
+ * and inserted with set-based statements. Otherwise they are checked one by one.
+ *
+ * @author jrrdev
+ *
+ */
+public class BugDependenciesWriter implements ItemWriter<BugBean> {
+
+	/**
+	 * Lock serializing the insertions of the dependencies by concurrent chunks.
+	 */
+	private static final Object DEPENDENCIES_LOCK = new Object();
+
+	/**
+	 * DAO used for the insertions.
+	 */
+	private IssuesDao dao;
+
+	/**
+	 * If true, the dependencies of the chunk are inserted with set-based statements.
+	 */
+	private boolean batchDependencies = false;
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemWriter#write(java.util.List)
+	 */
+	@Override
+	public void write(final List<? extends BugBean> items) throws Exception {
+		Assert.notNull(dao);
+
+		if (items == null) {
+			return;
+		}
+
+		if (batchDependencies) {
+			final BugDependencies dependencies = new BugDependencies();
+			for (final BugBean bug : items) {
+				dependencies.addAll(bug.getDependencies());
+			}
+
+			if (!dependencies.isEmpty()) {
+				synchronized (DEPENDENCIES_LOCK) {
+					dao.insertDependencies(dependencies);
+				}
+			}
+
+		} else {
+			synchronized (DEPENDENCIES_LOCK) {
+				for (final BugBean bug : items) {
+					if (bug.getDependencies() != null) {
+						insertOneByOne(bug.getDependencies());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Insert the dependencies of an issue one by one, if they aren't present in the DB.
+	 *
+	 * @param dependencies
+	 * 			The dependencies of the issue
+	 */
+	private void insertOneByOne(final BugDependencies dependencies) {
+		for (final Map.Entry<Long, String> project : dependencies.getProjects().entrySet()) {
+			dao.insertProjectIfNotExists(toRef(project));
+		}
+
+		final Set<Long> linkedUsers = new HashSet<Long>();
+		for (final Map.Entry<Long, Set<Long>> link : dependencies.getUsersProject().entrySet()) {
+			for (final Long userId : link.getValue()) {
+				dao.insertUserIfNotExists(toAccount(userId, dependencies.getUsers().get(userId)), link.getKey());
+				linkedUsers.add(userId);
+			}
+		}
+		for (final Map.Entry<Long, String> user : dependencies.getUsers().entrySet()) {
+			if (!linkedUsers.contains(user.getKey())) {
+				dao.insertUserIfNotExists(toAccount(user.getKey(), user.getValue()), null);
+			}
+		}
+
+		for (final Map.Entry<Long, String> priority : dependencies.getPriorities().entrySet()) {
+			dao.insertPriorityIfNotExists(toRef(priority));
+		}
+		for (final Map.Entry<Long, String> severity : dependencies.getSeverities().entrySet()) {
+			dao.insertSeverityIfNotExists(toRef(severity));
+		}
+		for (final Map.Entry<Long, String> status : dependencies.getStatus().entrySet()) {
+			dao.insertStatusIfNotExists(toRef(status));
+		}
+		for (final Map.Entry<Long, String> resolution : dependencies.getResolutions().entrySet()) {
+			dao.insertResolutionIfNotExists(toRef(resolution));
+		}
+
+		final Set<Long> linkedFields = new HashSet<Long>();
+		for (final Map.Entry<Long, Set<Long>> link : dependencies.getCustomFieldsProject().entrySet()) {
+			for (final Long fieldId : link.getValue()) {
+				dao.insertCustomFieldIfNotExists(new ObjectRef(BigInteger.valueOf(fieldId),
+						dependencies.getCustomFields().get(fieldId)), link.getKey());
+				linkedFields.add(fieldId);
+			}
+		}
+		for (final Map.Entry<Long, String> field : dependencies.getCustomFields().entrySet()) {
+			if (!linkedFields.contains(field.getKey())) {
+				dao.insertCustomFieldIfNotExists(toRef(field), null);
+			}
+		}
+	}
+
+	/**
+	 * Build a reference from an id and a name.
+	 *
+	 * @param entry
+	 * 			The id and the name
+	 * @return the reference
+	 */
+	private static ObjectRef toRef(final Map.Entry<Long, String> entry) {
+		return new ObjectRef(BigInteger.valueOf(entry.getKey()), entry.getValue());
+	}
+
+	/**
+	 * Build an account from an id and a name.
+	 *
+	 * @param id
+	 * 			The id
+	 * @param name
+	 * 			The name
+	 * @return the account
+	 */
+	private static AccountData toAccount(final Long id, final String name) {
+		final AccountData account = new AccountData();
+		account.setId(BigInteger.valueOf(id));
+		account.setName(name);
+		return account;
+	}
+
+	/**
+	 * @return the dao
+	 */
+	public IssuesDao getDao() {
+		return dao;
+	}
+
+	/**
+	 * @param dao the dao to set
+	 */
+	public void setDao(final IssuesDao dao) {
+		this.dao = dao;
+	}
+
+	/**
+	 * @return the batchDependencies
+	 */
+	public boolean isBatchDependencies() {
+		return batchDependencies;
+	}
+
+	/**
+	 * @param batchDependencies the batchDependencies to set
+	 */
+	public void setBatchDependencies(final boolean batchDependencies) {
+		this.batchDependencies = batchDependencies;
+	}
+}
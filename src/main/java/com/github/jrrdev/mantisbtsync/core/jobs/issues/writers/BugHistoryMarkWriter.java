@@ -0,0 +1,69 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugHistoryMark;
+
+/**
+ * Writer used to upsert the high-water mark of the history
+ * synced for an issue.
+ * Insert entries in mantis_bug_history_mark_table table.
+ *
+ * @author jrrdev
+ *
+ */
+public class BugHistoryMarkWriter extends AbstractFlattenedBugWriter<BugHistoryMark> {
+
+	/**
+	 * SQL query used to perform the upsert.
+	 */
+	private static final String SQL_QUERY = "INSERT INTO mantis_bug_history_mark_table\n"
+			+ " (bug_id, last_updated, max_date_modified, history_count)\n"
+			+ " VALUES (:bugId, :lastUpdated, :maxDateModified, :historyCount)\n"
+			+ " ON DUPLICATE KEY UPDATE last_updated = :lastUpdated,\n"
+			+ " max_date_modified = :maxDateModified, history_count = :historyCount";
+
+	/**
+	 * Default constructor.
+	 */
+	public BugHistoryMarkWriter() {
+		super(SQL_QUERY);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.AbstractFlattenedBugWriter#getEntries(com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean)
+	 */
+	@Override
+	protected List<BugHistoryMark> getEntries(final BugBean bug) {
+		if (bug.getHistoryMark() == null) {
+			return null;
+		}
+		return Collections.singletonList(bug.getHistoryMark());
+	}
+}
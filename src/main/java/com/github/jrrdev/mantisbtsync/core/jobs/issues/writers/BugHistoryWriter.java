@@ -25,12 +25,6 @@ package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
 
 import java.util.List;
 
-import javax.sql.DataSource;
-
-import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
-import org.springframework.batch.item.database.JdbcBatchItemWriter;
-
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugHistoryBean;
 
@@ -42,64 +36,31 @@ import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugHistoryBean;
  * @author jrrdev
  *
  */
-public class BugHistoryWriter implements ItemWriter<BugBean> {
+public class BugHistoryWriter extends AbstractFlattenedBugWriter<BugHistoryBean> {
 
 	/**
-	 * Sub-writer used to write each item in the list of history entries.
-	 */
-	private final JdbcBatchItemWriter<BugHistoryBean> writer;
-
-	/**
-	 * SQL query used to perform the upserts.
+	 * SQL query used to perform the inserts. Entries already present
+	 * are detected with the unique key on (bug_id, content_hash).
 	 */
 	private static final String SQL_QUERY = "INSERT INTO mantis_bug_history_table\n"
-			+ " (bug_id, user_id, field_name, old_value, new_value, history_type, date_modified)\n"
-			+ " SELECT :bugId, :userId, :fieldName, :oldValue, :newValue, :historyType,\n"
-			+ "	:dateModified FROM dual\n"
-			+ " WHERE NOT EXISTS (SELECT 1 FROM mantis_bug_history_table\n"
-			+ " 		WHERE bug_id = :bugId AND user_id = :userId AND field_name = :fieldName\n"
-			+ "			AND old_value = :oldValue AND new_value = :newValue\n"
-			+ "			AND history_type = :historyType AND date_modified = :dateModified)";
+			+ " (bug_id, user_id, field_name, old_value, new_value, history_type, date_modified, content_hash)\n"
+			+ " VALUES (:bugId, :userId, :fieldName, :oldValue, :newValue, :historyType,\n"
+			+ "	:dateModified, :contentHash)\n"
+			+ " ON DUPLICATE KEY UPDATE content_hash = :contentHash";
 
 	/**
 	 * Default constructor.
 	 */
 	public BugHistoryWriter() {
-		writer = new JdbcBatchItemWriter<BugHistoryBean>();
-		writer.setItemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<BugHistoryBean>());
-		writer.setSql(SQL_QUERY);
-		writer.setAssertUpdates(false);
+		super(SQL_QUERY);
 	}
 
 	/**
 	 * {@inheritDoc}
-	 * @see org.springframework.batch.item.ItemWriter#write(java.util.List)
+	 * @see com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.AbstractFlattenedBugWriter#getEntries(com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean)
 	 */
 	@Override
-	public void write(final List<? extends BugBean> items) throws Exception {
-		if (items != null) {
-			for (final BugBean bug : items) {
-				if (bug.getHistory() != null) {
-					writer.write(bug.getHistory());
-				}
-			}
-		}
-	}
-
-	/**
-	 * Check mandatory properties.
-	 */
-	public void afterPropertiesSet() {
-		writer.afterPropertiesSet();
-	}
-
-	/**
-	 * Set the datasource.
-	 *
-	 * @param dataSource
-	 * 			the datasource to set
-	 */
-	public void setDataSource(final DataSource dataSource) {
-		writer.setDataSource(dataSource);
+	protected List<BugHistoryBean> getEntries(final BugBean bug) {
+		return bug.getHistory();
 	}
 }
@@ -25,12 +25,6 @@ package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
 
 import java.util.List;
 
-import javax.sql.DataSource;
-
-import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
-import org.springframework.batch.item.database.JdbcBatchItemWriter;
-
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugNoteBean;
 
@@ -42,12 +36,7 @@ import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugNoteBean;
  * @author jrrdev
  *
  */
-public class BugNotesWriter implements ItemWriter<BugBean> {
-
-	/**
-	 * Sub-writer used to write each item in the list of notes.
-	 */
-	private final JdbcBatchItemWriter<BugNoteBean> writer;
+public class BugNotesWriter extends AbstractFlattenedBugWriter<BugNoteBean> {
 
 	/**
 	 * SQL query used to perform the upsert.
@@ -61,41 +50,15 @@ public class BugNotesWriter implements ItemWriter<BugBean> {
 	 * Default constructor.
 	 */
 	public BugNotesWriter() {
-		writer = new JdbcBatchItemWriter<BugNoteBean>();
-		writer.setItemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<BugNoteBean>());
-		writer.setSql(SQL_QUERY);
-		writer.setAssertUpdates(false);
+		super(SQL_QUERY);
 	}
 
 	/**
 	 * {@inheritDoc}
-	 * @see org.springframework.batch.item.ItemWriter#write(java.util.List)
+	 * @see com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.AbstractFlattenedBugWriter#getEntries(com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean)
 	 */
 	@Override
-	public void write(final List<? extends BugBean> items) throws Exception {
-		if (items != null) {
-			for (final BugBean bug : items) {
-				if (bug.getNotes() != null) {
-					writer.write(bug.getNotes());
-				}
-			}
-		}
-	}
-
-	/**
-	 * Check mandatory properties.
-	 */
-	public void afterPropertiesSet() {
-		writer.afterPropertiesSet();
-	}
-
-	/**
-	 * Set the datasource.
-	 *
-	 * @param dataSource
-	 * 			the datasource to set
-	 */
-	public void setDataSource(final DataSource dataSource) {
-		writer.setDataSource(dataSource);
+	protected List<BugNoteBean> getEntries(final BugBean bug) {
+		return bug.getNotes();
 	}
 }
@@ -0,0 +1,105 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
+
+import java.util.List;
+
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.util.Assert;
+
+import com.github.jrrdev.mantisbtsync.core.common.collections.LongArrayList;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugHistoryBean;
+import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
+
+/**
+ * Writer updating the intervals of the handlers and status of the issues
+ * of a chunk, in bug_state_intervals table.
+ * Only the issues whose written history contains a change of handler
+ * or status are updated. Must run after the writer of the history.
+ *
+ * @author jrrdev
+ *
+ */
+public class BugStateIntervalsWriter implements ItemWriter<BugBean> {
+
+	/**
+	 * DAO used for the updates.
+	 */
+	private IssuesDao dao;
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemWriter#write(java.util.List)
+	 */
+	@Override
+	public void write(final List<? extends BugBean> items) throws Exception {
+		Assert.notNull(dao);
+
+		final LongArrayList bugIds = new LongArrayList();
+		if (items != null) {
+			for (final BugBean bug : items) {
+				if (hasStateChange(bug)) {
+					bugIds.add(bug.getId());
+				}
+			}
+		}
+
+		if (bugIds.size() > 0) {
+			dao.updateStateIntervals(bugIds.toArray());
+		}
+	}
+
+	/**
+	 * Check if the history of an issue contains a change of handler or status.
+	 *
+	 * @param bug
+	 * 			The issue
+	 * @return true if the history contains a change of handler or status
+	 */
+	private static boolean hasStateChange(final BugBean bug) {
+		if (bug.getHistory() != null) {
+			for (final BugHistoryBean history : bug.getHistory()) {
+				if ("handler_id".equals(history.getFieldName()) || "status".equals(history.getFieldName())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the dao
+	 */
+	public IssuesDao getDao() {
+		return dao;
+	}
+
+	/**
+	 * @param dao the dao to set
+	 */
+	public void setDao(final IssuesDao dao) {
+		this.dao = dao;
+	}
+}
@@ -0,0 +1,124 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
+
+/**
+ * Writer bulk loading the issues into mantis_bug_table table.
+ *
+ * Only the new issues are loaded: a REPLACE would delete the existing issues,
+ * which are referenced by their notes and history. The existing issues
+ * are written by the fallback writer.
+ *
+ * @author jrrdev
+ *
+ */
+public class BugsLoadDataWriter extends AbstractLoadDataWriter<BugBean> {
+
+	/**
+	 * SQL query used to retrieve the existing issues.
+	 */
+	private static final String SQL_GET_EXISTING_IDS = "SELECT id FROM mantis_bug_table WHERE id IN ";
+
+	/**
+	 * Default constructor.
+	 */
+	public BugsLoadDataWriter() {
+		super(IssueTables.BUGS, "last_sync = NOW()", Mode.IGNORE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.AbstractLoadDataWriter#write(java.util.List)
+	 */
+	@Override
+	public void write(final List<? extends BugBean> items) throws Exception {
+		if (items == null || items.isEmpty()) {
+			return;
+		}
+
+		if (!isMySql()) {
+			getFallback().write(items);
+			return;
+		}
+
+		final Set<Long> existingIds = getExistingIds(items);
+		final List<BugBean> newItems = new ArrayList<BugBean>();
+		final List<BugBean> existingItems = new ArrayList<BugBean>();
+		for (final BugBean bug : items) {
+			if (existingIds.contains(bug.getId())) {
+				existingItems.add(bug);
+			} else {
+				newItems.add(bug);
+			}
+		}
+
+		if (!existingItems.isEmpty()) {
+			getFallback().write(existingItems);
+		}
+
+		load(newItems);
+	}
+
+	/**
+	 * Retrieve the ids of the issues of the chunk already present in the DB.
+	 *
+	 * @param items
+	 * 			The issues of the chunk
+	 * @return the ids
+	 */
+	private Set<Long> getExistingIds(final List<? extends BugBean> items) {
+		final StringBuilder sql = new StringBuilder(SQL_GET_EXISTING_IDS).append('(');
+		final Object[] args = new Object[items.size()];
+		for (int i = 0; i < items.size(); i++) {
+			if (i > 0) {
+				sql.append(", ");
+			}
+			sql.append('?');
+			args[i] = items.get(i).getId();
+		}
+		sql.append(')');
+
+		final Set<Long> ids = new HashSet<Long>();
+		getJdbcTemplate().query(sql.toString(), args, new RowCallbackHandler() {
+
+			@Override
+			public void processRow(final ResultSet rs) throws SQLException {
+				ids.add(rs.getLong(1));
+			}
+		});
+
+		return ids;
+	}
+}
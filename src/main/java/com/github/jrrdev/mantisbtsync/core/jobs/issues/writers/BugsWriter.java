@@ -0,0 +1,185 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
+
+/**
+ * Writer used to upsert the data related to an issue.
+ * Perform upsert in the mantis_bug_table table.
+ *
+ * The fingerprints of the issues of the chunk are compared to the ones
+ * stored in the DB. The issues that didn't change only have their
+ * last_sync column refreshed, by a narrow batched update.
+ *
+ * @author jrrdev
+ *
+ */
+public class BugsWriter implements ItemWriter<BugBean> {
+
+	/**
+	 * SQL query used to perform the upsert.
+	 */
+	private static final String SQL_UPSERT = "INSERT INTO mantis_bug_table (id, project_id, reporter_id, handler_id, priority_id,\n"
+			+ " 	severity_id, status_id, resolution_id, description, steps_to_reproduce,\n"
+			+ " 	additional_information, platform, version, fixed_in_version, target_version,\n"
+			+ " 	summary, category, date_submitted, last_updated, fingerprint, last_sync)\n"
+			+ " VALUES (:id, :projectId, :reporterId, :handlerId, :priorityId,\n"
+			+ " 	:severityId, :statusId, :resolutionId, :description, :stepsToReproduce,\n"
+			+ " 	:additionalInformation, :platform, :version, :fixedInVersion, :targetVersion,\n"
+			+ " 	:summary, :category, :dateSubmitted, :lastUpdated, :fingerprint, sysdate())\n"
+			+ " ON DUPLICATE KEY UPDATE project_id = :projectId, reporter_id = :reporterId,\n"
+			+ "  	handler_id = :handlerId, priority_id = :priorityId,\n"
+			+ " 	severity_id = :severityId, status_id = :statusId, resolution_id = :resolutionId,\n"
+			+ " 	description = :description, steps_to_reproduce = :stepsToReproduce,\n"
+			+ " 	additional_information = :additionalInformation, platform = :platform,\n"
+			+ " 	version = :version, fixed_in_version = :fixedInVersion, target_version = :targetVersion,\n"
+			+ " 	summary = :summary, category = :category, date_submitted = :dateSubmitted,\n"
+			+ " 	last_updated = :lastUpdated, fingerprint = :fingerprint, last_sync = sysdate()";
+
+	/**
+	 * SQL query used to retrieve the fingerprints of the issues.
+	 */
+	private static final String SQL_GET_FINGERPRINTS = "SELECT id, fingerprint FROM mantis_bug_table WHERE id IN ";
+
+	/**
+	 * SQL query used to refresh the last sync of an issue that didn't change.
+	 */
+	private static final String SQL_UPDATE_LAST_SYNC = "UPDATE mantis_bug_table SET last_sync = sysdate() WHERE id = ?";
+
+	/**
+	 * Sub-writer used to upsert the issues that changed.
+	 */
+	private final JdbcBatchItemWriter<BugBean> writer;
+
+	/**
+	 * JDBC template used to compare the fingerprints and refresh the last sync.
+	 */
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Default constructor.
+	 */
+	public BugsWriter() {
+		writer = new JdbcBatchItemWriter<BugBean>();
+		writer.setItemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<BugBean>());
+		writer.setSql(SQL_UPSERT);
+		writer.setAssertUpdates(false);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemWriter#write(java.util.List)
+	 */
+	@Override
+	public void write(final List<? extends BugBean> items) throws Exception {
+		if (items == null || items.isEmpty()) {
+			return;
+		}
+
+		final Map<Long, String> fingerprints = getFingerprints(items);
+		final List<BugBean> changed = new ArrayList<BugBean>();
+		final List<Object[]> unchanged = new ArrayList<Object[]>();
+
+		for (final BugBean bug : items) {
+			if (bug.getFingerprint() != null && bug.getFingerprint().equals(fingerprints.get(bug.getId()))) {
+				unchanged.add(new Object[] {bug.getId()});
+			} else {
+				changed.add(bug);
+			}
+		}
+
+		if (!changed.isEmpty()) {
+			writer.write(changed);
+		}
+
+		if (!unchanged.isEmpty()) {
+			jdbcTemplate.batchUpdate(SQL_UPDATE_LAST_SYNC, unchanged);
+		}
+	}
+
+	/**
+	 * Retrieve the fingerprints stored in the DB for the issues of the chunk.
+	 *
+	 * @param items
+	 * 			The issues of the chunk
+	 * @return the fingerprints by issue id
+	 */
+	private Map<Long, String> getFingerprints(final List<? extends BugBean> items) {
+		final StringBuilder sql = new StringBuilder(SQL_GET_FINGERPRINTS).append('(');
+		final Object[] args = new Object[items.size()];
+		for (int i = 0; i < items.size(); i++) {
+			if (i > 0) {
+				sql.append(", ");
+			}
+			sql.append('?');
+			args[i] = items.get(i).getId();
+		}
+		sql.append(')');
+
+		final Map<Long, String> fingerprints = new HashMap<Long, String>();
+		jdbcTemplate.query(sql.toString(), args, new RowCallbackHandler() {
+
+			@Override
+			public void processRow(final ResultSet rs) throws SQLException {
+				fingerprints.put(rs.getLong(1), rs.getString(2));
+			}
+		});
+
+		return fingerprints;
+	}
+
+	/**
+	 * Check mandatory properties.
+	 */
+	public void afterPropertiesSet() {
+		writer.afterPropertiesSet();
+	}
+
+	/**
+	 * Set the datasource.
+	 *
+	 * @param dataSource
+	 * 			the datasource to set
+	 */
+	public void setDataSource(final DataSource dataSource) {
+		writer.setDataSource(dataSource);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+}
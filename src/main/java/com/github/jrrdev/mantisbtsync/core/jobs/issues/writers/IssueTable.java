@@ -0,0 +1,146 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
+
+/**
+ * Description of a table written from the issues: its columns
+ * and how to extract its rows from the issues.
+ * Used by the writers building their statements from the columns.
+ *
+ * @author jrrdev
+ *
+ * @param <T>
+ * 			Type of the entries stored in the table
+ */
+public abstract class IssueTable<T> {
+
+	/**
+	 * Name of the table.
+	 */
+	private final String name;
+
+	/**
+	 * Columns of the unique key.
+	 */
+	private final String[] keyColumns;
+
+	/**
+	 * Columns written from the entries, key columns included.
+	 */
+	private final String[] columns;
+
+	/**
+	 * Columns updated when the key already exists.
+	 */
+	private final String[] updateColumns;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param name
+	 * 			Name of the table
+	 * @param keyColumns
+	 * 			Columns of the unique key
+	 * @param columns
+	 * 			Columns written from the entries, key columns included
+	 * @param updateColumns
+	 * 			Columns updated when the key already exists
+	 */
+	protected IssueTable(final String name, final String[] keyColumns, final String[] columns,
+			final String[] updateColumns) {
+		this.name = name;
+		this.keyColumns = keyColumns.clone();
+		this.columns = columns.clone();
+		this.updateColumns = updateColumns.clone();
+	}
+
+	/**
+	 * Return the entries of an issue stored in the table.
+	 *
+	 * @param bug
+	 * 			The issue
+	 * @return the entries, may be null
+	 */
+	public abstract List<T> getEntries(final BugBean bug);
+
+	/**
+	 * Return the values of an entry, in the order of the columns.
+	 *
+	 * @param entry
+	 * 			The entry
+	 * @return the values
+	 */
+	public abstract Object[] getValues(final T entry);
+
+	/**
+	 * Return the entries of all the issues of a chunk.
+	 *
+	 * @param items
+	 * 			The issues
+	 * @return the entries
+	 */
+	public List<T> getEntries(final List<? extends BugBean> items) {
+		final List<T> entries = new ArrayList<T>();
+		for (final BugBean bug : items) {
+			final List<T> bugEntries = getEntries(bug);
+			if (bugEntries != null) {
+				entries.addAll(bugEntries);
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the keyColumns
+	 */
+	public String[] getKeyColumns() {
+		return keyColumns.clone();
+	}
+
+	/**
+	 * @return the columns
+	 */
+	public String[] getColumns() {
+		return columns.clone();
+	}
+
+	/**
+	 * @return the updateColumns
+	 */
+	public String[] getUpdateColumns() {
+		return updateColumns.clone();
+	}
+}
@@ -0,0 +1,139 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugCustomFieldValue;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugHistoryBean;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugNoteBean;
+
+/**
+ * Descriptions of the tables written from the issues.
+ *
+ * @author jrrdev
+ *
+ */
+public final class IssueTables {
+
+	/**
+	 * mantis_bug_table table.
+	 */
+	public static final IssueTable<BugBean> BUGS = new IssueTable<BugBean>("mantis_bug_table",
+			new String[] {"id"},
+			new String[] {"id", "project_id", "reporter_id", "handler_id", "priority_id",
+					"severity_id", "status_id", "resolution_id", "description", "steps_to_reproduce",
+					"additional_information", "platform", "version", "fixed_in_version", "target_version",
+					"summary", "category", "date_submitted", "last_updated", "fingerprint"},
+			new String[] {"project_id", "reporter_id", "handler_id", "priority_id",
+					"severity_id", "status_id", "resolution_id", "description", "steps_to_reproduce",
+					"additional_information", "platform", "version", "fixed_in_version", "target_version",
+					"summary", "category", "date_submitted", "last_updated", "fingerprint"}) {
+
+		@Override
+		public List<BugBean> getEntries(final BugBean bug) {
+			return Collections.singletonList(bug);
+		}
+
+		@Override
+		public Object[] getValues(final BugBean entry) {
+			return new Object[] {entry.getId(), entry.getProjectId(), entry.getReporterId(), entry.getHandlerId(),
+					entry.getPriorityId(), entry.getSeverityId(), entry.getStatusId(), entry.getResolutionId(),
+					entry.getDescription(), entry.getStepsToReproduce(), entry.getAdditionalInformation(),
+					entry.getPlatform(), entry.getVersion(), entry.getFixedInVersion(), entry.getTargetVersion(),
+					entry.getSummary(), entry.getCategory(), entry.getDateSubmitted(), entry.getLastUpdated(),
+					entry.getFingerprint()};
+		}
+	};
+
+	/**
+	 * mantis_bugnote_table table.
+	 */
+	public static final IssueTable<BugNoteBean> NOTES = new IssueTable<BugNoteBean>("mantis_bugnote_table",
+			new String[] {"id"},
+			new String[] {"id", "bug_id", "reporter_id", "text_note", "date_submitted", "last_modified"},
+			new String[] {"text_note", "last_modified"}) {
+
+		@Override
+		public List<BugNoteBean> getEntries(final BugBean bug) {
+			return bug.getNotes();
+		}
+
+		@Override
+		public Object[] getValues(final BugNoteBean entry) {
+			return new Object[] {entry.getId(), entry.getBugId(), entry.getReporterId(), entry.getTextNote(),
+					entry.getDateSubmitted(), entry.getLastModified()};
+		}
+	};
+
+	/**
+	 * mantis_custom_field_string_table table.
+	 */
+	public static final IssueTable<BugCustomFieldValue> CUSTOM_FIELDS = new IssueTable<BugCustomFieldValue>(
+			"mantis_custom_field_string_table",
+			new String[] {"field_id", "bug_id"},
+			new String[] {"field_id", "bug_id", "field_value"},
+			new String[] {"field_value"}) {
+
+		@Override
+		public List<BugCustomFieldValue> getEntries(final BugBean bug) {
+			return bug.getCustomFields();
+		}
+
+		@Override
+		public Object[] getValues(final BugCustomFieldValue entry) {
+			return new Object[] {entry.getFieldId(), entry.getBugId(), entry.getFieldValue()};
+		}
+	};
+
+	/**
+	 * mantis_bug_history_table table. The entries are identified by their content hash.
+	 */
+	public static final IssueTable<BugHistoryBean> HISTORY = new IssueTable<BugHistoryBean>(
+			"mantis_bug_history_table",
+			new String[] {"bug_id", "content_hash"},
+			new String[] {"bug_id", "user_id", "field_name", "old_value", "new_value",
+					"history_type", "date_modified", "content_hash"},
+			new String[0]) {
+
+		@Override
+		public List<BugHistoryBean> getEntries(final BugBean bug) {
+			return bug.getHistory();
+		}
+
+		@Override
+		public Object[] getValues(final BugHistoryBean entry) {
+			return new Object[] {entry.getBugId(), entry.getUserId(), entry.getFieldName(), entry.getOldValue(),
+					entry.getNewValue(), entry.getHistoryType(), entry.getDateModified(), entry.getContentHash()};
+		}
+	};
+
+	/**
+	 * Utility class, not instantiable.
+	 */
+	private IssueTables() {
+	}
+}
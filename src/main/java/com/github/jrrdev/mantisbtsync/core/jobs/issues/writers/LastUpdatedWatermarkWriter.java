@@ -0,0 +1,84 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemWriter;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
+
+/**
+ * Writer recording the most recent last update of the issues written by a step
+ * in the execution context of the step. The execution context is saved
+ * with the commit of each chunk, so the mark never gets ahead of the written issues.
+ *
+ * Nothing is done outside of a step.
+ *
+ * @author jrrdev
+ *
+ */
+public class LastUpdatedWatermarkWriter implements ItemWriter<BugBean> {
+
+	/**
+	 * Key of the most recent last update in the execution context of the step.
+	 */
+	public static final String MAX_LAST_UPDATED_KEY = "mantis.issues.max_last_updated";
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemWriter#write(java.util.List)
+	 */
+	@Override
+	public void write(final List<? extends BugBean> items) throws Exception {
+		final StepContext stepContext = StepSynchronizationManager.getContext();
+		if (stepContext == null || items == null) {
+			return;
+		}
+
+		long max = Long.MIN_VALUE;
+		for (final BugBean bug : items) {
+			if (bug.getLastUpdated() != null && bug.getLastUpdated().getTime() > max) {
+				max = bug.getLastUpdated().getTime();
+			}
+		}
+
+		if (max == Long.MIN_VALUE) {
+			return;
+		}
+
+		final ExecutionContext executionContext = stepContext.getStepExecution().getExecutionContext();
+		// The chunks of a multi-threaded step share the context
+		synchronized (executionContext) {
+			final Date current = (Date) executionContext.get(MAX_LAST_UPDATED_KEY);
+			if (current == null || current.getTime() < max) {
+				executionContext.put(MAX_LAST_UPDATED_KEY, new Date(max));
+			}
+		}
+	}
+}
@@ -0,0 +1,320 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
+
+/**
+ * Writer appending the entries of a chunk to an unindexed staging table,
+ * then applying them to the table with a single set-based statement:
+ * an INSERT ... SELECT ... ON DUPLICATE KEY UPDATE on MySQL,
+ * a MERGE on the other DB (for instance the HSQLDB used by the tests).
+ *
+ * The staged rows are tagged with an id unique to the write, so the chunks
+ * written concurrently don't apply the rows of each other. They are deleted
+ * once applied, in the transaction of the chunk.
+ *
+ * @author jrrdev
+ *
+ * @param <T>
+ * 			Type of the entries
+ */
+public class StagingWriter<T> implements ItemWriter<BugBean> {
+
+	/**
+	 * Column of the staging tables holding the id of the stage.
+	 */
+	private static final String STAGE_ID_COLUMN = "stage_id";
+
+	/**
+	 * Written table.
+	 */
+	private final IssueTable<T> table;
+
+	/**
+	 * Name of the staging table.
+	 */
+	private final String stagingTable;
+
+	/**
+	 * Column of the table set to the current timestamp, may be null.
+	 */
+	private String syncColumn;
+
+	/**
+	 * JDBC template.
+	 */
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * True if the DB is a MySQL DB, null until checked.
+	 */
+	private volatile Boolean mySql;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param table
+	 * 			Written table
+	 * @param stagingTable
+	 * 			Name of the staging table
+	 */
+	public StagingWriter(final IssueTable<T> table, final String stagingTable) {
+		this.table = table;
+		this.stagingTable = stagingTable;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.springframework.batch.item.ItemWriter#write(java.util.List)
+	 */
+	@Override
+	public void write(final List<? extends BugBean> items) throws Exception {
+		if (items == null || items.isEmpty()) {
+			return;
+		}
+
+		final List<T> entries = table.getEntries(items);
+		if (entries.isEmpty()) {
+			return;
+		}
+
+		final String stageId = UUID.randomUUID().toString();
+		final List<Object[]> args = new ArrayList<Object[]>(entries.size());
+		for (final T entry : entries) {
+			final Object[] values = table.getValues(entry);
+			final Object[] row = new Object[values.length + 1];
+			row[0] = stageId;
+			System.arraycopy(values, 0, row, 1, values.length);
+			args.add(row);
+		}
+
+		jdbcTemplate.batchUpdate(getInsertSql(), args);
+		jdbcTemplate.update(isMySql() ? getUpsertSql() : getMergeSql(), stageId);
+		jdbcTemplate.update(getDeleteSql(), stageId);
+	}
+
+	/**
+	 * Build the statement appending an entry to the staging table.
+	 *
+	 * @return the statement
+	 */
+	protected String getInsertSql() {
+		final String[] columns = table.getColumns();
+		final StringBuilder sql = new StringBuilder("INSERT INTO ").append(stagingTable)
+				.append(" (").append(STAGE_ID_COLUMN);
+		for (final String column : columns) {
+			sql.append(", ").append(column);
+		}
+		sql.append(") VALUES (?");
+		for (int i = 0; i < columns.length; i++) {
+			sql.append(", ?");
+		}
+		return sql.append(')').toString();
+	}
+
+	/**
+	 * Build the MySQL statement applying the staged entries to the table.
+	 *
+	 * @return the statement
+	 */
+	protected String getUpsertSql() {
+		final StringBuilder sql = new StringBuilder("INSERT INTO ").append(table.getName()).append(" (");
+		appendColumns(sql, "", table.getColumns());
+		if (syncColumn != null) {
+			sql.append(", ").append(syncColumn);
+		}
+
+		sql.append(") SELECT ");
+		appendColumns(sql, "", table.getColumns());
+		if (syncColumn != null) {
+			sql.append(", CURRENT_TIMESTAMP");
+		}
+
+		sql.append(" FROM ").append(stagingTable)
+				.append(" WHERE ").append(STAGE_ID_COLUMN).append(" = ?")
+				.append(" ON DUPLICATE KEY UPDATE ");
+
+		final String[] updateColumns = table.getUpdateColumns();
+		if (updateColumns.length == 0) {
+			// Nothing to update, the existing rows are kept as is
+			final String key = table.getKeyColumns()[0];
+			sql.append(key).append(" = ").append(key);
+		} else {
+			for (int i = 0; i < updateColumns.length; i++) {
+				if (i > 0) {
+					sql.append(", ");
+				}
+				sql.append(updateColumns[i]).append(" = VALUES(").append(updateColumns[i]).append(')');
+			}
+			if (syncColumn != null) {
+				sql.append(", ").append(syncColumn).append(" = VALUES(").append(syncColumn).append(')');
+			}
+		}
+
+		return sql.toString();
+	}
+
+	/**
+	 * Build the MERGE statement applying the staged entries to the table.
+	 * The staged entries are deduplicated since a MERGE fails if a row
+	 * of the table matches several entries.
+	 *
+	 * @return the statement
+	 */
+	protected String getMergeSql() {
+		final StringBuilder sql = new StringBuilder("MERGE INTO ").append(table.getName())
+				.append(" t USING (SELECT DISTINCT ");
+		appendColumns(sql, "", table.getColumns());
+		sql.append(" FROM ").append(stagingTable)
+				.append(" WHERE ").append(STAGE_ID_COLUMN).append(" = ?) s ON (");
+
+		final String[] keyColumns = table.getKeyColumns();
+		for (int i = 0; i < keyColumns.length; i++) {
+			if (i > 0) {
+				sql.append(" AND ");
+			}
+			sql.append("t.").append(keyColumns[i]).append(" = s.").append(keyColumns[i]);
+		}
+		sql.append(')');
+
+		final String[] updateColumns = table.getUpdateColumns();
+		if (updateColumns.length > 0) {
+			sql.append(" WHEN MATCHED THEN UPDATE SET ");
+			for (int i = 0; i < updateColumns.length; i++) {
+				if (i > 0) {
+					sql.append(", ");
+				}
+				sql.append(updateColumns[i]).append(" = s.").append(updateColumns[i]);
+			}
+			if (syncColumn != null) {
+				sql.append(", ").append(syncColumn).append(" = CURRENT_TIMESTAMP");
+			}
+		}
+
+		sql.append(" WHEN NOT MATCHED THEN INSERT (");
+		appendColumns(sql, "", table.getColumns());
+		if (syncColumn != null) {
+			sql.append(", ").append(syncColumn);
+		}
+		sql.append(") VALUES (");
+		appendColumns(sql, "s.", table.getColumns());
+		if (syncColumn != null) {
+			sql.append(", CURRENT_TIMESTAMP");
+		}
+
+		return sql.append(')').toString();
+	}
+
+	/**
+	 * Build the statement deleting the staged entries.
+	 *
+	 * @return the statement
+	 */
+	protected String getDeleteSql() {
+		return "DELETE FROM " + stagingTable + " WHERE " + STAGE_ID_COLUMN + " = ?";
+	}
+
+	/**
+	 * Append a list of columns separated by commas.
+	 *
+	 * @param sql
+	 * 			The statement being built
+	 * @param prefix
+	 * 			Prefix of the columns
+	 * @param columns
+	 * 			The columns
+	 */
+	private static void appendColumns(final StringBuilder sql, final String prefix, final String[] columns) {
+		for (int i = 0; i < columns.length; i++) {
+			if (i > 0) {
+				sql.append(", ");
+			}
+			sql.append(prefix).append(columns[i]);
+		}
+	}
+
+	/**
+	 * Check if the DB is a MySQL DB.
+	 *
+	 * @return true if the DB is a MySQL DB
+	 */
+	protected boolean isMySql() {
+		if (mySql == null) {
+			mySql = jdbcTemplate.execute(new ConnectionCallback<Boolean>() {
+
+				@Override
+				public Boolean doInConnection(final Connection con) throws SQLException, DataAccessException {
+					return "MySQL".equalsIgnoreCase(con.getMetaData().getDatabaseProductName());
+				}
+			});
+		}
+		return mySql;
+	}
+
+	/**
+	 * Check mandatory properties.
+	 */
+	public void afterPropertiesSet() {
+		Assert.notNull(jdbcTemplate);
+	}
+
+	/**
+	 * Set the datasource.
+	 *
+	 * @param dataSource
+	 * 			the datasource to set
+	 */
+	public void setDataSource(final DataSource dataSource) {
+		jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	/**
+	 * @return the syncColumn
+	 */
+	public String getSyncColumn() {
+		return syncColumn;
+	}
+
+	/**
+	 * @param syncColumn the syncColumn to set
+	 */
+	public void setSyncColumn(final String syncColumn) {
+		this.syncColumn = syncColumn;
+	}
+}
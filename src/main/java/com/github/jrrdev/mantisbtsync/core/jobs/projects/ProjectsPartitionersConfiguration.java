@@ -0,0 +1,62 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.projects;
+
+import java.math.BigInteger;
+import java.util.Set;
+
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.projects.partitioners.ProjectsPartitioner;
+
+/**
+ * Configuration for the partitioners used to sync projects.
+ *
+ * @author jrrdev
+ *
+ */
+@Configuration
+public class ProjectsPartitionersConfiguration {
+
+	/**
+	 * Partitioner creating one partition per project found by the
+	 * mantisProjectsListStep step.
+	 *
+	 * @param projectsId
+	 * 			Ids of the projects to sync
+	 * @return the partitioner
+	 */
+	@Bean
+	@StepScope
+	public ProjectsPartitioner projectsPartitioner(
+			@Value("#{jobExecutionContext['mantis.loop.projects_to_process']}") final Set<BigInteger> projectsId) {
+
+		final ProjectsPartitioner partitioner = new ProjectsPartitioner();
+		partitioner.setProjectsId(projectsId);
+		return partitioner;
+	}
+}
@@ -52,7 +52,7 @@ public class ProjectsProcessorsConfiguration {
 	@Bean
 	@StepScope
 	public ProjectCategoryProcessor projectCategoriesProcessor(
-			@Value("#{jobExecutionContext['mantis.loop.project_id']}") final BigInteger projectId) {
+			@Value("#{stepExecutionContext['mantis.loop.project_id'] ?: jobExecutionContext['mantis.loop.project_id']}") final BigInteger projectId) {
 
 		final ProjectCategoryProcessor proc = new ProjectCategoryProcessor();
 		if (projectId != null) {
@@ -72,7 +72,7 @@ public class ProjectsProcessorsConfiguration {
 	@Bean
 	@StepScope
 	public ProjectCustomFieldProcessor projectCustomFieldProcessor(
-			@Value("#{jobExecutionContext['mantis.loop.project_id']}") final BigInteger projectId) {
+			@Value("#{stepExecutionContext['mantis.loop.project_id'] ?: jobExecutionContext['mantis.loop.project_id']}") final BigInteger projectId) {
 
 		final ProjectCustomFieldProcessor proc = new ProjectCustomFieldProcessor();
 		if (projectId != null) {
@@ -35,7 +35,6 @@ import biz.futureware.mantis.rpc.soap.client.AccountData;
 import biz.futureware.mantis.rpc.soap.client.CustomFieldDefinitionData;
 import biz.futureware.mantis.rpc.soap.client.ProjectVersionData;
 
-import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
 import com.github.jrrdev.mantisbtsync.core.common.readers.AxisAuthItemsArrayReader;
 
 /**
@@ -50,8 +49,6 @@ public class ProjectsReadersConfiguration {
 	/**
 	 * Project categories reader. Use mc_project_get_categories WS operation.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -64,15 +61,13 @@ public class ProjectsReadersConfiguration {
 	 */
 	@Bean
 	@StepScope
-	public AxisAuthItemsArrayReader<String> projectCategoriesReader(final PortalAuthManager authManager,
-			final Stub clientStub,
+	public AxisAuthItemsArrayReader<String> projectCategoriesReader(final Stub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password,
-			@Value("#{jobExecutionContext['mantis.loop.project_id']}") final BigInteger projectId) {
+			@Value("#{stepExecutionContext['mantis.loop.project_id'] ?: jobExecutionContext['mantis.loop.project_id']}") final BigInteger projectId) {
 
 		final AxisAuthItemsArrayReader<String> reader = new AxisAuthItemsArrayReader<String>();
 		reader.setTargetMethod("mc_project_get_categories");
-		reader.setAuthManager(authManager);
 		reader.setClientStub(clientStub);
 		reader.setArguments(new Object[]{userName, password, projectId});
 
@@ -82,8 +77,6 @@ public class ProjectsReadersConfiguration {
 	/**
 	 * Project custom fields reader. Use mc_project_get_custom_fields WS operation.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -96,15 +89,13 @@ public class ProjectsReadersConfiguration {
 	 */
 	@Bean
 	@StepScope
-	public AxisAuthItemsArrayReader<CustomFieldDefinitionData> projectCustomFieldsReader(final PortalAuthManager authManager,
-			final Stub clientStub,
+	public AxisAuthItemsArrayReader<CustomFieldDefinitionData> projectCustomFieldsReader(final Stub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password,
-			@Value("#{jobExecutionContext['mantis.loop.project_id']}") final BigInteger projectId) {
+			@Value("#{stepExecutionContext['mantis.loop.project_id'] ?: jobExecutionContext['mantis.loop.project_id']}") final BigInteger projectId) {
 
 		final AxisAuthItemsArrayReader<CustomFieldDefinitionData> reader = new AxisAuthItemsArrayReader<CustomFieldDefinitionData>();
 		reader.setTargetMethod("mc_project_get_custom_fields");
-		reader.setAuthManager(authManager);
 		reader.setClientStub(clientStub);
 		reader.setArguments(new Object[]{userName, password, projectId});
 
@@ -114,8 +105,6 @@ public class ProjectsReadersConfiguration {
 	/**
 	 * Project users reader. Use mc_project_get_users WS operation.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -130,16 +119,14 @@ public class ProjectsReadersConfiguration {
 	 */
 	@Bean
 	@StepScope
-	public AxisAuthItemsArrayReader<AccountData> projectUsersReader(final PortalAuthManager authManager,
-			final Stub clientStub,
+	public AxisAuthItemsArrayReader<AccountData> projectUsersReader(final Stub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password,
-			@Value("#{jobExecutionContext['mantis.loop.project_id']}") final BigInteger projectId,
+			@Value("#{stepExecutionContext['mantis.loop.project_id'] ?: jobExecutionContext['mantis.loop.project_id']}") final BigInteger projectId,
 			@Value("#{jobExecutionContext['mantis.acess_level']}") final BigInteger acessLevel) {
 
 		final AxisAuthItemsArrayReader<AccountData> reader = new AxisAuthItemsArrayReader<AccountData>();
 		reader.setTargetMethod("mc_project_get_users");
-		reader.setAuthManager(authManager);
 		reader.setClientStub(clientStub);
 		reader.setArguments(new Object[]{userName, password, projectId, acessLevel});
 
@@ -149,8 +136,6 @@ public class ProjectsReadersConfiguration {
 	/**
 	 * Project versions reader. Use mc_project_get_versions WS operation.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -163,15 +148,13 @@ public class ProjectsReadersConfiguration {
 	 */
 	@Bean
 	@StepScope
-	public AxisAuthItemsArrayReader<ProjectVersionData> projectVersionsReader(final PortalAuthManager authManager,
-			final Stub clientStub,
+	public AxisAuthItemsArrayReader<ProjectVersionData> projectVersionsReader(final Stub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password,
-			@Value("#{jobExecutionContext['mantis.loop.project_id']}") final BigInteger projectId) {
+			@Value("#{stepExecutionContext['mantis.loop.project_id'] ?: jobExecutionContext['mantis.loop.project_id']}") final BigInteger projectId) {
 
 		final AxisAuthItemsArrayReader<ProjectVersionData> reader = new AxisAuthItemsArrayReader<ProjectVersionData>();
 		reader.setTargetMethod("mc_project_get_versions");
-		reader.setAuthManager(authManager);
 		reader.setClientStub(clientStub);
 		reader.setArguments(new Object[]{userName, password, projectId});
 
@@ -30,11 +30,11 @@ import org.springframework.batch.core.listener.ExecutionContextPromotionListener
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import biz.futureware.mantis.rpc.soap.client.MantisConnectBindingStub;
 
-import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
 import com.github.jrrdev.mantisbtsync.core.jobs.projects.tasklets.MantisLoginTasklet;
 import com.github.jrrdev.mantisbtsync.core.jobs.projects.tasklets.ProjectsExtractorTasklet;
 import com.github.jrrdev.mantisbtsync.core.jobs.projects.tasklets.ProjectsListTasklet;
@@ -53,8 +53,6 @@ public class ProjectsTaskletsConfiguration {
 	/**
 	 * Build the tasklet calling mc_login to get the user_acces_level.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param userName
@@ -65,13 +63,11 @@ public class ProjectsTaskletsConfiguration {
 	 */
 	@Bean
 	@StepScope
-	public MantisLoginTasklet mantisLoginTasklet(final PortalAuthManager authManager,
-			final MantisConnectBindingStub clientStub,
+	public MantisLoginTasklet mantisLoginTasklet(final MantisConnectBindingStub clientStub,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password) {
 
 		final MantisLoginTasklet tasklet = new MantisLoginTasklet();
-		tasklet.setAuthManager(authManager);
 		tasklet.setClientStub(clientStub);
 		tasklet.setUserName(userName);
 		tasklet.setPassword(password);
@@ -83,8 +79,6 @@ public class ProjectsTaskletsConfiguration {
 	 * Build the tasklet which retrieves all subprojects related to the main
 	 * project passed as job parameter.
 	 *
-	 * @param authManager
-	 * 			The portal auth manager
 	 * @param clientStub
 	 * 			Axis client stub
 	 * @param jdbcTemplate
@@ -95,23 +89,36 @@ public class ProjectsTaskletsConfiguration {
 	 * 			MantisBT password. If anonymous access is used, should be an empty string.
 	 * @param projectId
 	 * 			The id of the project
+	 * @param treeDiscovery
+	 * 			If true, the tree of projects is retrieved with mc_projects_get_user_accessible
+	 * 			and inserted with multi-row statements
+	 * @param parallelism
+	 * 			Maximum number of mc_project_get_all_subprojects calls in flight when
+	 * 			mc_projects_get_user_accessible can't be used, 1 means sequential calls
+	 * @param mantisFetchExecutor
+	 * 			Executor used for the concurrent calls
 	 * @return the tasklet
 	 */
 	@Bean
 	@StepScope
-	public ProjectsListTasklet mantisProjectsListTasklet(final PortalAuthManager authManager,
-			final MantisConnectBindingStub clientStub, final JdbcTemplate jdbcTemplate,
+	public ProjectsListTasklet mantisProjectsListTasklet(final MantisConnectBindingStub clientStub,
+			final JdbcTemplate jdbcTemplate,
 			@Value("#{jobParameters['mantis.username']}") final String userName,
 			@Value("#{jobParameters['mantis.password']}") final String password,
-			@Value("#{jobParameters['mantis.project_id']}") final Long projectId) {
+			@Value("#{jobParameters['mantis.project_id']}") final Long projectId,
+			@Value("${mantis.projects.tree_discovery:false}") final boolean treeDiscovery,
+			@Value("${mantis.projects.fetch_parallelism:4}") final int parallelism,
+			final AsyncTaskExecutor mantisFetchExecutor) {
 
 		final ProjectsListTasklet tasklet = new ProjectsListTasklet();
-		tasklet.setAuthManager(authManager);
 		tasklet.setClientStub(clientStub);
 		tasklet.setUserName(userName);
 		tasklet.setPassword(password);
 		tasklet.setJdbcTemplate(jdbcTemplate);
 		tasklet.setProjectId(BigInteger.valueOf(projectId));
+		tasklet.setTreeDiscovery(treeDiscovery);
+		tasklet.setParallelism(parallelism);
+		tasklet.setTaskExecutor(mantisFetchExecutor);
 
 		return tasklet;
 	}
@@ -128,7 +128,7 @@ public class ProjectsWritersConfiguration {
 	@Bean
 	@StepScope
 	public CompositeItemWriter<AccountData> projectUsersWriter(final DataSource dataSource,
-			@Value("#{jobExecutionContext['mantis.loop.project_id']}") final BigInteger projectId) {
+			@Value("#{stepExecutionContext['mantis.loop.project_id'] ?: jobExecutionContext['mantis.loop.project_id']}") final BigInteger projectId) {
 
 		final JdbcBatchItemWriter<AccountData> writer1 = new JdbcBatchItemWriter<AccountData>();
 		writer1.setItemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<AccountData>());
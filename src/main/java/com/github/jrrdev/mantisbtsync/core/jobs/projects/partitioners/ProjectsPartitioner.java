@@ -0,0 +1,91 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.projects.partitioners;
+
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * Partitioner creating one partition per project to sync.
+ * Each partition gets the id of its project in the mantis.loop.project_id key
+ * of its execution context, so the steps of the projects sync can run
+ * for several projects concurrently.
+ *
+ * @author jrrdev
+ *
+ */
+public class ProjectsPartitioner implements Partitioner {
+
+	/**
+	 * Key of the project id in the execution context of a partition.
+	 */
+	public static final String PROJECT_ID_KEY = "mantis.loop.project_id";
+
+	/**
+	 * Ids of the projects to sync.
+	 */
+	private Collection<BigInteger> projectsId;
+
+	/**
+	 * {@inheritDoc}
+	 * The grid size is ignored, there is always one partition per project.
+	 *
+	 * @see org.springframework.batch.core.partition.support.Partitioner#partition(int)
+	 */
+	@Override
+	public Map<String, ExecutionContext> partition(final int gridSize) {
+		final Map<String, ExecutionContext> partitions = new LinkedHashMap<String, ExecutionContext>();
+
+		if (projectsId != null) {
+			// Sorted copy, the list may be shared through the job execution context
+			for (final BigInteger id : new TreeSet<BigInteger>(projectsId)) {
+				final ExecutionContext context = new ExecutionContext();
+				context.put(PROJECT_ID_KEY, id);
+				partitions.put("project" + id, context);
+			}
+		}
+
+		return partitions;
+	}
+
+	/**
+	 * @return the projectsId
+	 */
+	public Collection<BigInteger> getProjectsId() {
+		return projectsId;
+	}
+
+	/**
+	 * @param projectsId the projectsId to set
+	 */
+	public void setProjectsId(final Collection<BigInteger> projectsId) {
+		this.projectsId = projectsId;
+	}
+}
@@ -23,7 +23,6 @@
  */
 package com.github.jrrdev.mantisbtsync.core.jobs.projects.tasklets;
 
-import org.apache.axis.transport.http.HTTPConstants;
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.step.tasklet.Tasklet;
@@ -33,8 +32,6 @@ import org.springframework.util.Assert;
 import biz.futureware.mantis.rpc.soap.client.MantisConnectBindingStub;
 import biz.futureware.mantis.rpc.soap.client.UserData;
 
-import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
-
 /**
  * Tasklet calling mc_login to get the user_acces_level
  * (needed to obtain the users list).
@@ -44,11 +41,6 @@ import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
  */
 public class MantisLoginTasklet implements Tasklet {
 
-	/**
-	 * Auth manager.
-	 */
-	private PortalAuthManager authManager;
-
 	/**
 	 * Apache Axis stub.
 	 */
@@ -64,20 +56,6 @@ public class MantisLoginTasklet implements Tasklet {
 	 */
 	private String password;
 
-	/**
-	 * @return the authManager
-	 */
-	public PortalAuthManager getAuthManager() {
-		return authManager;
-	}
-
-	/**
-	 * @param authManager the authManager to set
-	 */
-	public void setAuthManager(final PortalAuthManager authManager) {
-		this.authManager = authManager;
-	}
-
 	/**
 	 * @return the clientStub
 	 */
@@ -130,12 +108,6 @@ public class MantisLoginTasklet implements Tasklet {
 
 		Assert.notNull(clientStub);
 
-		// If auth manager is set, try to get the cookie
-		if (authManager != null && authManager.getAuthCookie() != null) {
-			clientStub._setProperty(HTTPConstants.HEADER_COOKIE,
-					authManager.getAuthCookie());
-		}
-
 		final UserData data = clientStub.mc_login(userName, password);
 		if (data != null && data.getAccess_level() != null) {
 			chunkContext.getStepContext().getStepExecution().getExecutionContext()
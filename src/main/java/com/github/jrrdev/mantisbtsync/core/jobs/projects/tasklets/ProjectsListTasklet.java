@@ -25,20 +25,29 @@ package com.github.jrrdev.mantisbtsync.core.jobs.projects.tasklets;
 
 import java.math.BigInteger;
 import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
-import org.apache.axis.transport.http.HTTPConstants;
+import org.apache.axis.AxisFault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.util.Assert;
 
 import biz.futureware.mantis.rpc.soap.client.MantisConnectBindingStub;
+import biz.futureware.mantis.rpc.soap.client.ProjectData;
 
-import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
+import com.github.jrrdev.mantisbtsync.core.common.concurrent.FetchWindow;
 
 /**
  * Tasklet to that retrieved all subprojects related to the main
@@ -48,12 +57,27 @@ import com.github.jrrdev.mantisbtsync.core.common.auth.PortalAuthManager;
  * In addition, each subproject is added is added to the list of projects to sync
  * that is stored in the execution context (mantis.loop.projects_to_process).
  *
+ * If the tree discovery is enabled, the whole tree of projects accessible by the user
+ * is retrieved with a single mc_projects_get_user_accessible call. If this operation
+ * isn't available or doesn't return the main project, the subprojects are retrieved
+ * level by level, the mc_project_get_all_subprojects calls of a level being sent concurrently.
+ * The projects and the links are then inserted with multi-row statements.
  *
  * @author jrrdev
  *
  */
 public class ProjectsListTasklet implements Tasklet {
 
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(ProjectsListTasklet.class);
+
+	/**
+	 * Maximal number of rows in a multi-row insert.
+	 */
+	private static final int MAX_ROWS_BY_STATEMENT = 500;
+
 	/**
 	 * SQL request to merge data into the table mantis_project_table.
 	 */
@@ -71,9 +95,20 @@ public class ProjectsListTasklet implements Tasklet {
 					+ " ON DUPLICATE KEY UPDATE child_id = child_id";
 
 	/**
-	 * Auth manager.
+	 * SQL request to merge several rows into the table mantis_project_table.
 	 */
-	private PortalAuthManager authManager;
+	private static final String MERGE_PROJECT_TABLE_ROWS =
+			"INSERT INTO mantis_project_table (id)\n"
+					+ " VALUES %s\n"
+					+ " ON DUPLICATE KEY UPDATE name = name";
+
+	/**
+	 * SQL request to merge several rows into the table mantis_project_hierarchy_table.
+	 */
+	private static final String MERGE_PROJECT__HIERARCHY_TABLE_ROWS =
+			"INSERT INTO mantis_project_hierarchy_table (parent_id, child_id)\n"
+					+ " VALUES %s\n"
+					+ " ON DUPLICATE KEY UPDATE child_id = child_id";
 
 	/**
 	 * Apache Axis stub.
@@ -101,18 +136,20 @@ public class ProjectsListTasklet implements Tasklet {
 	private JdbcTemplate jdbcTemplate;
 
 	/**
-	 * @return the authManager
+	 * Indicates if the tree of projects is retrieved in one call.
 	 */
-	public PortalAuthManager getAuthManager() {
-		return authManager;
-	}
+	private boolean treeDiscovery = false;
 
 	/**
-	 * @param authManager the authManager to set
+	 * Maximum number of mc_project_get_all_subprojects calls in flight
+	 * when the tree is retrieved level by level.
 	 */
-	public void setAuthManager(final PortalAuthManager authManager) {
-		this.authManager = authManager;
-	}
+	private int parallelism = 1;
+
+	/**
+	 * Executor used for the concurrent calls.
+	 */
+	private AsyncTaskExecutor taskExecutor;
 
 	/**
 	 * @return the clientStub
@@ -184,6 +221,48 @@ public class ProjectsListTasklet implements Tasklet {
 		this.jdbcTemplate = jdbcTemplate;
 	}
 
+	/**
+	 * @return the treeDiscovery
+	 */
+	public boolean isTreeDiscovery() {
+		return treeDiscovery;
+	}
+
+	/**
+	 * @param treeDiscovery the treeDiscovery to set
+	 */
+	public void setTreeDiscovery(final boolean treeDiscovery) {
+		this.treeDiscovery = treeDiscovery;
+	}
+
+	/**
+	 * @return the parallelism
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * @param parallelism the parallelism to set
+	 */
+	public void setParallelism(final int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * @return the taskExecutor
+	 */
+	public AsyncTaskExecutor getTaskExecutor() {
+		return taskExecutor;
+	}
+
+	/**
+	 * @param taskExecutor the taskExecutor to set
+	 */
+	public void setTaskExecutor(final AsyncTaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see org.springframework.batch.core.step.tasklet.Tasklet#execute(org.springframework.batch.core.StepContribution, org.springframework.batch.core.scope.context.ChunkContext)
@@ -194,16 +273,23 @@ public class ProjectsListTasklet implements Tasklet {
 
 		Assert.notNull(clientStub);
 
-		// Si on a renseign un authManager, on cherche  rcuprer le cookie
-		if (authManager != null && authManager.getAuthCookie() != null) {
-			clientStub._setProperty(HTTPConstants.HEADER_COOKIE,
-					authManager.getAuthCookie());
-		}
-
 		final Set<BigInteger> projectsId = new HashSet<BigInteger>();
 		projectsId.add(projectId);
-		insertIntoDb(projectId, null);
-		searchAndInsertSubProject(projectId, projectsId);
+
+		if (treeDiscovery) {
+			final List<BigInteger[]> links = new ArrayList<BigInteger[]>();
+			final ProjectData project = findAccessibleProject();
+			if (project != null) {
+				addSubProjects(project, new ArrayList<BigInteger>(), projectsId, links);
+			} else {
+				searchSubProjectsByLevel(projectsId, links);
+			}
+			insertAllIntoDb(projectsId, links);
+
+		} else {
+			insertIntoDb(projectId, null);
+			searchAndInsertSubProject(projectId, projectsId);
+		}
 
 		chunkContext.getStepContext().getStepExecution().getExecutionContext()
 		.put("mantis.loop.projects_to_process", projectsId);
@@ -232,4 +318,222 @@ public class ProjectsListTasklet implements Tasklet {
 		}
 	}
 
+	/**
+	 * Search the main project in the tree returned by mc_projects_get_user_accessible.
+	 *
+	 * @return the main project with its subprojects, null if the operation isn't available
+	 * 			or if the main project isn't in the tree
+	 * @throws RemoteException
+	 * 			If the WS call fails for another reason
+	 */
+	private ProjectData findAccessibleProject() throws RemoteException {
+		final ProjectData[] projects;
+		try {
+			projects = clientStub.mc_projects_get_user_accessible(userName, password);
+		} catch (final AxisFault e) {
+			LOGGER.info("mc_projects_get_user_accessible failed, the subprojects are retrieved level by level : "
+					+ e.getFaultString());
+			return null;
+		}
+
+		final ProjectData project = findProject(projects);
+		if (project == null) {
+			LOGGER.info("Project " + projectId + " not found in mc_projects_get_user_accessible,"
+					+ " the subprojects are retrieved level by level");
+		}
+		return project;
+	}
+
+	/**
+	 * Search the main project in a tree of projects.
+	 *
+	 * @param projects
+	 * 			The projects of a level of the tree
+	 * @return the main project, null if it isn't in the tree
+	 */
+	private ProjectData findProject(final ProjectData[] projects) {
+		if (projects == null) {
+			return null;
+		}
+
+		for (final ProjectData project : projects) {
+			if (project == null) {
+				continue;
+			}
+			if (projectId.equals(project.getId())) {
+				return project;
+			}
+
+			final ProjectData found = findProject(project.getSubprojects());
+			if (found != null) {
+				return found;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Add the subprojects of a project of the tree, linked to all their ancestors
+	 * up to the main project, as mc_project_get_all_subprojects returns all the
+	 * subprojects of a project and not only its children.
+	 *
+	 * @param project
+	 * 			The project
+	 * @param ancestors
+	 * 			Ids of the ancestors of the project, from the main project
+	 * @param projectsId
+	 * 			Ids of the projects found
+	 * @param links
+	 * 			Links found, as parent and child ids
+	 */
+	private void addSubProjects(final ProjectData project, final List<BigInteger> ancestors,
+			final Set<BigInteger> projectsId, final List<BigInteger[]> links) {
+
+		if (project.getSubprojects() == null) {
+			return;
+		}
+
+		ancestors.add(project.getId());
+		for (final ProjectData subProject : project.getSubprojects()) {
+			if (subProject == null || ancestors.contains(subProject.getId())) {
+				continue;
+			}
+
+			projectsId.add(subProject.getId());
+			for (final BigInteger ancestor : ancestors) {
+				links.add(new BigInteger[] {ancestor, subProject.getId()});
+			}
+			addSubProjects(subProject, ancestors, projectsId, links);
+		}
+		ancestors.remove(ancestors.size() - 1);
+	}
+
+	/**
+	 * Retrieve the subprojects level by level with mc_project_get_all_subprojects.
+	 * Each project is requested once, and the calls of a level are sent concurrently
+	 * if a parallelism greater than 1 is set.
+	 *
+	 * @param projectsId
+	 * 			Ids of the projects found
+	 * @param links
+	 * 			Links found, as parent and child ids
+	 * @throws Exception
+	 * 			If a WS call fails
+	 */
+	private void searchSubProjectsByLevel(final Set<BigInteger> projectsId, final List<BigInteger[]> links)
+			throws Exception {
+
+		final Set<BigInteger> visited = new HashSet<BigInteger>();
+		List<BigInteger> level = new ArrayList<BigInteger>();
+		level.add(projectId);
+
+		FetchWindow<String[]> window = null;
+		if (parallelism > 1) {
+			Assert.notNull(taskExecutor);
+			window = new FetchWindow<String[]>(taskExecutor, parallelism);
+		}
+
+		try {
+			while (!level.isEmpty()) {
+				visited.addAll(level);
+				final Set<BigInteger> nextLevel = new LinkedHashSet<BigInteger>();
+
+				int submitted = 0;
+				for (int i = 0; i < level.size(); i++) {
+					final String[] idStrList;
+					if (window == null) {
+						idStrList = clientStub.mc_project_get_all_subprojects(userName, password, level.get(i));
+					} else {
+						// The calls are returned in the order they were sent
+						while (!window.isFull() && submitted < level.size()) {
+							final BigInteger parentId = level.get(submitted);
+							window.submit(new Callable<String[]>() {
+
+								@Override
+								public String[] call() throws Exception {
+									return clientStub.mc_project_get_all_subprojects(userName, password, parentId);
+								}
+							});
+							submitted++;
+						}
+						idStrList = window.take();
+					}
+
+					if (idStrList != null) {
+						for (final String idStr : idStrList) {
+							final BigInteger subProjectId = BigInteger.valueOf(Long.parseLong(idStr));
+							projectsId.add(subProjectId);
+							links.add(new BigInteger[] {level.get(i), subProjectId});
+							if (!visited.contains(subProjectId)) {
+								nextLevel.add(subProjectId);
+							}
+						}
+					}
+				}
+
+				level = new ArrayList<BigInteger>(nextLevel);
+			}
+
+		} finally {
+			if (window != null) {
+				window.cancelAll();
+			}
+		}
+	}
+
+	/**
+	 * Insert the projects and the links with multi-row statements.
+	 *
+	 * @param projectsId
+	 * 			Ids of the projects
+	 * @param links
+	 * 			Links, as parent and child ids
+	 */
+	private void insertAllIntoDb(final Set<BigInteger> projectsId, final List<BigInteger[]> links) {
+		final List<Object[]> projectRows = new ArrayList<Object[]>(projectsId.size());
+		for (final BigInteger id : projectsId) {
+			projectRows.add(new Object[] {id});
+		}
+
+		final List<Object[]> linkRows = new ArrayList<Object[]>(links.size());
+		final Set<List<BigInteger>> distinctLinks = new HashSet<List<BigInteger>>();
+		for (final BigInteger[] link : links) {
+			if (distinctLinks.add(Arrays.asList(link))) {
+				linkRows.add(link);
+			}
+		}
+
+		insertRows(MERGE_PROJECT_TABLE_ROWS, "(?)", projectRows);
+		insertRows(MERGE_PROJECT__HIERARCHY_TABLE_ROWS, "(?, ?)", linkRows);
+	}
+
+	/**
+	 * Run a multi-row merge statement.
+	 *
+	 * @param mergeSql
+	 * 			The merge statement, with a %s in place of the rows
+	 * @param rowPlaceholders
+	 * 			Placeholders of a row
+	 * @param rows
+	 * 			The values of the rows
+	 */
+	private void insertRows(final String mergeSql, final String rowPlaceholders, final List<Object[]> rows) {
+		for (int i = 0; i < rows.size(); i += MAX_ROWS_BY_STATEMENT) {
+			final List<Object[]> part = rows.subList(i, Math.min(i + MAX_ROWS_BY_STATEMENT, rows.size()));
+			final StringBuilder values = new StringBuilder();
+			final List<Object> args = new ArrayList<Object>();
+			for (final Object[] row : part) {
+				if (values.length() > 0) {
+					values.append(", ");
+				}
+				values.append(rowPlaceholders);
+				for (final Object value : row) {
+					args.add(value);
+				}
+			}
+
+			jdbcTemplate.update(String.format(mergeSql, values), args.toArray());
+		}
+	}
+
 }
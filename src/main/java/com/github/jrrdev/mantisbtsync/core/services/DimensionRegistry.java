@@ -0,0 +1,369 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.services;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.jrrdev.mantisbtsync.core.common.collections.LongArrayList;
+import com.github.jrrdev.mantisbtsync.core.common.concurrent.ConcurrentLongHashSet;
+
+/**
+ * Registry of the keys present in the dimension tables referenced by the issues :
+ * projects, users, enumerations, custom fields and their links to the projects.
+ *
+ * The keys of each table are kept in a {@link ConcurrentLongHashSet}, so checking
+ * that a row exists costs no SQL query once the key is registered.
+ * The keys are :
+ * 	- the id for the tables with id and name columns
+ * 	- the id and the hash of the name for the projects, so a renamed project
+ * 	  isn't considered as existing
+ * 	- the project id and the linked id for the link tables
+ *
+ * Ids that can't be packed in a key (not positive or above 2^31 - 1) are
+ * never registered.
+ *
+ * The keys added inside a transaction are only seen by that transaction until
+ * it commits, and are dropped if it rolls back. Otherwise the rows of a chunk
+ * rolled back would still be considered as existing by the next chunks.
+ *
+ * @author jrrdev
+ *
+ */
+public class DimensionRegistry {
+
+	/**
+	 * Keys of each table, by table name.
+	 */
+	private final Map<String, ConcurrentLongHashSet> keys = new ConcurrentHashMap<String, ConcurrentLongHashSet>();
+
+	/**
+	 * Check if a key is registered for a table.
+	 *
+	 * @param table
+	 * 			Table name
+	 * @param key
+	 * 			The key, 0 if there is no key
+	 * @return true if the key is registered
+	 */
+	public boolean contains(final String table, final long key) {
+		if (key == 0) {
+			return false;
+		}
+
+		final ConcurrentLongHashSet set = keys.get(table);
+		if (set != null && set.contains(key)) {
+			return true;
+		}
+
+		final PendingKeys pending = (PendingKeys) TransactionSynchronizationManager.getResource(this);
+		return pending != null && pending.contains(table, key);
+	}
+
+	/**
+	 * Register a key for a table.
+	 * Inside a transaction, the key is registered when the transaction commits.
+	 *
+	 * @param table
+	 * 			Table name
+	 * @param key
+	 * 			The key, nothing is done if 0
+	 */
+	public void add(final String table, final long key) {
+		if (key == 0) {
+			return;
+		}
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			getPendingKeys().add(table, key);
+		} else {
+			getSet(table, 0).add(key);
+		}
+	}
+
+	/**
+	 * Load all the keys of a table with id and name columns.
+	 *
+	 * @param jdbcTemplate
+	 * 			JDBC template
+	 * @param table
+	 * 			Table name
+	 */
+	public void loadIds(final JdbcTemplate jdbcTemplate, final String table) {
+		final ConcurrentLongHashSet set = getSet(table, count(jdbcTemplate, table));
+		jdbcTemplate.query("SELECT id FROM " + table, new RowCallbackHandler() {
+
+			@Override
+			public void processRow(final ResultSet rs) throws SQLException {
+				add(set, getIdKey(rs.getLong(1)));
+			}
+		});
+	}
+
+	/**
+	 * Load all the keys of the projects table.
+	 *
+	 * @param jdbcTemplate
+	 * 			JDBC template
+	 * @param table
+	 * 			Table name
+	 */
+	public void loadProjects(final JdbcTemplate jdbcTemplate, final String table) {
+		final ConcurrentLongHashSet set = getSet(table, count(jdbcTemplate, table));
+		jdbcTemplate.query("SELECT id, name FROM " + table, new RowCallbackHandler() {
+
+			@Override
+			public void processRow(final ResultSet rs) throws SQLException {
+				add(set, getProjectKey(rs.getLong(1), rs.getString(2)));
+			}
+		});
+	}
+
+	/**
+	 * Load all the keys of a table linking the projects to another table.
+	 *
+	 * @param jdbcTemplate
+	 * 			JDBC template
+	 * @param table
+	 * 			Table name
+	 * @param column
+	 * 			Name of the column of the linked id
+	 */
+	public void loadLinks(final JdbcTemplate jdbcTemplate, final String table, final String column) {
+		final ConcurrentLongHashSet set = getSet(table, count(jdbcTemplate, table));
+		jdbcTemplate.query("SELECT project_id, " + column + " FROM " + table, new RowCallbackHandler() {
+
+			@Override
+			public void processRow(final ResultSet rs) throws SQLException {
+				add(set, getLinkKey(rs.getLong(1), rs.getLong(2)));
+			}
+		});
+	}
+
+	/**
+	 * Remove all the registered keys.
+	 */
+	public void clear() {
+		keys.clear();
+	}
+
+	/**
+	 * Key of an id.
+	 *
+	 * @param id
+	 * 			The id
+	 * @return the key, 0 if the id can't be registered
+	 */
+	public static long getIdKey(final long id) {
+		if (!isPackable(id)) {
+			return 0;
+		}
+		return id;
+	}
+
+	/**
+	 * Key of a project, made of its id and the hash of its name.
+	 *
+	 * @param id
+	 * 			The id of the project
+	 * @param name
+	 * 			The name of the project
+	 * @return the key, 0 if the id can't be registered
+	 */
+	public static long getProjectKey(final long id, final String name) {
+		if (!isPackable(id)) {
+			return 0;
+		}
+		final int hash = name == null ? 0 : name.hashCode();
+		return id << 32 | hash & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * Key of the link between a project and an other id.
+	 *
+	 * @param projectId
+	 * 			The project id
+	 * @param id
+	 * 			The linked id
+	 * @return the key, 0 if one of the ids can't be registered
+	 */
+	public static long getLinkKey(final long projectId, final long id) {
+		if (!isPackable(projectId) || !isPackable(id)) {
+			return 0;
+		}
+		return projectId << 32 | id;
+	}
+
+	/**
+	 * Check that an id can be packed in a key.
+	 *
+	 * @param id
+	 * 			The id
+	 * @return true if the id is between 1 and 2^31 - 1
+	 */
+	private static boolean isPackable(final long id) {
+		return id > 0 && id <= Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Add a key to a set, if there is a key.
+	 *
+	 * @param set
+	 * 			The set
+	 * @param key
+	 * 			The key
+	 */
+	private static void add(final ConcurrentLongHashSet set, final long key) {
+		if (key != 0) {
+			set.add(key);
+		}
+	}
+
+	/**
+	 * Get the keys added by the current transaction, bound to the transaction
+	 * on the first call.
+	 *
+	 * @return the pending keys
+	 */
+	private PendingKeys getPendingKeys() {
+		PendingKeys pending = (PendingKeys) TransactionSynchronizationManager.getResource(this);
+		if (pending == null) {
+			final PendingKeys newPending = new PendingKeys();
+			TransactionSynchronizationManager.bindResource(this, newPending);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+				@Override
+				public void afterCompletion(final int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(DimensionRegistry.this);
+					if (status == TransactionSynchronization.STATUS_COMMITTED) {
+						for (final Map.Entry<String, LongArrayList> entry : newPending.keys.entrySet()) {
+							final LongArrayList tableKeys = entry.getValue();
+							final ConcurrentLongHashSet set = getSet(entry.getKey(), 0);
+							for (int i = 0; i < tableKeys.size(); i++) {
+								set.add(tableKeys.get(i));
+							}
+						}
+					}
+				}
+			});
+			pending = newPending;
+		}
+		return pending;
+	}
+
+	/**
+	 * Get the set of a table, created if needed.
+	 *
+	 * @param table
+	 * 			Table name
+	 * @param expectedSize
+	 * 			Expected number of keys, used if the set is created
+	 * @return the set
+	 */
+	private ConcurrentLongHashSet getSet(final String table, final int expectedSize) {
+		ConcurrentLongHashSet set = keys.get(table);
+		if (set == null) {
+			final ConcurrentLongHashSet newSet = new ConcurrentLongHashSet(expectedSize);
+			set = keys.putIfAbsent(table, newSet);
+			if (set == null) {
+				set = newSet;
+			}
+		}
+		return set;
+	}
+
+	/**
+	 * Count the rows of a table.
+	 *
+	 * @param jdbcTemplate
+	 * 			JDBC template
+	 * @param table
+	 * 			Table name
+	 * @return the number of rows
+	 */
+	private static int count(final JdbcTemplate jdbcTemplate, final String table) {
+		final Integer count = jdbcTemplate.queryForObject("SELECT count(1) FROM " + table, Integer.class);
+		return count == null ? 0 : count;
+	}
+
+	/**
+	 * Keys added by a transaction not committed yet.
+	 * Only used by the thread of the transaction.
+	 */
+	private static class PendingKeys {
+
+		/**
+		 * Keys of each table, by table name, in the order they were added.
+		 */
+		private final Map<String, LongArrayList> keys = new HashMap<String, LongArrayList>();
+
+		/**
+		 * Keys of each table, by table name, for the lookups.
+		 */
+		private final Map<String, ConcurrentLongHashSet> lookup = new HashMap<String, ConcurrentLongHashSet>();
+
+		/**
+		 * Add a key.
+		 *
+		 * @param table
+		 * 			Table name
+		 * @param key
+		 * 			The key
+		 */
+		public void add(final String table, final long key) {
+			ConcurrentLongHashSet tableLookup = lookup.get(table);
+			if (tableLookup == null) {
+				tableLookup = new ConcurrentLongHashSet();
+				lookup.put(table, tableLookup);
+				keys.put(table, new LongArrayList());
+			}
+			if (tableLookup.add(key)) {
+				keys.get(table).add(key);
+			}
+		}
+
+		/**
+		 * Check if a key was added.
+		 *
+		 * @param table
+		 * 			Table name
+		 * @param key
+		 * 			The key
+		 * @return true if the key was added
+		 */
+		public boolean contains(final String table, final long key) {
+			final ConcurrentLongHashSet tableLookup = lookup.get(table);
+			return tableLookup != null && tableLookup.contains(key);
+		}
+	}
+}
@@ -0,0 +1,342 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.services;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+import com.github.jrrdev.mantisbtsync.core.common.collections.LongArrayList;
+
+/**
+ * Computation of the number of issues by project, handler and status
+ * at several dates in a single pass over the issues and their history.
+ *
+ * The issues are passed one by one with their changes of handler and status
+ * in chronological order. The handler and status of an issue at a date are
+ * the old values of the first changes after the date, or the current values
+ * if there is no change after the date. Only the counts are kept in memory,
+ * their number is bounded by the number of dates  projects  handlers  status.
+ *
+ * Not thread-safe.
+ *
+ * @author jrrdev
+ *
+ */
+public class HandlersStatSweep {
+
+	/**
+	 * Name of the field of the handler in the history.
+	 */
+	public static final String HANDLER_FIELD = "handler_id";
+
+	/**
+	 * Name of the field of the status in the history.
+	 */
+	public static final String STATUS_FIELD = "status";
+
+	/**
+	 * Computation dates, in milliseconds and in ascending order.
+	 */
+	private final long[] dates;
+
+	/**
+	 * Number of issues by project, handler and status, for each date.
+	 */
+	private final List<Map<Key, int[]>> counts;
+
+	/**
+	 * True if an issue is being replayed.
+	 */
+	private boolean inIssue;
+
+	/**
+	 * Project of the current issue.
+	 */
+	private long projectId;
+
+	/**
+	 * Submission date of the current issue, in milliseconds.
+	 */
+	private long dateSubmitted;
+
+	/**
+	 * Current handler of the current issue.
+	 */
+	private Long handlerId;
+
+	/**
+	 * Current status of the current issue.
+	 */
+	private Long statusId;
+
+	/**
+	 * Dates of the changes of handler of the current issue.
+	 */
+	private final LongArrayList handlerDates = new LongArrayList();
+
+	/**
+	 * Handlers before the changes of handler of the current issue.
+	 */
+	private final List<Long> handlerValues = new ArrayList<Long>();
+
+	/**
+	 * Dates of the changes of status of the current issue.
+	 */
+	private final LongArrayList statusDates = new LongArrayList();
+
+	/**
+	 * Status before the changes of status of the current issue.
+	 */
+	private final List<Long> statusValues = new ArrayList<Long>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param dates
+	 * 			Computation dates, in milliseconds and in ascending order
+	 */
+	public HandlersStatSweep(final long[] dates) {
+		for (int i = 1; i < dates.length; i++) {
+			Assert.isTrue(dates[i - 1] < dates[i], "Computation dates must be in ascending order");
+		}
+
+		this.dates = dates.clone();
+		this.counts = new ArrayList<Map<Key, int[]>>(dates.length);
+		for (int i = 0; i < dates.length; i++) {
+			counts.add(new HashMap<Key, int[]>());
+		}
+	}
+
+	/**
+	 * Start the replay of an issue. The previous issue is counted.
+	 *
+	 * @param projectId
+	 * 			Project of the issue
+	 * @param dateSubmitted
+	 * 			Submission date of the issue, in milliseconds
+	 * @param handlerId
+	 * 			Current handler of the issue, may be null
+	 * @param statusId
+	 * 			Current status of the issue, may be null
+	 */
+	public void startIssue(final long projectId, final long dateSubmitted, final Long handlerId,
+			final Long statusId) {
+		endIssue();
+
+		inIssue = true;
+		this.projectId = projectId;
+		this.dateSubmitted = dateSubmitted;
+		this.handlerId = normalize(handlerId);
+		this.statusId = normalize(statusId);
+	}
+
+	/**
+	 * Add a change of the current issue. The changes must be added in chronological order.
+	 * The changes of other fields than the handler and the status are ignored.
+	 *
+	 * @param fieldName
+	 * 			Name of the changed field
+	 * @param oldValue
+	 * 			Value before the change, as stored in the history
+	 * @param dateModified
+	 * 			Date of the change, in milliseconds
+	 */
+	public void addChange(final String fieldName, final String oldValue, final long dateModified) {
+		Assert.isTrue(inIssue, "No issue started");
+
+		if (HANDLER_FIELD.equals(fieldName)) {
+			handlerDates.add(dateModified);
+			handlerValues.add(parseId(oldValue));
+		} else if (STATUS_FIELD.equals(fieldName)) {
+			statusDates.add(dateModified);
+			statusValues.add(parseId(oldValue));
+		}
+	}
+
+	/**
+	 * Count the current issue at the dates after its submission.
+	 */
+	public void endIssue() {
+		if (!inIssue) {
+			return;
+		}
+
+		int handlerIdx = 0;
+		int statusIdx = 0;
+		for (int i = 0; i < dates.length; i++) {
+			final long date = dates[i];
+			if (date < dateSubmitted) {
+				continue;
+			}
+
+			// First changes after the date
+			while (handlerIdx < handlerDates.size() && handlerDates.get(handlerIdx) <= date) {
+				handlerIdx++;
+			}
+			while (statusIdx < statusDates.size() && statusDates.get(statusIdx) <= date) {
+				statusIdx++;
+			}
+
+			final Long handler = handlerIdx < handlerDates.size() ? handlerValues.get(handlerIdx) : handlerId;
+			final Long status = statusIdx < statusDates.size() ? statusValues.get(statusIdx) : statusId;
+
+			final Key key = new Key(projectId, handler, status);
+			final int[] count = counts.get(i).get(key);
+			if (count == null) {
+				counts.get(i).put(key, new int[] {1});
+			} else {
+				count[0]++;
+			}
+		}
+
+		inIssue = false;
+		handlerDates.clear();
+		handlerValues.clear();
+		statusDates.clear();
+		statusValues.clear();
+	}
+
+	/**
+	 * Return the rows of handlers_stats table: compute date, project id, handler id,
+	 * status id and number of issues. The current issue is counted.
+	 *
+	 * @return the rows
+	 */
+	public List<Object[]> getRows() {
+		endIssue();
+
+		final List<Object[]> rows = new ArrayList<Object[]>();
+		for (int i = 0; i < dates.length; i++) {
+			final Timestamp date = new Timestamp(dates[i]);
+			for (final Map.Entry<Key, int[]> entry : counts.get(i).entrySet()) {
+				final Key key = entry.getKey();
+				rows.add(new Object[] {date, key.projectId, key.handlerId, key.statusId, entry.getValue()[0]});
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * Parse an id stored in the history.
+	 *
+	 * @param value
+	 * 			The value
+	 * @return the id, null if the value is empty or 0
+	 */
+	private static Long parseId(final String value) {
+		if (value == null || value.trim().isEmpty()) {
+			return null;
+		}
+
+		try {
+			return normalize(Long.valueOf(value.trim()));
+		} catch (final NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Replace the id 0, used by MantisBT for none, by null.
+	 *
+	 * @param id
+	 * 			The id
+	 * @return the id, null if 0
+	 */
+	private static Long normalize(final Long id) {
+		return id == null || id.longValue() == 0 ? null : id;
+	}
+
+	/**
+	 * Key of a count.
+	 */
+	private static final class Key {
+
+		/**
+		 * Project id.
+		 */
+		private final long projectId;
+
+		/**
+		 * Handler id, may be null.
+		 */
+		private final Long handlerId;
+
+		/**
+		 * Status id, may be null.
+		 */
+		private final Long statusId;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param projectId
+		 * 			Project id
+		 * @param handlerId
+		 * 			Handler id, may be null
+		 * @param statusId
+		 * 			Status id, may be null
+		 */
+		Key(final long projectId, final Long handlerId, final Long statusId) {
+			this.projectId = projectId;
+			this.handlerId = handlerId;
+			this.statusId = statusId;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			int result = (int) (projectId ^ (projectId >>> 32));
+			result = 31 * result + (handlerId == null ? 0 : handlerId.hashCode());
+			result = 31 * result + (statusId == null ? 0 : statusId.hashCode());
+			return result;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+
+			final Key other = (Key) obj;
+			return projectId == other.projectId
+					&& (handlerId == null ? other.handlerId == null : handlerId.equals(other.handlerId))
+					&& (statusId == null ? other.statusId == null : statusId.equals(other.statusId));
+		}
+	}
+}
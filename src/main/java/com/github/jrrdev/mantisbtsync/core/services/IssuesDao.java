@@ -23,18 +23,22 @@
  */
 package com.github.jrrdev.mantisbtsync.core.services;
 
-import java.math.BigInteger;
 import java.util.Calendar;
 import java.util.List;
+import java.util.Map;
 
 import biz.futureware.mantis.rpc.soap.client.AccountData;
 import biz.futureware.mantis.rpc.soap.client.ObjectRef;
 
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugDependencies;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugHistoryMark;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.SyncWatermark;
+
 /**
  * DAO service for issues related operations.
  * Those operations are mainly insertions of dependencies
- * for Foreign Keys resolutions. Those operations should be
- * cached to avoid having a large amount of upsert in the batch.
+ * for Foreign Keys resolutions. The keys already present in the DB
+ * should be kept in memory to avoid having a large amount of upsert in the batch.
  *
  * @author jrrdev
  *
@@ -58,7 +62,7 @@ public interface IssuesDao {
 	 * @param parentProjectId
 	 * 			The project id
 	 */
-	public void insertUserIfNotExists(final AccountData item, final BigInteger parentProjectId);
+	public void insertUserIfNotExists(final AccountData item, final Long parentProjectId);
 
 	/**
 	 * Add a priority in the enumeration if it doesn't exist in the DB.
@@ -103,7 +107,17 @@ public interface IssuesDao {
 	 * @param parentProjectId
 	 * 			The project id
 	 */
-	public void insertCustomFieldIfNotExists(final ObjectRef item, final BigInteger parentProjectId);
+	public void insertCustomFieldIfNotExists(final ObjectRef item, final Long parentProjectId);
+
+	/**
+	 * Insert all the given dependencies that don't exist in the DB, with one
+	 * lookup and at most one multi-row insert by table.
+	 * Existing projects are renamed if their name changed.
+	 *
+	 * @param dependencies
+	 * 			The dependencies of a chunk of issues
+	 */
+	public void insertDependencies(final BugDependencies dependencies);
 
 	/**
 	 * Get the issues still open in the DB and that wasn't synced since
@@ -111,9 +125,85 @@ public interface IssuesDao {
 	 *
 	 * @param jobStartTime
 	 * 			Time used for filtering
-	 * @return the list of issues ids
+	 * @param projectId
+	 * 			Id of the project, its subprojects are included
+	 * @return the issues ids, sorted
+	 */
+	public long[] getNotClosedIssuesId(Calendar jobStartTime, long projectId);
+
+	/**
+	 * Get a page of the issues of a single project still open in the DB and that
+	 * wasn't synced since the given time, whose id is greater than the given one.
+	 * Successive pages are read by passing the last id of the previous page.
+	 * The subprojects aren't included, see {@link #getProjectAndSubProjectsId(long)}.
+	 *
+	 * @param jobStartTime
+	 * 			Time used for filtering
+	 * @param projectId
+	 * 			Id of the project
+	 * @param afterId
+	 * 			The returned ids are greater than this one
+	 * @param limit
+	 * 			Maximal number of ids returned
+	 * @return the issues ids, sorted
 	 */
-	public List<BigInteger> getNotClosedIssuesId(Calendar jobStartTime, BigInteger projectId);
+	public long[] getNotClosedIssuesId(Calendar jobStartTime, long projectId, long afterId, int limit);
+
+	/**
+	 * Get the id of a project followed by the ids of its subprojects.
+	 *
+	 * @param projectId
+	 * 			Id of the project
+	 * @return the projects ids
+	 */
+	public long[] getProjectAndSubProjectsId(long projectId);
+
+	/**
+	 * Get the last update date stored in the DB of the given issues.
+	 *
+	 * @param bugIds
+	 * 			Ids of the issues
+	 * @return the last update dates by issue id, the issues missing in the DB are absent
+	 */
+	public Map<Long, java.sql.Timestamp> getIssuesLastUpdated(long[] bugIds);
+
+	/**
+	 * Get the high-water mark of the history synced for an issue.
+	 *
+	 * @param bugId
+	 * 			Id of the issue
+	 * @return the mark, null if the history of the issue was never synced
+	 */
+	public BugHistoryMark getHistoryMark(long bugId);
+
+	/**
+	 * Retrieve the high-water marks of the steps of the last successful run
+	 * of a sync job for a project.
+	 *
+	 * @param jobName
+	 * 			Name of the job
+	 * @param projectId
+	 * 			Id of the project
+	 * @return the marks, empty if the job never recorded a successful run
+	 */
+	public List<SyncWatermark> getSyncWatermarks(String jobName, long projectId);
+
+	/**
+	 * Insert or update the high-water marks of a step of a sync job for a project.
+	 *
+	 * @param watermark
+	 * 			The marks
+	 */
+	public void saveSyncWatermark(SyncWatermark watermark);
+
+	/**
+	 * Rebuild the intervals of the handlers and status of the given issues
+	 * from their history, in bug_state_intervals table.
+	 *
+	 * @param bugIds
+	 * 			Ids of the issues
+	 */
+	public void updateStateIntervals(long[] bugIds);
 
 	/**
 	 * Compute the number of issues by project, handler and status.
@@ -125,7 +215,23 @@ public interface IssuesDao {
 	public void computeHandlersStat(Calendar date);
 
 	/**
-	 * Evict all caches.
+	 * Compute the number of issues by project, handler and status at several dates,
+	 * in a single pass over the issues and their history.
+	 * The result is stored directly in the handlers_stats table.
+	 *
+	 * @param dates
+	 * 			The calculation dates, in ascending order
+	 */
+	public void computeHandlersStat(List<Calendar> dates);
+
+	/**
+	 * Load the keys present in the dependencies tables, so their existence
+	 * can be checked without querying the DB.
+	 */
+	public void loadDimensions();
+
+	/**
+	 * Evict all caches, including the loaded keys.
 	 */
 	public void evictAllCaches();
 }
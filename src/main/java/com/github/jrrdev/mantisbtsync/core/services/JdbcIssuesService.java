@@ -24,21 +24,34 @@
 package com.github.jrrdev.mantisbtsync.core.services;
 
 import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import biz.futureware.mantis.rpc.soap.client.AccountData;
 import biz.futureware.mantis.rpc.soap.client.ObjectRef;
 
+import com.github.jrrdev.mantisbtsync.core.common.collections.LongArrayList;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugDependencies;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugHistoryMark;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.SyncWatermark;
+
 /**
  * Implementation of IssuesDao.
- * Use caches to avoid large amount of upsert.
+ * Use a registry of the existing keys to avoid large amount of upsert.
  *
  * @author jrrdev
  *
@@ -85,15 +98,75 @@ public class JdbcIssuesService implements IssuesDao {
 	private static final String SQL_INSERT_CUSTOM_FIELD_PROJECT = "INSERT INTO mantis_custom_field_project_table\n"
 			+ " (project_id, field_id) values (?, ?)";
 
+	/**
+	 * SQL query used to rename a project.
+	 */
+	private static final String SQL_UPDATE_PROJECT_NAME = "UPDATE mantis_project_table SET name = ? WHERE id = ?";
+
+	/**
+	 * Maximal number of keys in a set-based lookup or insert.
+	 */
+	private static final int MAX_KEYS_BY_STATEMENT = 500;
+
 	/**
 	 * SQL query used to get all issues that are still open and not synced since a given datetime.
+	 * The subprojects are looked up in a subquery so each issue is returned once without a distinct.
+	 */
+	private static final String SQL_GET_NOT_CLOSED_ISSUES_ID = "SELECT bug.id\n"
+			+ " FROM mantis_bug_table bug\n"
+			+ " WHERE (bug.project_id = ? OR bug.project_id IN\n"
+			+ "   (SELECT pht.child_id FROM mantis_project_hierarchy_table pht WHERE pht.parent_id = ?))\n"
+			+ " AND bug.status_id <> 90\n"
+			+ " AND bug.last_sync <= ?\n";
+
+	/**
+	 * SQL query used to get the subprojects of a project.
+	 */
+	private static final String SQL_GET_SUBPROJECTS_ID = "SELECT child_id FROM mantis_project_hierarchy_table"
+			+ " WHERE parent_id = ?";
+
+	/**
+	 * SQL query used to get the next page of the issues of a single project that are still open
+	 * and not synced since a given datetime, after a given id.
+	 * The equality on the project followed by the range on the id is served in id order
+	 * by idx_bug_project_id, so the scan stops once the limit is reached.
 	 */
-	private static final String SQL_GET_NOT_CLOSED_ISSUES_ID = "SELECT distinct bug.id\n"
+	private static final String SQL_GET_NOT_CLOSED_ISSUES_ID_PAGE = "SELECT bug.id\n"
 			+ " FROM mantis_bug_table bug\n"
-			+ " LEFT JOIN mantis_project_hierarchy_table pht ON pht.child_id = bug.project_id\n"
-			+ " WHERE bug.status_id <> 90\n"
-			+ " AND bug.last_sync <= ?"
-			+ " AND (bug.project_id = ? OR pht.parent_id = ?)";
+			+ " WHERE bug.project_id = ?\n"
+			+ " AND bug.id > ?\n"
+			+ " AND bug.status_id <> 90\n"
+			+ " AND bug.last_sync <= ?\n"
+			+ " ORDER BY bug.id\n"
+			+ " LIMIT ?";
+
+	/**
+	 * SQL query used to retrieve the last update date of a set of issues.
+	 */
+	private static final String SQL_GET_ISSUES_LAST_UPDATED = "SELECT id, last_updated FROM mantis_bug_table\n"
+			+ " WHERE id IN (%s)";
+
+	/**
+	 * SQL query used to retrieve the high-water mark of the history of an issue.
+	 */
+	private static final String SQL_GET_HISTORY_MARK = "SELECT last_updated, max_date_modified, history_count\n"
+			+ " FROM mantis_bug_history_mark_table\n"
+			+ " WHERE bug_id = ?";
+
+	/**
+	 * SQL query used to retrieve the high-water marks of a sync job for a project.
+	 */
+	private static final String SQL_GET_SYNC_WATERMARKS = "SELECT step_name, last_job_run, page_size, max_last_updated\n"
+			+ " FROM sync_watermark\n"
+			+ " WHERE job_name = ? AND project_id = ?";
+
+	/**
+	 * SQL query used to upsert the high-water marks of a step of a sync job for a project.
+	 */
+	private static final String SQL_MERGE_SYNC_WATERMARK = "INSERT INTO sync_watermark\n"
+			+ " (job_name, project_id, step_name, last_job_run, page_size, max_last_updated)\n"
+			+ " VALUES (?, ?, ?, ?, ?, ?)\n"
+			+ " ON DUPLICATE KEY UPDATE last_job_run = ?, page_size = ?, max_last_updated = ?";
 
 	/**
 	 * SQL query used to delete all handlers stats for a given time.
@@ -102,6 +175,8 @@ public class JdbcIssuesService implements IssuesDao {
 
 	/**
 	 * SQL query used to compute all handlers stats for a given time.
+	 * The handler and status of an issue at the given time are the ones of the interval
+	 * containing the time, or the current ones if the time is after the last change.
 	 */
 	private static final String SQL_COMPUTE_HANDLERS_STAT = "INSERT INTO handlers_stats (compute_date, project_id, handler_id, status_id, nb_issues) \n"
 			+ " SELECT  ?, \n"
@@ -111,39 +186,79 @@ public class JdbcIssuesService implements IssuesDao {
 			+ " 	count(*) \n"
 			+ " FROM ( \n"
 			+ " 	SELECT 	bug.id, bug.project_id, \n"
-			+ " 		NULLIF(IFNULL(hist_handler.old_value, CAST(bug.handler_id as CHAR(20))), 0) as handler, \n"
-			+ " 		NULLIF(IFNULL(hist_status.old_value, CAST(bug.status_id as CHAR(20))), 0) as status \n"
+			+ " 		NULLIF(IFNULL(int_handler.value, CAST(bug.handler_id as CHAR(20))), 0) as handler, \n"
+			+ " 		NULLIF(IFNULL(int_status.value, CAST(bug.status_id as CHAR(20))), 0) as status \n"
 			+ " 	FROM mantis_bug_table as bug \n"
-			+ " 	LEFT JOIN mantis_bug_history_table as hist_handler \n"
-			+ " 	ON (bug.id = hist_handler.bug_id \n"
-			+ " 		AND hist_handler.field_name = 'handler_id' \n"
-			+ " 		AND hist_handler.date_modified > ? \n"
-			+ " 		AND NOT EXISTS (SELECT 1 \n"
-			+ " 				FROM mantis_bug_history_table as hist2 \n"
-			+ " 				WHERE hist2.bug_id = bug.id \n"
-			+ " 				AND hist2.field_name = hist_handler.field_name \n"
-			+ " 				AND hist2.date_modified > ? \n"
-			+ " 				AND hist2.date_modified < hist_handler.date_modified)) \n"
-			+ " 	LEFT JOIN mantis_bug_history_table as hist_status \n"
-			+ " 	ON (bug.id = hist_status.bug_id \n"
-			+ " 		AND hist_status.field_name = 'status' \n"
-			+ " 		AND hist_status.date_modified > ? \n"
-			+ " 		AND NOT EXISTS (SELECT 1 \n"
-			+ " 				FROM mantis_bug_history_table as hist2 \n"
-			+ " 				WHERE hist2.bug_id = bug.id \n"
-			+ " 				AND hist2.field_name = hist_status.field_name \n"
-			+ " 				AND hist2.date_modified > ? \n"
-			+ " 				AND hist2.date_modified < hist_status.date_modified)) \n"
+			+ " 	LEFT JOIN bug_state_intervals as int_handler \n"
+			+ " 	ON (bug.id = int_handler.bug_id \n"
+			+ " 		AND int_handler.field_name = 'handler_id' \n"
+			+ " 		AND int_handler.valid_to > ? \n"
+			+ " 		AND (int_handler.valid_from IS NULL OR int_handler.valid_from <= ?)) \n"
+			+ " 	LEFT JOIN bug_state_intervals as int_status \n"
+			+ " 	ON (bug.id = int_status.bug_id \n"
+			+ " 		AND int_status.field_name = 'status' \n"
+			+ " 		AND int_status.valid_to > ? \n"
+			+ " 		AND (int_status.valid_from IS NULL OR int_status.valid_from <= ?)) \n"
 			+ " 	WHERE bug.date_submitted <= ? \n"
 			+ " ) as bug_raw \n"
 			+ " GROUP BY bug_raw.project_id, bug_raw.handler, bug_raw.status";
 
+	/**
+	 * SQL query used to stream the issues submitted before a given time
+	 * with their changes of handler and status after another given time,
+	 * by issue and in chronological order.
+	 */
+	private static final String SQL_GET_HANDLERS_STAT_CHANGES = "SELECT bug.id, bug.project_id, bug.date_submitted,\n"
+			+ " bug.handler_id, bug.status_id, hist.field_name, hist.old_value, hist.date_modified\n"
+			+ " FROM mantis_bug_table bug\n"
+			+ " LEFT JOIN mantis_bug_history_table hist ON (hist.bug_id = bug.id\n"
+			+ " 	AND hist.field_name IN ('handler_id', 'status')\n"
+			+ " 	AND hist.date_modified > ?)\n"
+			+ " WHERE bug.date_submitted <= ?\n"
+			+ " ORDER BY bug.id, hist.date_modified, hist.id";
+
+	/**
+	 * SQL query used to insert a handlers stat.
+	 */
+	private static final String SQL_INSERT_HANDLERS_STAT = "INSERT INTO handlers_stats\n"
+			+ " (compute_date, project_id, handler_id, status_id, nb_issues) VALUES (?, ?, ?, ?, ?)";
+
+	/**
+	 * Number of rows fetched at once when streaming the history.
+	 */
+	private static final int STREAM_FETCH_SIZE = 1000;
+
+	/**
+	 * SQL query used to delete the state intervals of issues.
+	 */
+	private static final String SQL_DELETE_STATE_INTERVALS = "DELETE FROM bug_state_intervals WHERE bug_id IN ";
+
+	/**
+	 * SQL query used to retrieve the changes of handler and status of issues, in chronological order.
+	 */
+	private static final String SQL_GET_STATE_CHANGES = "SELECT bug_id, field_name, old_value, date_modified\n"
+			+ " FROM mantis_bug_history_table\n"
+			+ " WHERE field_name IN ('handler_id', 'status')\n"
+			+ " AND bug_id IN (%s)\n"
+			+ " ORDER BY bug_id, field_name, date_modified, id";
+
+	/**
+	 * SQL query used to insert a state interval.
+	 */
+	private static final String SQL_INSERT_STATE_INTERVAL = "INSERT INTO bug_state_intervals\n"
+			+ " (bug_id, field_name, value, valid_from, valid_to) VALUES (?, ?, ?, ?, ?)";
+
 	/**
 	 * JDBC template.
 	 */
 	@Autowired
 	private JdbcTemplate jdbcTemplate;
 
+	/**
+	 * Keys known to be present in the dimension tables.
+	 */
+	private final DimensionRegistry registry = new DimensionRegistry();
+
 	/**
 	 * @return the jdbcTemplate
 	 */
@@ -163,13 +278,16 @@ public class JdbcIssuesService implements IssuesDao {
 	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#insertProjectIfNotExists(biz.futureware.mantis.rpc.soap.client.ObjectRef)
 	 */
 	@Override
-	@Cacheable("projects")
 	public boolean insertProjectIfNotExists(final ObjectRef item) {
 		if (item != null) {
-			final Boolean exists = jdbcTemplate.queryForObject(SQL_CHECK_PROJECT, Boolean.class, item.getId(), item.getName());
-
-			if (!Boolean.TRUE.equals(exists)) {
-				jdbcTemplate.update(SQL_MERGE_PROJECT_TABLE, item.getId(), item.getName(), item.getName());
+			final long key = DimensionRegistry.getProjectKey(toLong(item.getId()), item.getName());
+			if (!registry.contains("mantis_project_table", key)) {
+				final Boolean exists = jdbcTemplate.queryForObject(SQL_CHECK_PROJECT, Boolean.class, item.getId(), item.getName());
+
+				if (!Boolean.TRUE.equals(exists)) {
+					jdbcTemplate.update(SQL_MERGE_PROJECT_TABLE, item.getId(), item.getName(), item.getName());
+				}
+				registry.add("mantis_project_table", key);
 			}
 		}
 
@@ -178,11 +296,11 @@ public class JdbcIssuesService implements IssuesDao {
 
 	/**
 	 * {@inheritDoc}
-	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#insertUserIfNotExists(biz.futureware.mantis.rpc.soap.client.AccountData, java.math.BigInteger)
+	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#insertUserIfNotExists(biz.futureware.mantis.rpc.soap.client.AccountData, java.lang.Long)
 	 */
 	@Override
 	public void insertUserIfNotExists(final AccountData item,
-			final BigInteger parentProjectId) {
+			final Long parentProjectId) {
 		if (item != null) {
 			insertIntoUserIfNotExists(item);
 			insertIntoUserProjectIfNotExists(item, parentProjectId);
@@ -191,42 +309,36 @@ public class JdbcIssuesService implements IssuesDao {
 
 	/**
 	 * Insert into the mantis_user_table user if the row doesn't exist.
-	 * Marked as public for caching management.
 	 *
 	 * @param item
 	 * 			The user account data
-	 * @return dummy boolean, just for caching management
 	 */
-	@Cacheable("users")
-	public boolean insertIntoUserIfNotExists(final AccountData item) {
-		if (item != null && !existsById("mantis_user_table", item.getId())) {
-			jdbcTemplate.update(getInsertQueryIdName("mantis_user_table"), item.getId(), item.getName());
+	private void insertIntoUserIfNotExists(final AccountData item) {
+		if (item != null) {
+			insertIdNameIfNotExists("mantis_user_table", item.getId(), item.getName());
 		}
-
-		return true;
 	}
 
 	/**
 	 * Insert into mantis_project_user_list_table if the row doesn't exist.
-	 * Marked as public for caching management.
 	 *
 	 * @param item
 	 * 			The user account data
 	 * @param parentProjectId
 	 * 			The project id
-	 * @return dummy boolean, just for caching management
 	 */
-	@Cacheable("users_project")
-	public boolean insertIntoUserProjectIfNotExists(final AccountData item, final BigInteger parentProjectId) {
+	private void insertIntoUserProjectIfNotExists(final AccountData item, final Long parentProjectId) {
 
 		if (item != null && parentProjectId != null) {
-			final Boolean exist = jdbcTemplate.queryForObject(SQL_CHECK_USER_PROJECT, Boolean.class, parentProjectId, item.getId());
-			if (!Boolean.TRUE.equals(exist)) {
-				jdbcTemplate.update(SQL_INSERT_USER_PROJECT, parentProjectId, item.getId());
+			final long key = DimensionRegistry.getLinkKey(parentProjectId, toLong(item.getId()));
+			if (!registry.contains("mantis_project_user_list_table", key)) {
+				final Boolean exist = jdbcTemplate.queryForObject(SQL_CHECK_USER_PROJECT, Boolean.class, parentProjectId, item.getId());
+				if (!Boolean.TRUE.equals(exist)) {
+					jdbcTemplate.update(SQL_INSERT_USER_PROJECT, parentProjectId, item.getId());
+				}
+				registry.add("mantis_project_user_list_table", key);
 			}
 		}
-
-		return true;
 	}
 
 	/**
@@ -234,10 +346,9 @@ public class JdbcIssuesService implements IssuesDao {
 	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#insertPriorityIfNotExists(biz.futureware.mantis.rpc.soap.client.ObjectRef)
 	 */
 	@Override
-	@Cacheable("priorities")
 	public boolean insertPriorityIfNotExists(final ObjectRef item) {
-		if (item != null && !existsById("mantis_enum_priorities", item.getId())) {
-			jdbcTemplate.update(getInsertQueryIdName("mantis_enum_priorities"), item.getId(), item.getName());
+		if (item != null) {
+			insertIdNameIfNotExists("mantis_enum_priorities", item.getId(), item.getName());
 		}
 
 		return true;
@@ -248,10 +359,9 @@ public class JdbcIssuesService implements IssuesDao {
 	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#insertSeverityIfNotExists(biz.futureware.mantis.rpc.soap.client.ObjectRef)
 	 */
 	@Override
-	@Cacheable("severities")
 	public boolean insertSeverityIfNotExists(final ObjectRef item) {
-		if (item != null && !existsById("mantis_enum_severities", item.getId())) {
-			jdbcTemplate.update(getInsertQueryIdName("mantis_enum_severities"), item.getId(), item.getName());
+		if (item != null) {
+			insertIdNameIfNotExists("mantis_enum_severities", item.getId(), item.getName());
 		}
 
 		return true;
@@ -262,10 +372,9 @@ public class JdbcIssuesService implements IssuesDao {
 	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#insertStatusIfNotExists(biz.futureware.mantis.rpc.soap.client.ObjectRef)
 	 */
 	@Override
-	@Cacheable("status")
 	public boolean insertStatusIfNotExists(final ObjectRef item) {
-		if (item != null && !existsById("mantis_enum_status", item.getId())) {
-			jdbcTemplate.update(getInsertQueryIdName("mantis_enum_status"), item.getId(), item.getName());
+		if (item != null) {
+			insertIdNameIfNotExists("mantis_enum_status", item.getId(), item.getName());
 		}
 
 		return true;
@@ -276,10 +385,9 @@ public class JdbcIssuesService implements IssuesDao {
 	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#insertResolutionIfNotExists(biz.futureware.mantis.rpc.soap.client.ObjectRef)
 	 */
 	@Override
-	@Cacheable("resolutions")
 	public boolean insertResolutionIfNotExists(final ObjectRef item) {
-		if (item != null && !existsById("mantis_enum_resolutions", item.getId())) {
-			jdbcTemplate.update(getInsertQueryIdName("mantis_enum_resolutions"), item.getId(), item.getName());
+		if (item != null) {
+			insertIdNameIfNotExists("mantis_enum_resolutions", item.getId(), item.getName());
 		}
 
 		return true;
@@ -287,11 +395,11 @@ public class JdbcIssuesService implements IssuesDao {
 
 	/**
 	 * {@inheritDoc}
-	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#insertCustomFieldIfNotExists(biz.futureware.mantis.rpc.soap.client.ObjectRef, java.math.BigInteger)
+	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#insertCustomFieldIfNotExists(biz.futureware.mantis.rpc.soap.client.ObjectRef, java.lang.Long)
 	 */
 	@Override
 	public void insertCustomFieldIfNotExists(final ObjectRef item,
-			final BigInteger parentProjectId) {
+			final Long parentProjectId) {
 		if (item != null) {
 			insertIntoCustomFieldIfNotExists(item);
 			insertIntoCustomFieldProjectIfNotExists(item, parentProjectId);
@@ -300,54 +408,244 @@ public class JdbcIssuesService implements IssuesDao {
 
 	/**
 	 * Insert into mantis_custom_field_table if the row doesn't exist.
-	 * Marked as public for caching management.
 	 *
 	 * @param item
 	 * 			The custom field data
-	 * @return dummy boolean, just for caching management
 	 */
-	@Cacheable("customFields")
-	public boolean insertIntoCustomFieldIfNotExists(final ObjectRef item) {
-		if (item != null && !existsById("mantis_custom_field_table", item.getId())) {
-			jdbcTemplate.update(getInsertQueryIdName("mantis_custom_field_table"), item.getId(), item.getName());
+	private void insertIntoCustomFieldIfNotExists(final ObjectRef item) {
+		if (item != null) {
+			insertIdNameIfNotExists("mantis_custom_field_table", item.getId(), item.getName());
 		}
-
-		return true;
 	}
 
 	/**
 	 * Insert into mantis_custom_field_project_table if the row doesn't exist.
-	 * Marked as public for caching management.
 	 *
 	 * @param item
 	 * 			The custom field data
 	 * @param parentProjectId
 	 * 			The project id
-	 * @return dummy boolean, just for caching management
 	 */
-	@Cacheable("customFields_project")
-	public boolean insertIntoCustomFieldProjectIfNotExists(final ObjectRef item,
-			final BigInteger parentProjectId) {
+	private void insertIntoCustomFieldProjectIfNotExists(final ObjectRef item,
+			final Long parentProjectId) {
 		if (item != null && parentProjectId != null) {
-			final Boolean exist = jdbcTemplate.queryForObject(SQL_CHECK_CUSTOM_FIELD_PROJECT,
-					Boolean.class, parentProjectId, item.getId());
-			if (!Boolean.TRUE.equals(exist)) {
-				jdbcTemplate.update(SQL_INSERT_CUSTOM_FIELD_PROJECT, parentProjectId, item.getId());
+			final long key = DimensionRegistry.getLinkKey(parentProjectId, toLong(item.getId()));
+			if (!registry.contains("mantis_custom_field_project_table", key)) {
+				final Boolean exist = jdbcTemplate.queryForObject(SQL_CHECK_CUSTOM_FIELD_PROJECT,
+						Boolean.class, parentProjectId, item.getId());
+				if (!Boolean.TRUE.equals(exist)) {
+					jdbcTemplate.update(SQL_INSERT_CUSTOM_FIELD_PROJECT, parentProjectId, item.getId());
+				}
+				registry.add("mantis_custom_field_project_table", key);
 			}
 		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#insertDependencies(com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugDependencies)
+	 */
+	@Override
+	public void insertDependencies(final BugDependencies dependencies) {
+		if (dependencies != null && !dependencies.isEmpty()) {
+			mergeProjects(dependencies.getProjects());
+			insertMissingIdName("mantis_user_table", dependencies.getUsers());
+			insertMissingIdName("mantis_enum_priorities", dependencies.getPriorities());
+			insertMissingIdName("mantis_enum_severities", dependencies.getSeverities());
+			insertMissingIdName("mantis_enum_status", dependencies.getStatus());
+			insertMissingIdName("mantis_enum_resolutions", dependencies.getResolutions());
+			insertMissingIdName("mantis_custom_field_table", dependencies.getCustomFields());
+			insertMissingLinks("mantis_project_user_list_table", "user_id", dependencies.getUsersProject());
+			insertMissingLinks("mantis_custom_field_project_table", "field_id", dependencies.getCustomFieldsProject());
+		}
+	}
 
-		return true;
+	/**
+	 * {@inheritDoc}
+	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#getNotClosedIssuesId(java.util.Calendar, long)
+	 */
+	@Override
+	public long[] getNotClosedIssuesId(final Calendar jobStartTime, final long projectId) {
+		final java.sql.Timestamp time = new java.sql.Timestamp(jobStartTime.getTimeInMillis());
+		final LongArrayList ids = new LongArrayList();
+		jdbcTemplate.query(SQL_GET_NOT_CLOSED_ISSUES_ID + " ORDER BY bug.id", new RowCallbackHandler() {
+
+			@Override
+			public void processRow(final ResultSet rs) throws SQLException {
+				ids.add(rs.getLong(1));
+			}
+		}, projectId, projectId, time);
+
+		return ids.toArray();
 	}
 
 	/**
 	 * {@inheritDoc}
-	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#getNotClosedIssuesId(java.sql.Date, BigInteger)
+	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#getNotClosedIssuesId(java.util.Calendar, long, long, int)
 	 */
 	@Override
-	public List<BigInteger> getNotClosedIssuesId(final Calendar jobStartTime, final BigInteger projectId) {
+	public long[] getNotClosedIssuesId(final Calendar jobStartTime, final long projectId, final long afterId,
+			final int limit) {
 		final java.sql.Timestamp time = new java.sql.Timestamp(jobStartTime.getTimeInMillis());
-		return jdbcTemplate.queryForList(SQL_GET_NOT_CLOSED_ISSUES_ID, BigInteger.class,
-				time, projectId, projectId);
+		final LongArrayList ids = new LongArrayList(limit);
+		jdbcTemplate.query(SQL_GET_NOT_CLOSED_ISSUES_ID_PAGE, new RowCallbackHandler() {
+
+			@Override
+			public void processRow(final ResultSet rs) throws SQLException {
+				ids.add(rs.getLong(1));
+			}
+		}, projectId, afterId, time, limit);
+
+		return ids.toArray();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#getProjectAndSubProjectsId(long)
+	 */
+	@Override
+	public long[] getProjectAndSubProjectsId(final long projectId) {
+		final Set<Long> projectsId = new LinkedHashSet<Long>();
+		projectsId.add(projectId);
+		projectsId.addAll(jdbcTemplate.queryForList(SQL_GET_SUBPROJECTS_ID, Long.class, projectId));
+
+		final LongArrayList ids = new LongArrayList(projectsId.size());
+		for (final Long id : projectsId) {
+			ids.add(id);
+		}
+		return ids.toArray();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#getIssuesLastUpdated(long[])
+	 */
+	@Override
+	public Map<Long, java.sql.Timestamp> getIssuesLastUpdated(final long[] bugIds) {
+		final Map<Long, java.sql.Timestamp> dates = new HashMap<Long, java.sql.Timestamp>();
+		for (int i = 0; i < bugIds.length; i += MAX_KEYS_BY_STATEMENT) {
+			final int size = Math.min(MAX_KEYS_BY_STATEMENT, bugIds.length - i);
+			final Object[] args = new Object[size];
+			for (int j = 0; j < size; j++) {
+				args[j] = bugIds[i + j];
+			}
+
+			jdbcTemplate.query(String.format(SQL_GET_ISSUES_LAST_UPDATED, getPlaceholders(size)), args,
+					new RowCallbackHandler() {
+
+				@Override
+				public void processRow(final ResultSet rs) throws SQLException {
+					dates.put(rs.getLong(1), rs.getTimestamp(2));
+				}
+			});
+		}
+
+		return dates;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#getHistoryMark(long)
+	 */
+	@Override
+	public BugHistoryMark getHistoryMark(final long bugId) {
+		final List<BugHistoryMark> marks = jdbcTemplate.query(SQL_GET_HISTORY_MARK, new RowMapper<BugHistoryMark>() {
+
+			@Override
+			public BugHistoryMark mapRow(final ResultSet rs, final int rowNum) throws SQLException {
+				final BugHistoryMark mark = new BugHistoryMark();
+				mark.setBugId(bugId);
+				mark.setLastUpdated(rs.getTimestamp(1));
+				mark.setMaxDateModified(rs.getTimestamp(2));
+				mark.setHistoryCount(rs.getInt(3));
+				return mark;
+			}
+		}, bugId);
+
+		return marks.isEmpty() ? null : marks.get(0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#getSyncWatermarks(java.lang.String, long)
+	 */
+	@Override
+	public List<SyncWatermark> getSyncWatermarks(final String jobName, final long projectId) {
+		return jdbcTemplate.query(SQL_GET_SYNC_WATERMARKS, new RowMapper<SyncWatermark>() {
+
+			@Override
+			public SyncWatermark mapRow(final ResultSet rs, final int rowNum) throws SQLException {
+				final SyncWatermark watermark = new SyncWatermark();
+				watermark.setJobName(jobName);
+				watermark.setProjectId(projectId);
+				watermark.setStepName(rs.getString(1));
+				watermark.setLastJobRun(rs.getTimestamp(2));
+				final int pageSize = rs.getInt(3);
+				watermark.setPageSize(rs.wasNull() ? null : pageSize);
+				watermark.setMaxLastUpdated(rs.getTimestamp(4));
+				return watermark;
+			}
+		}, jobName, projectId);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#saveSyncWatermark(com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.SyncWatermark)
+	 */
+	@Override
+	public void saveSyncWatermark(final SyncWatermark watermark) {
+		jdbcTemplate.update(SQL_MERGE_SYNC_WATERMARK, watermark.getJobName(), watermark.getProjectId(),
+				watermark.getStepName(), watermark.getLastJobRun(), watermark.getPageSize(),
+				watermark.getMaxLastUpdated(), watermark.getLastJobRun(), watermark.getPageSize(),
+				watermark.getMaxLastUpdated());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#updateStateIntervals(long[])
+	 */
+	@Override
+	public void updateStateIntervals(final long[] bugIds) {
+		for (int i = 0; i < bugIds.length; i += MAX_KEYS_BY_STATEMENT) {
+			final int size = Math.min(MAX_KEYS_BY_STATEMENT, bugIds.length - i);
+			final Object[] args = new Object[size];
+			for (int j = 0; j < size; j++) {
+				args[j] = bugIds[i + j];
+			}
+			final String placeholders = getPlaceholders(size);
+
+			jdbcTemplate.update(SQL_DELETE_STATE_INTERVALS + "(" + placeholders + ")", args);
+
+			final List<Object[]> intervals = new ArrayList<Object[]>();
+			jdbcTemplate.query(String.format(SQL_GET_STATE_CHANGES, placeholders), args, new RowCallbackHandler() {
+
+				private long previousBugId;
+
+				private String previousField;
+
+				private java.sql.Timestamp previousDate;
+
+				@Override
+				public void processRow(final ResultSet rs) throws SQLException {
+					final long bugId = rs.getLong("bug_id");
+					final String field = rs.getString("field_name");
+					final java.sql.Timestamp date = rs.getTimestamp("date_modified");
+
+					// The value before a change was valid since the previous change of the field
+					final boolean sameField = bugId == previousBugId && field.equals(previousField);
+					intervals.add(new Object[] {bugId, field, rs.getString("old_value"),
+							sameField ? previousDate : null, date});
+
+					previousBugId = bugId;
+					previousField = field;
+					previousDate = date;
+				}
+			});
+
+			if (!intervals.isEmpty()) {
+				jdbcTemplate.batchUpdate(SQL_INSERT_STATE_INTERVAL, intervals);
+			}
+		}
 	}
 
 	/**
@@ -362,15 +660,328 @@ public class JdbcIssuesService implements IssuesDao {
 		jdbcTemplate.update(SQL_COMPUTE_HANDLERS_STAT, time, time, time, time, time, time);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#computeHandlersStat(java.util.List)
+	 */
+	@Override
+	public void computeHandlersStat(final List<Calendar> dates) {
+		if (dates.isEmpty()) {
+			return;
+		}
+
+		final long[] times = new long[dates.size()];
+		final List<Object[]> deletes = new ArrayList<Object[]>(dates.size());
+		for (int i = 0; i < times.length; i++) {
+			times[i] = dates.get(i).getTimeInMillis();
+			deletes.add(new Object[] {new java.sql.Timestamp(times[i])});
+		}
+
+		final HandlersStatSweep sweep = new HandlersStatSweep(times);
+		final JdbcTemplate streamTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+		streamTemplate.setFetchSize(STREAM_FETCH_SIZE);
+		streamTemplate.query(SQL_GET_HANDLERS_STAT_CHANGES, new RowCallbackHandler() {
+
+			private long previousBugId = -1;
+
+			@Override
+			public void processRow(final ResultSet rs) throws SQLException {
+				final long bugId = rs.getLong("id");
+				if (bugId != previousBugId) {
+					sweep.startIssue(rs.getLong("project_id"), rs.getTimestamp("date_submitted").getTime(),
+							getNullableLong(rs, "handler_id"), getNullableLong(rs, "status_id"));
+					previousBugId = bugId;
+				}
+
+				final String fieldName = rs.getString("field_name");
+				if (fieldName != null) {
+					sweep.addChange(fieldName, rs.getString("old_value"),
+							rs.getTimestamp("date_modified").getTime());
+				}
+			}
+		}, new java.sql.Timestamp(times[0]), new java.sql.Timestamp(times[times.length - 1]));
+
+		jdbcTemplate.batchUpdate(SQL_DELETE_HANDLERS_STAT, deletes);
+
+		final List<Object[]> rows = sweep.getRows();
+		for (int i = 0; i < rows.size(); i += MAX_KEYS_BY_STATEMENT) {
+			jdbcTemplate.batchUpdate(SQL_INSERT_HANDLERS_STAT,
+					rows.subList(i, Math.min(i + MAX_KEYS_BY_STATEMENT, rows.size())));
+		}
+	}
+
+	/**
+	 * Read a nullable long column.
+	 *
+	 * @param rs
+	 * 			The result set
+	 * @param column
+	 * 			Name of the column
+	 * @return the value, null if NULL
+	 * @throws SQLException
+	 * 			If the column can't be read
+	 */
+	private static Long getNullableLong(final ResultSet rs, final String column) throws SQLException {
+		final long value = rs.getLong(column);
+		return rs.wasNull() ? null : value;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#loadDimensions()
+	 */
+	@Override
+	public void loadDimensions() {
+		registry.loadProjects(jdbcTemplate, "mantis_project_table");
+		registry.loadIds(jdbcTemplate, "mantis_user_table");
+		registry.loadIds(jdbcTemplate, "mantis_enum_priorities");
+		registry.loadIds(jdbcTemplate, "mantis_enum_severities");
+		registry.loadIds(jdbcTemplate, "mantis_enum_status");
+		registry.loadIds(jdbcTemplate, "mantis_enum_resolutions");
+		registry.loadIds(jdbcTemplate, "mantis_custom_field_table");
+		registry.loadLinks(jdbcTemplate, "mantis_project_user_list_table", "user_id");
+		registry.loadLinks(jdbcTemplate, "mantis_custom_field_project_table", "field_id");
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see com.github.jrrdev.mantisbtsync.core.services.IssuesDao#evictAllCaches()
 	 */
 	@Override
-	@CacheEvict(value = {"projects", "users", "users_project", "priorities", "severities"
-			, "status", "resolutions", "customFields", "customFields_project"}, allEntries = true)
 	public void evictAllCaches() {
-		// do nothing, everything is in the annotations
+		registry.clear();
+	}
+
+	/**
+	 * Insert into a table which contains only id and name columns
+	 * if the row doesn't exist.
+	 *
+	 * @param table
+	 * 			Table name
+	 * @param id
+	 * 			The id
+	 * @param name
+	 * 			The name
+	 */
+	private void insertIdNameIfNotExists(final String table, final BigInteger id, final String name) {
+		final long key = DimensionRegistry.getIdKey(toLong(id));
+		if (!registry.contains(table, key)) {
+			if (!existsById(table, id)) {
+				jdbcTemplate.update(getInsertQueryIdName(table), id, name);
+			}
+			registry.add(table, key);
+		}
+	}
+
+	/**
+	 * Insert the missing projects and rename the ones whose name changed.
+	 *
+	 * @param projects
+	 * 			The projects, by id
+	 */
+	private void mergeProjects(final Map<Long, String> projects) {
+		if (projects.isEmpty()) {
+			return;
+		}
+
+		final Map<Long, String> existing = new HashMap<Long, String>();
+		final List<Long> ids = new ArrayList<Long>();
+		for (final Map.Entry<Long, String> entry : projects.entrySet()) {
+			if (!registry.contains("mantis_project_table",
+					DimensionRegistry.getProjectKey(entry.getKey(), entry.getValue()))) {
+				ids.add(entry.getKey());
+			}
+		}
+
+		for (int i = 0; i < ids.size(); i += MAX_KEYS_BY_STATEMENT) {
+			final List<Long> part = ids.subList(i, Math.min(i + MAX_KEYS_BY_STATEMENT, ids.size()));
+			jdbcTemplate.query("SELECT id, name FROM mantis_project_table WHERE id IN ("
+					+ getPlaceholders(part.size()) + ")", part.toArray(), new RowCallbackHandler() {
+
+				@Override
+				public void processRow(final ResultSet rs) throws SQLException {
+					existing.put(rs.getLong(1), rs.getString(2));
+				}
+			});
+		}
+
+		final List<Object[]> missing = new ArrayList<Object[]>();
+		final List<Object[]> renamed = new ArrayList<Object[]>();
+		for (final Long id : ids) {
+			final String name = projects.get(id);
+			if (!existing.containsKey(id)) {
+				missing.add(new Object[] {id, name});
+			} else if (name != null && !name.equals(existing.get(id))) {
+				renamed.add(new Object[] {name, id});
+			}
+		}
+
+		insertRows("mantis_project_table", "id", "name", missing);
+		if (!renamed.isEmpty()) {
+			jdbcTemplate.batchUpdate(SQL_UPDATE_PROJECT_NAME, renamed);
+		}
+
+		for (final Long id : ids) {
+			registry.add("mantis_project_table", DimensionRegistry.getProjectKey(id, projects.get(id)));
+		}
+	}
+
+	/**
+	 * Insert the rows missing in a table which contains only id and name columns.
+	 *
+	 * @param table
+	 * 			Table name
+	 * @param items
+	 * 			The names, by id
+	 */
+	private void insertMissingIdName(final String table, final Map<Long, String> items) {
+		if (items.isEmpty()) {
+			return;
+		}
+
+		final Set<Long> existing = new HashSet<Long>();
+		final List<Long> ids = new ArrayList<Long>();
+		for (final Long id : items.keySet()) {
+			if (!registry.contains(table, DimensionRegistry.getIdKey(id))) {
+				ids.add(id);
+			}
+		}
+
+		for (int i = 0; i < ids.size(); i += MAX_KEYS_BY_STATEMENT) {
+			final List<Long> part = ids.subList(i, Math.min(i + MAX_KEYS_BY_STATEMENT, ids.size()));
+			existing.addAll(jdbcTemplate.queryForList("SELECT id FROM " + table + " WHERE id IN ("
+					+ getPlaceholders(part.size()) + ")", Long.class, part.toArray()));
+		}
+
+		final List<Object[]> missing = new ArrayList<Object[]>();
+		for (final Long id : ids) {
+			if (!existing.contains(id)) {
+				missing.add(new Object[] {id, items.get(id)});
+			}
+		}
+
+		insertRows(table, "id", "name", missing);
+
+		for (final Long id : ids) {
+			registry.add(table, DimensionRegistry.getIdKey(id));
+		}
+	}
+
+	/**
+	 * Insert the links missing in a table linking projects to another table.
+	 *
+	 * @param table
+	 * 			Table name
+	 * @param column
+	 * 			Name of the column of the linked id
+	 * @param links
+	 * 			The linked ids, by project id
+	 */
+	private void insertMissingLinks(final String table, final String column,
+			final Map<Long, Set<Long>> links) {
+
+		final List<Object[]> missing = new ArrayList<Object[]>();
+		final List<Long> keys = new ArrayList<Long>();
+		for (final Map.Entry<Long, Set<Long>> entry : links.entrySet()) {
+			final Set<Long> existing = new HashSet<Long>();
+			final List<Long> ids = new ArrayList<Long>();
+			for (final Long id : entry.getValue()) {
+				final long key = DimensionRegistry.getLinkKey(entry.getKey(), id);
+				if (!registry.contains(table, key)) {
+					ids.add(id);
+					keys.add(key);
+				}
+			}
+
+			for (int i = 0; i < ids.size(); i += MAX_KEYS_BY_STATEMENT) {
+				final List<Long> part = ids.subList(i, Math.min(i + MAX_KEYS_BY_STATEMENT, ids.size()));
+				final List<Object> args = new ArrayList<Object>(part.size() + 1);
+				args.add(entry.getKey());
+				args.addAll(part);
+				existing.addAll(jdbcTemplate.queryForList("SELECT " + column + " FROM " + table
+						+ " WHERE project_id = ? AND " + column + " IN (" + getPlaceholders(part.size()) + ")",
+						Long.class, args.toArray()));
+			}
+
+			for (final Long id : ids) {
+				if (!existing.contains(id)) {
+					missing.add(new Object[] {entry.getKey(), id});
+				}
+			}
+		}
+
+		insertRows(table, "project_id", column, missing);
+
+		for (final Long key : keys) {
+			registry.add(table, key);
+		}
+	}
+
+	/**
+	 * Insert rows of two columns with multi-row insert statements.
+	 * The rows are checked missing before, but a chunk running concurrently may
+	 * insert the same rows once the dependencies lock is released and before
+	 * the transaction is committed : the duplicates are left unchanged.
+	 * INSERT IGNORE isn't used, it would also hide the foreign key violations.
+	 *
+	 * @param table
+	 * 			Table name
+	 * @param column1
+	 * 			Name of the first column
+	 * @param column2
+	 * 			Name of the second column
+	 * @param rows
+	 * 			The values of the rows
+	 */
+	private void insertRows(final String table, final String column1, final String column2,
+			final List<Object[]> rows) {
+
+		for (int i = 0; i < rows.size(); i += MAX_KEYS_BY_STATEMENT) {
+			final List<Object[]> part = rows.subList(i, Math.min(i + MAX_KEYS_BY_STATEMENT, rows.size()));
+			final StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+					.append(" (").append(column1).append(", ").append(column2).append(") VALUES ");
+			final List<Object> args = new ArrayList<Object>(part.size() * 2);
+			for (final Object[] row : part) {
+				if (!args.isEmpty()) {
+					sql.append(", ");
+				}
+				sql.append("(?, ?)");
+				args.add(row[0]);
+				args.add(row[1]);
+			}
+			sql.append(" ON DUPLICATE KEY UPDATE ").append(column1).append(" = ").append(column1);
+
+			jdbcTemplate.update(sql.toString(), args.toArray());
+		}
+	}
+
+	/**
+	 * Build the list of placeholders of an IN clause.
+	 *
+	 * @param count
+	 * 			Number of values
+	 * @return the placeholders
+	 */
+	private String getPlaceholders(final int count) {
+		final StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			builder.append('?');
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Convert an id received from MantisBT.
+	 *
+	 * @param id
+	 * 			The id, may be null
+	 * @return the id, 0 if null
+	 */
+	private static long toLong(final BigInteger id) {
+		return id == null ? 0 : id.longValue();
 	}
 
 	private boolean existsById(final String table, final BigInteger id) {
@@ -0,0 +1,252 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package db.migration.common;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.flywaydb.core.api.migration.spring.SpringJdbcMigration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * Add the content_hash column to mantis_bug_history_table.
+ * The column is backfilled with the hash computed by BugHistoryBean#getContentHash(),
+ * the duplicated entries of an issue are removed (the oldest one is kept)
+ * and a unique key is set on (bug_id, content_hash).
+ *
+ * Written in Java because the hash can't be computed the same way
+ * in SQL by MySQL and HSQLDB.
+ * The hashing code of BugHistoryBean and Fingerprint at the time of this migration
+ * is copied here : Java migrations have no checksum, and this migration must
+ * compute the same hashes whatever the later changes of the application classes.
+ *
+ * @author jrrdev
+ *
+ */
+public class V2_0_005__Add_history_content_hash implements SpringJdbcMigration {
+
+	/**
+	 * Number of statements by JDBC batch.
+	 */
+	private static final int BATCH_SIZE = 1000;
+
+	/**
+	 * Hexadecimal digits.
+	 */
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/**
+	 * SQL query retrieving the history of an issue.
+	 */
+	private static final String SQL_GET_HISTORY = "SELECT id, user_id, field_name, old_value, new_value,"
+			+ " history_type, date_modified\n"
+			+ " FROM mantis_bug_history_table\n"
+			+ " WHERE bug_id = ?\n"
+			+ " ORDER BY id";
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.flywaydb.core.api.migration.spring.SpringJdbcMigration#migrate(org.springframework.jdbc.core.JdbcTemplate)
+	 */
+	@Override
+	public void migrate(final JdbcTemplate jdbcTemplate) throws Exception {
+		jdbcTemplate.execute("ALTER TABLE mantis_bug_history_table ADD COLUMN content_hash char(40)");
+
+		final List<Long> bugIds = jdbcTemplate.queryForList(
+				"SELECT DISTINCT bug_id FROM mantis_bug_history_table", Long.class);
+
+		final List<Object[]> updates = new ArrayList<Object[]>();
+		final List<Object[]> deletes = new ArrayList<Object[]>();
+
+		for (final Long bugId : bugIds) {
+			final Set<String> hashes = new HashSet<String>();
+			jdbcTemplate.query(SQL_GET_HISTORY, new RowCallbackHandler() {
+
+				@Override
+				public void processRow(final ResultSet rs) throws SQLException {
+					final long userId = rs.getLong("user_id");
+					final Long nullableUserId = rs.wasNull() ? null : userId;
+					final long historyType = rs.getLong("history_type");
+					final Long nullableHistoryType = rs.wasNull() ? null : historyType;
+
+					final String hash = getContentHash(bugId, nullableUserId, rs.getString("field_name"),
+							rs.getString("old_value"), rs.getString("new_value"), nullableHistoryType,
+							rs.getTimestamp("date_modified"));
+					if (hashes.add(hash)) {
+						updates.add(new Object[] {hash, rs.getLong("id")});
+					} else {
+						deletes.add(new Object[] {rs.getLong("id")});
+					}
+				}
+			}, bugId);
+
+			if (updates.size() >= BATCH_SIZE || deletes.size() >= BATCH_SIZE) {
+				flush(jdbcTemplate, updates, deletes);
+			}
+		}
+
+		flush(jdbcTemplate, updates, deletes);
+
+		jdbcTemplate.execute("ALTER TABLE mantis_bug_history_table"
+				+ " ADD CONSTRAINT uk_bughistory_content UNIQUE (bug_id, content_hash)");
+	}
+
+	/**
+	 * Execute the pending updates and deletes.
+	 *
+	 * @param jdbcTemplate
+	 * 			JDBC template
+	 * @param updates
+	 * 			Pending updates of the hash
+	 * @param deletes
+	 * 			Pending deletes of duplicated entries
+	 */
+	private void flush(final JdbcTemplate jdbcTemplate, final List<Object[]> updates,
+			final List<Object[]> deletes) {
+
+		if (!updates.isEmpty()) {
+			jdbcTemplate.batchUpdate("UPDATE mantis_bug_history_table SET content_hash = ? WHERE id = ?",
+					updates);
+			updates.clear();
+		}
+
+		if (!deletes.isEmpty()) {
+			jdbcTemplate.batchUpdate("DELETE FROM mantis_bug_history_table WHERE id = ?", deletes);
+			deletes.clear();
+		}
+	}
+
+	/**
+	 * Compute the hash of an history entry, as BugHistoryBean#getContentHash() did
+	 * when this migration was written : SHA-1 of the values, each one prefixed with
+	 * its type and its length, null values having their own marker.
+	 *
+	 * @param bugId
+	 * 			Id of the issue
+	 * @param userId
+	 * 			Id of the user, may be null
+	 * @param fieldName
+	 * 			Name of the field
+	 * @param oldValue
+	 * 			Old value
+	 * @param newValue
+	 * 			New value
+	 * @param historyType
+	 * 			Type of the entry, may be null
+	 * @param dateModified
+	 * 			Date of the entry
+	 * @return the hash in lower case hexadecimal
+	 * @throws SQLException
+	 * 			If SHA-1 isn't available
+	 */
+	private static String getContentHash(final long bugId, final Long userId, final String fieldName,
+			final String oldValue, final String newValue, final Long historyType,
+			final Timestamp dateModified) throws SQLException {
+
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (final NoSuchAlgorithmException e) {
+			throw new SQLException(e);
+		}
+
+		addLong(digest, bugId);
+		addLong(digest, userId);
+		addString(digest, fieldName);
+		addString(digest, oldValue);
+		addString(digest, newValue);
+		addLong(digest, historyType);
+		// Precision of one second, as the datetime columns
+		addLong(digest, dateModified == null ? null : Math.floorDiv(dateModified.getTime(), 1000L));
+
+		final byte[] bytes = digest.digest();
+		final char[] chars = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			chars[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+			chars[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Add a nullable string value to the digest.
+	 *
+	 * @param digest
+	 * 			The digest
+	 * @param value
+	 * 			The value, may be null
+	 */
+	private static void addString(final MessageDigest digest, final String value) {
+		if (value == null) {
+			digest.update((byte) 'N');
+		} else {
+			final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			digest.update((byte) 'S');
+			updateInt(digest, bytes.length);
+			digest.update(bytes);
+		}
+	}
+
+	/**
+	 * Add a nullable long value to the digest.
+	 *
+	 * @param digest
+	 * 			The digest
+	 * @param value
+	 * 			The value, may be null
+	 */
+	private static void addLong(final MessageDigest digest, final Long value) {
+		if (value == null) {
+			digest.update((byte) 'N');
+		} else {
+			digest.update((byte) 'L');
+			updateInt(digest, (int) (value.longValue() >>> 32));
+			updateInt(digest, (int) value.longValue());
+		}
+	}
+
+	/**
+	 * Add an int in big-endian order to the digest.
+	 *
+	 * @param digest
+	 * 			The digest
+	 * @param value
+	 * 			The value
+	 */
+	private static void updateInt(final MessageDigest digest, final int value) {
+		digest.update((byte) (value >>> 24));
+		digest.update((byte) (value >>> 16));
+		digest.update((byte) (value >>> 8));
+		digest.update((byte) value);
+	}
+}
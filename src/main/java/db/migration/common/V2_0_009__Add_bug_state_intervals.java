@@ -0,0 +1,141 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package db.migration.common;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.flywaydb.core.api.migration.spring.SpringJdbcMigration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * Add the bug_state_intervals table : intervals of time during which an issue had
+ * a given handler or status, derived from the history.
+ * An interval is [valid_from, valid_to), valid_from is null for the first interval of a field.
+ * The interval of the current value isn't stored, the value is the one of mantis_bug_table.
+ *
+ * The intervals of the history already synced are built in one ordered pass by
+ * batch of issues, as JdbcIssuesService#updateStateIntervals does. A correlated
+ * subquery looking for the previous change of each entry would be quadratic in
+ * the size of the history of an issue, mantis_bug_history_table being only
+ * indexed on bug_id.
+ *
+ * @author jrrdev
+ *
+ */
+public class V2_0_009__Add_bug_state_intervals implements SpringJdbcMigration {
+
+	/**
+	 * Number of issues by batch.
+	 */
+	private static final int BATCH_SIZE = 500;
+
+	/**
+	 * SQL query retrieving the issues having changes of handler or status.
+	 */
+	private static final String SQL_GET_BUGS_ID = "SELECT DISTINCT bug_id FROM mantis_bug_history_table\n"
+			+ " WHERE field_name IN ('handler_id', 'status')";
+
+	/**
+	 * SQL query retrieving the changes of handler and status of issues, in chronological order.
+	 */
+	private static final String SQL_GET_STATE_CHANGES = "SELECT bug_id, field_name, old_value, date_modified\n"
+			+ " FROM mantis_bug_history_table\n"
+			+ " WHERE field_name IN ('handler_id', 'status')\n"
+			+ " AND bug_id IN (%s)\n"
+			+ " ORDER BY bug_id, field_name, date_modified, id";
+
+	/**
+	 * SQL query inserting a state interval.
+	 */
+	private static final String SQL_INSERT_STATE_INTERVAL = "INSERT INTO bug_state_intervals\n"
+			+ " (bug_id, field_name, value, valid_from, valid_to) VALUES (?, ?, ?, ?, ?)";
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.flywaydb.core.api.migration.spring.SpringJdbcMigration#migrate(org.springframework.jdbc.core.JdbcTemplate)
+	 */
+	@Override
+	public void migrate(final JdbcTemplate jdbcTemplate) throws Exception {
+		jdbcTemplate.execute("CREATE TABLE bug_state_intervals (\n"
+				+ "	bug_id int NOT NULL,\n"
+				+ "	field_name varchar(64) NOT NULL,\n"
+				+ "	value varchar(255),\n"
+				+ "	valid_from datetime,\n"
+				+ "	valid_to datetime NOT NULL,\n"
+				+ "\n"
+				+ "	CONSTRAINT FK_BSI_BUG FOREIGN KEY (bug_id) REFERENCES mantis_bug_table(id)\n"
+				+ ")");
+
+		jdbcTemplate.execute("CREATE INDEX idx_bsi_bug_field ON bug_state_intervals (bug_id, field_name, valid_to)");
+
+		final List<Long> bugIds = jdbcTemplate.queryForList(SQL_GET_BUGS_ID, Long.class);
+		for (int i = 0; i < bugIds.size(); i += BATCH_SIZE) {
+			final List<Long> batch = bugIds.subList(i, Math.min(i + BATCH_SIZE, bugIds.size()));
+
+			final StringBuilder placeholders = new StringBuilder();
+			for (int j = 0; j < batch.size(); j++) {
+				if (j > 0) {
+					placeholders.append(", ");
+				}
+				placeholders.append('?');
+			}
+
+			final List<Object[]> intervals = new ArrayList<Object[]>();
+			jdbcTemplate.query(String.format(SQL_GET_STATE_CHANGES, placeholders), batch.toArray(),
+					new RowCallbackHandler() {
+
+				private long previousBugId;
+
+				private String previousField;
+
+				private Timestamp previousDate;
+
+				@Override
+				public void processRow(final ResultSet rs) throws SQLException {
+					final long bugId = rs.getLong("bug_id");
+					final String field = rs.getString("field_name");
+					final Timestamp date = rs.getTimestamp("date_modified");
+
+					// The value before a change was valid since the previous change of the field
+					final boolean sameField = bugId == previousBugId && field.equals(previousField);
+					intervals.add(new Object[] {bugId, field, rs.getString("old_value"),
+							sameField ? previousDate : null, date});
+
+					previousBugId = bugId;
+					previousField = field;
+					previousDate = date;
+				}
+			});
+
+			if (!intervals.isEmpty()) {
+				jdbcTemplate.batchUpdate(SQL_INSERT_STATE_INTERVAL, intervals);
+			}
+		}
+	}
+}
@@ -0,0 +1,9 @@
+-- Table storing the high-water mark of the history synced for each issue
+CREATE TABLE mantis_bug_history_mark_table (
+	bug_id int NOT NULL PRIMARY KEY,
+	last_updated datetime,
+	max_date_modified datetime,
+	history_count int NOT NULL,
+
+	CONSTRAINT FK_BHM_BUG FOREIGN KEY (bug_id) REFERENCES mantis_bug_table(id)
+);
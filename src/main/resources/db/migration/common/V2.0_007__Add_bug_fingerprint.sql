@@ -0,0 +1,2 @@
+-- Fingerprint of the columns of an issue, used to skip the update of the issues that didn't change
+ALTER TABLE mantis_bug_table ADD COLUMN fingerprint char(40);
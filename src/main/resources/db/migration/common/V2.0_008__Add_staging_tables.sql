@@ -0,0 +1,55 @@
+-- Staging tables of the issues. The rows of a chunk are appended with the id of their stage,
+-- then merged into the mantis tables with set-based statements and deleted.
+-- The tables have no key nor index, to keep the appends cheap.
+CREATE TABLE stg_bug (
+	stage_id char(36) NOT NULL,
+	id int,
+	project_id int,
+	reporter_id int,
+	handler_id int,
+	priority_id int,
+	severity_id int,
+	status_id int,
+	resolution_id int,
+	description text,
+	steps_to_reproduce text,
+	additional_information text,
+	platform varchar(32),
+	version varchar(64),
+	fixed_in_version varchar(64),
+	target_version varchar(64),
+	summary varchar(128),
+	category varchar(128),
+	date_submitted datetime,
+	last_updated datetime,
+	fingerprint char(40)
+);
+
+CREATE TABLE stg_bugnote (
+	stage_id char(36) NOT NULL,
+	id int,
+	bug_id int,
+	reporter_id int,
+	text_note text,
+	date_submitted datetime,
+	last_modified datetime
+);
+
+CREATE TABLE stg_custom_field_string (
+	stage_id char(36) NOT NULL,
+	field_id int,
+	bug_id int,
+	field_value varchar(255)
+);
+
+CREATE TABLE stg_bug_history (
+	stage_id char(36) NOT NULL,
+	bug_id int,
+	user_id int,
+	field_name varchar(64),
+	old_value varchar(255),
+	new_value varchar(255),
+	history_type int,
+	date_modified datetime,
+	content_hash char(40)
+);
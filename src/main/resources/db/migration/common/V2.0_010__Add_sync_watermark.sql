@@ -0,0 +1,11 @@
+-- Table storing the high-water marks of the last successful run of a sync job, by project and step
+CREATE TABLE sync_watermark (
+	job_name varchar(100) NOT NULL,
+	project_id int NOT NULL,
+	step_name varchar(100) NOT NULL,
+	last_job_run datetime NOT NULL,
+	page_size int,
+	max_last_updated datetime,
+
+	PRIMARY KEY (job_name, project_id, step_name)
+);
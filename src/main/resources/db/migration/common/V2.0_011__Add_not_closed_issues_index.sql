@@ -0,0 +1,3 @@
+-- Add an index on the columns filtering the issues still open in the local DB and not synced since the job start time.
+-- The id follows the project so the keyset paging on the id reads the issues of a project in id order and stops at the page limit.
+CREATE INDEX idx_bug_project_id ON mantis_bug_table (project_id, id, status_id, last_sync);
@@ -0,0 +1,7 @@
+-- Add an index on the stage id of the staging tables.
+-- Without it, the merge and the delete of a stage scan the whole table and,
+-- with InnoDB, lock the rows of the stages of the other chunks running concurrently.
+CREATE INDEX idx_stg_bug_stage ON stg_bug (stage_id);
+CREATE INDEX idx_stg_bugnote_stage ON stg_bugnote (stage_id);
+CREATE INDEX idx_stg_custom_field_string_stage ON stg_custom_field_string (stage_id);
+CREATE INDEX idx_stg_bug_history_stage ON stg_bug_history (stage_id);
@@ -0,0 +1,262 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.benchmark;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.github.jrrdev.mantisbtsync.core.common.collections.LongArrayList;
+import com.github.jrrdev.mantisbtsync.core.common.concurrent.ConcurrentLongHashSet;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugNoteBean;
+
+/**
+ * JMH comparison of the long based ids model of the issues pipeline
+ * against the former BigInteger based one.
+ *
+ * Each couple of benchmarks performs the same work with both models :
+ * loading the ids read from the DB, looking them up in a set of known ids
+ * and building the beans bound into the JDBC statements.
+ *
+ * Not run by the unit tests, launch the main method from the IDE or with :
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.jrrdev.mantisbtsync.core.benchmark.IssuesIdsBenchmark
+ *
+ * @author jrrdev
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class IssuesIdsBenchmark {
+
+	/**
+	 * Number of ids handled by an invocation.
+	 */
+	@Param({"1000", "100000"})
+	private int size;
+
+	/**
+	 * Raw ids, as read from the DB.
+	 */
+	private long[] rawIds;
+
+	/**
+	 * Ids in the BigInteger model.
+	 */
+	private List<BigInteger> bigIds;
+
+	/**
+	 * Known ids in the BigInteger model.
+	 */
+	private Set<BigInteger> bigSet;
+
+	/**
+	 * Known ids in the long model.
+	 */
+	private ConcurrentLongHashSet longSet;
+
+	/**
+	 * Note bean of the former BigInteger model.
+	 *
+	 * @author jrrdev
+	 *
+	 */
+	private static final class BigIntegerNoteBean {
+
+		/**
+		 * Note id.
+		 */
+		private BigInteger id;
+
+		/**
+		 * Issue id.
+		 */
+		private BigInteger bugId;
+
+		/**
+		 * Reporter id.
+		 */
+		private BigInteger reporterId;
+	}
+
+	/**
+	 * Build the data sets. Half of the ids are known.
+	 */
+	@Setup
+	public void setup() {
+		final Random random = new Random(42);
+		rawIds = new long[size];
+		bigIds = new ArrayList<BigInteger>(size);
+		bigSet = new HashSet<BigInteger>();
+		longSet = new ConcurrentLongHashSet(size);
+
+		for (int i = 0; i < size; i++) {
+			final long id = 1 + random.nextInt(Integer.MAX_VALUE - 1);
+			rawIds[i] = id;
+			bigIds.add(BigInteger.valueOf(id));
+			if (i % 2 == 0) {
+				bigSet.add(BigInteger.valueOf(id));
+				longSet.add(id);
+			}
+		}
+	}
+
+	/**
+	 * Load the ids in the BigInteger model.
+	 *
+	 * @return the list of ids
+	 */
+	@Benchmark
+	public List<BigInteger> loadBigIntegerIds() {
+		final List<BigInteger> ids = new ArrayList<BigInteger>();
+		for (final long id : rawIds) {
+			ids.add(BigInteger.valueOf(id));
+		}
+		return ids;
+	}
+
+	/**
+	 * Load the ids in the long model.
+	 *
+	 * @return the array of ids
+	 */
+	@Benchmark
+	public long[] loadLongIds() {
+		final LongArrayList ids = new LongArrayList();
+		for (final long id : rawIds) {
+			ids.add(id);
+		}
+		return ids.toArray();
+	}
+
+	/**
+	 * Look up the ids in the BigInteger model.
+	 *
+	 * @return the number of known ids
+	 */
+	@Benchmark
+	public int lookupBigIntegerIds() {
+		int found = 0;
+		for (final BigInteger id : bigIds) {
+			if (bigSet.contains(id)) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Look up the ids in the long model.
+	 *
+	 * @return the number of known ids
+	 */
+	@Benchmark
+	public int lookupLongIds() {
+		int found = 0;
+		for (final long id : rawIds) {
+			if (longSet.contains(id)) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Build the note beans of the BigInteger model and the arguments
+	 * bound into the JDBC statement.
+	 *
+	 * @return the last arguments
+	 */
+	@Benchmark
+	public Object[] bindBigIntegerBeans() {
+		Object[] args = null;
+		for (final long id : rawIds) {
+			final BigIntegerNoteBean bean = new BigIntegerNoteBean();
+			bean.id = BigInteger.valueOf(id);
+			bean.bugId = BigInteger.valueOf(id);
+			bean.reporterId = BigInteger.valueOf(id);
+			args = new Object[] {bean.id, bean.bugId, bean.reporterId};
+		}
+		return args;
+	}
+
+	/**
+	 * Build the note beans of the long model and the arguments
+	 * bound into the JDBC statement.
+	 *
+	 * @return the last arguments
+	 */
+	@Benchmark
+	public Object[] bindLongBeans() {
+		Object[] args = null;
+		for (final long id : rawIds) {
+			final BugNoteBean bean = new BugNoteBean();
+			bean.setId(id);
+			bean.setBugId(id);
+			bean.setReporterId(id);
+			args = new Object[] {bean.getId(), bean.getBugId(), bean.getReporterId()};
+		}
+		return args;
+	}
+
+	/**
+	 * Run the benchmarks.
+	 *
+	 * @param args
+	 * 			Not used
+	 * @throws RunnerException
+	 * 			If the benchmarks fail
+	 */
+	public static void main(final String[] args) throws RunnerException {
+		final Options opt = new OptionsBuilder()
+				.include(IssuesIdsBenchmark.class.getSimpleName())
+				.build();
+
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,117 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.concurrent;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * Tests for {@link AsyncItemProcessor} and {@link AsyncItemWriter}.
+ *
+ * @author jrrdev
+ *
+ */
+public class AsyncItemProcessorTest {
+
+	/**
+	 * Test that the items processed concurrently are written in the chunk order,
+	 * without the filtered ones.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testChunkOrder() throws Exception {
+		final AsyncItemProcessor<Integer, String> processor = new AsyncItemProcessor<Integer, String>();
+		processor.setTaskExecutor(new SimpleAsyncTaskExecutor());
+		processor.setDelegate(new ItemProcessor<Integer, String>() {
+
+			@Override
+			public String process(final Integer item) throws Exception {
+				// The first items complete last
+				Thread.sleep(50 - item * 10);
+				return (item == 2) ? null : "item_" + item;
+			}
+		});
+
+		final List<String> written = new ArrayList<String>();
+		final AsyncItemWriter<String> writer = new AsyncItemWriter<String>();
+		writer.setDelegate(new ItemWriter<String>() {
+
+			@Override
+			public void write(final List<? extends String> items) throws Exception {
+				written.addAll(items);
+			}
+		});
+
+		final List<Future<String>> futures = new ArrayList<Future<String>>();
+		for (int i = 0; i < 5; i++) {
+			futures.add(processor.process(i));
+		}
+		writer.write(futures);
+
+		assertEquals(Arrays.asList("item_0", "item_1", "item_3", "item_4"), written);
+	}
+
+	/**
+	 * Test that an exception thrown by the delegate processor is thrown by the writer.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testException() throws Exception {
+		final AsyncItemProcessor<Integer, String> processor = new AsyncItemProcessor<Integer, String>();
+		processor.setTaskExecutor(new SimpleAsyncTaskExecutor());
+		processor.setDelegate(new ItemProcessor<Integer, String>() {
+
+			@Override
+			public String process(final Integer item) throws Exception {
+				throw new IllegalStateException("WS error");
+			}
+		});
+
+		final AsyncItemWriter<String> writer = new AsyncItemWriter<String>();
+		writer.setDelegate(new ItemWriter<String>() {
+
+			@Override
+			public void write(final List<? extends String> items) throws Exception {
+				// Nothing to do
+			}
+		});
+
+		final List<Future<String>> futures = new ArrayList<Future<String>>();
+		futures.add(processor.process(1));
+		writer.write(futures);
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ConcurrentLongHashSet}.
+ *
+ * @author jrrdev
+ *
+ */
+public class ConcurrentLongHashSetTest {
+
+	/**
+	 * Test the insertion and the lookup of keys, beyond the initial capacity.
+	 */
+	@Test
+	public void testAddContains() {
+		final ConcurrentLongHashSet set = new ConcurrentLongHashSet();
+		for (long key = 1; key <= 1000; key++) {
+			assertTrue(set.add(key << 32 | key));
+		}
+
+		assertEquals(1000, set.size());
+		assertFalse(set.add(5L << 32 | 5L));
+		assertTrue(set.contains(999L << 32 | 999L));
+		assertFalse(set.contains(1001L << 32 | 1001L));
+		assertFalse(set.contains(-1L));
+
+		set.clear();
+		assertEquals(0, set.size());
+		assertFalse(set.contains(5L << 32 | 5L));
+	}
+
+	/**
+	 * Test that the reserved key is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testReservedKey() {
+		new ConcurrentLongHashSet().add(0L);
+	}
+
+	/**
+	 * Test that no key is lost nor duplicated when several threads add
+	 * overlapping keys while the table grows.
+	 *
+	 * @throws InterruptedException
+	 * 			Technical error
+	 */
+	@Test
+	public void testConcurrentAdd() throws InterruptedException {
+		final ConcurrentLongHashSet set = new ConcurrentLongHashSet();
+		final AtomicInteger added = new AtomicInteger();
+		final List<Thread> threads = new ArrayList<Thread>();
+
+		for (int t = 0; t < 4; t++) {
+			final int offset = t * 5000;
+			final Thread thread = new Thread(new Runnable() {
+
+				@Override
+				public void run() {
+					for (long key = offset + 1; key <= offset + 10000; key++) {
+						if (set.add(key)) {
+							added.incrementAndGet();
+						}
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(25000, added.get());
+		assertEquals(25000, set.size());
+		for (long key = 1; key <= 25000; key++) {
+			assertTrue(set.contains(key));
+		}
+	}
+}
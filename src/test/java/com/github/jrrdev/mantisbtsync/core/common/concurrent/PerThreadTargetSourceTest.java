@@ -0,0 +1,136 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectFactory;
+
+/**
+ * Tests for {@link PerThreadTargetSource}.
+ *
+ * @author jrrdev
+ *
+ */
+public class PerThreadTargetSourceTest {
+
+	/**
+	 * Build a target source creating a new object on each factory call.
+	 *
+	 * @param created
+	 * 			Counter of the created targets
+	 * @return the target source
+	 */
+	private PerThreadTargetSource buildTargetSource(final AtomicInteger created) {
+		return new PerThreadTargetSource(Object.class, new ObjectFactory<Object>() {
+
+			@Override
+			public Object getObject() throws BeansException {
+				created.incrementAndGet();
+				return new Object();
+			}
+		});
+	}
+
+	/**
+	 * Test that a thread keeps its target and that another thread gets its own.
+	 *
+	 * @throws Exception
+	 * 			Technical error
+	 */
+	@Test
+	public void testTargetPerThread() throws Exception {
+		final AtomicInteger created = new AtomicInteger();
+		final PerThreadTargetSource targetSource = buildTargetSource(created);
+
+		final Object target = targetSource.getTarget();
+		targetSource.releaseTarget(target);
+		assertSame(target, targetSource.getTarget());
+
+		final AtomicReference<Object> otherTarget = new AtomicReference<Object>();
+		final Thread thread = new Thread() {
+
+			@Override
+			public void run() {
+				try {
+					otherTarget.set(targetSource.getTarget());
+				} catch (final Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+		thread.start();
+		thread.join();
+
+		assertNotSame(target, otherTarget.get());
+		assertEquals(2, created.get());
+	}
+
+	/**
+	 * Test that the targets of all the threads are dropped when the target source is destroyed.
+	 *
+	 * @throws Exception
+	 * 			Technical error
+	 */
+	@Test
+	public void testDestroy() throws Exception {
+		final AtomicInteger created = new AtomicInteger();
+		final PerThreadTargetSource targetSource = buildTargetSource(created);
+
+		final Object target = targetSource.getTarget();
+		final AtomicReference<Object> otherTarget = new AtomicReference<Object>();
+		final Thread thread = new Thread() {
+
+			@Override
+			public void run() {
+				try {
+					otherTarget.set(targetSource.getTarget());
+					targetSource.destroy();
+				} catch (final Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+		thread.start();
+		thread.join();
+		assertEquals(2, created.get());
+
+		// The target of the main thread was dropped by the other thread
+		final Object newTarget = targetSource.getTarget();
+		assertNotSame(target, newTarget);
+		assertSame(newTarget, targetSource.getTarget());
+		assertEquals(3, created.get());
+
+		targetSource.destroy();
+		assertNotSame(newTarget, targetSource.getTarget());
+		assertEquals(4, created.get());
+	}
+}
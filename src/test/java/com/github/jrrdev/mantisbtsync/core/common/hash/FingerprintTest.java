@@ -0,0 +1,70 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.hash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.sql.Timestamp;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link Fingerprint}.
+ *
+ * @author jrrdev
+ *
+ */
+public class FingerprintTest {
+
+	/**
+	 * Test that the fingerprint is deterministic.
+	 */
+	@Test
+	public void testDeterministic() {
+		final String hash1 = new Fingerprint().add(1L).add("value").add(new Timestamp(1000L)).toHex();
+		final String hash2 = new Fingerprint().add(1L).add("value").add(new Timestamp(1999L)).toHex();
+
+		assertEquals(Fingerprint.LENGTH, hash1.length());
+		assertEquals(hash1, hash2);
+	}
+
+	/**
+	 * Test that the null values and the boundaries between values are part of the fingerprint.
+	 */
+	@Test
+	public void testDistinctValues() {
+		final String nullValue = new Fingerprint().add((String) null).toHex();
+		final String emptyValue = new Fingerprint().add("").toHex();
+		assertNotEquals(nullValue, emptyValue);
+
+		final String split1 = new Fingerprint().add("ab").add("c").toHex();
+		final String split2 = new Fingerprint().add("a").add("bc").toHex();
+		assertNotEquals(split1, split2);
+
+		final String nullLong = new Fingerprint().add((Long) null).toHex();
+		final String zeroLong = new Fingerprint().add(0L).toHex();
+		assertNotEquals(nullLong, zeroLong);
+	}
+}
@@ -0,0 +1,135 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.listener;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.JobContext;
+import org.springframework.batch.core.scope.context.JobSynchronizationManager;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+/**
+ * Tests for {@link JobContextChunkListener}.
+ *
+ * @author jrrdev
+ *
+ */
+public class JobContextChunkListenerTest {
+
+	/**
+	 * Clean the job context of the test thread.
+	 */
+	@After
+	public void releaseContext() {
+		while (JobSynchronizationManager.getContext() != null) {
+			JobSynchronizationManager.release();
+		}
+	}
+
+	/**
+	 * Build a chunk context for a step of the given job execution.
+	 *
+	 * @param jobExecution
+	 * 			The job execution
+	 * @return the chunk context
+	 */
+	private ChunkContext buildChunkContext(final JobExecution jobExecution) {
+		final StepExecution stepExecution = jobExecution.createStepExecution("step");
+		return new ChunkContext(new StepContext(stepExecution));
+	}
+
+	/**
+	 * Test that the job context is registered during the chunk and only closed
+	 * after it, without running the destruction callbacks of the job scoped beans.
+	 */
+	@Test
+	public void testRegisterWhenAbsent() {
+		final JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution();
+		final ChunkContext chunkContext = buildChunkContext(jobExecution);
+		final JobContextChunkListener listener = new JobContextChunkListener();
+
+		assertNull(JobSynchronizationManager.getContext());
+		listener.beforeChunk(chunkContext);
+
+		final JobContext jobContext = JobSynchronizationManager.getContext();
+		assertNotNull(jobContext);
+		assertSame(jobExecution, jobContext.getJobExecution());
+
+		final AtomicBoolean destroyed = new AtomicBoolean(false);
+		jobContext.registerDestructionCallback("bean", new Runnable() {
+
+			@Override
+			public void run() {
+				destroyed.set(true);
+			}
+		});
+
+		listener.afterChunk(chunkContext);
+		assertNull(JobSynchronizationManager.getContext());
+		assertFalse(destroyed.get());
+	}
+
+	/**
+	 * Test that the context registered by the listener is also closed after a chunk error.
+	 */
+	@Test
+	public void testCloseAfterError() {
+		final ChunkContext chunkContext = buildChunkContext(MetaDataInstanceFactory.createJobExecution());
+		final JobContextChunkListener listener = new JobContextChunkListener();
+
+		listener.beforeChunk(chunkContext);
+		assertNotNull(JobSynchronizationManager.getContext());
+
+		listener.afterChunkError(chunkContext);
+		assertNull(JobSynchronizationManager.getContext());
+	}
+
+	/**
+	 * Test that a job context already registered in the thread isn't replaced nor closed.
+	 */
+	@Test
+	public void testExistingContextUntouched() {
+		final JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution();
+		final JobContext existing = JobSynchronizationManager.register(jobExecution);
+		final ChunkContext chunkContext = buildChunkContext(jobExecution);
+		final JobContextChunkListener listener = new JobContextChunkListener();
+
+		listener.beforeChunk(chunkContext);
+		assertSame(existing, JobSynchronizationManager.getContext());
+
+		listener.afterChunk(chunkContext);
+		assertSame(existing, JobSynchronizationManager.getContext());
+	}
+}
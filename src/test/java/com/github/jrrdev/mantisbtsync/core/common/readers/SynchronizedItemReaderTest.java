@@ -0,0 +1,163 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.common.readers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
+
+/**
+ * Tests for {@link SynchronizedItemReader}.
+ *
+ * @author jrrdev
+ *
+ */
+public class SynchronizedItemReaderTest {
+
+	/**
+	 * Reader that isn't thread-safe, the counter is read and written in two steps.
+	 */
+	private static final class UnsafeCountingReader implements ItemReader<Integer> {
+
+		private final int max;
+
+		private int count;
+
+		UnsafeCountingReader(final int max) {
+			this.max = max;
+		}
+
+		@Override
+		public Integer read() {
+			final int current = count;
+			if (current >= max) {
+				return null;
+			}
+			Thread.yield();
+			count = current + 1;
+			return current;
+		}
+	}
+
+	/**
+	 * Test that each item is read exactly once when several threads read concurrently.
+	 *
+	 * @throws InterruptedException
+	 * 			Technical error
+	 */
+	@Test
+	public void testConcurrentRead() throws InterruptedException {
+		final int nbItems = 10000;
+		final SynchronizedItemReader<Integer> reader = new SynchronizedItemReader<Integer>(
+				new UnsafeCountingReader(nbItems));
+		final List<Integer> items = Collections.synchronizedList(new ArrayList<Integer>());
+
+		final List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 4; i++) {
+			threads.add(new Thread() {
+
+				@Override
+				public void run() {
+					try {
+						Integer item;
+						while ((item = reader.read()) != null) {
+							items.add(item);
+						}
+					} catch (final Exception e) {
+						throw new IllegalStateException(e);
+					}
+				}
+			});
+		}
+
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(nbItems, items.size());
+		Collections.sort(items);
+		for (int i = 0; i < nbItems; i++) {
+			assertEquals(Integer.valueOf(i), items.get(i));
+		}
+	}
+
+	/**
+	 * Test that the stream calls are passed to a delegate implementing ItemStream.
+	 *
+	 * @throws Exception
+	 * 			Technical error
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testStreamDelegation() throws Exception {
+		final ItemStreamReader<String> delegate = Mockito.mock(ItemStreamReader.class);
+		Mockito.when(delegate.read()).thenReturn("item", (String) null);
+
+		final SynchronizedItemReader<String> reader = new SynchronizedItemReader<String>(delegate);
+		final ExecutionContext ctx = new ExecutionContext();
+
+		reader.open(ctx);
+		assertEquals("item", reader.read());
+		assertNull(reader.read());
+		reader.update(ctx);
+		reader.close();
+
+		Mockito.verify(delegate).open(ctx);
+		Mockito.verify(delegate).update(ctx);
+		Mockito.verify(delegate).close();
+	}
+
+	/**
+	 * Test that the stream calls are ignored for a delegate that isn't an ItemStream.
+	 *
+	 * @throws Exception
+	 * 			Technical error
+	 */
+	@Test
+	public void testNoStreamDelegate() throws Exception {
+		final SynchronizedItemReader<Integer> reader = new SynchronizedItemReader<Integer>(
+				new UnsafeCountingReader(1));
+		final ExecutionContext ctx = new ExecutionContext();
+
+		reader.open(ctx);
+		assertEquals(Integer.valueOf(0), reader.read());
+		assertNull(reader.read());
+		reader.update(ctx);
+		reader.close();
+
+		assertEquals(0, ctx.size());
+	}
+}
@@ -0,0 +1,136 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.enums;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.JobRegistry;
+import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import biz.futureware.mantis.rpc.soap.client.MantisConnectBindingStub;
+import biz.futureware.mantis.rpc.soap.client.ObjectRef;
+
+import com.github.jrrdev.mantisbtsync.core.Application;
+import com.github.jrrdev.mantisbtsync.core.junit.AbstractSqlWriterTest;
+import com.github.jrrdev.mantisbtsync.core.junit.JunitTestConfiguration;
+import com.github.jrrdev.mantisbtsync.core.junit.MockClientStubConfiguration;
+
+/**
+ * Test of the syncEnumsJob job with its steps running concurrently.
+ * The steps run in the threads of the enums executor, where the
+ * job scoped client stub must still be available.
+ *
+ * @author jrrdev
+ *
+ */
+@SpringApplicationConfiguration({Application.class, JunitTestConfiguration.class,
+	MockClientStubConfiguration.class})
+@TestPropertySource(properties = {"mantis.enums.threads=4", "mantis.auth.filepath="})
+public class SyncEnumsJobTest extends AbstractSqlWriterTest {
+
+	@Autowired
+	private JobRegistry jobRegistry;
+
+	@Autowired
+	private JobRepository jobRepository;
+
+	@Autowired
+	private MockClientStubConfiguration mockClientStubConfiguration;
+
+	/**
+	 * Configure the mock to return one value for each enum.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Before
+	public void setUpMock() throws Exception {
+		final MantisConnectBindingStub clientStub = mockClientStubConfiguration.getClientStubMock();
+		Mockito.reset(clientStub);
+
+		final ObjectRef[] values = new ObjectRef[] {new ObjectRef(BigInteger.ONE, "value_1")};
+		Mockito.when(clientStub.mc_enum_custom_field_types("toto", "passwd")).thenReturn(values);
+		Mockito.when(clientStub.mc_enum_etas("toto", "passwd")).thenReturn(values);
+		Mockito.when(clientStub.mc_enum_priorities("toto", "passwd")).thenReturn(values);
+		Mockito.when(clientStub.mc_enum_projections("toto", "passwd")).thenReturn(values);
+		Mockito.when(clientStub.mc_enum_project_status("toto", "passwd")).thenReturn(values);
+		Mockito.when(clientStub.mc_enum_project_view_states("toto", "passwd")).thenReturn(values);
+		Mockito.when(clientStub.mc_enum_reproducibilities("toto", "passwd")).thenReturn(values);
+		Mockito.when(clientStub.mc_enum_resolutions("toto", "passwd")).thenReturn(values);
+		Mockito.when(clientStub.mc_enum_severities("toto", "passwd")).thenReturn(values);
+		Mockito.when(clientStub.mc_enum_status("toto", "passwd")).thenReturn(values);
+	}
+
+	/**
+	 * Test that all the steps are completed and all the enums written.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testConcurrentSteps() throws Exception {
+		final Map<String, JobParameter> map = new HashMap<String, JobParameter>();
+		map.put("mantis.username", new JobParameter("toto"));
+		map.put("mantis.password", new JobParameter("passwd"));
+		map.put("run.id", new JobParameter(System.currentTimeMillis()));
+
+		final SimpleJobLauncher launcher = new SimpleJobLauncher();
+		launcher.setJobRepository(jobRepository);
+		launcher.afterPropertiesSet();
+
+		final JobExecution jobExecution = launcher.run(jobRegistry.getJob("syncEnumsJob"),
+				new JobParameters(map));
+
+		assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+		assertEquals(11, jobExecution.getStepExecutions().size());
+		for (final StepExecution stepExecution : jobExecution.getStepExecutions()) {
+			assertEquals(stepExecution.getStepName(), BatchStatus.COMPLETED, stepExecution.getStatus());
+		}
+
+		final String[] tables = new String[] {"mantis_enum_custom_field_types", "mantis_enum_etas",
+				"mantis_enum_priorities", "mantis_enum_projections", "mantis_enum_project_status",
+				"mantis_enum_project_view_states", "mantis_enum_reproducibilities", "mantis_enum_resolutions",
+				"mantis_enum_severities", "mantis_enum_status"};
+		for (final String table : tables) {
+			assertEquals(table, Integer.valueOf(1),
+					getJdbcTemplate().queryForObject("SELECT COUNT(1) FROM " + table, Integer.class));
+		}
+	}
+}
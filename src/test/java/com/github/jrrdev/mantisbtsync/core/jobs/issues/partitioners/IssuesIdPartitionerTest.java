@@ -0,0 +1,167 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.partitioners;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.support.ListItemReader;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugIdBean;
+
+/**
+ * Tests for {@link IssuesIdPartitioner}.
+ *
+ * @author jrrdev
+ *
+ */
+public class IssuesIdPartitionerTest {
+
+	/**
+	 * Build a partitioner over the ids from 1 to count.
+	 *
+	 * @param count
+	 * 			Number of ids
+	 * @param partitionSize
+	 * 			Number of ids by partition
+	 * @return the partitioner
+	 */
+	private IssuesIdPartitioner buildPartitioner(final int count, final int partitionSize) {
+		final long[] ids = new long[count];
+		for (int i = 0; i < count; i++) {
+			ids[i] = i + 1;
+		}
+		return buildPartitioner(ids, partitionSize);
+	}
+
+	/**
+	 * Build a partitioner over the given ids.
+	 *
+	 * @param ids
+	 * 			The ids
+	 * @param partitionSize
+	 * 			Number of ids by partition
+	 * @return the partitioner
+	 */
+	private IssuesIdPartitioner buildPartitioner(final long[] ids, final int partitionSize) {
+		final List<BugIdBean> items = new ArrayList<BugIdBean>();
+		for (final long id : ids) {
+			final BugIdBean bean = new BugIdBean();
+			bean.setId(id);
+			items.add(bean);
+		}
+
+		final IssuesIdPartitioner partitioner = new IssuesIdPartitioner();
+		partitioner.setReader(new ListItemReader<BugIdBean>(items));
+		partitioner.setPartitionSize(partitionSize);
+		return partitioner;
+	}
+
+	/**
+	 * Test the split of the ids, the last partition being smaller.
+	 */
+	@Test
+	public void testPartition() {
+		final Map<String, ExecutionContext> partitions = buildPartitioner(5, 2).partition(1);
+
+		assertEquals(3, partitions.size());
+		assertEquals("1;2", partitions.get("partition1-2").getString(IssuesIdPartitioner.ISSUES_ID_KEY));
+		assertEquals("3;4", partitions.get("partition3-4").getString(IssuesIdPartitioner.ISSUES_ID_KEY));
+		assertEquals("5", partitions.get("partition5-5").getString(IssuesIdPartitioner.ISSUES_ID_KEY));
+	}
+
+	/**
+	 * Test the partitions of a restart, the ids of a completed partition and
+	 * of the first chunk of a failed partition being already synced.
+	 * The unchanged ranges keep their names and the shifted range doesn't take
+	 * the name of a partition of the first run.
+	 */
+	@Test
+	public void testRestart() {
+		final Map<String, ExecutionContext> firstRun = buildPartitioner(7, 2).partition(1);
+		assertEquals(4, firstRun.size());
+		assertTrue(firstRun.containsKey("partition1-2"));
+		assertTrue(firstRun.containsKey("partition3-4"));
+		assertTrue(firstRun.containsKey("partition5-6"));
+		assertTrue(firstRun.containsKey("partition7-7"));
+
+		// partition1-2 is completed, partition3-4 failed after syncing the issue 3
+		final Map<String, ExecutionContext> restart = buildPartitioner(new long[] { 4, 5, 6, 7 }, 2).partition(1);
+
+		assertEquals(2, restart.size());
+		assertEquals("4;5", restart.get("partition4-5").getString(IssuesIdPartitioner.ISSUES_ID_KEY));
+		assertEquals("6;7", restart.get("partition6-7").getString(IssuesIdPartitioner.ISSUES_ID_KEY));
+		for (final String name : restart.keySet()) {
+			assertFalse(firstRun.containsKey(name));
+		}
+
+		// Only partition7-7 failed : the other ranges are unchanged
+		final Map<String, ExecutionContext> restartTail = buildPartitioner(new long[] { 7 }, 2).partition(1);
+		assertEquals(1, restartTail.size());
+		assertEquals("7", restartTail.get("partition7-7").getString(IssuesIdPartitioner.ISSUES_ID_KEY));
+	}
+
+	/**
+	 * Test that unsorted and repeated ids are sorted and deduplicated, so that
+	 * two partitions don't get the same name and no id is lost.
+	 */
+	@Test
+	public void testUnsortedAndRepeatedIds() {
+		final Map<String, ExecutionContext> partitions = buildPartitioner(new long[] { 1, 2, 9, 1, 3, 9 }, 3)
+				.partition(1);
+
+		assertEquals(2, partitions.size());
+		assertEquals("1;2;3", partitions.get("partition1-3").getString(IssuesIdPartitioner.ISSUES_ID_KEY));
+		assertEquals("9", partitions.get("partition9-9").getString(IssuesIdPartitioner.ISSUES_ID_KEY));
+	}
+
+	/**
+	 * Test that a repeated id at a partition boundary isn't put in the next partition.
+	 */
+	@Test
+	public void testRepeatedIdAtBoundary() {
+		final Map<String, ExecutionContext> partitions = buildPartitioner(new long[] { 2, 1, 2, 3 }, 2)
+				.partition(1);
+
+		assertEquals(2, partitions.size());
+		assertEquals("1;2", partitions.get("partition1-2").getString(IssuesIdPartitioner.ISSUES_ID_KEY));
+		assertEquals("3", partitions.get("partition3-3").getString(IssuesIdPartitioner.ISSUES_ID_KEY));
+	}
+
+	/**
+	 * Test that no partition is created without ids.
+	 */
+	@Test
+	public void testNoIds() {
+		final Map<String, ExecutionContext> partitions = buildPartitioner(0, 2).partition(1);
+		assertTrue(partitions.isEmpty());
+	}
+}
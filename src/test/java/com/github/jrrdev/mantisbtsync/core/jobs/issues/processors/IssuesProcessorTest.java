@@ -0,0 +1,245 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.processors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import biz.futureware.mantis.rpc.soap.client.HistoryData;
+import biz.futureware.mantis.rpc.soap.client.IssueData;
+import biz.futureware.mantis.rpc.soap.client.MantisConnectBindingStub;
+import biz.futureware.mantis.rpc.soap.client.ObjectRef;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugHistoryBean;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugHistoryMark;
+import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
+
+/**
+ * Tests for the incremental history of {@link IssuesProcessor}.
+ *
+ * @author jrrdev
+ *
+ */
+public class IssuesProcessorTest {
+
+	/**
+	 * Last update of the issue, in seconds.
+	 */
+	private static final long LAST_UPDATED = 1000000L;
+
+	@Mock
+	private MantisConnectBindingStub clientStub;
+
+	@Mock
+	private IssuesDao dao;
+
+	private IssuesProcessor processor;
+
+	private IssueData item;
+
+	@Before
+	public void setUp() throws Exception {
+		MockitoAnnotations.initMocks(this);
+
+		processor = new IssuesProcessor();
+		processor.setClientStub(clientStub);
+		processor.setDao(dao);
+		processor.setUserName("toto");
+		processor.setPassword("passwd");
+		processor.setIncrementalHistory(true);
+
+		final Calendar lastUpdated = Calendar.getInstance();
+		lastUpdated.setTimeInMillis(LAST_UPDATED * 1000L);
+
+		item = new IssueData();
+		item.setId(BigInteger.ONE);
+		item.setProject(new ObjectRef(BigInteger.ONE, "project_1"));
+		item.setLast_updated(lastUpdated);
+
+		Mockito.when(clientStub.mc_issue_get_history("toto", "passwd", BigInteger.ONE)).thenReturn(
+				new HistoryData[] {
+						buildHistory(100L, "field_1"),
+						buildHistory(200L, "field_2"),
+						buildHistory(300L, "field_3"),
+						buildHistory(300L, "field_4"),
+						buildHistory(null, "field_5")
+				});
+	}
+
+	/**
+	 * The history isn't retrieved if the issue wasn't updated since its mark,
+	 * the dates being compared with a precision of one second.
+	 *
+	 * Test method for {@link IssuesProcessor#process(IssueData)}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testNotUpdatedSinceMark() throws Exception {
+		Mockito.when(dao.getHistoryMark(1L)).thenReturn(buildMark(LAST_UPDATED * 1000L + 500L, 200L, 2));
+
+		final BugBean bean = processor.process(item);
+
+		Mockito.verify(clientStub, Mockito.never()).mc_issue_get_history(Matchers.anyString(),
+				Matchers.anyString(), Matchers.any(BigInteger.class));
+		assertTrue(bean.getHistory().isEmpty());
+		assertNull(bean.getHistoryMark());
+	}
+
+	/**
+	 * When the number of entries up to the mark didn't change, only the entries
+	 * after the mark and the undated ones are kept.
+	 *
+	 * Test method for {@link IssuesProcessor#process(IssueData)}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testOnlyEntriesAfterMark() throws Exception {
+		Mockito.when(dao.getHistoryMark(1L)).thenReturn(buildMark((LAST_UPDATED - 10L) * 1000L, 200L, 2));
+
+		final BugBean bean = processor.process(item);
+
+		assertFields(bean.getHistory(), "field_3", "field_4", "field_5");
+		assertEquals(300000L, bean.getHistory().get(0).getDateModified().getTime());
+		assertNull(bean.getHistory().get(2).getDateModified());
+		assertNewMark(bean);
+	}
+
+	/**
+	 * When the number of entries up to the mark changed, an entry was added
+	 * or removed before the mark : all the entries are kept.
+	 *
+	 * Test method for {@link IssuesProcessor#process(IssueData)}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testAllEntriesWhenCountChanged() throws Exception {
+		Mockito.when(dao.getHistoryMark(1L)).thenReturn(buildMark((LAST_UPDATED - 10L) * 1000L, 200L, 1));
+
+		final BugBean bean = processor.process(item);
+
+		assertFields(bean.getHistory(), "field_1", "field_2", "field_3", "field_4", "field_5");
+		assertNewMark(bean);
+	}
+
+	/**
+	 * Without mark, all the entries are kept.
+	 *
+	 * Test method for {@link IssuesProcessor#process(IssueData)}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testAllEntriesWithoutMark() throws Exception {
+		final BugBean bean = processor.process(item);
+
+		assertFields(bean.getHistory(), "field_1", "field_2", "field_3", "field_4", "field_5");
+		assertNewMark(bean);
+	}
+
+	/**
+	 * Without incremental history, the mark isn't read and all the entries are kept.
+	 *
+	 * Test method for {@link IssuesProcessor#process(IssueData)}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testNotIncremental() throws Exception {
+		processor.setIncrementalHistory(false);
+
+		final BugBean bean = processor.process(item);
+
+		Mockito.verifyZeroInteractions(dao);
+		assertFields(bean.getHistory(), "field_1", "field_2", "field_3", "field_4", "field_5");
+		assertNewMark(bean);
+	}
+
+	/**
+	 * Check the new mark : last update of the issue, date of the most recent
+	 * entry and number of dated entries.
+	 *
+	 * @param bean
+	 * 			The processed issue
+	 */
+	private void assertNewMark(final BugBean bean) {
+		final BugHistoryMark mark = bean.getHistoryMark();
+		assertEquals(1L, mark.getBugId());
+		assertEquals(LAST_UPDATED * 1000L, mark.getLastUpdated().getTime());
+		assertEquals(300000L, mark.getMaxDateModified().getTime());
+		assertEquals(4, mark.getHistoryCount());
+	}
+
+	private void assertFields(final List<BugHistoryBean> history, final String... fields) {
+		assertEquals(fields.length, history.size());
+		for (int i = 0; i < fields.length; i++) {
+			assertEquals(1L, history.get(i).getBugId());
+			assertEquals(fields[i], history.get(i).getFieldName());
+		}
+	}
+
+	private BugHistoryMark buildMark(final long lastUpdated, final long maxDateModified,
+			final int historyCount) {
+
+		final BugHistoryMark mark = new BugHistoryMark();
+		mark.setBugId(1L);
+		mark.setLastUpdated(new Timestamp(lastUpdated));
+		mark.setMaxDateModified(new Timestamp(maxDateModified * 1000L));
+		mark.setHistoryCount(historyCount);
+		return mark;
+	}
+
+	private HistoryData buildHistory(final Long date, final String field) {
+		final HistoryData history = new HistoryData();
+		history.setDate(date == null ? null : BigInteger.valueOf(date));
+		history.setUserid(BigInteger.ONE);
+		history.setUsername("user_1");
+		history.setField(field);
+		history.setOld_value("old");
+		history.setNew_value("new");
+		history.setType(BigInteger.ZERO);
+		return history;
+	}
+}
@@ -25,7 +25,6 @@ package com.github.jrrdev.mantisbtsync.core.jobs.issues.readers;
 
 import static org.junit.Assert.assertEquals;
 
-import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -86,8 +85,8 @@ public class CsvIssuesReaderTest {
 		}
 
 		assertEquals(2, list.size());
-		assertEquals(BigInteger.valueOf(17428), list.get(0).getId());
-		assertEquals(BigInteger.valueOf(14234), list.get(1).getId());
+		assertEquals(17428, list.get(0).getId());
+		assertEquals(14234, list.get(1).getId());
 	}
 
 	/**
@@ -0,0 +1,170 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.readers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigInteger;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import biz.futureware.mantis.rpc.soap.client.IssueData;
+import biz.futureware.mantis.rpc.soap.client.IssueHeaderData;
+import biz.futureware.mantis.rpc.soap.client.MantisConnectBindingStub;
+
+import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
+
+/**
+ * Tests for {@link IssueHeadersReader}.
+ *
+ * @author jrrdev
+ *
+ */
+public class IssueHeadersReaderTest {
+
+	@Mock
+	private MantisConnectBindingStub clientStub;
+
+	@Mock
+	private IssuesDao dao;
+
+	private IssueHeadersReader reader;
+
+	@Before
+	public void setUpBefore() {
+		MockitoAnnotations.initMocks(this);
+
+		reader = new IssueHeadersReader();
+		reader.setClientStub(clientStub);
+		reader.setDao(dao);
+		reader.setUserName("toto");
+		reader.setPassword("passwd");
+		reader.setProjectId(BigInteger.ONE);
+		reader.setPageSize(2);
+	}
+
+	/**
+	 * Only the issues updated since the last sync and whose last update date
+	 * differs from the local DB must be retrieved.
+	 *
+	 * Test method for {@link IssueHeadersReader#read()}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testRead() throws Exception {
+		final Calendar lastJobRun = Calendar.getInstance();
+		lastJobRun.set(Calendar.MILLISECOND, 0);
+		reader.setLastJobRun(lastJobRun.getTime());
+
+		final Calendar date3 = (Calendar) lastJobRun.clone();
+		date3.add(Calendar.MINUTE, 3);
+		final Calendar date2 = (Calendar) lastJobRun.clone();
+		date2.add(Calendar.MINUTE, 2);
+		final Calendar date1 = (Calendar) lastJobRun.clone();
+		date1.add(Calendar.MINUTE, 1);
+		final Calendar date0 = (Calendar) lastJobRun.clone();
+		date0.add(Calendar.MINUTE, -1);
+
+		Mockito.when(clientStub.mc_project_get_issue_headers("toto", "passwd", BigInteger.ONE,
+				BigInteger.ONE, BigInteger.valueOf(2)))
+				.thenReturn(new IssueHeaderData[] {buildHeader(4, date3), buildHeader(3, date2)});
+		Mockito.when(clientStub.mc_project_get_issue_headers("toto", "passwd", BigInteger.ONE,
+				BigInteger.valueOf(2), BigInteger.valueOf(2)))
+				.thenReturn(new IssueHeaderData[] {buildHeader(2, date1), buildHeader(1, date0)});
+
+		// Issue 3 is already up to date, issue 2 is unknown
+		final Map<Long, java.sql.Timestamp> localDates = new HashMap<Long, java.sql.Timestamp>();
+		localDates.put(4L, new java.sql.Timestamp(date2.getTimeInMillis()));
+		localDates.put(3L, new java.sql.Timestamp(date2.getTimeInMillis()));
+		Mockito.when(dao.getIssuesLastUpdated(Matchers.any(long[].class))).thenReturn(localDates);
+
+		final IssueData issue4 = new IssueData();
+		issue4.setId(BigInteger.valueOf(4));
+		final IssueData issue2 = new IssueData();
+		issue2.setId(BigInteger.valueOf(2));
+		Mockito.when(clientStub.mc_issue_get("toto", "passwd", BigInteger.valueOf(4))).thenReturn(issue4);
+		Mockito.when(clientStub.mc_issue_get("toto", "passwd", BigInteger.valueOf(2))).thenReturn(issue2);
+
+		assertEquals(issue4, reader.read());
+		assertEquals(issue2, reader.read());
+		assertNull(reader.read());
+		assertNull(reader.read());
+
+		Mockito.verify(clientStub, Mockito.never()).mc_issue_get("toto", "passwd", BigInteger.valueOf(3));
+		Mockito.verify(clientStub, Mockito.never()).mc_issue_get("toto", "passwd", BigInteger.ONE);
+		Mockito.verify(clientStub, Mockito.never()).mc_project_get_issue_headers("toto", "passwd",
+				BigInteger.ONE, BigInteger.valueOf(3), BigInteger.valueOf(2));
+	}
+
+	/**
+	 * The reading must stop when MantisBT returns the last page again.
+	 *
+	 * Test method for {@link IssueHeadersReader#read()}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testReadRepeatedLastPage() throws Exception {
+		final Calendar date = Calendar.getInstance();
+		final IssueHeaderData[] page = new IssueHeaderData[] {buildHeader(2, date), buildHeader(1, date)};
+		Mockito.when(clientStub.mc_project_get_issue_headers(Matchers.eq("toto"), Matchers.eq("passwd"),
+				Matchers.eq(BigInteger.ONE), Matchers.any(BigInteger.class), Matchers.eq(BigInteger.valueOf(2))))
+				.thenReturn(page);
+
+		Mockito.when(dao.getIssuesLastUpdated(Matchers.any(long[].class)))
+				.thenReturn(new HashMap<Long, java.sql.Timestamp>());
+
+		final IssueData issue2 = new IssueData();
+		final IssueData issue1 = new IssueData();
+		Mockito.when(clientStub.mc_issue_get("toto", "passwd", BigInteger.valueOf(2))).thenReturn(issue2);
+		Mockito.when(clientStub.mc_issue_get("toto", "passwd", BigInteger.ONE)).thenReturn(issue1);
+
+		assertEquals(issue2, reader.read());
+		assertEquals(issue1, reader.read());
+		assertNull(reader.read());
+
+		Mockito.verify(clientStub, Mockito.times(2)).mc_project_get_issue_headers(Matchers.eq("toto"),
+				Matchers.eq("passwd"), Matchers.eq(BigInteger.ONE), Matchers.any(BigInteger.class),
+				Matchers.eq(BigInteger.valueOf(2)));
+	}
+
+	private IssueHeaderData buildHeader(final long id, final Calendar lastUpdated) {
+		final IssueHeaderData header = new IssueHeaderData();
+		header.setId(BigInteger.valueOf(id));
+		header.setLast_updated(lastUpdated);
+		return header;
+	}
+}
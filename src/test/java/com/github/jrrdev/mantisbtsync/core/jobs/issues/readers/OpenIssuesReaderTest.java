@@ -0,0 +1,184 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.readers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigInteger;
+import java.util.Calendar;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import biz.futureware.mantis.rpc.soap.client.IssueData;
+import biz.futureware.mantis.rpc.soap.client.MantisConnectBindingStub;
+
+/**
+ * Tests for the prefetch of {@link OpenIssuesReader}.
+ *
+ * @author jrrdev
+ *
+ */
+public class OpenIssuesReaderTest {
+
+	@Mock
+	private MantisConnectBindingStub clientStub;
+
+	private OpenIssuesReader reader;
+
+	private StepContext stepContext;
+
+	@Before
+	public void setUpBefore() {
+		MockitoAnnotations.initMocks(this);
+
+		final PageSizeController pageSizeController = new PageSizeController();
+		pageSizeController.setMinPageSize(2);
+		pageSizeController.setMaxPageSize(2);
+		pageSizeController.setPageSize(2);
+
+		reader = new OpenIssuesReader();
+		reader.setClientStub(clientStub);
+		reader.setUserName("toto");
+		reader.setPassword("passwd");
+		reader.setProjectId(BigInteger.ONE);
+		reader.setPageSizeController(pageSizeController);
+		reader.setPrefetchDepth(2);
+		reader.setTaskExecutor(new SimpleAsyncTaskExecutor());
+
+		final StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+		stepContext = StepSynchronizationManager.register(stepExecution);
+	}
+
+	@After
+	public void tearDown() {
+		StepSynchronizationManager.release();
+	}
+
+	/**
+	 * The pages are prefetched in worker threads and the issues are returned
+	 * in the order of the pages. The step scope mustn't be destroyed by the workers.
+	 *
+	 * Test method for {@link OpenIssuesReader#read()}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testReadWithPrefetch() throws Exception {
+		final AtomicBoolean destroyed = new AtomicBoolean(false);
+		stepContext.registerDestructionCallback("test", new Runnable() {
+
+			@Override
+			public void run() {
+				destroyed.set(true);
+			}
+		});
+
+		mockPage(1, 5, 4);
+		mockPage(2, 3, 2);
+		mockPage(3, 1);
+
+		for (long id = 5; id >= 1; id--) {
+			final IssueData item = reader.read();
+			assertNotNull(item);
+			assertEquals(BigInteger.valueOf(id), item.getId());
+		}
+		assertNull(reader.read());
+		reader.close();
+
+		assertFalse(destroyed.get());
+	}
+
+	/**
+	 * The reading stops at the first issue not updated since the last sync,
+	 * even if the next pages were prefetched.
+	 *
+	 * Test method for {@link OpenIssuesReader#read()}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testReadWithPrefetchStopsAtLastJobRun() throws Exception {
+		final Calendar lastJobRun = Calendar.getInstance();
+		reader.setLastJobRun(lastJobRun.getTime());
+
+		final Calendar after = (Calendar) lastJobRun.clone();
+		after.add(Calendar.MINUTE, 1);
+		final Calendar before = (Calendar) lastJobRun.clone();
+		before.add(Calendar.MINUTE, -1);
+
+		mockPage(1, after, 5, 4);
+		mockPage(2, before, 3, 2);
+		mockPage(3, before, 1);
+
+		assertEquals(BigInteger.valueOf(5), reader.read().getId());
+		assertEquals(BigInteger.valueOf(4), reader.read().getId());
+		assertNull(reader.read());
+		assertNull(reader.read());
+		reader.close();
+	}
+
+	private void mockPage(final int pageNumber, final long... ids) throws Exception {
+		mockPage(pageNumber, null, ids);
+	}
+
+	private void mockPage(final int pageNumber, final Calendar lastUpdated, final long... ids)
+			throws Exception {
+
+		final IssueData[] page = new IssueData[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			page[i] = new IssueData();
+			page[i].setId(BigInteger.valueOf(ids[i]));
+			page[i].setLast_updated(lastUpdated);
+		}
+
+		Mockito.when(clientStub.mc_project_get_issues("toto", "passwd", BigInteger.ONE,
+				BigInteger.valueOf(pageNumber), BigInteger.valueOf(2))).thenAnswer(new Answer<IssueData[]>() {
+
+					@Override
+					public IssueData[] answer(final InvocationOnMock invocation) throws Throwable {
+						// The calls are run with the step context of the reader
+						assertNotNull(StepSynchronizationManager.getContext());
+						return page;
+					}
+				});
+	}
+}
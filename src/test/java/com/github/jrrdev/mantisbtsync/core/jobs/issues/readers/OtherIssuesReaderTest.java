@@ -0,0 +1,315 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.readers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigInteger;
+import java.util.Calendar;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.batch.item.ExecutionContext;
+
+import biz.futureware.mantis.rpc.soap.client.IssueData;
+import biz.futureware.mantis.rpc.soap.client.MantisConnectBindingStub;
+
+import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
+
+/**
+ * Tests for the paging and the restart of {@link OtherIssuesReader}.
+ *
+ * @author jrrdev
+ *
+ */
+public class OtherIssuesReaderTest {
+
+	@Mock
+	private MantisConnectBindingStub clientStub;
+
+	@Mock
+	private IssuesDao dao;
+
+	private OtherIssuesReader reader;
+
+	private Calendar jobStartTime;
+
+	@Before
+	public void setUp() throws Exception {
+		MockitoAnnotations.initMocks(this);
+
+		jobStartTime = Calendar.getInstance();
+
+		reader = new OtherIssuesReader();
+		reader.setClientStub(clientStub);
+		reader.setDao(dao);
+		reader.setUserName("toto");
+		reader.setPassword("passwd");
+		reader.setProjectId(BigInteger.ONE);
+		reader.setJobStartTime(jobStartTime);
+		reader.setPageSize(2);
+
+		Mockito.when(dao.getProjectAndSubProjectsId(1L)).thenReturn(new long[] { 1 });
+
+		Mockito.when(clientStub.mc_issue_get(Matchers.eq("toto"), Matchers.eq("passwd"),
+				Matchers.any(BigInteger.class))).thenAnswer(new Answer<IssueData>() {
+
+					@Override
+					public IssueData answer(final InvocationOnMock invocation) throws Throwable {
+						final IssueData issue = new IssueData();
+						issue.setId((BigInteger) invocation.getArguments()[2]);
+						return issue;
+					}
+				});
+	}
+
+	/**
+	 * The next page is read after the last id of the previous one, until an
+	 * empty page.
+	 *
+	 * Test method for {@link OtherIssuesReader#read()}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testReadByPages() throws Exception {
+		mockPage(0, 1, 2);
+		mockPage(2, 4, 5);
+		mockPage(5);
+
+		reader.open(new ExecutionContext());
+		assertReads(1, 2, 4, 5);
+		assertNull(reader.read());
+		assertNull(reader.read());
+		reader.close();
+
+		Mockito.verify(dao).getNotClosedIssuesId(jobStartTime, 1, 0, 2);
+		Mockito.verify(dao).getNotClosedIssuesId(jobStartTime, 1, 2, 2);
+		Mockito.verify(dao).getNotClosedIssuesId(jobStartTime, 1, 5, 2);
+		Mockito.verify(dao).getProjectAndSubProjectsId(1L);
+		Mockito.verifyNoMoreInteractions(dao);
+	}
+
+	/**
+	 * The ids of the project and of its subprojects are paged by project and
+	 * merged in id order. A project is only read again when its page is consumed.
+	 *
+	 * Test method for {@link OtherIssuesReader#read()}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testReadSubProjects() throws Exception {
+		Mockito.when(dao.getProjectAndSubProjectsId(1L)).thenReturn(new long[] { 1, 2 });
+		mockProjectPage(1, 0, 1, 4);
+		mockProjectPage(1, 4, 6);
+		mockProjectPage(2, 0, 2, 3);
+		mockProjectPage(2, 3, 5, 7);
+		mockProjectPage(2, 7);
+
+		reader.open(new ExecutionContext());
+		assertReads(1, 2, 3, 4, 5, 6, 7);
+		assertNull(reader.read());
+		reader.close();
+
+		Mockito.verify(dao).getProjectAndSubProjectsId(1L);
+		Mockito.verify(dao).getNotClosedIssuesId(jobStartTime, 1, 0, 2);
+		Mockito.verify(dao).getNotClosedIssuesId(jobStartTime, 1, 4, 2);
+		Mockito.verify(dao).getNotClosedIssuesId(jobStartTime, 2, 0, 2);
+		Mockito.verify(dao).getNotClosedIssuesId(jobStartTime, 2, 3, 2);
+		Mockito.verify(dao).getNotClosedIssuesId(jobStartTime, 2, 7, 2);
+		Mockito.verifyNoMoreInteractions(dao);
+	}
+
+	/**
+	 * On a restart, the cursors of all the projects start after the saved id.
+	 *
+	 * Test method for {@link OtherIssuesReader#open(ExecutionContext)}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testRestartSubProjects() throws Exception {
+		Mockito.when(dao.getProjectAndSubProjectsId(1L)).thenReturn(new long[] { 1, 2 });
+		mockProjectPage(1, 4, 6);
+		mockProjectPage(2, 4, 5);
+
+		final ExecutionContext executionContext = new ExecutionContext();
+		executionContext.putLong(OtherIssuesReader.LAST_ID_KEY, 4);
+
+		reader.open(executionContext);
+		assertReads(5, 6);
+		assertNull(reader.read());
+		reader.close();
+	}
+
+	/**
+	 * A page shorter than the page size is the last one, the local DB isn't
+	 * read again.
+	 *
+	 * Test method for {@link OtherIssuesReader#read()}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testReadStopsAfterShortPage() throws Exception {
+		mockPage(0, 1, 2);
+		mockPage(2, 4);
+
+		reader.open(new ExecutionContext());
+		assertReads(1, 2, 4);
+		assertNull(reader.read());
+		reader.close();
+
+		Mockito.verify(dao).getNotClosedIssuesId(jobStartTime, 1, 0, 2);
+		Mockito.verify(dao).getNotClosedIssuesId(jobStartTime, 1, 2, 2);
+		Mockito.verify(dao).getProjectAndSubProjectsId(1L);
+		Mockito.verifyNoMoreInteractions(dao);
+	}
+
+	/**
+	 * The last returned id is saved in the execution context, and a restarted
+	 * reader goes on after it.
+	 *
+	 * Test method for {@link OtherIssuesReader#open(ExecutionContext)} and
+	 * {@link OtherIssuesReader#update(ExecutionContext)}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testRestart() throws Exception {
+		mockPage(0, 1, 2);
+		mockPage(1, 2, 4);
+		mockPage(4);
+
+		final ExecutionContext executionContext = new ExecutionContext();
+		reader.open(executionContext);
+		assertReads(1);
+		reader.update(executionContext);
+		assertEquals(1, executionContext.getLong(OtherIssuesReader.LAST_ID_KEY));
+		reader.close();
+
+		final OtherIssuesReader restarted = new OtherIssuesReader();
+		restarted.setClientStub(clientStub);
+		restarted.setDao(dao);
+		restarted.setUserName("toto");
+		restarted.setPassword("passwd");
+		restarted.setProjectId(BigInteger.ONE);
+		restarted.setJobStartTime(jobStartTime);
+		restarted.setPageSize(2);
+		reader = restarted;
+
+		reader.open(executionContext);
+		assertReads(2, 4);
+		assertNull(reader.read());
+		reader.update(executionContext);
+		assertEquals(4, executionContext.getLong(OtherIssuesReader.LAST_ID_KEY));
+		reader.close();
+
+		Mockito.verify(dao).getNotClosedIssuesId(jobStartTime, 1, 1, 2);
+		Mockito.verify(dao).getNotClosedIssuesId(jobStartTime, 1, 4, 2);
+	}
+
+	/**
+	 * Without saved state, the last id is neither saved nor restored.
+	 *
+	 * Test method for {@link OtherIssuesReader#open(ExecutionContext)} and
+	 * {@link OtherIssuesReader#update(ExecutionContext)}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testNoSaveState() throws Exception {
+		mockPage(0, 1);
+		reader.setSaveState(false);
+
+		final ExecutionContext executionContext = new ExecutionContext();
+		executionContext.putLong(OtherIssuesReader.LAST_ID_KEY, 5);
+
+		reader.open(executionContext);
+		assertReads(1);
+		assertNull(reader.read());
+
+		final ExecutionContext newContext = new ExecutionContext();
+		reader.update(newContext);
+		assertFalse(newContext.containsKey(OtherIssuesReader.LAST_ID_KEY));
+		reader.close();
+
+		Mockito.verify(dao).getNotClosedIssuesId(jobStartTime, 1, 0, 2);
+	}
+
+	/**
+	 * The fetch timeout is set as the socket timeout of the stub during the call,
+	 * then the previous timeout is restored.
+	 *
+	 * Test method for {@link OtherIssuesReader#read()}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testReadWithTimeout() throws Exception {
+		mockPage(0, 1);
+		reader.setCallTimeout(3000);
+		Mockito.when(clientStub.getTimeout()).thenReturn(20000);
+
+		reader.open(new ExecutionContext());
+		assertReads(1);
+		reader.close();
+
+		final InOrder inOrder = Mockito.inOrder(clientStub);
+		inOrder.verify(clientStub).setTimeout(3000);
+		inOrder.verify(clientStub).mc_issue_get("toto", "passwd", BigInteger.ONE);
+		inOrder.verify(clientStub).setTimeout(20000);
+	}
+
+	private void mockPage(final long afterId, final long... ids) {
+		mockProjectPage(1, afterId, ids);
+	}
+
+	private void mockProjectPage(final long projectId, final long afterId, final long... ids) {
+		Mockito.when(dao.getNotClosedIssuesId(jobStartTime, projectId, afterId, 2)).thenReturn(ids);
+	}
+
+	private void assertReads(final long... ids) throws Exception {
+		for (final long id : ids) {
+			assertEquals(BigInteger.valueOf(id), reader.read().getId());
+		}
+	}
+}
@@ -0,0 +1,118 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.readers;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link PageSizeController}.
+ *
+ * @author jrrdev
+ *
+ */
+public class PageSizeControllerTest {
+
+	private PageSizeController controller;
+
+	@Before
+	public void setUp() {
+		controller = new PageSizeController();
+		controller.setMinPageSize(10);
+		controller.setMaxPageSize(80);
+		controller.setTargetLatency(1000);
+		controller.setMaxPayloadBytes(100000);
+		controller.setPageSize(20);
+	}
+
+	/**
+	 * Test that the page size grows when the responses are fast and small,
+	 * up to the max page size.
+	 */
+	@Test
+	public void testGrow() {
+		controller.record(20, 20, 100, 2000);
+		assertEquals(40, controller.getPageSize());
+
+		controller.record(40, 40, 200, 4000);
+		assertEquals(80, controller.getPageSize());
+
+		controller.record(80, 80, 400, 8000);
+		assertEquals(80, controller.getPageSize());
+	}
+
+	/**
+	 * Test that the page size doesn't grow on a short page.
+	 */
+	@Test
+	public void testNoGrowOnShortPage() {
+		controller.record(20, 5, 10, 500);
+		assertEquals(20, controller.getPageSize());
+	}
+
+	/**
+	 * Test that the page size shrinks when the responses are slow,
+	 * down to the min page size.
+	 */
+	@Test
+	public void testShrinkOnLatency() {
+		controller.record(20, 20, 2000, 2000);
+		assertEquals(10, controller.getPageSize());
+
+		controller.record(10, 10, 2000, 1000);
+		assertEquals(10, controller.getPageSize());
+	}
+
+	/**
+	 * Test that the page size shrinks when the responses are too big.
+	 */
+	@Test
+	public void testShrinkOnPayload() {
+		controller.record(20, 20, 100, 200000);
+		assertEquals(10, controller.getPageSize());
+	}
+
+	/**
+	 * Test that the page size stays the same when a bigger page would exceed the targets.
+	 */
+	@Test
+	public void testStable() {
+		controller.record(20, 20, 600, 2000);
+		assertEquals(20, controller.getPageSize());
+	}
+
+	/**
+	 * Test that the page size set is bounded.
+	 */
+	@Test
+	public void testBounds() {
+		controller.setPageSize(1000);
+		assertEquals(80, controller.getPageSize());
+
+		controller.setPageSize(1);
+		assertEquals(10, controller.getPageSize());
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.tasklets;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
+
+/**
+ * Tests for the range mode of {@link HandlersStatTasklet}.
+ *
+ * @author jrrdev
+ *
+ */
+public class HandlersStatTaskletTest {
+
+	@Mock
+	private IssuesDao dao;
+
+	private HandlersStatTasklet tasklet;
+
+	private TimeZone defaultTimeZone;
+
+	@Before
+	public void setUp() {
+		MockitoAnnotations.initMocks(this);
+
+		// Daylight saving time starts on 2016-03-27 in this time zone
+		defaultTimeZone = TimeZone.getDefault();
+		TimeZone.setDefault(TimeZone.getTimeZone("Europe/Paris"));
+
+		tasklet = new HandlersStatTasklet();
+		tasklet.setDao(dao);
+		tasklet.setStartDate(buildDate(25, 12).getTime());
+		tasklet.setEndDate(buildDate(29, 12).getTime());
+	}
+
+	@After
+	public void tearDown() {
+		TimeZone.setDefault(defaultTimeZone);
+	}
+
+	/**
+	 * A daily step keeps the same local time of day across the DST change.
+	 *
+	 * Test method for {@link HandlersStatTasklet#execute(org.springframework.batch.core.StepContribution, org.springframework.batch.core.scope.context.ChunkContext)}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testDailyStepAcrossDst() throws Exception {
+		tasklet.setStepHours(24);
+
+		final List<Calendar> dates = execute();
+
+		assertEquals(5, dates.size());
+		for (int i = 0; i < dates.size(); i++) {
+			assertEquals(25 + i, dates.get(i).get(Calendar.DAY_OF_MONTH));
+			assertEquals(12, dates.get(i).get(Calendar.HOUR_OF_DAY));
+		}
+	}
+
+	/**
+	 * A step that isn't a multiple of 24 hours adds elapsed hours.
+	 *
+	 * Test method for {@link HandlersStatTasklet#execute(org.springframework.batch.core.StepContribution, org.springframework.batch.core.scope.context.ChunkContext)}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testHourlyStepAcrossDst() throws Exception {
+		tasklet.setStepHours(36);
+
+		final List<Calendar> dates = execute();
+
+		assertEquals(3, dates.size());
+		for (int i = 1; i < dates.size(); i++) {
+			assertEquals(36 * 3600000L,
+					dates.get(i).getTimeInMillis() - dates.get(i - 1).getTimeInMillis());
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Calendar> execute() throws Exception {
+		tasklet.execute(null, null);
+
+		final ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+		Mockito.verify(dao).computeHandlersStat(captor.capture());
+		return captor.getValue();
+	}
+
+	private Calendar buildDate(final int day, final int hour) {
+		final Calendar cal = Calendar.getInstance();
+		cal.clear();
+		cal.set(2016, Calendar.MARCH, day, hour, 0, 0);
+		return cal;
+	}
+}
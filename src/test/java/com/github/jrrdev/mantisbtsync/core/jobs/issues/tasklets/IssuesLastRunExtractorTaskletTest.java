@@ -0,0 +1,183 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.tasklets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.SyncWatermark;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.readers.OpenIssuesReader;
+import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
+
+/**
+ * Tests for {@link IssuesLastRunExtractorTasklet}.
+ *
+ * @author jrrdev
+ *
+ */
+public class IssuesLastRunExtractorTaskletTest {
+
+	@Mock
+	private IssuesDao dao;
+
+	@Mock
+	private JobExplorer jobExplorer;
+
+	private IssuesLastRunExtractorTasklet tasklet;
+
+	private StepExecution currentStep;
+
+	@Before
+	public void setUp() {
+		MockitoAnnotations.initMocks(this);
+
+		tasklet = new IssuesLastRunExtractorTasklet();
+		tasklet.setDao(dao);
+		tasklet.setJobExplorer(jobExplorer);
+
+		final JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution("syncIssuesJob", 1L, 2L,
+				buildParams(2L));
+		currentStep = MetaDataInstanceFactory.createStepExecution(jobExecution, "issuesLastRunExtractorStep", 1L);
+	}
+
+	/**
+	 * The start time of the last run is the latest one of the marks and the
+	 * page size is read from the mark of openIssuesSyncStep only. The job
+	 * repository isn't read.
+	 *
+	 * Test method for {@link IssuesLastRunExtractorTasklet#execute(org.springframework.batch.core.StepContribution, ChunkContext)}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testExecuteFromWatermarks() throws Exception {
+		Mockito.when(dao.getSyncWatermarks("syncIssuesJob", 1L)).thenReturn(Arrays.asList(
+				buildWatermark("openIssuesSyncStep", 1000000L, 40),
+				buildWatermark("otherIssuesSyncStep", 2000000L, 80)));
+
+		tasklet.execute(currentStep.createStepContribution(),
+				new ChunkContext(new StepContext(currentStep)));
+
+		final ExecutionContext context = currentStep.getExecutionContext();
+		assertNotNull(context.get("mantis.update.current_job_run"));
+		assertEquals(new Date(2000000L), context.get("mantis.update.last_job_run"));
+		assertEquals(40, context.getInt(OpenIssuesReader.PAGE_SIZE_KEY));
+
+		Mockito.verifyZeroInteractions(jobExplorer);
+	}
+
+	/**
+	 * Without any mark for the project, the last completed execution with the
+	 * same parameters is read from the job repository.
+	 *
+	 * Test method for {@link IssuesLastRunExtractorTasklet#execute(org.springframework.batch.core.StepContribution, ChunkContext)}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testExecuteFromJobRepository() throws Exception {
+		Mockito.when(dao.getSyncWatermarks("syncIssuesJob", 1L)).thenReturn(new ArrayList<SyncWatermark>());
+
+		final JobExecution completed = buildExecution(10L, buildParams(1L), ExitStatus.COMPLETED, 1000000L);
+		MetaDataInstanceFactory.createStepExecution(completed, "openIssuesSyncStep", 11L)
+		.getExecutionContext().putInt(OpenIssuesReader.PAGE_SIZE_KEY, 30);
+		MetaDataInstanceFactory.createStepExecution(completed, "otherIssuesSyncStep", 12L)
+		.getExecutionContext().putInt(OpenIssuesReader.PAGE_SIZE_KEY, 90);
+
+		final JobExecution failed = buildExecution(20L, buildParams(3L), ExitStatus.FAILED, 2000000L);
+		final JobExecution otherProject = buildExecution(30L, new JobParametersBuilder()
+				.addString(SyncWatermarkTasklet.PROJECT_ID_PARAM, "2")
+				.addLong("run.id", 4L)
+				.toJobParameters(), ExitStatus.COMPLETED, 3000000L);
+
+		Mockito.when(jobExplorer.getJobInstances("syncIssuesJob", 0, 1000))
+		.thenReturn(Arrays.asList(completed.getJobInstance(), failed.getJobInstance(),
+				otherProject.getJobInstance()));
+		Mockito.when(jobExplorer.getJobExecutions(completed.getJobInstance()))
+		.thenReturn(Arrays.asList(completed));
+		Mockito.when(jobExplorer.getJobExecutions(failed.getJobInstance()))
+		.thenReturn(Arrays.asList(failed));
+		Mockito.when(jobExplorer.getJobExecutions(otherProject.getJobInstance()))
+		.thenReturn(Arrays.asList(otherProject));
+
+		tasklet.execute(currentStep.createStepContribution(),
+				new ChunkContext(new StepContext(currentStep)));
+
+		final ExecutionContext context = currentStep.getExecutionContext();
+		assertEquals(new Date(1000000L), context.get("mantis.update.last_job_run"));
+		assertEquals(30, context.getInt(OpenIssuesReader.PAGE_SIZE_KEY));
+	}
+
+	private JobParameters buildParams(final long runId) {
+		return new JobParametersBuilder()
+				.addString(SyncWatermarkTasklet.PROJECT_ID_PARAM, "1")
+				.addLong("run.id", runId)
+				.toJobParameters();
+	}
+
+	private SyncWatermark buildWatermark(final String stepName, final long lastJobRun,
+			final Integer pageSize) {
+
+		final SyncWatermark watermark = new SyncWatermark();
+		watermark.setJobName("syncIssuesJob");
+		watermark.setProjectId(1L);
+		watermark.setStepName(stepName);
+		watermark.setLastJobRun(new Timestamp(lastJobRun));
+		watermark.setPageSize(pageSize);
+		return watermark;
+	}
+
+	private JobExecution buildExecution(final long id, final JobParameters params,
+			final ExitStatus exitStatus, final long startTime) {
+
+		final JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution("syncIssuesJob",
+				id, id, params);
+		jobExecution.setExitStatus(exitStatus);
+		jobExecution.setStartTime(new Date(startTime));
+		return jobExecution;
+	}
+}
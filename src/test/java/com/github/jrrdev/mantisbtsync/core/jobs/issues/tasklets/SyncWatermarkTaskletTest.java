@@ -0,0 +1,169 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.tasklets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.SyncWatermark;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.readers.OpenIssuesReader;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.LastUpdatedWatermarkWriter;
+import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
+
+/**
+ * Tests for {@link SyncWatermarkTasklet}.
+ *
+ * @author jrrdev
+ *
+ */
+public class SyncWatermarkTaskletTest {
+
+	@Mock
+	private IssuesDao dao;
+
+	private SyncWatermarkTasklet tasklet;
+
+	private JobExecution jobExecution;
+
+	private Calendar currentJobRun;
+
+	@Before
+	public void setUp() {
+		MockitoAnnotations.initMocks(this);
+
+		tasklet = new SyncWatermarkTasklet();
+		tasklet.setDao(dao);
+
+		jobExecution = MetaDataInstanceFactory.createJobExecution("syncIssuesJob", 1L, 1L,
+				new JobParametersBuilder()
+				.addString(SyncWatermarkTasklet.PROJECT_ID_PARAM, "1")
+				.addLong("run.id", 2L)
+				.toJobParameters());
+
+		currentJobRun = Calendar.getInstance();
+		jobExecution.getExecutionContext().put(SyncWatermarkTasklet.CURRENT_JOB_RUN_KEY, currentJobRun);
+	}
+
+	/**
+	 * The partitions of a step are merged into one mark, the max last updated date
+	 * being kept. The steps not completed and the current step are skipped.
+	 *
+	 * Test method for {@link SyncWatermarkTasklet#execute(org.springframework.batch.core.StepContribution, ChunkContext)}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testExecute() throws Exception {
+		final Date firstUpdate = new Date(1000000L);
+		final Date secondUpdate = new Date(2000000L);
+
+		final StepExecution openStep = createStep("openIssuesSyncStep", 1L, BatchStatus.COMPLETED);
+		openStep.getExecutionContext().putInt(OpenIssuesReader.PAGE_SIZE_KEY, 40);
+
+		final StepExecution firstPartition = createStep("otherIssuesSyncStep:partition1-10", 2L,
+				BatchStatus.COMPLETED);
+		firstPartition.getExecutionContext().put(LastUpdatedWatermarkWriter.MAX_LAST_UPDATED_KEY, secondUpdate);
+
+		final StepExecution secondPartition = createStep("otherIssuesSyncStep:partition11-20", 3L,
+				BatchStatus.COMPLETED);
+		secondPartition.getExecutionContext().put(LastUpdatedWatermarkWriter.MAX_LAST_UPDATED_KEY, firstUpdate);
+
+		createStep("forceSyncStep", 4L, BatchStatus.FAILED);
+
+		final StepExecution currentStep = createStep("syncWatermarkStep", 5L, BatchStatus.STARTED);
+
+		tasklet.execute(currentStep.createStepContribution(),
+				new ChunkContext(new StepContext(currentStep)));
+
+		final ArgumentCaptor<SyncWatermark> captor = ArgumentCaptor.forClass(SyncWatermark.class);
+		Mockito.verify(dao, Mockito.times(2)).saveSyncWatermark(captor.capture());
+
+		final List<SyncWatermark> watermarks = captor.getAllValues();
+
+		final SyncWatermark openWatermark = watermarks.get(0);
+		assertEquals("syncIssuesJob", openWatermark.getJobName());
+		assertEquals(1L, openWatermark.getProjectId());
+		assertEquals("openIssuesSyncStep", openWatermark.getStepName());
+		assertEquals(currentJobRun.getTimeInMillis(), openWatermark.getLastJobRun().getTime());
+		assertEquals(Integer.valueOf(40), openWatermark.getPageSize());
+		assertNull(openWatermark.getMaxLastUpdated());
+
+		final SyncWatermark otherWatermark = watermarks.get(1);
+		assertEquals("syncIssuesJob", otherWatermark.getJobName());
+		assertEquals(1L, otherWatermark.getProjectId());
+		assertEquals("otherIssuesSyncStep", otherWatermark.getStepName());
+		assertEquals(currentJobRun.getTimeInMillis(), otherWatermark.getLastJobRun().getTime());
+		assertNull(otherWatermark.getPageSize());
+		assertEquals(secondUpdate.getTime(), otherWatermark.getMaxLastUpdated().getTime());
+	}
+
+	/**
+	 * Nothing is saved when the job isn't run for a single project.
+	 *
+	 * Test method for {@link SyncWatermarkTasklet#execute(org.springframework.batch.core.StepContribution, ChunkContext)}.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testExecuteWithoutProject() throws Exception {
+		jobExecution = MetaDataInstanceFactory.createJobExecution("syncIssuesJob", 1L, 1L,
+				new JobParametersBuilder().addLong("run.id", 2L).toJobParameters());
+		jobExecution.getExecutionContext().put(SyncWatermarkTasklet.CURRENT_JOB_RUN_KEY, currentJobRun);
+
+		createStep("openIssuesSyncStep", 1L, BatchStatus.COMPLETED);
+		final StepExecution currentStep = createStep("syncWatermarkStep", 2L, BatchStatus.STARTED);
+
+		tasklet.execute(currentStep.createStepContribution(),
+				new ChunkContext(new StepContext(currentStep)));
+
+		Mockito.verifyZeroInteractions(dao);
+	}
+
+	private StepExecution createStep(final String stepName, final long id, final BatchStatus status) {
+		final StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution(jobExecution,
+				stepName, id);
+		stepExecution.setStatus(status);
+		return stepExecution;
+	}
+}
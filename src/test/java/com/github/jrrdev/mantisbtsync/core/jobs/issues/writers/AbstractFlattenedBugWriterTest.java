@@ -0,0 +1,142 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugNoteBean;
+
+/**
+ * Tests for {@link AbstractFlattenedBugWriter}.
+ *
+ * @author jrrdev
+ *
+ */
+public class AbstractFlattenedBugWriterTest {
+
+	/**
+	 * Notes writer recording the batches instead of sending them.
+	 *
+	 * @author jrrdev
+	 *
+	 */
+	private static final class RecordingNotesWriter extends BugNotesWriter {
+
+		/**
+		 * Recorded batches.
+		 */
+		private final List<List<BugNoteBean>> batches = new ArrayList<List<BugNoteBean>>();
+
+		/**
+		 * {@inheritDoc}
+		 * @see com.github.jrrdev.mantisbtsync.core.jobs.issues.writers.AbstractFlattenedBugWriter#writeBatch(java.util.List)
+		 */
+		@Override
+		protected void writeBatch(final List<BugNoteBean> entries) throws Exception {
+			batches.add(new ArrayList<BugNoteBean>(entries));
+		}
+	}
+
+	/**
+	 * Build a chunk of issues, each one with the given number of notes.
+	 *
+	 * @param notesByBug
+	 * 			Number of notes of each issue
+	 * @return the chunk
+	 */
+	private List<BugBean> buildItems(final int... notesByBug) {
+		final List<BugBean> items = new ArrayList<BugBean>();
+		long noteId = 1;
+		for (int i = 0; i < notesByBug.length; i++) {
+			final BugBean bug = new BugBean();
+			bug.setId(i + 1);
+			for (int j = 0; j < notesByBug[i]; j++) {
+				final BugNoteBean note = new BugNoteBean();
+				note.setId(noteId++);
+				note.setBugId(bug.getId());
+				bug.getNotes().add(note);
+			}
+			items.add(bug);
+		}
+		return items;
+	}
+
+	/**
+	 * Test that the notes of all the issues are sent in a single batch.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testSingleBatch() throws Exception {
+		final RecordingNotesWriter writer = new RecordingNotesWriter();
+		writer.write(buildItems(2, 0, 3));
+
+		assertEquals(1, writer.batches.size());
+		assertEquals(5, writer.batches.get(0).size());
+		assertEquals(1, writer.batches.get(0).get(0).getId());
+		assertEquals(5, writer.batches.get(0).get(4).getId());
+	}
+
+	/**
+	 * Test the split of the entries when a maximum batch size is set.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testMaxBatchSize() throws Exception {
+		final RecordingNotesWriter writer = new RecordingNotesWriter();
+		writer.setMaxBatchSize(2);
+		writer.write(buildItems(2, 0, 3));
+
+		assertEquals(3, writer.batches.size());
+		assertEquals(2, writer.batches.get(0).size());
+		assertEquals(2, writer.batches.get(1).size());
+		assertEquals(1, writer.batches.get(2).size());
+		assertEquals(5, writer.batches.get(2).get(0).getId());
+	}
+
+	/**
+	 * Test that no batch is sent when there is no entry.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testNoEntry() throws Exception {
+		final RecordingNotesWriter writer = new RecordingNotesWriter();
+		writer.write(buildItems(0, 0));
+		writer.write(null);
+
+		assertTrue(writer.batches.isEmpty());
+	}
+}
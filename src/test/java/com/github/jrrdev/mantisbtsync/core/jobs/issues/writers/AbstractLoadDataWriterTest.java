@@ -0,0 +1,132 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugNoteBean;
+
+/**
+ * Tests for {@link AbstractLoadDataWriter}.
+ *
+ * @author jrrdev
+ *
+ */
+public class AbstractLoadDataWriterTest {
+
+	/**
+	 * Test the LOAD DATA statement.
+	 */
+	@Test
+	public void testSql() {
+		assertEquals("LOAD DATA LOCAL INFILE 'stream' REPLACE INTO TABLE mantis_bugnote_table"
+				+ " CHARACTER SET utf8 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n'"
+				+ " (id, bug_id, reporter_id, text_note, date_submitted, last_modified)",
+				new BugNotesLoadDataWriter().getSql());
+
+		assertEquals("LOAD DATA LOCAL INFILE 'stream' IGNORE INTO TABLE mantis_bug_table"
+				+ " CHARACTER SET utf8 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n'"
+				+ " (id, project_id, reporter_id, handler_id, priority_id, severity_id, status_id,"
+				+ " resolution_id, description, steps_to_reproduce, additional_information, platform,"
+				+ " version, fixed_in_version, target_version, summary, category, date_submitted,"
+				+ " last_updated, fingerprint) SET last_sync = NOW()",
+				new BugsLoadDataWriter().getSql());
+	}
+
+	/**
+	 * Build the notes used by the tests.
+	 *
+	 * @return the notes
+	 */
+	private List<BugNoteBean> buildNotes() {
+		final Calendar cal = Calendar.getInstance();
+		cal.set(2016, Calendar.NOVEMBER, 6, 23, 27, 11);
+
+		final List<BugNoteBean> notes = new ArrayList<BugNoteBean>();
+		final BugNoteBean note1 = new BugNoteBean();
+		note1.setId(1);
+		note1.setBugId(2);
+		note1.setReporterId(3L);
+		note1.setTextNote("line 1\nline\t2 \\ end");
+		note1.setDateSubmitted(new Timestamp(cal.getTimeInMillis()));
+		notes.add(note1);
+
+		final BugNoteBean note2 = new BugNoteBean();
+		note2.setId(4);
+		note2.setBugId(2);
+		note2.setReporterId(3L);
+		notes.add(note2);
+
+		return notes;
+	}
+
+	/**
+	 * Test the formatting of the entries, with escaped characters and null values.
+	 */
+	@Test
+	public void testTsv() {
+		assertEquals("1\t2\t3\tline 1\\nline\\t2 \\\\ end\t2016-11-06 23:27:11\t\\N\n"
+				+ "4\t2\t3\t\\N\t\\N\t\\N\n",
+				new BugNotesLoadDataWriter().toTsv(buildNotes()));
+	}
+
+	/**
+	 * Test that the stream passed to the statement gives the same bytes as the
+	 * formatted entries, when read by small blocks cutting the lines and the
+	 * multi-byte characters.
+	 *
+	 * @throws IOException
+	 * 			Technical error
+	 */
+	@Test
+	public void testTsvStream() throws IOException {
+		final List<BugNoteBean> notes = buildNotes();
+		notes.get(1).setTextNote("d\u00e9j\u00e0 vu");
+		final BugNotesLoadDataWriter writer = new BugNotesLoadDataWriter();
+
+		final InputStream stream = writer.toTsvStream(notes);
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[5];
+		int n = stream.read(buffer, 0, buffer.length);
+		while (n >= 0) {
+			out.write(buffer, 0, n);
+			n = stream.read(buffer, 0, buffer.length);
+		}
+
+		assertArrayEquals(writer.toTsv(notes).getBytes(StandardCharsets.UTF_8), out.toByteArray());
+		assertEquals(-1, stream.read());
+	}
+}
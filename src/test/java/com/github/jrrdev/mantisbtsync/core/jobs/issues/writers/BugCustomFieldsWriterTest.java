@@ -26,7 +26,6 @@ package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
 import static com.ninja_squad.dbsetup.Operations.insertInto;
 import static com.ninja_squad.dbsetup.Operations.sequenceOf;
 
-import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -91,8 +90,8 @@ public class BugCustomFieldsWriterTest extends AbstractSqlWriterTest {
 
 		final BugBean item1 = new BugBean();
 		final BugCustomFieldValue val = new BugCustomFieldValue();
-		val.setBugId(BigInteger.ONE);
-		val.setFieldId(BigInteger.ONE);
+		val.setBugId(1);
+		val.setFieldId(1);
 		val.setFieldValue("value_1");
 
 		item1.getCustomFields().add(val);
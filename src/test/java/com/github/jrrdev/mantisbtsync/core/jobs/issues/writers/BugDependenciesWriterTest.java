@@ -0,0 +1,117 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import biz.futureware.mantis.rpc.soap.client.AccountData;
+import biz.futureware.mantis.rpc.soap.client.ObjectRef;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugDependencies;
+import com.github.jrrdev.mantisbtsync.core.junit.AbstractSqlWriterTest;
+import com.github.jrrdev.mantisbtsync.core.services.IssuesDao;
+
+/**
+ * Tests for {@link BugDependenciesWriter}.
+ *
+ * @author jrrdev
+ *
+ */
+public class BugDependenciesWriterTest extends AbstractSqlWriterTest {
+
+	@Autowired
+	private IssuesDao dao;
+
+	/**
+	 * Test the insertion of the dependencies one by one.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testWriteOneByOne() throws Exception {
+		testWrite(false);
+	}
+
+	/**
+	 * Test the insertion of the dependencies with set-based statements.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testWriteBatched() throws Exception {
+		testWrite(true);
+	}
+
+	private void testWrite(final boolean batchDependencies) throws Exception {
+		dao.evictAllCaches();
+
+		final BugDependenciesWriter writer = new BugDependenciesWriter();
+		writer.setDao(dao);
+		writer.setBatchDependencies(batchDependencies);
+
+		final List<BugBean> items = new ArrayList<BugBean>();
+		items.add(buildItem(1));
+		items.add(buildItem(2));
+		writer.write(items);
+
+		assertEquals(Integer.valueOf(1), count("mantis_project_table"));
+		assertEquals(Integer.valueOf(2), count("mantis_user_table"));
+		assertEquals(Integer.valueOf(2), count("mantis_project_user_list_table"));
+		assertEquals(Integer.valueOf(1), count("mantis_enum_status"));
+		assertEquals(Integer.valueOf(1), count("mantis_custom_field_table"));
+		assertEquals(Integer.valueOf(1), count("mantis_custom_field_project_table"));
+	}
+
+	private BugBean buildItem(final long userId) {
+		final BugDependencies dependencies = new BugDependencies();
+		dependencies.addProject(new ObjectRef(BigInteger.ONE, "project_1"));
+
+		final AccountData user = new AccountData();
+		user.setId(BigInteger.valueOf(userId));
+		user.setName("user_" + userId);
+		dependencies.addUser(user, 1L);
+
+		dependencies.addStatus(new ObjectRef(BigInteger.TEN, "new"));
+		dependencies.addCustomField(new ObjectRef(BigInteger.ONE, "field"), 1L);
+
+		final BugBean bean = new BugBean();
+		bean.setId(userId);
+		bean.setDependencies(dependencies);
+		return bean;
+	}
+
+	private Integer count(final String table) {
+		return getJdbcTemplate().queryForObject("SELECT count(1) FROM " + table, Integer.class);
+	}
+}
@@ -25,8 +25,8 @@ package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
 
 import static com.ninja_squad.dbsetup.Operations.insertInto;
 import static com.ninja_squad.dbsetup.Operations.sequenceOf;
+import static org.junit.Assert.assertEquals;
 
-import java.math.BigInteger;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -53,6 +53,39 @@ public class BugHistoryWriterTest extends AbstractSqlWriterTest {
 
 	@Test
 	public void test() throws Exception {
+		insertDependencies();
+
+		bugHistoryWriter.afterPropertiesSet();
+		bugHistoryWriter.write(buildItems());
+	}
+
+	/**
+	 * Test that entries already present, even with a null old value,
+	 * aren't inserted twice.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testIdempotentWrite() throws Exception {
+		insertDependencies();
+
+		final List<BugBean> items = buildItems();
+		items.get(0).getHistory().get(0).setOldValue(null);
+
+		bugHistoryWriter.afterPropertiesSet();
+		bugHistoryWriter.write(items);
+		bugHistoryWriter.write(items);
+
+		final int count = getJdbcTemplate().queryForObject(
+				"SELECT COUNT(*) FROM mantis_bug_history_table WHERE bug_id = 1", Integer.class);
+		assertEquals(1, count);
+	}
+
+	/**
+	 * Insert the project, user and issue referenced by the history.
+	 */
+	private void insertDependencies() {
 
 		final Operation op = sequenceOf(
 				insertInto("mantis_project_table")
@@ -72,9 +105,6 @@ public class BugHistoryWriterTest extends AbstractSqlWriterTest {
 				);
 
 		lauchOperation(op);
-
-		bugHistoryWriter.afterPropertiesSet();
-		bugHistoryWriter.write(buildItems());
 	}
 
 	/**
@@ -90,11 +120,11 @@ public class BugHistoryWriterTest extends AbstractSqlWriterTest {
 
 		final BugBean item1 = new BugBean();
 		final BugHistoryBean hist = new BugHistoryBean();
-		hist.setBugId(BigInteger.ONE);
-		hist.setUserId(BigInteger.ONE);
+		hist.setBugId(1);
+		hist.setUserId(1L);
 		hist.setOldValue("old");
 		hist.setNewValue("new");
-		hist.setHistoryType(BigInteger.TEN);
+		hist.setHistoryType(10L);
 		hist.setDateModified(date);
 
 		item1.getHistory().add(hist);
@@ -26,7 +26,6 @@ package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
 import static com.ninja_squad.dbsetup.Operations.insertInto;
 import static com.ninja_squad.dbsetup.Operations.sequenceOf;
 
-import java.math.BigInteger;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -90,9 +89,9 @@ public class BugNotesWriterTest extends AbstractSqlWriterTest {
 
 		final BugBean item1 = new BugBean();
 		final BugNoteBean note = new BugNoteBean();
-		note.setId(BigInteger.ONE);
-		note.setBugId(BigInteger.ONE);
-		note.setReporterId(BigInteger.ONE);
+		note.setId(1);
+		note.setBugId(1);
+		note.setReporterId(1L);
 		note.setTextNote("note_1");
 		note.setDateSubmitted(date);
 		note.setLastModified(date);
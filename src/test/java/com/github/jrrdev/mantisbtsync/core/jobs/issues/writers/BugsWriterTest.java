@@ -24,15 +24,14 @@
 package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
 
 import static com.ninja_squad.dbsetup.Operations.insertInto;
+import static org.junit.Assert.assertEquals;
 
-import java.math.BigInteger;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 
 import org.junit.Test;
-import org.springframework.batch.item.database.JdbcBatchItemWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
@@ -46,7 +45,7 @@ import com.ninja_squad.dbsetup.operation.Operation;
 public class BugsWriterTest extends AbstractSqlWriterTest {
 
 	@Autowired
-	JdbcBatchItemWriter<BugBean> bugsWriter;
+	BugsWriter bugsWriter;
 
 	@Test
 	public void test() throws Exception {
@@ -61,6 +60,46 @@ public class BugsWriterTest extends AbstractSqlWriterTest {
 		bugsWriter.write(buildItems());
 	}
 
+	/**
+	 * Test that an issue with the same fingerprint isn't updated,
+	 * except its last sync.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testUnchangedFingerprint() throws Exception {
+
+		final Operation op = insertInto("mantis_project_table")
+				.columns("id", "name")
+				.values(1, "project_1")
+				.build();
+
+		lauchOperation(op);
+
+		final List<BugBean> items = buildItems();
+		items.get(0).setFingerprint("fingerprint_1");
+		bugsWriter.write(items);
+
+		getJdbcTemplate().update("UPDATE mantis_bug_table SET last_sync = ? WHERE id = 1",
+				new Timestamp(0));
+
+		items.get(0).setSummary("Summary_2");
+		bugsWriter.write(items);
+
+		assertEquals("Summary_1", getJdbcTemplate().queryForObject(
+				"SELECT summary FROM mantis_bug_table WHERE id = 1", String.class));
+		assertEquals(1, (int) getJdbcTemplate().queryForObject(
+				"SELECT COUNT(*) FROM mantis_bug_table WHERE id = 1 AND last_sync > ?", Integer.class,
+				new Timestamp(0)));
+
+		items.get(0).setFingerprint("fingerprint_2");
+		bugsWriter.write(items);
+
+		assertEquals("Summary_2", getJdbcTemplate().queryForObject(
+				"SELECT summary FROM mantis_bug_table WHERE id = 1", String.class));
+	}
+
 	/**
 	 * Build the items to write.
 	 *
@@ -72,8 +111,8 @@ public class BugsWriterTest extends AbstractSqlWriterTest {
 		final List<BugBean> items = new ArrayList<BugBean>();
 
 		final BugBean item1 = new BugBean();
-		item1.setId(BigInteger.ONE);
-		item1.setProjectId(BigInteger.ONE);
+		item1.setId(1);
+		item1.setProjectId(1L);
 		item1.setDescription("Description_1");
 		item1.setSummary("Summary_1");
 		item1.setDateSubmitted(new Timestamp(cal.getTimeInMillis()));
@@ -87,14 +126,14 @@ public class BugsWriterTest extends AbstractSqlWriterTest {
 	/**
 	 * @return the bugsWriter
 	 */
-	public JdbcBatchItemWriter<BugBean> getBugsWriter() {
+	public BugsWriter getBugsWriter() {
 		return bugsWriter;
 	}
 
 	/**
 	 * @param bugsWriter the bugsWriter to set
 	 */
-	public void setBugsWriter(final JdbcBatchItemWriter<BugBean> bugsWriter) {
+	public void setBugsWriter(final BugsWriter bugsWriter) {
 		this.bugsWriter = bugsWriter;
 	}
 
@@ -0,0 +1,154 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.issues.writers;
+
+import static com.ninja_squad.dbsetup.Operations.insertInto;
+import static com.ninja_squad.dbsetup.Operations.sequenceOf;
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugBean;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugNoteBean;
+import com.github.jrrdev.mantisbtsync.core.junit.AbstractSqlWriterTest;
+import com.ninja_squad.dbsetup.generator.ValueGenerators;
+import com.ninja_squad.dbsetup.operation.Operation;
+
+/**
+ * Tests for {@link StagingWriter}.
+ *
+ * @author jrrdev
+ *
+ */
+public class StagingWriterTest extends AbstractSqlWriterTest {
+
+	@Autowired
+	StagingWriter<BugNoteBean> bugNotesStagingWriter;
+
+	/**
+	 * Test the statements applying the staged notes.
+	 */
+	@Test
+	public void testSql() {
+		final StagingWriter<BugNoteBean> writer = new StagingWriter<BugNoteBean>(IssueTables.NOTES,
+				"stg_bugnote");
+
+		assertEquals("INSERT INTO stg_bugnote (stage_id, id, bug_id, reporter_id, text_note, date_submitted,"
+				+ " last_modified) VALUES (?, ?, ?, ?, ?, ?, ?)",
+				writer.getInsertSql());
+
+		assertEquals("INSERT INTO mantis_bugnote_table (id, bug_id, reporter_id, text_note, date_submitted,"
+				+ " last_modified) SELECT id, bug_id, reporter_id, text_note, date_submitted, last_modified"
+				+ " FROM stg_bugnote WHERE stage_id = ?"
+				+ " ON DUPLICATE KEY UPDATE text_note = VALUES(text_note), last_modified = VALUES(last_modified)",
+				writer.getUpsertSql());
+
+		assertEquals("MERGE INTO mantis_bugnote_table t USING (SELECT DISTINCT id, bug_id, reporter_id, text_note,"
+				+ " date_submitted, last_modified FROM stg_bugnote WHERE stage_id = ?) s ON (t.id = s.id)"
+				+ " WHEN MATCHED THEN UPDATE SET text_note = s.text_note, last_modified = s.last_modified"
+				+ " WHEN NOT MATCHED THEN INSERT (id, bug_id, reporter_id, text_note, date_submitted,"
+				+ " last_modified) VALUES (s.id, s.bug_id, s.reporter_id, s.text_note, s.date_submitted,"
+				+ " s.last_modified)",
+				writer.getMergeSql());
+
+		assertEquals("DELETE FROM stg_bugnote WHERE stage_id = ?", writer.getDeleteSql());
+	}
+
+	/**
+	 * Test the write of new and existing notes through the staging table.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testWrite() throws Exception {
+		final Operation op = sequenceOf(
+				insertInto("mantis_project_table")
+				.columns("id", "name")
+				.values(1, "project_1")
+				.build(),
+
+				insertInto("mantis_user_table")
+				.columns("id", "name")
+				.values(1, "user_1")
+				.build(),
+
+				insertInto("mantis_bug_table")
+				.columns("id", "project_id", "summary", "last_sync")
+				.values(1, 1, "summary_1", ValueGenerators.dateSequence().nextValue())
+				.build(),
+
+				insertInto("mantis_bugnote_table")
+				.columns("id", "bug_id", "reporter_id", "text_note")
+				.values(1, 1, 1, "old_note_1")
+				.build()
+				);
+
+		lauchOperation(op);
+
+		bugNotesStagingWriter.afterPropertiesSet();
+		bugNotesStagingWriter.write(buildItems());
+
+		final List<String> notes = getJdbcTemplate().queryForList(
+				"SELECT text_note FROM mantis_bugnote_table ORDER BY id", String.class);
+		assertEquals(2, notes.size());
+		assertEquals("note_1", notes.get(0));
+		assertEquals("note_2", notes.get(1));
+
+		final Integer staged = getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM stg_bugnote",
+				Integer.class);
+		assertEquals(Integer.valueOf(0), staged);
+	}
+
+	/**
+	 * Build the items to write.
+	 *
+	 * @return items
+	 */
+	private List<BugBean> buildItems() {
+		final Timestamp date = new Timestamp(Calendar.getInstance().getTimeInMillis());
+		final List<BugBean> items = new ArrayList<BugBean>();
+
+		final BugBean item = new BugBean();
+		for (int i = 1; i <= 2; i++) {
+			final BugNoteBean note = new BugNoteBean();
+			note.setId(i);
+			note.setBugId(1);
+			note.setReporterId(1L);
+			note.setTextNote("note_" + i);
+			note.setDateSubmitted(date);
+			note.setLastModified(date);
+			item.getNotes().add(note);
+		}
+		items.add(item);
+
+		return items;
+	}
+}
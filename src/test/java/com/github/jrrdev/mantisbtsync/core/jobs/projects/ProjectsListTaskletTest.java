@@ -0,0 +1,171 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.projects;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.axis.AxisFault;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import biz.futureware.mantis.rpc.soap.client.MantisConnectBindingStub;
+import biz.futureware.mantis.rpc.soap.client.ProjectData;
+
+import com.github.jrrdev.mantisbtsync.core.jobs.projects.tasklets.ProjectsListTasklet;
+import com.github.jrrdev.mantisbtsync.core.junit.AbstractSqlWriterTest;
+
+/**
+ * Tests for the tree discovery of {@link ProjectsListTasklet}.
+ *
+ * @author jrrdev
+ *
+ */
+public class ProjectsListTaskletTest extends AbstractSqlWriterTest {
+
+	@Mock
+	private MantisConnectBindingStub clientStub;
+
+	private ProjectsListTasklet tasklet;
+
+	@Before
+	public void setUpBefore() {
+		MockitoAnnotations.initMocks(this);
+
+		tasklet = new ProjectsListTasklet();
+		tasklet.setClientStub(clientStub);
+		tasklet.setJdbcTemplate(getJdbcTemplate());
+		tasklet.setUserName("toto");
+		tasklet.setPassword("passwd");
+		tasklet.setProjectId(BigInteger.ONE);
+		tasklet.setTreeDiscovery(true);
+	}
+
+	/**
+	 * The tree is retrieved with mc_projects_get_user_accessible,
+	 * each project being linked to all its ancestors.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testAccessibleTree() throws Exception {
+		final ProjectData project3 = buildProject(3);
+		final ProjectData project2 = buildProject(2, project3);
+		final ProjectData project4 = buildProject(4);
+		final ProjectData project1 = buildProject(1, project2, project4);
+		final ProjectData project5 = buildProject(5);
+
+		Mockito.when(clientStub.mc_projects_get_user_accessible("toto", "passwd"))
+		.thenReturn(new ProjectData[] {project5, project1});
+
+		final StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+		tasklet.execute(null, new ChunkContext(new StepContext(stepExecution)));
+
+		checkProjects(stepExecution, 4);
+
+		final List<Map<String, Object>> links = getLinks();
+		assertEquals(4, links.size());
+		checkLink(links.get(0), 1, 2);
+		checkLink(links.get(1), 1, 3);
+		checkLink(links.get(2), 1, 4);
+		checkLink(links.get(3), 2, 3);
+
+		Mockito.verify(clientStub, Mockito.never()).mc_project_get_all_subprojects(Mockito.anyString(),
+				Mockito.anyString(), Mockito.any(BigInteger.class));
+	}
+
+	/**
+	 * The subprojects are retrieved level by level when mc_projects_get_user_accessible
+	 * isn't available.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testLevelByLevel() throws Exception {
+		Mockito.when(clientStub.mc_projects_get_user_accessible("toto", "passwd"))
+		.thenThrow(new AxisFault("Unknown operation"));
+		Mockito.when(clientStub.mc_project_get_all_subprojects("toto", "passwd", BigInteger.ONE))
+		.thenReturn(new String[] {"2", "3"});
+		Mockito.when(clientStub.mc_project_get_all_subprojects("toto", "passwd", BigInteger.valueOf(2)))
+		.thenReturn(new String[] {"3"});
+		Mockito.when(clientStub.mc_project_get_all_subprojects("toto", "passwd", BigInteger.valueOf(3)))
+		.thenReturn(new String[0]);
+
+		final StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+		tasklet.execute(null, new ChunkContext(new StepContext(stepExecution)));
+
+		checkProjects(stepExecution, 3);
+
+		final List<Map<String, Object>> links = getLinks();
+		assertEquals(3, links.size());
+		checkLink(links.get(0), 1, 2);
+		checkLink(links.get(1), 1, 3);
+		checkLink(links.get(2), 2, 3);
+
+		Mockito.verify(clientStub, Mockito.times(1)).mc_project_get_all_subprojects("toto", "passwd",
+				BigInteger.valueOf(3));
+	}
+
+	private void checkProjects(final StepExecution stepExecution, final int expected) {
+		@SuppressWarnings("unchecked")
+		final Set<BigInteger> projectsId = (Set<BigInteger>) stepExecution.getExecutionContext()
+				.get("mantis.loop.projects_to_process");
+		assertEquals(expected, projectsId.size());
+
+		final int count = getJdbcTemplate().queryForObject("SELECT count(1) FROM mantis_project_table",
+				Integer.class);
+		assertEquals(expected, count);
+	}
+
+	private List<Map<String, Object>> getLinks() {
+		return getJdbcTemplate().queryForList("SELECT parent_id, child_id FROM mantis_project_hierarchy_table"
+				+ " ORDER BY parent_id, child_id");
+	}
+
+	private void checkLink(final Map<String, Object> link, final int parentId, final int childId) {
+		assertEquals(parentId, ((Number) link.get("parent_id")).intValue());
+		assertEquals(childId, ((Number) link.get("child_id")).intValue());
+	}
+
+	private ProjectData buildProject(final long id, final ProjectData... subprojects) {
+		final ProjectData project = new ProjectData();
+		project.setId(BigInteger.valueOf(id));
+		project.setName("project_" + id);
+		project.setSubprojects(subprojects);
+		return project;
+	}
+}
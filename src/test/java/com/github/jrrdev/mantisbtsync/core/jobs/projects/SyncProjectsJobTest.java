@@ -0,0 +1,155 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.projects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.JobRegistry;
+import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import biz.futureware.mantis.rpc.soap.client.AccountData;
+import biz.futureware.mantis.rpc.soap.client.CustomFieldDefinitionData;
+import biz.futureware.mantis.rpc.soap.client.MantisConnectBindingStub;
+import biz.futureware.mantis.rpc.soap.client.ProjectVersionData;
+import biz.futureware.mantis.rpc.soap.client.UserData;
+
+import com.github.jrrdev.mantisbtsync.core.Application;
+import com.github.jrrdev.mantisbtsync.core.junit.AbstractSqlWriterTest;
+import com.github.jrrdev.mantisbtsync.core.junit.JunitTestConfiguration;
+import com.github.jrrdev.mantisbtsync.core.junit.MockClientStubConfiguration;
+
+/**
+ * Test of the syncProjectsJob job with its steps partitioned by project.
+ * The partitions run in the threads of the projects executor, where the
+ * job scoped client stub must still be available.
+ *
+ * @author jrrdev
+ *
+ */
+@SpringApplicationConfiguration({Application.class, JunitTestConfiguration.class,
+	MockClientStubConfiguration.class})
+@TestPropertySource(properties = {"mantis.projects.grid_size=2", "mantis.auth.filepath="})
+public class SyncProjectsJobTest extends AbstractSqlWriterTest {
+
+	@Autowired
+	private JobRegistry jobRegistry;
+
+	@Autowired
+	private JobRepository jobRepository;
+
+	@Autowired
+	private MockClientStubConfiguration mockClientStubConfiguration;
+
+	/**
+	 * Configure the mock for the projects 1 and its subproject 2.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Before
+	public void setUpMock() throws Exception {
+		final MantisConnectBindingStub clientStub = mockClientStubConfiguration.getClientStubMock();
+		Mockito.reset(clientStub);
+
+		final UserData user = new UserData();
+		user.setAccess_level(BigInteger.TEN);
+		Mockito.when(clientStub.mc_login("toto", "passwd")).thenReturn(user);
+
+		Mockito.when(clientStub.mc_project_get_all_subprojects("toto", "passwd", BigInteger.ONE))
+		.thenReturn(new String[] {"2"});
+		Mockito.when(clientStub.mc_project_get_all_subprojects("toto", "passwd", BigInteger.valueOf(2)))
+		.thenReturn(new String[0]);
+
+		for (long i = 1; i <= 2; i++) {
+			final BigInteger projectId = BigInteger.valueOf(i);
+			Mockito.when(clientStub.mc_project_get_categories("toto", "passwd", projectId))
+			.thenReturn(new String[] {"category_" + i});
+			Mockito.when(clientStub.mc_project_get_custom_fields("toto", "passwd", projectId))
+			.thenReturn(new CustomFieldDefinitionData[0]);
+			Mockito.when(clientStub.mc_project_get_users("toto", "passwd", projectId, BigInteger.TEN))
+			.thenReturn(new AccountData[] {new AccountData(projectId, "user_" + i, null, null)});
+			Mockito.when(clientStub.mc_project_get_versions("toto", "passwd", projectId))
+			.thenReturn(new ProjectVersionData[0]);
+		}
+	}
+
+	/**
+	 * Test that all the partitions of all the steps are completed.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testPartitionedJob() throws Exception {
+		final Map<String, JobParameter> map = new HashMap<String, JobParameter>();
+		map.put("mantis.username", new JobParameter("toto"));
+		map.put("mantis.password", new JobParameter("passwd"));
+		map.put("mantis.project_id", new JobParameter(1L));
+		map.put("run.id", new JobParameter(System.currentTimeMillis()));
+
+		final SimpleJobLauncher launcher = new SimpleJobLauncher();
+		launcher.setJobRepository(jobRepository);
+		launcher.afterPropertiesSet();
+
+		final JobExecution jobExecution = launcher.run(jobRegistry.getJob("syncProjectsJob"),
+				new JobParameters(map));
+
+		assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+
+		final Set<String> stepNames = new HashSet<String>();
+		for (final StepExecution stepExecution : jobExecution.getStepExecutions()) {
+			assertEquals(stepExecution.getStepName(), BatchStatus.COMPLETED, stepExecution.getStatus());
+			stepNames.add(stepExecution.getStepName());
+		}
+		assertTrue(stepNames.contains("projectCategoriesStep:project1"));
+		assertTrue(stepNames.contains("projectCategoriesStep:project2"));
+		assertTrue(stepNames.contains("projectUsersStep:project2"));
+
+		assertEquals(Integer.valueOf(2), getJdbcTemplate().queryForObject(
+				"SELECT COUNT(1) FROM mantis_category_table WHERE project_id IN (1, 2)",
+				Integer.class));
+		assertEquals(Integer.valueOf(2), getJdbcTemplate().queryForObject(
+				"SELECT COUNT(1) FROM mantis_project_user_list_table WHERE user_id = project_id",
+				Integer.class));
+	}
+}
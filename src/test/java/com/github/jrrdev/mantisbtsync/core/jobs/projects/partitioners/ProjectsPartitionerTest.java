@@ -0,0 +1,78 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.jobs.projects.partitioners;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * Tests for {@link ProjectsPartitioner}.
+ *
+ * @author jrrdev
+ *
+ */
+public class ProjectsPartitionerTest {
+
+	/**
+	 * Test that one partition is created per project, in the order of the ids.
+	 */
+	@Test
+	public void testPartition() {
+		final Set<BigInteger> ids = new HashSet<BigInteger>(Arrays.asList(BigInteger.TEN,
+				BigInteger.ONE, BigInteger.valueOf(2)));
+
+		final ProjectsPartitioner partitioner = new ProjectsPartitioner();
+		partitioner.setProjectsId(ids);
+		final Map<String, ExecutionContext> partitions = partitioner.partition(1);
+
+		assertEquals(3, partitions.size());
+		final Iterator<String> names = partitions.keySet().iterator();
+		assertEquals("project1", names.next());
+		assertEquals("project2", names.next());
+		assertEquals("project10", names.next());
+		assertEquals(BigInteger.TEN, partitions.get("project10").get(ProjectsPartitioner.PROJECT_ID_KEY));
+
+		// The list of the job execution context is left untouched
+		assertEquals(3, ids.size());
+	}
+
+	/**
+	 * Test that no partition is created without projects.
+	 */
+	@Test
+	public void testNoProjects() {
+		final ProjectsPartitioner partitioner = new ProjectsPartitioner();
+		assertTrue(partitioner.partition(1).isEmpty());
+	}
+}
@@ -84,7 +84,10 @@ public abstract class AbstractSqlWriterTest {
 	@Before
 	public void preparaDatabase() {
 		lauchOperation(deleteAllFrom(
+				"sync_watermark",
 				"handlers_stats",
+				"bug_state_intervals",
+				"mantis_bug_history_mark_table",
 				"mantis_bug_history_table",
 				"mantis_custom_field_string_table",
 				"mantis_bugnote_table",
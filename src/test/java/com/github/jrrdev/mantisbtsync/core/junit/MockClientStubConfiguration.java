@@ -0,0 +1,68 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.junit;
+
+import org.mockito.Mockito;
+import org.springframework.batch.core.configuration.annotation.JobScope;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import biz.futureware.mantis.rpc.soap.client.MantisConnectBindingStub;
+
+/**
+ * Spring configuration replacing the client stub by a mock, for the tests
+ * running whole jobs. The mock is job scoped like the real stub, so the
+ * steps running in other threads still need the job context to use it.
+ *
+ * @author jrrdev
+ *
+ */
+@Configuration
+public class MockClientStubConfiguration {
+
+	/**
+	 * The mock.
+	 */
+	private final MantisConnectBindingStub clientStubMock = Mockito.mock(MantisConnectBindingStub.class);
+
+	/**
+	 * Build the job scoped client stub, used instead of the real one.
+	 *
+	 * @return the mock
+	 */
+	@Bean
+	@JobScope
+	@Primary
+	public MantisConnectBindingStub mockClientStub() {
+		return clientStubMock;
+	}
+
+	/**
+	 * @return the mock, to be configured by the tests
+	 */
+	public MantisConnectBindingStub getClientStubMock() {
+		return clientStubMock;
+	}
+}
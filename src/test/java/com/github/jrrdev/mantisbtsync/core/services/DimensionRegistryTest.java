@@ -0,0 +1,132 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.services;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tests for {@link DimensionRegistry}.
+ *
+ * @author jrrdev
+ *
+ */
+public class DimensionRegistryTest {
+
+	private DimensionRegistry registry;
+
+	@Before
+	public void setUp() {
+		registry = new DimensionRegistry();
+	}
+
+	@After
+	public void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		TransactionSynchronizationManager.unbindResourceIfPossible(registry);
+	}
+
+	/**
+	 * Outside a transaction, the keys are registered at once.
+	 */
+	@Test
+	public void testAddWithoutTransaction() {
+		registry.add("mantis_user_table", 1);
+		assertTrue(registry.contains("mantis_user_table", 1));
+		assertFalse(registry.contains("mantis_user_table", 2));
+		assertFalse(registry.contains("mantis_project_table", 1));
+	}
+
+	/**
+	 * The keys added inside a transaction are only seen by that transaction
+	 * until it commits.
+	 *
+	 * @throws Exception
+	 * 			Technical Exception
+	 */
+	@Test
+	public void testAddCommitted() throws Exception {
+		TransactionSynchronizationManager.initSynchronization();
+		registry.add("mantis_user_table", 1);
+		assertTrue(registry.contains("mantis_user_table", 1));
+		assertFalse(containsInOtherThread("mantis_user_table", 1));
+
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+
+		assertTrue(registry.contains("mantis_user_table", 1));
+		assertTrue(containsInOtherThread("mantis_user_table", 1));
+	}
+
+	/**
+	 * The keys added inside a transaction rolled back are dropped.
+	 */
+	@Test
+	public void testAddRolledBack() {
+		TransactionSynchronizationManager.initSynchronization();
+		registry.add("mantis_user_table", 1);
+		assertTrue(registry.contains("mantis_user_table", 1));
+
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		assertFalse(registry.contains("mantis_user_table", 1));
+
+		// The next transaction starts with no pending key
+		TransactionSynchronizationManager.initSynchronization();
+		registry.add("mantis_user_table", 2);
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+
+		assertFalse(registry.contains("mantis_user_table", 1));
+		assertTrue(registry.contains("mantis_user_table", 2));
+	}
+
+	private void complete(final int status) {
+		for (final TransactionSynchronization synchronization : TransactionSynchronizationManager
+				.getSynchronizations()) {
+			synchronization.afterCompletion(status);
+		}
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	private boolean containsInOtherThread(final String table, final long key) throws Exception {
+		final boolean[] result = new boolean[1];
+		final Thread thread = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				result[0] = registry.contains(table, key);
+			}
+		});
+		thread.start();
+		thread.join();
+		return result[0];
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Jrard Devarulrajah
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.jrrdev.mantisbtsync.core.services;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link HandlersStatSweep}.
+ *
+ * @author jrrdev
+ *
+ */
+public class HandlersStatSweepTest {
+
+	/**
+	 * Test the replay of the changes of handler and status.
+	 */
+	@Test
+	public void testChanges() {
+		final HandlersStatSweep sweep = new HandlersStatSweep(new long[] {100, 200, 300});
+
+		// Submitted before the first date, handler 1 -> 2 at 150, status 10 -> 50 at 250
+		sweep.startIssue(1, 50, 2L, 50L);
+		sweep.addChange("handler_id", "1", 150);
+		sweep.addChange("summary", "old", 160);
+		sweep.addChange("status", "10", 250);
+
+		// Submitted after the first date, never changed
+		sweep.startIssue(1, 150, 2L, 10L);
+
+		// Submitted after the last date
+		sweep.startIssue(1, 400, 2L, 10L);
+
+		// Handler 0 -> 3 at 200, a change at a date is after the date
+		sweep.startIssue(2, 50, 3L, 10L);
+		sweep.addChange("handler_id", "0", 200);
+
+		final Map<String, Integer> counts = toMap(sweep.getRows());
+
+		assertEquals(7, counts.size());
+		assertEquals(Integer.valueOf(1), counts.get("100/1/1/10"));
+		assertEquals(Integer.valueOf(1), counts.get("100/2/null/10"));
+		assertEquals(Integer.valueOf(2), counts.get("200/1/2/10"));
+		assertEquals(Integer.valueOf(1), counts.get("200/2/3/10"));
+		assertEquals(Integer.valueOf(1), counts.get("300/1/2/50"));
+		assertEquals(Integer.valueOf(1), counts.get("300/1/2/10"));
+		assertEquals(Integer.valueOf(1), counts.get("300/2/3/10"));
+	}
+
+	/**
+	 * Test the dates without issue.
+	 */
+	@Test
+	public void testNoIssue() {
+		final HandlersStatSweep sweep = new HandlersStatSweep(new long[] {100, 200});
+		assertEquals(0, sweep.getRows().size());
+	}
+
+	/**
+	 * Test the dates not in ascending order.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnorderedDates() {
+		new HandlersStatSweep(new long[] {200, 100});
+	}
+
+	/**
+	 * Index the rows by "date/project/handler/status", the date in milliseconds.
+	 *
+	 * @param rows
+	 * 			The rows
+	 * @return the number of issues by key
+	 */
+	private static Map<String, Integer> toMap(final List<Object[]> rows) {
+		final Map<String, Integer> counts = new HashMap<String, Integer>();
+		for (final Object[] row : rows) {
+			final String key = ((java.util.Date) row[0]).getTime() + "/" + row[1] + "/" + row[2] + "/" + row[3];
+			counts.put(key, (Integer) row[4]);
+		}
+		return counts;
+	}
+}
@@ -26,22 +26,28 @@ package com.github.jrrdev.mantisbtsync.core.services;
 import static com.ninja_squad.dbsetup.Operations.insertInto;
 import static com.ninja_squad.dbsetup.Operations.sequenceOf;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.math.BigInteger;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 
 import biz.futureware.mantis.rpc.soap.client.AccountData;
 import biz.futureware.mantis.rpc.soap.client.ObjectRef;
 
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugDependencies;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugHistoryMark;
+import com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.SyncWatermark;
 import com.github.jrrdev.mantisbtsync.core.junit.AbstractSqlWriterTest;
 import com.ninja_squad.dbsetup.operation.Operation;
 
@@ -55,10 +61,8 @@ public class JdbcIssuesServiceTest extends AbstractSqlWriterTest {
 	private IssuesDao dao;
 
 	@Before
-	@CacheEvict(value = {"projects", "users", "users_project", "priorities", "severities"
-			, "status", "resolutions", "customFields", "customFields_project"}, allEntries = true)
 	public void clearCaches() {
-		// do nothing, everything is in the annotations
+		dao.evictAllCaches();
 	}
 
 	/**
@@ -102,7 +106,7 @@ public class JdbcIssuesServiceTest extends AbstractSqlWriterTest {
 
 		lauchOperation(op);
 
-		dao.insertUserIfNotExists(null, BigInteger.ONE);
+		dao.insertUserIfNotExists(null, 1L);
 	}
 
 	/**
@@ -140,7 +144,7 @@ public class JdbcIssuesServiceTest extends AbstractSqlWriterTest {
 		item.setId(BigInteger.valueOf(1));
 		item.setName("new_user_1");
 
-		dao.insertUserIfNotExists(item, BigInteger.ONE);
+		dao.insertUserIfNotExists(item, 1L);
 
 		final List<AccountData> list = getJdbcTemplate().query("SELECT usr.id, usr.name"
 				+ " FROM mantis_user_table usr"
@@ -151,7 +155,7 @@ public class JdbcIssuesServiceTest extends AbstractSqlWriterTest {
 		assertEquals(1, list.size());
 		assertEquals(item, list.get(0));
 
-		dao.insertUserIfNotExists(item, BigInteger.ONE);
+		dao.insertUserIfNotExists(item, 1L);
 	}
 
 	/**
@@ -288,7 +292,7 @@ public class JdbcIssuesServiceTest extends AbstractSqlWriterTest {
 
 		lauchOperation(op);
 
-		dao.insertCustomFieldIfNotExists(null, BigInteger.ONE);
+		dao.insertCustomFieldIfNotExists(null, 1L);
 	}
 
 	/**
@@ -333,7 +337,7 @@ public class JdbcIssuesServiceTest extends AbstractSqlWriterTest {
 		lauchOperation(op);
 
 		final ObjectRef item = new ObjectRef(BigInteger.ONE, "item");
-		dao.insertCustomFieldIfNotExists(item, BigInteger.ONE);
+		dao.insertCustomFieldIfNotExists(item, 1L);
 
 		final List<ObjectRef> list = getJdbcTemplate().query("SELECT cf.id, cf.name"
 				+ " FROM mantis_custom_field_table cf"
@@ -344,7 +348,77 @@ public class JdbcIssuesServiceTest extends AbstractSqlWriterTest {
 		assertEquals(1, list.size());
 		assertEquals(item, list.get(0));
 
-		dao.insertCustomFieldIfNotExists(item, BigInteger.ONE);
+		dao.insertCustomFieldIfNotExists(item, 1L);
+	}
+
+	/**
+	 * Test method for {@link com.github.jrrdev.mantisbtsync.core.services.JdbcIssuesService#insertDependencies(com.github.jrrdev.mantisbtsync.core.jobs.issues.beans.BugDependencies)}.
+	 */
+	@Test
+	public void testInsertDependencies() {
+		final Operation op = sequenceOf(
+				insertInto("mantis_project_table")
+				.columns("id", "name")
+				.values(1, "project_1")
+				.build(),
+
+				insertInto("mantis_user_table")
+				.columns("id", "name")
+				.values(1, "user_1")
+				.build(),
+
+				insertInto("mantis_project_user_list_table")
+				.columns("project_id", "user_id")
+				.values(1, 1)
+				.build());
+
+		lauchOperation(op);
+
+		final AccountData user1 = new AccountData();
+		user1.setId(BigInteger.ONE);
+		user1.setName("user_1");
+
+		final AccountData user2 = new AccountData();
+		user2.setId(BigInteger.valueOf(2));
+		user2.setName("user_2");
+
+		final BugDependencies dependencies = new BugDependencies();
+		dependencies.addProject(new ObjectRef(BigInteger.ONE, "project_1_renamed"));
+		dependencies.addProject(new ObjectRef(BigInteger.valueOf(2), "project_2"));
+		dependencies.addUser(user1, 1L);
+		dependencies.addUser(user1, 2L);
+		dependencies.addUser(user2, 2L);
+		dependencies.addPriority(new ObjectRef(BigInteger.TEN, "priority"));
+		dependencies.addCustomField(new ObjectRef(BigInteger.ONE, "field"), 2L);
+
+		dao.insertDependencies(dependencies);
+
+		final List<ObjectRef> projects = getJdbcTemplate().query("SELECT id, name"
+				+ " FROM mantis_project_table ORDER BY id",
+				new BeanPropertyRowMapper<ObjectRef>(ObjectRef.class));
+
+		assertEquals(2, projects.size());
+		assertEquals(new ObjectRef(BigInteger.ONE, "project_1_renamed"), projects.get(0));
+		assertEquals(new ObjectRef(BigInteger.valueOf(2), "project_2"), projects.get(1));
+
+		final List<AccountData> users = getJdbcTemplate().query("SELECT usr.id, usr.name"
+				+ " FROM mantis_user_table usr"
+				+ " INNER JOIN mantis_project_user_list_table upl ON usr.id = upl.user_id"
+				+ " WHERE upl.project_id = 2 ORDER BY usr.id",
+				new BeanPropertyRowMapper<AccountData>(AccountData.class));
+
+		assertEquals(2, users.size());
+		assertEquals(user1, users.get(0));
+		assertEquals(user2, users.get(1));
+
+		assertEquals(Integer.valueOf(1), getJdbcTemplate().queryForObject(
+				"SELECT count(1) FROM mantis_enum_priorities WHERE id = 10", Integer.class));
+		assertEquals(Integer.valueOf(1), getJdbcTemplate().queryForObject(
+				"SELECT count(1) FROM mantis_custom_field_project_table WHERE project_id = 2 AND field_id = 1",
+				Integer.class));
+
+		// Nothing left to insert
+		dao.insertDependencies(dependencies);
 	}
 
 	/**
@@ -385,9 +459,103 @@ public class JdbcIssuesServiceTest extends AbstractSqlWriterTest {
 
 		cal.add(Calendar.MINUTE, 5);
 
-		final List<BigInteger> list = dao.getNotClosedIssuesId(cal, BigInteger.ONE);
-		assertEquals(1, list.size());
-		assertEquals(BigInteger.ONE, list.get(0));
+		final long[] ids = dao.getNotClosedIssuesId(cal, 1);
+		assertEquals(1, ids.length);
+		assertEquals(1, ids[0]);
+	}
+
+	/**
+	 * Tests the keyset paging of the issues still open of a project.
+	 *
+	 * Test method for {@link com.github.jrrdev.mantisbtsync.core.services.JdbcIssuesService#getNotClosedIssuesId(java.util.Calendar, long, long, int)}.
+	 */
+	@Test
+	public void testGetNotClosedIssuesIdPage() {
+
+		final Calendar cal = Calendar.getInstance();
+		final Timestamp before = new java.sql.Timestamp(cal.getTimeInMillis());
+
+		final Operation op = sequenceOf(
+				insertInto("mantis_project_table")
+				.columns("id", "name")
+				.values(1, "project_1")
+				.values(2, "project_2")
+				.build(),
+
+				insertInto("mantis_project_hierarchy_table")
+				.columns("parent_id", "child_id")
+				.values(1, 2)
+				.build(),
+
+				insertInto("mantis_enum_status")
+				.columns("id", "name")
+				.values(1, "Open")
+				.values(90, "Close")
+				.build(),
+
+				insertInto("mantis_bug_table")
+				.columns("id", "project_id", "summary", "last_sync", "status_id")
+				.values(1, 1, "sum", before, 1)
+				.values(2, 2, "sum", before, 1)
+				.values(3, 1, "sum", before, 90)
+				.values(4, 1, "sum", before, 1)
+				.values(5, 2, "sum", before, 1)
+				.build());
+
+		lauchOperation(op);
+
+		cal.add(Calendar.MINUTE, 5);
+
+		// The subproject isn't included, the closed issue is skipped
+		final long[] page1 = dao.getNotClosedIssuesId(cal, 1, 0, 1);
+		assertEquals(1, page1.length);
+		assertEquals(1, page1[0]);
+
+		final long[] page2 = dao.getNotClosedIssuesId(cal, 1, page1[0], 1);
+		assertEquals(1, page2.length);
+		assertEquals(4, page2[0]);
+
+		final long[] page3 = dao.getNotClosedIssuesId(cal, 1, page2[0], 1);
+		assertEquals(0, page3.length);
+
+		final long[] subProjectPage = dao.getNotClosedIssuesId(cal, 2, 0, 2);
+		assertEquals(2, subProjectPage.length);
+		assertEquals(2, subProjectPage[0]);
+		assertEquals(5, subProjectPage[1]);
+	}
+
+	/**
+	 * Test method for {@link com.github.jrrdev.mantisbtsync.core.services.JdbcIssuesService#getProjectAndSubProjectsId(long)}.
+	 */
+	@Test
+	public void testGetProjectAndSubProjectsId() {
+
+		final Operation op = sequenceOf(
+				insertInto("mantis_project_table")
+				.columns("id", "name")
+				.values(1, "project_1")
+				.values(2, "project_2")
+				.values(3, "project_3")
+				.build(),
+
+				insertInto("mantis_project_hierarchy_table")
+				.columns("parent_id", "child_id")
+				.values(1, 2)
+				.values(1, 3)
+				.build());
+
+		lauchOperation(op);
+
+		final long[] ids = dao.getProjectAndSubProjectsId(1);
+		assertEquals(3, ids.length);
+		assertEquals(1, ids[0]);
+		Arrays.sort(ids, 1, 3);
+		assertEquals(2, ids[1]);
+		assertEquals(3, ids[2]);
+
+		final long[] leaf = dao.getProjectAndSubProjectsId(2);
+		assertEquals(1, leaf.length);
+		assertEquals(2, leaf[0]);
 	}
 
 	/**
@@ -429,9 +597,150 @@ public class JdbcIssuesServiceTest extends AbstractSqlWriterTest {
 
 		cal.add(Calendar.MINUTE, 5);
 
-		final List<BigInteger> list = dao.getNotClosedIssuesId(cal, BigInteger.ONE);
+		final long[] ids = dao.getNotClosedIssuesId(cal, 1);
+		assertEquals(1, ids.length);
+		assertEquals(1, ids[0]);
+	}
+
+	/**
+	 * Test method for {@link com.github.jrrdev.mantisbtsync.core.services.JdbcIssuesService#getHistoryMark(long)}.
+	 */
+	@Test
+	public void testGetHistoryMark() {
+
+		final Calendar cal = Calendar.getInstance();
+		cal.set(Calendar.MILLISECOND, 0);
+		final Timestamp date = new java.sql.Timestamp(cal.getTimeInMillis());
+
+		final Operation op = sequenceOf(
+				insertInto("mantis_project_table")
+				.columns("id", "name")
+				.values(1, "project_1")
+				.build(),
+
+				insertInto("mantis_bug_table")
+				.columns("id", "project_id", "summary", "last_sync")
+				.values(1, 1, "sum", date)
+				.values(2, 1, "sum", date)
+				.build(),
+
+				insertInto("mantis_bug_history_mark_table")
+				.columns("bug_id", "last_updated", "max_date_modified", "history_count")
+				.values(1, date, date, 3)
+				.build());
+
+		lauchOperation(op);
+
+		final BugHistoryMark mark = dao.getHistoryMark(1);
+		assertEquals(1, mark.getBugId());
+		assertEquals(date, mark.getLastUpdated());
+		assertEquals(date, mark.getMaxDateModified());
+		assertEquals(3, mark.getHistoryCount());
+
+		assertNull(dao.getHistoryMark(2));
+	}
+
+	/**
+	 * Test method for {@link com.github.jrrdev.mantisbtsync.core.services.JdbcIssuesService#updateStateIntervals(long[])}.
+	 */
+	@Test
+	public void testUpdateStateIntervals() {
+
+		final Calendar cal = Calendar.getInstance();
+		cal.set(Calendar.MILLISECOND, 0);
+		final Timestamp date1 = new java.sql.Timestamp(cal.getTimeInMillis());
+		cal.add(Calendar.MINUTE, 3);
+		final Timestamp date2 = new java.sql.Timestamp(cal.getTimeInMillis());
+
+		final Operation op = sequenceOf(
+				insertInto("mantis_project_table")
+				.columns("id", "name")
+				.values(1, "project_1")
+				.build(),
+
+				insertInto("mantis_user_table")
+				.columns("id", "name")
+				.values(1, "user 1")
+				.build(),
+
+				insertInto("mantis_bug_table")
+				.columns("id", "project_id", "summary", "last_sync")
+				.values(1, 1, "sum", date2)
+				.build(),
+
+				insertInto("mantis_bug_history_table")
+				.columns("bug_id", "user_id", "field_name", "old_value", "new_value", "date_modified")
+				.values(1, 1, "status", 10, 50, date1)
+				.values(1, 1, "status", 50, 80, date2)
+				.values(1, 1, "handler_id", 0, 1, date1)
+				.values(1, 1, "summary", "old", "new", date2)
+				.build(),
+
+				insertInto("bug_state_intervals")
+				.columns("bug_id", "field_name", "value", "valid_from", "valid_to")
+				.values(1, "status", 20, null, date1)
+				.build());
+
+		lauchOperation(op);
+
+		dao.updateStateIntervals(new long[] {1});
+
+		final List<Map<String, Object>> intervals = getJdbcTemplate().queryForList(
+				"SELECT field_name, value, valid_from, valid_to FROM bug_state_intervals"
+				+ " WHERE bug_id = 1 ORDER BY field_name, valid_to");
+
+		assertEquals(3, intervals.size());
+		assertEquals("handler_id", intervals.get(0).get("field_name"));
+		assertEquals("0", intervals.get(0).get("value"));
+		assertNull(intervals.get(0).get("valid_from"));
+		assertEquals(date1, intervals.get(0).get("valid_to"));
+
+		assertEquals("status", intervals.get(1).get("field_name"));
+		assertEquals("10", intervals.get(1).get("value"));
+		assertNull(intervals.get(1).get("valid_from"));
+		assertEquals(date1, intervals.get(1).get("valid_to"));
+
+		assertEquals("status", intervals.get(2).get("field_name"));
+		assertEquals("50", intervals.get(2).get("value"));
+		assertEquals(date1, intervals.get(2).get("valid_from"));
+		assertEquals(date2, intervals.get(2).get("valid_to"));
+	}
+
+	/**
+	 * Test method for {@link JdbcIssuesService#saveSyncWatermark(SyncWatermark)}
+	 * and {@link JdbcIssuesService#getSyncWatermarks(String, long)}.
+	 */
+	@Test
+	public void testSyncWatermarks() {
+
+		final Calendar cal = Calendar.getInstance();
+		cal.set(Calendar.MILLISECOND, 0);
+		final Timestamp date1 = new java.sql.Timestamp(cal.getTimeInMillis());
+		cal.add(Calendar.MINUTE, 3);
+		final Timestamp date2 = new java.sql.Timestamp(cal.getTimeInMillis());
+
+		final SyncWatermark watermark = new SyncWatermark();
+		watermark.setJobName("syncIssuesJob");
+		watermark.setProjectId(1);
+		watermark.setStepName("issuesSyncStep");
+		watermark.setLastJobRun(date1);
+		dao.saveSyncWatermark(watermark);
+
+		watermark.setLastJobRun(date2);
+		watermark.setPageSize(50);
+		watermark.setMaxLastUpdated(date1);
+		dao.saveSyncWatermark(watermark);
+
+		assertTrue(dao.getSyncWatermarks("syncIssuesJob", 2).isEmpty());
+
+		final List<SyncWatermark> list = dao.getSyncWatermarks("syncIssuesJob", 1);
 		assertEquals(1, list.size());
-		assertEquals(BigInteger.ONE, list.get(0));
+		assertEquals("syncIssuesJob", list.get(0).getJobName());
+		assertEquals(1, list.get(0).getProjectId());
+		assertEquals("issuesSyncStep", list.get(0).getStepName());
+		assertEquals(date2, list.get(0).getLastJobRun());
+		assertEquals(Integer.valueOf(50), list.get(0).getPageSize());
+		assertEquals(date1, list.get(0).getMaxLastUpdated());
 	}
 
 	/**
@@ -691,6 +1000,7 @@ public class JdbcIssuesServiceTest extends AbstractSqlWriterTest {
 				.build());
 
 		lauchOperation(op);
+		dao.updateStateIntervals(new long[] {1, 2, 3, 4});
 
 		cal.add(Calendar.MINUTE, 5);
 
@@ -758,6 +1068,7 @@ public class JdbcIssuesServiceTest extends AbstractSqlWriterTest {
 				.build());
 
 		lauchOperation(op);
+		dao.updateStateIntervals(new long[] {1, 2, 3, 4});
 
 		cal.add(Calendar.MINUTE, 5);
 
@@ -774,6 +1085,82 @@ public class JdbcIssuesServiceTest extends AbstractSqlWriterTest {
 		assertEquals(Integer.valueOf(1), nbStatus3);
 	}
 
+	/**
+	 * Tests the computation over a range of dates.
+	 *
+	 * Test method for {@link JdbcIssuesService#computeHandlersStat(List)}.
+	 */
+	@Test
+	public void testComputeHandlersStatRange() {
+
+		final Calendar cal = Calendar.getInstance();
+		cal.set(Calendar.MILLISECOND, 0);
+		final Calendar cal2 = (Calendar) cal.clone();
+		cal2.add(Calendar.MINUTE, 3);
+		final Calendar cal3 = (Calendar) cal.clone();
+		cal3.add(Calendar.MINUTE, 10);
+
+		final Timestamp before = new java.sql.Timestamp(cal.getTimeInMillis());
+		final Timestamp during = new java.sql.Timestamp(cal2.getTimeInMillis());
+		final Timestamp after = new java.sql.Timestamp(cal3.getTimeInMillis());
+
+		final Operation op = sequenceOf(
+				insertInto("mantis_project_table")
+				.columns("id", "name")
+				.values(1, "project_1")
+				.build(),
+
+				insertInto("mantis_user_table")
+				.columns("id", "name")
+				.values(1, "user 1")
+				.build(),
+
+				insertInto("mantis_enum_status")
+				.columns("id", "name")
+				.values(1, "Open")
+				.values(2, "Assigned")
+				.values(90, "Closed")
+				.build(),
+
+				insertInto("mantis_bug_table")
+				.columns("id", "project_id", "summary", "last_sync", "date_submitted" , "status_id", "handler_id")
+				.values(1, 1, "sum", after, before, 90, 1)
+				.values(2, 1, "sum", before, before, 1, 1)
+				.values(3, 1, "sum", before, before, 2, 1)
+				.values(4, 1, "sum", before, before, 90, 1)
+				.build(),
+
+				insertInto("mantis_bug_history_table")
+				.columns("bug_id", "user_id", "field_name", "old_value", "new_value", "date_modified")
+				.values(1, 1, "status", 1, 2, during)
+				.values(1, 1, "status", 2, 90, after)
+				.build());
+
+		lauchOperation(op);
+
+		final Calendar date1 = (Calendar) cal.clone();
+		date1.add(Calendar.MINUTE, 1);
+		final Calendar date2 = (Calendar) cal.clone();
+		date2.add(Calendar.MINUTE, 5);
+
+		final List<Calendar> dates = new ArrayList<Calendar>();
+		dates.add(date1);
+		dates.add(date2);
+		dao.computeHandlersStat(dates);
+
+		final String sql = "SELECT nb_issues FROM handlers_stats WHERE compute_date = ? AND status_id = ?";
+		final Timestamp time1 = new java.sql.Timestamp(date1.getTimeInMillis());
+		final Timestamp time2 = new java.sql.Timestamp(date2.getTimeInMillis());
+
+		assertEquals(Integer.valueOf(2), getJdbcTemplate().queryForObject(sql, Integer.class, time1, 1));
+		assertEquals(Integer.valueOf(1), getJdbcTemplate().queryForObject(sql, Integer.class, time1, 2));
+		assertEquals(Integer.valueOf(1), getJdbcTemplate().queryForObject(sql, Integer.class, time1, 90));
+
+		assertEquals(Integer.valueOf(1), getJdbcTemplate().queryForObject(sql, Integer.class, time2, 1));
+		assertEquals(Integer.valueOf(2), getJdbcTemplate().queryForObject(sql, Integer.class, time2, 2));
+		assertEquals(Integer.valueOf(1), getJdbcTemplate().queryForObject(sql, Integer.class, time2, 90));
+	}
+
 	/**
 	 * @return the dao
 	 */